@@ -0,0 +1,80 @@
+package org.zzzyxwvut.classpeeker;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each methodist of {@code BasicLauncher}, in the order of their
+ * declaration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassDataBenchmarks
+{
+	@Param({ "0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+		"11", "12", "13", "14", "15", "16", "17", "18", "19", "20" })
+	public int section;
+
+	@Param({ "java.lang.String",
+		"java.util.HashMap",
+		"java.util.concurrent.TimeUnit" })
+	public String className;
+
+	private Class<?> klass;
+	private Function<Class<?>, Object[]> methodist;
+
+	/**
+	 * Returns the class data of {@code BasicLauncher}.
+	 *
+	 * @return the class data of {@code BasicLauncher}
+	 * @throws ReflectiveOperationException if the class data cannot be
+	 *	accessed
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<? extends ClassData> classData() throws
+					ReflectiveOperationException
+	{
+		final Field field = BasicLauncher.class
+			.getDeclaredField("CLASS_DATA");
+		field.setAccessible(true);
+		return (List<? extends ClassData>) field.get(null);
+	}
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException
+	{
+		final List<? extends ClassData> classData = classData();
+
+		if (section >= classData.size())
+			throw new IllegalStateException(String.format(
+				"No such section: %d (of %d)",
+				section, classData.size()));
+
+		klass = Class.forName(className);
+		methodist = classData.get(section).methodist();
+	}
+
+	@Benchmark
+	public Object[] methodist()
+	{
+		return methodist.apply(klass);
+	}
+}
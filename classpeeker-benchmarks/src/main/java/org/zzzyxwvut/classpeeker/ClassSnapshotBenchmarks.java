@@ -0,0 +1,63 @@
+package org.zzzyxwvut.classpeeker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures all methodists of {@code BasicLauncher} for a class, either
+ * sharing a {@link ClassSnapshot} or querying a class anew per section.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassSnapshotBenchmarks
+{
+	@Param({ "java.lang.String",
+		"java.util.HashMap",
+		"java.util.concurrent.TimeUnit" })
+	public String className;
+
+	private Class<?> klass;
+	private List<? extends ClassData> classData;
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException
+	{
+		klass = Class.forName(className);
+		classData = ClassDataBenchmarks.classData();
+	}
+
+	@Benchmark
+	public void sharedSnapshot(Blackhole blackhole)
+	{
+		final ClassSnapshot snapshot = new ClassSnapshot(klass);
+
+		for (ClassData data : classData)
+			blackhole.consume(data.snapshotMethodist()
+				.apply(snapshot));
+	}
+
+	@Benchmark
+	public void snapshotPerSection(Blackhole blackhole)
+	{
+		for (ClassData data : classData)
+			blackhole.consume(data.methodist()
+				.apply(klass));
+	}
+}
@@ -0,0 +1,52 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of {@link ClassPeeker#peek(String)} proper, i.e. class
+ * name normalisation and class resolution, without collecting any class
+ * data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassPeekerBenchmarks
+{
+	@Param({ "java.util.HashMap",
+		"java/util/HashMap.class",
+		"..java/util.HashMap",
+		"int",
+		"org.example.Missing" })
+	public String className;
+
+	private ClassPeeker classPeeker;
+
+	@Setup
+	public void setUp()
+	{
+		classPeeker = new ClassPeeker(List.of());
+	}
+
+	@Benchmark
+	public long peek()
+	{
+		return classPeeker.peek(className)
+			.count();
+	}
+}
@@ -0,0 +1,157 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures class lookup in a fat JAR file with a {@link MappedJarFile}
+ * against the default {@link URLClassLoader}.
+ * <p>
+ * The measured JAR file is the shaded {@code benchmarks.jar} file, and its
+ * classes are loaded with new class loaders whose parent is the platform
+ * class loader, so that no class is found by delegation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarLookupBenchmarks
+{
+	@Param({ "500" })
+	public int classCount;
+
+	private Path jarPath;
+	private URL[] urls;
+	private List<String> classNames;
+	private ClassSource jarSource;
+	private URLClassLoader urlLoader;
+	private URLClassLoader freshUrlLoader;
+	private ClassLoader freshMappedLoader;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() throws IOException, URISyntaxException
+	{
+		jarPath = Path.of(JarLookupBenchmarks.class
+			.getProtectionDomain()
+			.getCodeSource()
+			.getLocation()
+			.toURI());
+		urls = new URL[] { jarPath.toUri().toURL() };
+		jarSource = new ClassSource.JarSource(jarPath);
+
+		try (Stream<String> names = jarSource.classNames(
+						ClassSelector.of("**"))) {
+			classNames = names
+				.limit(classCount)
+				.collect(Collectors.toUnmodifiableList());
+		}
+
+		urlLoader = new URLClassLoader(urls,
+				ClassLoader.getPlatformClassLoader());
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation()
+	{
+		freshUrlLoader = new URLClassLoader(urls,
+				ClassLoader.getPlatformClassLoader());
+		freshMappedLoader = new ClassSourceLoader(jarSource,
+				ClassLoader.getPlatformClassLoader());
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException
+	{
+		freshUrlLoader.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() throws IOException
+	{
+		urlLoader.close();
+		jarSource.close();
+	}
+
+	private int load(ClassLoader loader)
+	{
+		int loaded = 0;
+
+		for (String className : classNames) {
+			try {
+				Objects.requireNonNull(Class.forName(className,
+							false, loader));
+				++loaded;
+			} catch (final ClassNotFoundException
+						| LinkageError ignored) {
+				/* Optional dependencies of shaded classes. */
+			}
+		}
+
+		return loaded;
+	}
+
+	@Benchmark
+	public int loadWithUrlClassLoader()
+	{
+		return load(freshUrlLoader);
+	}
+
+	@Benchmark
+	public int loadWithMappedJarFile()
+	{
+		return load(freshMappedLoader);
+	}
+
+	@Benchmark
+	public void readWithUrlClassLoader(Blackhole blackhole) throws
+								IOException
+	{
+		for (String className : classNames) {
+			try (InputStream is = urlLoader.getResourceAsStream(
+					ClassSource.fileName(className))) {
+				blackhole.consume(is.readAllBytes());
+			}
+		}
+	}
+
+	@Benchmark
+	public void readWithMappedJarFile(Blackhole blackhole)
+	{
+		for (String className : classNames)
+			blackhole.consume(jarSource.find(className)
+				.orElseThrow()
+				.bytes());
+	}
+
+	@Benchmark
+	public MappedJarFile openMappedJarFile()
+	{
+		return MappedJarFile.open(jarPath);
+	}
+}
@@ -0,0 +1,144 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassDataBenchmarks;
+import org.zzzyxwvut.classpeeker.ClassSnapshot;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+/**
+ * Measures writing all results of a class, either with
+ * {@code PrintStream#println(String)} of {@code Result#toString()}, or with
+ * a {@link ResultSink}, or in either {@link ResultFormat} with an
+ * {@link OrderedOutput}.
+ * <p>
+ * Run these benchmarks with {@code -prof gc} in order to report their
+ * allocation per class ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmarks
+{
+	@Param({ "java.lang.String",
+		"java.util.HashMap",
+		"java.lang.Character$UnicodeBlock" })
+	public String className;
+
+	private List<Result> results;
+	private PrintStream printStream;
+	private ResultSink resultSink;
+	private OrderedOutput textOutput;
+	private OrderedOutput jsonLinesOutput;
+	private Function<String, OrderedOutput.Rendition> textRenderer;
+	private Function<String, OrderedOutput.Rendition> jsonLinesRenderer;
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException
+	{
+		final ClassSnapshot snapshot = new ClassSnapshot(
+						Class.forName(className));
+		final List<? extends ClassData> classData =
+					ClassDataBenchmarks.classData();
+		results = classData.stream()
+			.map(data -> new Success(className,
+					data.description(),
+					data.snapshotMethodist()
+						.apply(snapshot)))
+			.collect(Collectors.toUnmodifiableList());
+		printStream = new PrintStream(OutputStream.nullOutputStream(),
+					false, StandardCharsets.UTF_8);
+		resultSink = new ResultSink(new NullChannel(),
+					StandardCharsets.UTF_8, true);
+		textOutput = new OrderedOutput(new ResultSink(new NullChannel(),
+						StandardCharsets.UTF_8, true),
+					ResultFormat.text(),
+					false,
+					Statistics.none());
+		textRenderer = textOutput.renderer(name -> results.stream());
+		jsonLinesOutput = new OrderedOutput(new ResultSink(
+						new NullChannel(),
+						StandardCharsets.UTF_8, true),
+					ResultFormat.jsonLines(),
+					false,
+					Statistics.none());
+		jsonLinesRenderer = jsonLinesOutput.renderer(
+						name -> results.stream());
+	}
+
+	@Benchmark
+	public void printStream()
+	{
+		for (Result result : results)
+			printStream.println(result.toString());
+	}
+
+	@Benchmark
+	public void resultSink()
+	{
+		for (Result result : results)
+			resultSink.write(result);
+	}
+
+	@Benchmark
+	public boolean orderedText()
+	{
+		final boolean complete = textOutput.drain(textRenderer
+							.apply(className));
+		textOutput.flush();
+		return complete;
+	}
+
+	@Benchmark
+	public boolean orderedJsonLines()
+	{
+		final boolean complete = jsonLinesOutput.drain(
+						jsonLinesRenderer
+							.apply(className));
+		jsonLinesOutput.flush();
+		return complete;
+	}
+
+	/** This class consumes all written bytes. */
+	private static final class NullChannel implements WritableByteChannel
+	{
+		@Override
+		public int write(ByteBuffer src)
+		{
+			final int remaining = src.remaining();
+			src.position(src.limit());
+			return remaining;
+		}
+
+		@Override
+		public boolean isOpen()		{ return true; }
+
+		@Override
+		public void close()		{ }
+	}
+}
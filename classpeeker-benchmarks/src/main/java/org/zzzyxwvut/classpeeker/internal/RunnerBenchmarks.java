@@ -0,0 +1,156 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassDataBenchmarks;
+import org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption;
+
+/**
+ * Measures an end-to-end inspection of a JDK class list with
+ * {@link Runner#inspect(List, String[])}.
+ * <p>
+ * The {@code manifest} sink writes to the same directory and manifest
+ * throughout a trial, so that every invocation but the first one skips
+ * the unchanged classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunnerBenchmarks
+{
+	@Param({ "sequential", "concurrent" })
+	public String mode;
+
+	@Param({ "stdout", "single-file", "write-to-directory", "archive",
+		"manifest" })
+	public String sink;
+
+	@Param({ "500" })
+	public int classCount;
+
+	private List<? extends ClassData> classData;
+	private PrintStream stdout;
+	private Path tmpDirPath;
+	private Path readFromPath;
+	private List<Path> outputPaths;
+	private String[] args;
+	private int invocation;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() throws IOException,
+					ReflectiveOperationException
+	{
+		classData = ClassDataBenchmarks.classData();
+		tmpDirPath = Files.createTempDirectory("classpeeker-");
+		readFromPath = Workloads.writeClassNames(
+				tmpDirPath.resolve("classlist"), classCount);
+		outputPaths = new ArrayList<>();
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() throws IOException
+	{
+		final List<String> arguments = new ArrayList<>();
+		arguments.add("-".concat(LauncherOption.READ_FROM.shortName()));
+		arguments.add(readFromPath.toString());
+
+		if ("concurrent".equals(mode))
+			arguments.add("-".concat(
+					LauncherOption.CONCURRENT.shortName()));
+
+		switch (sink) {
+		case "single-file":
+			final Path filePath = tmpDirPath.resolve(
+					String.valueOf(invocation++));
+			outputPaths.add(filePath);
+			arguments.add("-".concat(
+					LauncherOption.SINGLE.shortName()));
+			arguments.add(filePath.toString());
+			break;
+		case "archive":
+			final Path archivePath = tmpDirPath.resolve(
+					String.valueOf(invocation++));
+			outputPaths.add(archivePath);
+			arguments.add("-".concat(
+					LauncherOption.ARCHIVE.shortName()));
+			arguments.add(archivePath.toString());
+			break;
+		case "write-to-directory":
+			final Path dirPath = Files.createDirectory(
+					tmpDirPath.resolve(
+						String.valueOf(invocation++)));
+			outputPaths.add(dirPath);
+			arguments.add("-".concat(
+					LauncherOption.WRITE_TO.shortName()));
+			arguments.add(dirPath.toString());
+			break;
+		case "manifest":
+			arguments.add("-".concat(
+					LauncherOption.MANIFEST.shortName()));
+			arguments.add(tmpDirPath.resolve("manifest").toString());
+			arguments.add("-".concat(
+					LauncherOption.WRITE_TO.shortName()));
+			arguments.add(Files.createDirectories(tmpDirPath.resolve(
+							"data"))
+				.toString());
+			break;
+		default:
+			break;
+		}
+
+		args = arguments.toArray(new String[0]);
+	}
+
+	@Benchmark
+	public boolean inspect()
+	{
+		return Runner.inspect(classData, args);
+	}
+
+	/*
+	 * Delete outputs between iterations rather than between invocations,
+	 * lest the unlinking of the files of one invocation be measured with
+	 * the file creation of the next invocation.
+	 */
+	@TearDown(Level.Iteration)
+	public void tearDownIteration()
+	{
+		outputPaths.forEach(Workloads::delete);
+		outputPaths.clear();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial()
+	{
+		System.out.flush();
+		System.setOut(stdout);
+		Workloads.delete(tmpDirPath);
+	}
+}
@@ -0,0 +1,129 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption;
+
+/**
+ * Measures the time to the first output of a new virtual machine that
+ * inspects a class with the bundle JAR file, either without or with
+ * a class data sharing archive dumped with {@code --cds-train}.
+ * <p>
+ * The bundle JAR file is looked up with the {@code classpeeker.bundle.jar}
+ * system property, whose default value is the assembly of the sibling
+ * project, i.e. {@code -jvmArgs -Dclasspeeker.bundle.jar=/path/to/jar}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmarks
+{
+	@Param({ "none", "cds" })
+	public String archive;
+
+	private Path tmpDirPath;
+	private List<String> command;
+	private Process process;
+
+	private static String java()
+	{
+		return Path.of(System.getProperty("java.home"), "bin", "java")
+			.toString();
+	}
+
+	@Setup(Level.Trial)
+	public void setUpTrial() throws IOException, InterruptedException
+	{
+		final Path jarPath = Path.of(System.getProperty(
+				"classpeeker.bundle.jar",
+				"../classpeeker/target/classpeeker-0.0.1-SNAPSHOT"
+				+ "-jar-with-dependencies-no-module-info.jar"))
+			.toAbsolutePath();
+
+		if (!Files.isRegularFile(jarPath))
+			throw new IllegalStateException(String.format(
+				"Unavailable bundle JAR file: '%s'", jarPath));
+
+		tmpDirPath = Files.createTempDirectory("classpeeker-");
+		command = new ArrayList<>();
+		command.add(java());
+
+		if ("cds".equals(archive)) {
+			final Path archivePath = tmpDirPath.resolve(
+							"classpeeker.jsa");
+			final int status = new ProcessBuilder(java(), "-jar",
+					jarPath.toString(),
+					"--".concat(LauncherOption.CDS_TRAIN
+							.longName()),
+					archivePath.toString())
+				.redirectOutput(Redirect.DISCARD)
+				.redirectError(Redirect.DISCARD)
+				.start()
+				.waitFor();
+
+			if (status != 0)
+				throw new IllegalStateException(String.format(
+					"Failed training: exit status %d",
+								status));
+
+			command.add("-XX:SharedArchiveFile=".concat(
+						archivePath.toString()));
+		}
+
+		command.add("-jar");
+		command.add(jarPath.toString());
+		command.add("java.util.HashMap");
+	}
+
+	@Benchmark
+	public int firstOutput() throws IOException
+	{
+		process = new ProcessBuilder(command)
+			.redirectError(Redirect.DISCARD)
+			.start();
+		final InputStream is = process.getInputStream();
+		return is.read();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException,
+						InterruptedException
+	{
+		try (InputStream is = process.getInputStream()) {
+			is.transferTo(OutputStream.nullOutputStream());
+		}
+
+		process.waitFor();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial()
+	{
+		Workloads.delete(tmpDirPath);
+	}
+}
@@ -0,0 +1,47 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+/** Measures the cost of {@link Success#toString()}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuccessBenchmarks
+{
+	@Param({ "java.lang.Object",
+		"java.lang.String",
+		"java.util.concurrent.ConcurrentHashMap" })
+	public String className;
+
+	private Success success;
+
+	@Setup
+	public void setUp() throws ClassNotFoundException
+	{
+		success = new Success(className, "Methods:",
+			Class.forName(className).getMethods());
+	}
+
+	@Benchmark
+	public String toStringMethods()
+	{
+		return success.toString();
+	}
+}
@@ -0,0 +1,86 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** This class lends workloads to benchmarks. */
+class Workloads
+{
+	private static final Path CLASS_LIST = Path.of(
+				System.getProperty("java.home"), "lib", "classlist");
+
+	private Workloads() { /* No instantiation. */ }
+
+	/**
+	 * Returns a list of class names of the current JDK.
+	 * <p>
+	 * The names are taken from the {@code lib/classlist} file (see
+	 * {@code -XX:DumpLoadedClassList}) of the running JDK, so that
+	 * they are resolvable with the default class loader.
+	 *
+	 * @param limit the maximum number of class names to return
+	 * @return a list of class names of the current JDK
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static List<String> classNames(int limit)
+	{
+		try (Stream<String> lines = Files.lines(CLASS_LIST,
+						StandardCharsets.UTF_8)) {
+			return lines
+				.filter(Predicate.not(String::isBlank))
+				.filter(line -> !(line.startsWith("#")
+						|| line.startsWith("@")))
+				.map(line -> line.split("\\s", 2)[0])
+				.limit(limit)
+				.collect(Collectors.toUnmodifiableList());
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes a list of class names of the current JDK to a file.
+	 *
+	 * @param filePath the path of a file to write to
+	 * @param limit the maximum number of class names to write
+	 * @return the passed file path
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static Path writeClassNames(Path filePath, int limit)
+	{
+		try {
+			return Files.write(filePath, classNames(limit),
+						StandardCharsets.UTF_8);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Deletes a file or a directory with all its files.
+	 *
+	 * @param path the path of a file or a directory
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static void delete(Path path)
+	{
+		try {
+			if (Files.isDirectory(path)) {
+				try (Stream<Path> paths = Files.list(path)) {
+					paths.forEach(Workloads::delete);
+				}
+			}
+
+			Files.deleteIfExists(path);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
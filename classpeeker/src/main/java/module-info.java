@@ -6,5 +6,9 @@ module org.zzzyxwvut.classpeeker
 
 	requires commons.cli;
 
+	requires jdk.jfr;
+
+	requires jdk.management;
+
 	exports org.zzzyxwvut.classpeeker;
 }
@@ -11,83 +11,123 @@ class BasicLauncher extends ClassData
 		new BasicLauncher(String.format(
 				"################################"
 				+ "%n%n\tClass/Interface Modifiers:"),
-			klass -> new Object[] {
-				ClassSupport.classModifiers(klass)
+			snapshot -> new Object[] {
+				ClassSupport.modifiers(snapshot.klass())
+			},
+			classFile -> new Object[] {
+				ClassSupport.modifiers(classFile)
 			}),
 		new BasicLauncher("Simple Name:",
-			klass -> new Object[] {
-				klass.getSimpleName()
-			}),	/* j.l.String */
+			snapshot -> new Object[] {
+				snapshot.klass().getSimpleName()
+			},	/* j.l.String */
+			classFile -> new Object[] {
+				classFile.simpleName()
+			}),
 		new BasicLauncher("Canonical Name:",
-			klass -> new Object[] {
-				klass.getCanonicalName()
-			}),	/* j.l.String or null */
+			snapshot -> new Object[] {
+				snapshot.klass().getCanonicalName()
+			},	/* j.l.String or null */
+			classFile -> new Object[] {
+				classFile.canonicalName()
+			}),
 		new BasicLauncher("Class Loader:",
-			klass -> new Object[] {
-				klass.getClassLoader()
-			}),	/* j.l.ClassLoader or null!*/
+			snapshot -> new Object[] {
+				snapshot.klass().getClassLoader()
+			},	/* j.l.ClassLoader or null!*/
+			classFile -> new Object[] {
+				classFile.source()
+			}),
 		new BasicLauncher("Package:",
-			klass -> new Object[] {
-				Optional.ofNullable(klass.getPackage())
+			snapshot -> new Object[] {
+				Optional.ofNullable(snapshot.klass()
+						.getPackage())
 					.map(Package::getName)
 					.orElse(null)
-			}),	/* j.l.Package or null */
+			},	/* j.l.Package or null */
+			classFile -> new Object[] {
+				classFile.packageName()
+			}),
 		new BasicLauncher("Superclass:",
-			klass -> new Object[] {
-				klass.getSuperclass()
-			}),	/* j.l.Class<? super T> or null */
+			snapshot -> new Object[] {
+				snapshot.klass().getSuperclass()
+			},	/* j.l.Class<? super T> or null */
+			classFile -> new Object[] {
+				classFile.superclass()
+			}),
 		new BasicLauncher("Generic Superclass:",
-			klass -> new Object[] {
-				klass.getGenericSuperclass()
-			}),	/* j.l.reflect.Type or null!*/
+			snapshot -> new Object[] {
+				snapshot.klass().getGenericSuperclass()
+			},	/* j.l.reflect.Type or null!*/
+			classFile -> new Object[] {
+				classFile.genericSuperclass()
+			}),
 		new BasicLauncher("Declaring Class:",
-			klass -> new Object[] {
-				klass.getDeclaringClass()
-			}),	/* j.l.Class<?> or null!*/
+			snapshot -> new Object[] {
+				snapshot.klass().getDeclaringClass()
+			},	/* j.l.Class<?> or null!*/
+			classFile -> new Object[] {
+				classFile.declaringClass()
+			}),
 		new BasicLauncher("Generic Interfaces:",
-			klass -> klass.getGenericInterfaces()),
+			snapshot -> snapshot.genericInterfaces(),
 				/* j.l.reflect.Type[]!*/
+			classFile -> classFile.genericInterfaces()),
 		new BasicLauncher("Interfaces:",
-			klass -> klass.getInterfaces()),
+			snapshot -> snapshot.interfaces(),
 				/* j.l.Class[]<?> */
+			classFile -> classFile.interfaces()),
 		new BasicLauncher("Annotations:",
-			klass -> klass.getAnnotations()),
+			snapshot -> snapshot.annotations(),
 				/* j.l.annotation.Annotation[] */
+			classFile -> classFile.annotations()),
 		new BasicLauncher("Declared Annotations:",
-			klass -> klass.getDeclaredAnnotations()),
+			snapshot -> snapshot.declaredAnnotations(),
 				/* j.l.annotation.Annotation[] */
+			classFile -> classFile.declaredAnnotations()),
 		new BasicLauncher("Classes:",
-			klass -> klass.getClasses()),
+			snapshot -> snapshot.classes(),
 				/* j.l.Class<?>[]!*/
+			classFile -> classFile.classes()),
 		new BasicLauncher("Declared Classes:",
-			klass -> klass.getDeclaredClasses()),
+			snapshot -> snapshot.declaredClasses(),
 				/* j.l.Class<?>[]!*/
+			classFile -> classFile.declaredClasses()),
 		new BasicLauncher("Constructors:",
-			klass -> klass.getConstructors()),
+			snapshot -> snapshot.constructors(),
 				/* j.l.reflect.Constructor<?>[]!*/
+			classFile -> classFile.constructors()),
 		new BasicLauncher("Declared Constructors:",
-			klass -> klass.getDeclaredConstructors()),
+			snapshot -> snapshot.declaredConstructors(),
 				/* j.l.reflect.Constructor<?>[]!*/
+			classFile -> classFile.declaredConstructors()),
 		new BasicLauncher("Methods:",
-			klass -> klass.getMethods()),
+			snapshot -> snapshot.methods(),
 				/* j.l.reflect.Method[]!*/
+			classFile -> classFile.methods()),
 		new BasicLauncher("Declared Methods:",
-			klass -> klass.getDeclaredMethods()),
+			snapshot -> snapshot.declaredMethods(),
 				/* j.l.reflect.Method[]!*/
+			classFile -> classFile.declaredMethods()),
 		new BasicLauncher("Fields:",
-			klass -> klass.getFields()),
+			snapshot -> snapshot.fields(),
 				/* j.l.reflect.Field[]!*/
+			classFile -> classFile.fields()),
 		new BasicLauncher("Declared Fields:",
-			klass -> klass.getDeclaredFields()),
+			snapshot -> snapshot.declaredFields(),
 				/* j.l.reflect.Field[]!*/
+			classFile -> classFile.declaredFields()),
 		new BasicLauncher("Enum Constants:",
-			klass -> klass.getEnumConstants()));
+			snapshot -> snapshot.enumConstants(),
 				/* T[] or null */
+			classFile -> classFile.enumConstants()));
 
 	private BasicLauncher(String description,
-				Function<Class<?>, Object[]> methodist)
+				ClassSnapshot.Methodist snapshotMethodist,
+				Function<ClassFile, Object[]> fileMethodist)
 	{
-		super(description, methodist);
+		super(description, Methodists.ofSnapshot(snapshotMethodist,
+							fileMethodist));
 	}
 
 	/**
@@ -8,9 +8,14 @@ public abstract class ClassData
 {
 	private final String description;
 	private final Function<Class<?>, Object[]> methodist;
+	private final ClassSnapshot.Methodist snapshotMethodist;
+	private final Function<ClassFile, Object[]> fileMethodist;
 
 	/**
 	 * Constructs a new {@code ClassData} object.
+	 * <p>
+	 * Note that the class data so produced cannot be collected from
+	 * class files, see {@link #fileMethodist()}.
 	 *
 	 * @param description the description of the passed {@code methodist}
 	 *	functional interface
@@ -19,11 +24,66 @@ public abstract class ClassData
 	 */
 	protected ClassData(String description,
 				Function<Class<?>, Object[]> methodist)
+	{
+		this(description, methodist, unavailable(description));
+	}
+
+	/**
+	 * Constructs a new {@code ClassData} object.
+	 *
+	 * @param description the description of the passed {@code methodist}
+	 *	and {@code fileMethodist} functional interfaces
+	 * @param methodist a functional interface that takes a class and
+	 *	returns either an array of objects or {@code null}
+	 * @param fileMethodist a functional interface that takes a class
+	 *	file and returns either an array of objects or {@code null}
+	 */
+	protected ClassData(String description,
+				Function<Class<?>, Object[]> methodist,
+				Function<ClassFile, Object[]> fileMethodist)
 	{
 		this.description = Objects.requireNonNull(description,
 							"description");
 		this.methodist = Objects.requireNonNull(methodist,
 							"methodist");
+		this.fileMethodist = Objects.requireNonNull(fileMethodist,
+							"fileMethodist");
+		snapshotMethodist = snapshot -> methodist.apply(
+							snapshot.klass());
+	}
+
+	/**
+	 * Constructs a new {@code ClassData} object that produces class
+	 * data from snapshots of classes, e.g. {@code super("Methods:",
+	 * Methodists.ofSnapshot(ClassSnapshot::methods))}.
+	 *
+	 * @param description the description of the passed functional
+	 *	interfaces
+	 * @param methodists the functional interfaces that take a snapshot
+	 *	of a class and, optionally, a class file
+	 * @see Methodists#ofSnapshot(ClassSnapshot.Methodist)
+	 */
+	protected ClassData(String description, Methodists methodists)
+	{
+		this.description = Objects.requireNonNull(description,
+							"description");
+		Objects.requireNonNull(methodists, "methodists");
+		snapshotMethodist = methodists.snapshotMethodist;
+		fileMethodist = (methodists.fileMethodist == null)
+			? unavailable(description)
+			: methodists.fileMethodist;
+		methodist = klass -> snapshotMethodist.apply(
+						new ClassSnapshot(klass));
+	}
+
+	private static Function<ClassFile, Object[]> unavailable(
+							String description)
+	{
+		return classFile -> {
+			throw new UnsupportedOperationException(String.format(
+					"Unavailable class file data: '%s'",
+					description));
+		};
 	}
 
 	/**
@@ -41,4 +101,102 @@ public abstract class ClassData
 	 *	either an array of objects or {@code null}
 	 */
 	public Function<Class<?>, Object[]> methodist()	{ return methodist; }
+
+	/**
+	 * Returns the functional interface that takes a snapshot of a class
+	 * and returns either an array of objects or {@code null}.
+	 * <p>
+	 * Unless otherwise specified, the returned functional interface
+	 * applies {@link #methodist()} to the class of a snapshot.
+	 *
+	 * @return the functional interface that takes a snapshot of a class
+	 *	and returns either an array of objects or {@code null}
+	 */
+	public ClassSnapshot.Methodist snapshotMethodist()
+	{
+		return snapshotMethodist;
+	}
+
+	/**
+	 * Returns the functional interface that takes a class file and
+	 * returns either an array of objects or {@code null}.
+	 * <p>
+	 * Unless otherwise specified, the returned functional interface
+	 * throws {@code UnsupportedOperationException}.
+	 *
+	 * @return the functional interface that takes a class file and
+	 *	returns either an array of objects or {@code null}
+	 */
+	public Function<ClassFile, Object[]> fileMethodist()
+	{
+		return fileMethodist;
+	}
+
+	/**
+	 * This class holds the functional interfaces that take a snapshot of
+	 * a class and, optionally, a class file.
+	 * <p>
+	 * (Unlike an overloaded constructor that takes
+	 * a {@link ClassSnapshot.Methodist}, a holder does not make an
+	 * implicitly typed lambda expression argument of
+	 * {@link ClassData#ClassData(String, Function)} ambiguous.)
+	 *
+	 * @see ClassData#ClassData(String, Methodists)
+	 */
+	public static final class Methodists
+	{
+		private final ClassSnapshot.Methodist snapshotMethodist;
+		private final Function<ClassFile, Object[]> fileMethodist;
+
+		private Methodists(ClassSnapshot.Methodist snapshotMethodist,
+				Function<ClassFile, Object[]> fileMethodist)
+		{
+			this.snapshotMethodist = snapshotMethodist;
+			this.fileMethodist = fileMethodist;
+		}
+
+		/**
+		 * Returns a holder of a functional interface that takes
+		 * a snapshot of a class.
+		 * <p>
+		 * Note that the class data so produced cannot be collected
+		 * from class files, see {@link ClassData#fileMethodist()}.
+		 *
+		 * @param snapshotMethodist a functional interface that takes
+		 *	a snapshot of a class and returns either an array of
+		 *	objects or {@code null}
+		 * @return a holder of a functional interface
+		 */
+		public static Methodists ofSnapshot(
+				ClassSnapshot.Methodist snapshotMethodist)
+		{
+			return new Methodists(Objects.requireNonNull(
+						snapshotMethodist,
+						"snapshotMethodist"),
+				null);
+		}
+
+		/**
+		 * Returns a holder of functional interfaces that take
+		 * a snapshot of a class and a class file.
+		 *
+		 * @param snapshotMethodist a functional interface that takes
+		 *	a snapshot of a class and returns either an array of
+		 *	objects or {@code null}
+		 * @param fileMethodist a functional interface that takes
+		 *	a class file and returns either an array of objects or
+		 *	{@code null}
+		 * @return a holder of functional interfaces
+		 */
+		public static Methodists ofSnapshot(
+				ClassSnapshot.Methodist snapshotMethodist,
+				Function<ClassFile, Object[]> fileMethodist)
+		{
+			return new Methodists(Objects.requireNonNull(
+						snapshotMethodist,
+						"snapshotMethodist"),
+				Objects.requireNonNull(fileMethodist,
+						"fileMethodist"));
+		}
+	}
 }
@@ -0,0 +1,260 @@
+package org.zzzyxwvut.classpeeker;
+
+/**
+ * Instances of this interface expose the data of a class that are read
+ * from its class file rather than obtained from the class proper, so that
+ * no class is ever loaded, linked, or initialised.
+ * <p>
+ * The methods of this interface parallel the methods of {@link Class} of
+ * the same name, and the string representations of any returned objects
+ * follow the string representations of their reflective counterparts.
+ * Unless stated otherwise, whenever a method needs another class file that
+ * cannot be found, a {@link TypeNotPresentException} is thrown.
+ * <p>
+ * (See JVMS-11, $4.)
+ */
+public interface ClassFile
+{
+	/**
+	 * Returns the binary name of the class, e.g. {@code java.util.Map$Entry}.
+	 *
+	 * @return the binary name of the class
+	 */
+	String name();
+
+	/**
+	 * Returns the simple name of the class, or an empty string for
+	 * an anonymous class.
+	 *
+	 * @return the simple name of the class, or an empty string for
+	 *	an anonymous class
+	 */
+	String simpleName();
+
+	/**
+	 * Returns the canonical name of the class, or {@code null} for
+	 * a local or an anonymous class (and any class nested in either).
+	 *
+	 * @return the canonical name of the class, or {@code null}
+	 */
+	String canonicalName();
+
+	/**
+	 * Returns the package name of the class, or an empty string for
+	 * the unnamed package.
+	 *
+	 * @return the package name of the class
+	 */
+	String packageName();
+
+	/**
+	 * Returns a description of the location that the class file was
+	 * read from, e.g. {@code jrt:/java.base}.
+	 *
+	 * @return a description of the location that the class file was
+	 *	read from
+	 */
+	String source();
+
+	/**
+	 * Returns the modifiers of the class, see {@link Class#getModifiers()}.
+	 *
+	 * @return the modifiers of the class
+	 */
+	int modifiers();
+
+	/**
+	 * Returns whether the class is an interface.
+	 *
+	 * @return whether the class is an interface
+	 */
+	boolean isInterface();
+
+	/**
+	 * Returns whether the class is an annotation interface.
+	 *
+	 * @return whether the class is an annotation interface
+	 */
+	boolean isAnnotation();
+
+	/**
+	 * Returns whether the class is an enum class.
+	 *
+	 * @return whether the class is an enum class
+	 */
+	boolean isEnum();
+
+	/**
+	 * Returns whether the class is synthetic.
+	 *
+	 * @return whether the class is synthetic
+	 */
+	boolean isSynthetic();
+
+	/**
+	 * Returns the superclass, or {@code null} for an interface or
+	 * {@code java.lang.Object}.
+	 *
+	 * @return the superclass, or {@code null}
+	 */
+	ClassFile superclass();
+
+	/**
+	 * Returns a string representation of the generic superclass, or
+	 * {@code null} for an interface or {@code java.lang.Object}.
+	 *
+	 * @return a string representation of the generic superclass, or
+	 *	{@code null}
+	 */
+	String genericSuperclass();
+
+	/**
+	 * Returns the declaring class of a member class, or {@code null}.
+	 *
+	 * @return the declaring class of a member class, or {@code null}
+	 */
+	ClassFile declaringClass();
+
+	/**
+	 * Returns string representations of the generic direct
+	 * superinterfaces.
+	 *
+	 * @return string representations of the generic direct
+	 *	superinterfaces
+	 */
+	String[] genericInterfaces();
+
+	/**
+	 * Returns the direct superinterfaces.
+	 *
+	 * @return the direct superinterfaces
+	 */
+	ClassFile[] interfaces();
+
+	/**
+	 * Returns string representations of the runtime-visible annotations,
+	 * with any inherited ones.
+	 *
+	 * @return string representations of the runtime-visible annotations
+	 */
+	String[] annotations();
+
+	/**
+	 * Returns string representations of the runtime-visible annotations
+	 * that are directly present.
+	 *
+	 * @return string representations of the runtime-visible annotations
+	 *	that are directly present
+	 */
+	String[] declaredAnnotations();
+
+	/**
+	 * Returns the public member classes, with any inherited ones.
+	 *
+	 * @return the public member classes
+	 */
+	ClassFile[] classes();
+
+	/**
+	 * Returns all declared member classes.
+	 *
+	 * @return all declared member classes
+	 */
+	ClassFile[] declaredClasses();
+
+	/**
+	 * Returns the public constructors.
+	 *
+	 * @return the public constructors
+	 */
+	Member[] constructors();
+
+	/**
+	 * Returns all declared constructors.
+	 *
+	 * @return all declared constructors
+	 */
+	Member[] declaredConstructors();
+
+	/**
+	 * Returns the public methods, with any inherited ones.
+	 *
+	 * @return the public methods
+	 */
+	Member[] methods();
+
+	/**
+	 * Returns all declared methods.
+	 *
+	 * @return all declared methods
+	 */
+	Member[] declaredMethods();
+
+	/**
+	 * Returns the public fields, with any inherited ones.
+	 *
+	 * @return the public fields
+	 */
+	Member[] fields();
+
+	/**
+	 * Returns all declared fields.
+	 *
+	 * @return all declared fields
+	 */
+	Member[] declaredFields();
+
+	/**
+	 * Returns the names of enum constants, or {@code null} if the class
+	 * is not an enum class.
+	 *
+	 * @return the names of enum constants, or {@code null}
+	 */
+	String[] enumConstants();
+
+	/**
+	 * Instances of this interface expose the data of a field, a method,
+	 * or a constructor that are read from a class file.
+	 */
+	interface Member
+	{
+		/**
+		 * Returns the binary name of the declaring class.
+		 *
+		 * @return the binary name of the declaring class
+		 */
+		String declaringClassName();
+
+		/**
+		 * Returns the name of the member, e.g. {@code <init>} for
+		 * a constructor.
+		 *
+		 * @return the name of the member
+		 */
+		String name();
+
+		/**
+		 * Returns the descriptor of the member (JVMS-11, $4.3).
+		 *
+		 * @return the descriptor of the member
+		 */
+		String descriptor();
+
+		/**
+		 * Returns the generic signature of the member (JVMS-11,
+		 * $4.7.9.1), or {@code null}.
+		 *
+		 * @return the generic signature of the member, or
+		 *	{@code null}
+		 */
+		String signature();
+
+		/**
+		 * Returns the modifiers of the member, see
+		 * {@link java.lang.reflect.Member#getModifiers()}.
+		 *
+		 * @return the modifiers of the member
+		 */
+		int modifiers();
+	}
+}
@@ -0,0 +1,379 @@
+package org.zzzyxwvut.classpeeker;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Instances of this class memoize the results of reflective queries of
+ * a class, so that every query is run at most once no matter how many
+ * class data elements ask for it.
+ * <p>
+ * Whenever possible, the public members and member classes of a class are
+ * derived from its declared ones rather than queried anew. The returned
+ * arrays are shared among all callers and must not be modified.
+ * <p>
+ * A snapshot may be obtained that never initializes any class, see
+ * {@link #ClassSnapshot(Class, boolean)}.
+ * <p>
+ * Note that instances of this class are not safe for concurrent use.
+ *
+ * @see ClassData#snapshotMethodist()
+ */
+public final class ClassSnapshot
+{
+	private final Class<?> klass;
+	private final boolean initializing;
+
+	private Annotation[] annotations;
+	private Annotation[] declaredAnnotations;
+	private Class<?>[] classes;
+	private Class<?>[] declaredClasses;
+	private Class<?>[] interfaces;
+	private Type[] genericInterfaces;
+	private Constructor<?>[] constructors;
+	private Constructor<?>[] declaredConstructors;
+	private Method[] methods;
+	private Method[] declaredMethods;
+	private Field[] fields;
+	private Field[] declaredFields;
+	private Object[] enumConstants;
+
+	/**
+	 * Constructs a new {@code ClassSnapshot} object.
+	 *
+	 * @param klass an instance of a class
+	 */
+	public ClassSnapshot(Class<?> klass)
+	{
+		this(klass, true);
+	}
+
+	/**
+	 * Constructs a new {@code ClassSnapshot} object.
+	 * <p>
+	 * A snapshot that does not initialize classes derives the enum
+	 * constants of an enum class from its enum fields and throws
+	 * {@link InitializationException} for queries that may initialize
+	 * classes, such as parsing annotations with enum elements. (Note that
+	 * a methodist can still initialize classes with {@link #klass()}.)
+	 *
+	 * @param klass an instance of a class
+	 * @param initializing whether queries may initialize classes
+	 */
+	public ClassSnapshot(Class<?> klass, boolean initializing)
+	{
+		this.klass = Objects.requireNonNull(klass, "klass");
+		this.initializing = initializing;
+	}
+
+	/**
+	 * Returns the class of this snapshot.
+	 *
+	 * @return the class of this snapshot
+	 */
+	public Class<?> klass()				{ return klass; }
+
+	/**
+	 * Returns whether queries of this snapshot may initialize classes.
+	 *
+	 * @return whether queries of this snapshot may initialize classes
+	 */
+	public boolean isInitializing()			{ return initializing; }
+
+	private void requireInitializing(String query)
+	{
+		/* Neither arrays nor primitive types have annotations. */
+		if (!initializing && !klass.isArray() && !klass.isPrimitive())
+			throw new InitializationException(String.format(
+					"Initializing query of '%s': %s",
+					klass.getName(),
+					query));
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getAnnotations()}.
+	 *
+	 * @return the memoized result of {@link Class#getAnnotations()}
+	 * @throws InitializationException if this snapshot does not
+	 *	initialize classes
+	 */
+	public Annotation[] annotations()
+	{
+		if (annotations == null) {
+			requireInitializing("annotations");
+			annotations = klass.getAnnotations();
+		}
+
+		return annotations;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getDeclaredAnnotations()}.
+	 *
+	 * @return the memoized result of {@link Class#getDeclaredAnnotations()}
+	 * @throws InitializationException if this snapshot does not
+	 *	initialize classes
+	 */
+	public Annotation[] declaredAnnotations()
+	{
+		if (declaredAnnotations == null) {
+			requireInitializing("declaredAnnotations");
+			declaredAnnotations = klass.getDeclaredAnnotations();
+		}
+
+		return declaredAnnotations;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getClasses()}, derived
+	 * from {@link #declaredClasses()} and the public member classes of
+	 * the superclasses.
+	 *
+	 * @return the memoized result of {@link Class#getClasses()}
+	 */
+	public Class<?>[] classes()
+	{
+		if (classes == null) {
+			final List<Class<?>> publicClasses = new ArrayList<>();
+
+			for (Class<?> memberClass : declaredClasses()) {
+				if (Modifier.isPublic(memberClass.getModifiers()))
+					publicClasses.add(memberClass);
+			}
+
+			final Class<?> superclass = klass.getSuperclass();
+
+			if (superclass != null)
+				Collections.addAll(publicClasses,
+						superclass.getClasses());
+
+			classes = publicClasses.toArray(new Class<?>[0]);
+		}
+
+		return classes;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getDeclaredClasses()}.
+	 *
+	 * @return the memoized result of {@link Class#getDeclaredClasses()}
+	 */
+	public Class<?>[] declaredClasses()
+	{
+		if (declaredClasses == null)
+			declaredClasses = klass.getDeclaredClasses();
+
+		return declaredClasses;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getInterfaces()}.
+	 *
+	 * @return the memoized result of {@link Class#getInterfaces()}
+	 */
+	public Class<?>[] interfaces()
+	{
+		if (interfaces == null)
+			interfaces = klass.getInterfaces();
+
+		return interfaces;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getGenericInterfaces()}.
+	 *
+	 * @return the memoized result of {@link Class#getGenericInterfaces()}
+	 */
+	public Type[] genericInterfaces()
+	{
+		if (genericInterfaces == null)
+			genericInterfaces = klass.getGenericInterfaces();
+
+		return genericInterfaces;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getConstructors()},
+	 * derived from {@link #declaredConstructors()}.
+	 *
+	 * @return the memoized result of {@link Class#getConstructors()}
+	 */
+	public Constructor<?>[] constructors()
+	{
+		if (constructors == null)
+			constructors = Arrays.stream(declaredConstructors())
+				.filter(constructor -> Modifier.isPublic(
+						constructor.getModifiers()))
+				.toArray(Constructor<?>[]::new);
+
+		return constructors;
+	}
+
+	/**
+	 * Returns the memoized result of
+	 * {@link Class#getDeclaredConstructors()}.
+	 *
+	 * @return the memoized result of
+	 *	{@link Class#getDeclaredConstructors()}
+	 */
+	public Constructor<?>[] declaredConstructors()
+	{
+		if (declaredConstructors == null)
+			declaredConstructors = klass.getDeclaredConstructors();
+
+		return declaredConstructors;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getMethods()}.
+	 * <p>
+	 * Since the public methods of a class are subject to overriding and
+	 * to the selection of default methods, they are not derived from
+	 * {@link #declaredMethods()}.
+	 *
+	 * @return the memoized result of {@link Class#getMethods()}
+	 */
+	public Method[] methods()
+	{
+		if (methods == null)
+			methods = klass.getMethods();
+
+		return methods;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getDeclaredMethods()}.
+	 *
+	 * @return the memoized result of {@link Class#getDeclaredMethods()}
+	 */
+	public Method[] declaredMethods()
+	{
+		if (declaredMethods == null)
+			declaredMethods = klass.getDeclaredMethods();
+
+		return declaredMethods;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getFields()}, derived
+	 * from {@link #declaredFields()} and the public fields of the direct
+	 * superinterfaces and the superclass, in this order.
+	 *
+	 * @return the memoized result of {@link Class#getFields()}
+	 */
+	public Field[] fields()
+	{
+		if (fields == null) {
+			final Set<Field> publicFields = new LinkedHashSet<>();
+
+			for (Field field : declaredFields()) {
+				if (Modifier.isPublic(field.getModifiers()))
+					publicFields.add(field);
+			}
+
+			for (Class<?> superinterface : interfaces())
+				Collections.addAll(publicFields,
+						superinterface.getFields());
+
+			final Class<?> superclass = klass.getSuperclass();
+
+			if (superclass != null)
+				Collections.addAll(publicFields,
+						superclass.getFields());
+
+			fields = publicFields.toArray(new Field[0]);
+		}
+
+		return fields;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getDeclaredFields()}.
+	 *
+	 * @return the memoized result of {@link Class#getDeclaredFields()}
+	 */
+	public Field[] declaredFields()
+	{
+		if (declaredFields == null)
+			declaredFields = klass.getDeclaredFields();
+
+		return declaredFields;
+	}
+
+	/**
+	 * Returns the memoized result of {@link Class#getEnumConstants()}, or,
+	 * for a snapshot that does not initialize classes, the names of
+	 * the enum fields of an enum class, so that no enum constant is
+	 * created.
+	 *
+	 * @return the memoized result of {@link Class#getEnumConstants()},
+	 *	or the names of enum fields, or {@code null} if the class is
+	 *	not an enum class
+	 */
+	public Object[] enumConstants()
+	{
+		if (!klass.isEnum())
+			return null;
+
+		if (enumConstants == null)
+			enumConstants = (initializing)
+				? klass.getEnumConstants()
+				: Arrays.stream(declaredFields())
+					.filter(Field::isEnumConstant)
+					.map(Field::getName)
+					.toArray(String[]::new);
+
+		return enumConstants;
+	}
+
+	/**
+	 * Thrown by a snapshot that does not initialize classes for a query
+	 * that may initialize classes.
+	 *
+	 * @see ClassSnapshot#ClassSnapshot(Class, boolean)
+	 */
+	public static final class InitializationException
+					extends UnsupportedOperationException
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructs a new {@code InitializationException} object.
+		 *
+		 * @param message the detail message
+		 */
+		public InitializationException(String message)
+		{
+			super(message);
+		}
+	}
+
+	/**
+	 * This interface describes the methodist functional interface that
+	 * takes a class snapshot.
+	 *
+	 * @see ClassData.Methodists#ofSnapshot(ClassSnapshot.Methodist)
+	 */
+	@FunctionalInterface
+	public interface Methodist
+	{
+		/**
+		 * Returns either an array of objects or {@code null}.
+		 *
+		 * @param snapshot a snapshot of a class
+		 * @return either an array of objects or {@code null}
+		 */
+		Object[] apply(ClassSnapshot snapshot);
+	}
+}
@@ -38,7 +38,64 @@ public class ClassSupport
 	public static String classModifiers(Class<?> klass)
 	{
 		Objects.requireNonNull(klass, "klass");
-		final int mm = klass.getModifiers();
+		return classModifiers(klass.getModifiers(),
+						klass.isSynthetic(),
+						klass.isAnnotation(),
+						klass.isEnum());
+	}
+
+	/**
+	 * Returns a string representation of all class modifiers found.
+	 *
+	 * @param classFile an instance of a class file
+	 * @return a string representation of all class modifiers found
+	 */
+	public static String classModifiers(ClassFile classFile)
+	{
+		Objects.requireNonNull(classFile, "classFile");
+		return classModifiers(classFile.modifiers(),
+						classFile.isSynthetic(),
+						classFile.isAnnotation(),
+						classFile.isEnum());
+	}
+
+	/**
+	 * Returns the class modifiers of a class with their string
+	 * representation.
+	 *
+	 * @param klass an instance of a class
+	 * @return the class modifiers of a class
+	 * @see #classModifiers(Class)
+	 */
+	public static Modifiers modifiers(Class<?> klass)
+	{
+		Objects.requireNonNull(klass, "klass");
+		return new Modifiers(klass.getModifiers(),
+						klass.isSynthetic(),
+						klass.isAnnotation(),
+						klass.isEnum());
+	}
+
+	/**
+	 * Returns the class modifiers of a class file with their string
+	 * representation.
+	 *
+	 * @param classFile an instance of a class file
+	 * @return the class modifiers of a class file
+	 * @see #classModifiers(ClassFile)
+	 */
+	public static Modifiers modifiers(ClassFile classFile)
+	{
+		Objects.requireNonNull(classFile, "classFile");
+		return new Modifiers(classFile.modifiers(),
+						classFile.isSynthetic(),
+						classFile.isAnnotation(),
+						classFile.isEnum());
+	}
+
+	private static String classModifiers(int mm, boolean isSynthetic,
+				boolean isAnnotation, boolean isEnum)
+	{
 		return new StringBuilder(64)
 			.append(((mm & Modifier.PUBLIC) != 0)
 				? "public, "
@@ -61,18 +118,62 @@ public class ClassSupport
 			.append(((mm & Modifier.STRICT) != 0)
 				? "strictfp, "
 				: "")
-			.append((klass.isSynthetic())
+			.append((isSynthetic)
 				? "synthetic, "
 				: "")
-			.append((klass.isAnnotation())
+			.append((isAnnotation)
 				? "@interface"
 				: ((mm & Modifier.INTERFACE) != 0)
 					? "interface"
-					: (klass.isEnum())
+					: (isEnum)
 						? "enum"
 ////						: (klass.isRecord())
 ////							? "record"
 							: "class")
 			.toString();
 	}	/* See JLS-11, $[89].1.1 */
+
+	/**
+	 * This class holds class modifiers as access flags (JVMS-11, $4.1)
+	 * and as a string representation, see {@link #toString()}.
+	 */
+	public static final class Modifiers
+	{
+		private static final int ACC_SYNTHETIC = 0x1000;
+		private static final int ACC_ANNOTATION = 0x2000;
+		private static final int ACC_ENUM = 0x4000;
+
+		private final int flags;
+		private final String text;
+
+		private Modifiers(int mm, boolean isSynthetic,
+				boolean isAnnotation, boolean isEnum)
+		{
+			flags = mm
+				| ((isSynthetic) ? ACC_SYNTHETIC : 0)
+				| ((isAnnotation) ? ACC_ANNOTATION : 0)
+				| ((isEnum) ? ACC_ENUM : 0);
+			text = classModifiers(mm, isSynthetic, isAnnotation,
+								isEnum);
+		}
+
+		/**
+		 * Returns the modifiers of a class, see
+		 * {@link Class#getModifiers()}, with the access flags of
+		 * synthetic, annotation, and enum classes.
+		 *
+		 * @return the access flags of a class
+		 */
+		public int flags()		{ return flags; }
+
+		/**
+		 * Returns a string representation of all class modifiers
+		 * found, e.g. {@code public, abstract, interface}.
+		 *
+		 * @return a string representation of all class modifiers
+		 *	found
+		 */
+		@Override
+		public String toString()	{ return text; }
+	}
 }
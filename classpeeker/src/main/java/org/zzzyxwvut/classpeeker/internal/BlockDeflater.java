@@ -0,0 +1,221 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * This class serves for deflating independent blocks of data with a fixed
+ * number of threads, in the manner of pigz, so that a single stream may be
+ * compressed with all processors.
+ * <p>
+ * Every block is deflated into raw DEFLATE data, without a zlib header,
+ * that ends at a byte boundary: either with the empty stored block of
+ * a sync flush, so that the deflated blocks of a stream may be
+ * concatenated in their order, or with the final block of a stream.
+ * A block may be primed with the last {@value #DICTIONARY_SIZE} bytes of
+ * the preceding block of its stream, so that matches may reach back across
+ * blocks and little compression is lost to splitting.
+ *
+ * @see GzipChannel
+ */
+final class BlockDeflater implements AutoCloseable
+{
+	/** The greatest useful size of a preset dictionary. */
+	static final int DICTIONARY_SIZE = 1 << 15;
+
+	private static final AtomicInteger DEFLATERS = new AtomicInteger();
+
+	private final int threads;
+	private final int level;
+	private final ExecutorService executor;
+	private final Queue<Deflater> deflaters;
+
+	/**
+	 * Constructs a new {@code BlockDeflater} object.
+	 *
+	 * @param threads the number of deflating threads
+	 * @param level a compression level, see {@link Deflater}
+	 * @throws IllegalArgumentException if {@code threads} is not
+	 *	positive or {@code level} is not a compression level
+	 */
+	BlockDeflater(int threads, int level)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive number of threads: %d",
+								threads));
+
+		if (level != Deflater.DEFAULT_COMPRESSION
+				&& (level < Deflater.NO_COMPRESSION
+					|| level > Deflater.BEST_COMPRESSION))
+			throw new IllegalArgumentException(String.format(
+				"Not a compression level: %d", level));
+
+		this.threads = threads;
+		this.level = level;
+		final String prefix = String.format(
+					"classpeeker-%d-deflater-",
+					DEFLATERS.incrementAndGet());
+		final AtomicInteger workers = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable,
+					prefix.concat(Integer.toString(
+						workers.incrementAndGet())));
+			thread.setDaemon(true);
+			return thread;
+		});
+		deflaters = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Returns the number of deflating threads.
+	 *
+	 * @return the number of deflating threads
+	 */
+	int threads()					{ return threads; }
+
+	/**
+	 * Deflates a block of data on some thread of this deflater.
+	 * <p>
+	 * The passed buffers should not be modified until the block is
+	 * deflated.
+	 *
+	 * @param block the data of a block
+	 * @param dictionary a preset dictionary, e.g. the tail of
+	 *	the preceding block of a stream, or {@code null}
+	 * @param last whether the block is the last block of a stream
+	 * @return a future of a flipped buffer of the deflated data
+	 * @throws java.util.concurrent.RejectedExecutionException if this
+	 *	deflater is closed
+	 */
+	Future<ByteBuffer> deflate(ByteBuffer block, ByteBuffer dictionary,
+								boolean last)
+	{
+		Objects.requireNonNull(block, "block");
+		return executor.submit(() -> deflated(block, dictionary,
+								last));
+	}
+
+	/**
+	 * Deflates a block of data on this thread, e.g. the last block of
+	 * a stream that is about to be closed.
+	 *
+	 * @param block the data of a block
+	 * @param dictionary a preset dictionary, e.g. the tail of
+	 *	the preceding block of a stream, or {@code null}
+	 * @param last whether the block is the last block of a stream
+	 * @return a flipped buffer of the deflated data
+	 */
+	ByteBuffer deflated(ByteBuffer block, ByteBuffer dictionary,
+								boolean last)
+	{
+		Objects.requireNonNull(block, "block");
+		final Deflater pooled = deflaters.poll();
+		final Deflater deflater = (pooled == null)
+			? new Deflater(level, true)
+			: pooled;
+
+		try {
+			if (dictionary != null && dictionary.hasRemaining())
+				deflater.setDictionary(dictionary.duplicate());
+
+			deflater.setInput(block.duplicate());
+			ByteBuffer output = ByteBuffer.allocate(
+					block.remaining()
+						+ (block.remaining() >>> 8)
+						+ 64);
+
+			if (last) {
+				deflater.finish();
+
+				while (!deflater.finished()) {
+					deflater.deflate(output);
+					output = reserve(output);
+				}
+			} else {
+				/* See Deflater#deflate(ByteBuffer, int). */
+				for (;;) {
+					deflater.deflate(output,
+						Deflater.SYNC_FLUSH);
+
+					if (output.hasRemaining())
+						break;
+
+					output = reserve(output);
+				}
+			}
+
+			return output.flip();
+		} finally {
+			deflater.reset();
+			deflaters.add(deflater);
+		}
+	}
+
+	private static ByteBuffer reserve(ByteBuffer buffer)
+	{
+		return (buffer.hasRemaining())
+			? buffer
+			: ByteBuffer.allocate(buffer.capacity() * 2)
+				.put(buffer.flip());
+	}
+
+	/**
+	 * Waits for a block to be deflated and returns its deflated data.
+	 *
+	 * @param future a future of a block
+	 * @return a flipped buffer of the deflated data of a block
+	 * @throws UncheckedIOException if a deflating thread is interrupted
+	 *	or fails
+	 */
+	static ByteBuffer await(Future<ByteBuffer> future)
+	{
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+
+			if (cause instanceof Error)
+				throw (Error) cause;
+
+			throw new UncheckedIOException(new IOException(cause));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedIOException(new IOException(e));
+		}
+	}
+
+	/**
+	 * Stops the threads of this deflater after all submitted blocks are
+	 * deflated, and releases the resources of pooled deflaters.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdown();
+
+		try {
+			while (!executor.awaitTermination(1L,
+							TimeUnit.SECONDS));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		for (Deflater deflater; (deflater = deflaters.poll()) != null;)
+			deflater.end();
+	}
+}
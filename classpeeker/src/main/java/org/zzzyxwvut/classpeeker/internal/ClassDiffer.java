@@ -0,0 +1,211 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+/**
+ * This class serves for comparing the class data of classes of two
+ * sources.
+ * <p>
+ * A class is inspected with both peekers, and the results of each
+ * peeker are grouped in sections, one section per class data element,
+ * and another section for all errors. Every section is reduced to
+ * a 64-bit hash of its elements, the sum of the hashes of every element,
+ * so that, just as with their comparison, the order of elements does not
+ * matter and unchanged sections are told apart with a comparison of their
+ * hashes; only the sections whose hashes differ are compared element by
+ * element.
+ * <p>
+ * The results of comparison of a changed class are a result with
+ * the name of the class followed by a result per changed section whose
+ * elements are removed elements, prefixed with {@code -}, and added
+ * elements, prefixed with {@code +}. No results are produced for
+ * an unchanged class.
+ * <p>
+ * Note that every section that a peeker produces is compared, so that
+ * the sections that tell the two sources apart rather than their classes,
+ * e.g. the {@code Class Loader:} section, should not be selected for
+ * peekers.
+ */
+final class ClassDiffer
+{
+	private static final String CHANGED = "Changed Class:";
+	private static final String ERRORS = "Errors:";
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final ClassPeeker oldPeeker;
+	private final ClassPeeker newPeeker;
+
+	/**
+	 * Constructs a new {@code ClassDiffer} object.
+	 *
+	 * @param oldPeeker a peeker of old classes
+	 * @param newPeeker a peeker of new classes
+	 */
+	ClassDiffer(ClassPeeker oldPeeker, ClassPeeker newPeeker)
+	{
+		this.oldPeeker = Objects.requireNonNull(oldPeeker, "oldPeeker");
+		this.newPeeker = Objects.requireNonNull(newPeeker, "newPeeker");
+	}
+
+	/* See the FNV-1a hash function. */
+	private static long hash(CharSequence chars)
+	{
+		long hash = FNV_OFFSET_BASIS;
+
+		for (int i = 0, length = chars.length(); i < length; ++i) {
+			final char c = chars.charAt(i);
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+	private static Map<String, Section> sections(Stream<Result> results)
+	{
+		final Map<String, Section> sections = new LinkedHashMap<>();
+
+		try (results) {
+			results.forEach(result -> {
+				final String description =
+						(result instanceof Success)
+					? ((Success) result).description()
+					: ERRORS;
+
+				sections.computeIfAbsent(description,
+						key -> new Section())
+					.add(result);
+			});
+		}
+
+		return sections;
+	}
+
+	/**
+	 * Compares the class data of a class.
+	 *
+	 * @param className a class name, see {@link ClassPeeker#peek(String)}
+	 * @return a stream with the none result, if the passed class name
+	 *	is {@code null}, else a stream of results of comparison that
+	 *	is empty for an unchanged class
+	 */
+	Stream<Result> peek(String className)
+	{
+		if (className == null)
+			return Stream.of(None.instance());
+
+		final Map<String, Section> oldSections = sections(oldPeeker
+							.peek(className));
+		final Map<String, Section> newSections = sections(newPeeker
+							.peek(className));
+		final Set<String> descriptions = new LinkedHashSet<>(
+						oldSections.keySet());
+		descriptions.addAll(newSections.keySet());
+		final Section empty = new Section();
+		final List<Result> changes = new ArrayList<>();
+		final String binaryName = (className.isBlank())
+			? className
+			: ClassPeeker.binaryName(className);
+
+		for (String description : descriptions) {
+			final Section oldSection = oldSections.getOrDefault(
+							description, empty);
+			final Section newSection = newSections.getOrDefault(
+							description, empty);
+
+			if (oldSection.hash == newSection.hash)
+				continue;
+
+			if (changes.isEmpty())
+				changes.add(new Success(binaryName, CHANGED,
+						new Object[] { binaryName }));
+
+			changes.add(new Success(binaryName, description,
+						oldSection.compare(
+							newSection)));
+		}
+
+		return changes.stream();
+	}
+
+	/** This class holds the elements of a class data element. */
+	private static final class Section
+	{
+		final List<String> elements;
+		long hash;
+
+		Section()
+		{
+			elements = new ArrayList<>(1);
+			hash = 0L;
+		}
+
+		private void add(String element)
+		{
+			elements.add(element);
+
+			/* Let the sum of hashes be independent of order. */
+			hash += hash(element);
+		}
+
+		void add(Result result)
+		{
+			if (result instanceof Failure) {
+				add(result.toString());
+				return;
+			}
+
+			final Object[] classData = ((Success) result)
+							.classData();
+
+			if (classData == null)
+				return;
+
+			for (Object element : classData) {
+				if (element != null)
+					add(String.valueOf(element));
+			}
+		}
+
+		/*
+		 * Tell apart the removed and the added elements of a section,
+		 * counting every repeated element.
+		 */
+		Object[] compare(Section newSection)
+		{
+			final List<String> changes = new ArrayList<>();
+			subtract(changes, "-", elements, newSection.elements);
+			subtract(changes, "+", newSection.elements, elements);
+			return changes.toArray();
+		}
+
+		private static void subtract(List<String> changes,
+					String prefix, List<String> minuend,
+					List<String> subtrahend)
+		{
+			final Map<String, Integer> counts = new HashMap<>();
+
+			for (String element : subtrahend)
+				counts.merge(element, 1, Integer::sum);
+
+			for (String element : minuend) {
+				if (counts.merge(element, -1, Integer::sum) < 0)
+					changes.add(prefix.concat(element));
+			}
+		}
+	}
+}
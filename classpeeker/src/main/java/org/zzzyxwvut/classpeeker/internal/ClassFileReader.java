@@ -0,0 +1,1124 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.zzzyxwvut.classpeeker.ClassFile;
+
+/**
+ * This class serves for reading class files (JVMS-11, $4) of a class source
+ * without loading any classes.
+ */
+class ClassFileReader
+{
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final int ACC_SUPER = 0x0020;
+	private static final int ACC_SYNTHETIC = 0x1000;
+	private static final int ACC_ANNOTATION = 0x2000;
+	private static final int ACC_ENUM = 0x4000;
+
+	/* See JVM_RECOGNIZED_{FIELD,METHOD}_MODIFIERS of HotSpot. */
+	private static final int FIELD_MODIFIERS = 0x50DF;
+	private static final int METHOD_MODIFIERS = 0x1DFF;
+	private static final int CLASS_MODIFIERS = 0x7FFF & ~ACC_SUPER;
+
+	private static final int CACHE_CAPACITY = 1024;
+
+	private final ClassSource classSource;
+	private final Map<String, ClassFile> cache;
+
+	/**
+	 * Constructs a new {@code ClassFileReader} object.
+	 *
+	 * @param classSource a source of class files
+	 */
+	ClassFileReader(ClassSource classSource)
+	{
+		this.classSource = Objects.requireNonNull(classSource,
+							"classSource");
+		cache = Collections.synchronizedMap(new LinkedHashMap<>(
+					CACHE_CAPACITY, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, ClassFile> eldest)
+			{
+				return size() > CACHE_CAPACITY;
+			}
+		});
+	}
+
+	/**
+	 * Reads a class file.
+	 *
+	 * @param className a binary class name
+	 * @return an optional with the read class file, otherwise an empty
+	 *	optional
+	 * @throws IllegalArgumentException if the class file is malformed
+	 * @throws java.io.UncheckedIOException if an I/O error occurs
+	 */
+	Optional<ClassFile> read(String className)
+	{
+		Objects.requireNonNull(className, "className");
+		return classSource.find(className)
+			.map(entry -> new Parsed(this, entry.location(),
+							entry.bytes()));
+	}
+
+	/**
+	 * Reads a class file of a related class, e.g. a superclass, and
+	 * caches it.
+	 *
+	 * @param className a binary class name
+	 * @return the read class file
+	 * @throws TypeNotPresentException if no class file can be found
+	 */
+	ClassFile resolve(String className)
+	{
+		final ClassFile classFile = cache.get(className);
+
+		if (classFile != null)
+			return classFile;
+
+		final ClassFile newClassFile = read(className)
+			.orElseThrow(() -> new TypeNotPresentException(
+							className, null));
+		cache.put(className, newClassFile);
+		return newClassFile;
+	}
+
+	/**
+	 * Reads a class file of a related class, e.g. an annotation
+	 * interface, and caches it.
+	 *
+	 * @param className a binary class name
+	 * @return an optional with the read class file, otherwise an empty
+	 *	optional
+	 */
+	Optional<ClassFile> lookup(String className)
+	{
+		try {
+			return Optional.of(resolve(className));
+		} catch (final TypeNotPresentException e) {
+			return Optional.empty();
+		}
+	}
+
+	/** This class serves for reading the constant pool of a class file. */
+	private static final class ConstantPool
+	{
+		private final ByteBuffer buffer;
+		private final int[] offsets;
+		private final String[] strings;
+		private final int end;
+
+		ConstantPool(ByteBuffer buffer, int start)
+		{
+			this.buffer = buffer;
+			final int count = buffer.getShort(start) & 0xFFFF;
+			offsets = new int[count];
+			strings = new String[count];
+			int offset = start + 2;
+
+			for (int i = 1; i < count; ++i) {
+				offsets[i] = offset;
+				final int tag = buffer.get(offset);
+
+				switch (tag) {
+				case 1:		/* Utf8 */
+					offset += 3 + (buffer.getShort(
+						offset + 1) & 0xFFFF);
+					break;
+				case 3:		/* Integer */
+				case 4:		/* Float */
+				case 9:		/* Fieldref */
+				case 10:	/* Methodref */
+				case 11:	/* InterfaceMethodref */
+				case 12:	/* NameAndType */
+				case 17:	/* Dynamic */
+				case 18:	/* InvokeDynamic */
+					offset += 5;
+					break;
+				case 5:		/* Long */
+				case 6:		/* Double */
+					offset += 9;
+					++i;
+					break;
+				case 7:		/* Class */
+				case 8:		/* String */
+				case 16:	/* MethodType */
+				case 19:	/* Module */
+				case 20:	/* Package */
+					offset += 3;
+					break;
+				case 15:	/* MethodHandle */
+					offset += 4;
+					break;
+				default:
+					throw new IllegalArgumentException(
+						String.format(
+						"Unknown constant pool tag: %d",
+						tag));
+				}
+			}
+
+			end = offset;
+		}
+
+		int end()			{ return end; }
+
+		/* Decodes modified UTF-8, see java.io.DataInput#readUTF(). */
+		String utf8(int index)
+		{
+			final String string = strings[index];
+
+			if (string != null)
+				return string;
+
+			final int offset = offsets[index];
+			final int length = buffer.getShort(offset + 1) & 0xFFFF;
+			final char[] chars = new char[length];
+			int count = 0;
+
+			for (int i = offset + 3, j = i + length; i < j; ) {
+				final int b = buffer.get(i++) & 0xFF;
+
+				if (b < 0x80) {
+					chars[count++] = (char) b;
+				} else if ((b >> 5) == 0x06) {
+					chars[count++] = (char) (((b & 0x1F) << 6)
+						| (buffer.get(i++) & 0x3F));
+				} else {
+					chars[count++] = (char) (((b & 0x0F) << 12)
+						| ((buffer.get(i++) & 0x3F) << 6)
+						| (buffer.get(i++) & 0x3F));
+				}
+			}
+
+			return strings[index] = new String(chars, 0, count);
+		}
+
+		/* Returns the internal name of a Class entry, or null. */
+		String className(int index)
+		{
+			return (index == 0)
+				? null
+				: utf8(buffer.getShort(offsets[index] + 1)
+								& 0xFFFF);
+		}
+
+		int intValue(int index)
+		{
+			return buffer.getInt(offsets[index] + 1);
+		}
+
+		long longValue(int index)
+		{
+			return buffer.getLong(offsets[index] + 1);
+		}
+	}
+
+	/** This class holds an entry of the InnerClasses attribute. */
+	private static final class InnerClass
+	{
+		final String innerName;		/* Binary. */
+		final String outerName;		/* Binary, or null. */
+		final String simpleName;	/* Or null. */
+		final int modifiers;
+
+		InnerClass(String innerName, String outerName,
+					String simpleName, int modifiers)
+		{
+			this.innerName = innerName;
+			this.outerName = outerName;
+			this.simpleName = simpleName;
+			this.modifiers = modifiers;
+		}
+	}
+
+	/** This class holds a parsed runtime-visible annotation. */
+	private static final class Annotation
+	{
+		final String typeName;		/* Binary. */
+		final Map<String, String> values;
+
+		Annotation(String typeName, Map<String, String> values)
+		{
+			this.typeName = typeName;
+			this.values = values;
+		}
+	}
+
+	/** This class exposes a field, a method, or a constructor. */
+	private static final class ParsedMember implements ClassFile.Member
+	{
+		private final Parsed declaringClass;
+		private final String name;
+		private final String descriptor;
+		private final String signature;
+		private final String defaultValue;
+		private final String[] exceptions;
+		private final int modifiers;
+
+		ParsedMember(Parsed declaringClass, String name, String descriptor,
+				String signature, String defaultValue,
+				String[] exceptions, int modifiers)
+		{
+			this.declaringClass = declaringClass;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.signature = signature;
+			this.defaultValue = defaultValue;
+			this.exceptions = exceptions;
+			this.modifiers = modifiers;
+		}
+
+		boolean isField()	{ return descriptor.charAt(0) != '('; }
+
+		boolean isConstructor()	{ return "<init>".equals(name); }
+
+		boolean isInitializer()	{ return "<clinit>".equals(name); }
+
+		/* Names and parameters, with return types for methods. */
+		String key()		{ return name.concat(descriptor); }
+
+		@Override
+		public String declaringClassName()
+		{
+			return declaringClass.name();
+		}
+
+		@Override
+		public String name()		{ return name; }
+
+		@Override
+		public String descriptor()	{ return descriptor; }
+
+		@Override
+		public String signature()	{ return signature; }
+
+		@Override
+		public int modifiers()		{ return modifiers; }
+
+		/* See java.lang.reflect.{Field,Method,Constructor}#toString(). */
+		@Override
+		public String toString()
+		{
+			final StringBuilder builder = new StringBuilder(128);
+
+			if (isField()) {
+				if (modifiers != 0)
+					builder.append(Modifier.toString(
+								modifiers))
+						.append(' ');
+
+				return builder.append(Descriptors
+							.fieldTypeName(
+								descriptor))
+					.append(' ')
+					.append(declaringClass.name())
+					.append('.')
+					.append(name)
+					.toString();
+			}
+
+			final boolean isDefault = (modifiers & (Modifier.ABSTRACT
+						| Modifier.PUBLIC
+						| Modifier.STATIC))
+					== Modifier.PUBLIC
+				&& declaringClass.isInterface();
+			final int mm = modifiers & ((isConstructor())
+				? Modifier.constructorModifiers()
+				: Modifier.methodModifiers());
+
+			if (mm != 0 && !isDefault) {
+				builder.append(Modifier.toString(mm))
+					.append(' ');
+			} else {
+				final int access = mm & (Modifier.PUBLIC
+						| Modifier.PROTECTED
+						| Modifier.PRIVATE);
+
+				if (access != 0)
+					builder.append(Modifier.toString(access))
+						.append(' ');
+
+				if (isDefault)
+					builder.append("default ");
+
+				final int rest = mm & ~(Modifier.PUBLIC
+						| Modifier.PROTECTED
+						| Modifier.PRIVATE);
+
+				if (rest != 0)
+					builder.append(Modifier.toString(rest))
+						.append(' ');
+			}
+
+			if (isConstructor()) {
+				builder.append(declaringClass.name());
+			} else {
+				builder.append(Descriptors.returnTypeName(
+								descriptor))
+					.append(' ')
+					.append(declaringClass.name())
+					.append('.')
+					.append(name);
+			}
+
+			builder.append(Descriptors.parameterTypeNames(descriptor)
+				.stream()
+				.collect(Collectors.joining(",", "(", ")")));
+
+			if (exceptions.length > 0)
+				builder.append(Arrays.stream(exceptions)
+					.collect(Collectors.joining(",",
+							" throws ", "")));
+
+			return builder.toString();
+		}
+	}
+
+	/** This class exposes a parsed class file. */
+	private static final class Parsed implements ClassFile
+	{
+		private final ClassFileReader reader;
+		private final String source;
+		private final ConstantPool pool;
+		private final int accessFlags;
+		private final String name;
+		private final String superName;
+		private final String[] interfaceNames;
+		private final List<ParsedMember> fields;
+		private final List<ParsedMember> methods;
+		private final List<InnerClass> innerClasses;
+		private final List<Annotation> annotations;
+		private final InnerClass self;
+		private final String signature;
+		private final boolean isLocalOrAnonymous;
+
+		Parsed(ClassFileReader reader, String source, ByteBuffer bytes)
+		{
+			this.reader = reader;
+			this.source = source;
+			final ByteBuffer buffer = bytes.slice();
+
+			if (buffer.getInt(0) != MAGIC)
+				throw new IllegalArgumentException(
+						"Not a class file");
+
+			pool = new ConstantPool(buffer, 8);
+			int offset = pool.end();
+			accessFlags = buffer.getShort(offset) & 0xFFFF;
+			name = Descriptors.binaryName(pool.className(
+					buffer.getShort(offset + 2) & 0xFFFF));
+			superName = Optional.ofNullable(pool.className(
+					buffer.getShort(offset + 4) & 0xFFFF))
+				.map(Descriptors::binaryName)
+				.orElse(null);
+			interfaceNames = new String[buffer.getShort(offset + 6)
+								& 0xFFFF];
+			offset += 8;
+
+			for (int i = 0; i < interfaceNames.length; ++i) {
+				interfaceNames[i] = Descriptors.binaryName(
+					pool.className(buffer.getShort(offset)
+								& 0xFFFF));
+				offset += 2;
+			}
+
+			final List<ParsedMember> fields = new ArrayList<>();
+			offset = members(buffer, offset, fields,
+							FIELD_MODIFIERS);
+			this.fields = Collections.unmodifiableList(fields);
+			final List<ParsedMember> methods = new ArrayList<>();
+			offset = members(buffer, offset, methods,
+							METHOD_MODIFIERS);
+			this.methods = Collections.unmodifiableList(methods);
+
+			final List<InnerClass> innerClasses = new ArrayList<>();
+			final List<Annotation> annotations = new ArrayList<>();
+			String signature = null;
+			boolean isLocalOrAnonymous = false;
+			final int count = buffer.getShort(offset) & 0xFFFF;
+			offset += 2;
+
+			for (int i = 0; i < count; ++i) {
+				final String attribute = pool.utf8(
+					buffer.getShort(offset) & 0xFFFF);
+				final int length = buffer.getInt(offset + 2);
+				final int start = offset + 6;
+
+				switch (attribute) {
+				case "Signature":
+					signature = pool.utf8(buffer.getShort(
+							start) & 0xFFFF);
+					break;
+				case "EnclosingMethod":
+					isLocalOrAnonymous = true;
+					break;
+				case "InnerClasses":
+					innerClasses(buffer, start,
+							innerClasses);
+					break;
+				case "RuntimeVisibleAnnotations":
+					annotations(buffer, start, annotations);
+					break;
+				default:
+					break;
+				}
+
+				offset = start + length;
+			}
+
+			this.innerClasses = Collections.unmodifiableList(
+							innerClasses);
+			this.annotations = Collections.unmodifiableList(
+							annotations);
+			this.signature = signature;
+			this.isLocalOrAnonymous = isLocalOrAnonymous;
+			self = innerClasses.stream()
+				.filter(innerClass -> name.equals(
+						innerClass.innerName))
+				.findFirst()
+				.orElse(null);
+		}
+
+		private int members(ByteBuffer buffer, int offset,
+				List<ParsedMember> members, int modifierMask)
+		{
+			final int count = buffer.getShort(offset) & 0xFFFF;
+			offset += 2;
+
+			for (int i = 0; i < count; ++i) {
+				final int flags = buffer.getShort(offset)
+								& 0xFFFF;
+				final String memberName = pool.utf8(
+					buffer.getShort(offset + 2) & 0xFFFF);
+				final String descriptor = pool.utf8(
+					buffer.getShort(offset + 4) & 0xFFFF);
+				final int attributes = buffer.getShort(
+							offset + 6) & 0xFFFF;
+				String memberSignature = null;
+				String defaultValue = null;
+				String[] exceptions = new String[0];
+				offset += 8;
+
+				for (int j = 0; j < attributes; ++j) {
+					final String attribute = pool.utf8(
+						buffer.getShort(offset)
+								& 0xFFFF);
+					final int length = buffer.getInt(
+								offset + 2);
+					final int start = offset + 6;
+
+					switch (attribute) {
+					case "Signature":
+						memberSignature = pool.utf8(
+							buffer.getShort(start)
+								& 0xFFFF);
+						break;
+					case "Exceptions":
+						exceptions = new String[buffer
+							.getShort(start)
+								& 0xFFFF];
+
+						for (int k = 0;
+							k < exceptions.length;
+									++k)
+							exceptions[k] = Descriptors
+								.binaryName(pool
+							.className(buffer
+								.getShort(
+							start + 2 + 2 * k)
+								& 0xFFFF));
+
+						break;
+					case "AnnotationDefault":
+						defaultValue = elementValue(
+							buffer, new int[] {
+								start
+							});
+						break;
+					default:
+						break;
+					}
+
+					offset = start + length;
+				}
+
+				members.add(new ParsedMember(this, memberName,
+					descriptor, memberSignature,
+					defaultValue, exceptions,
+					flags & modifierMask));
+			}
+
+			return offset;
+		}
+
+		private void innerClasses(ByteBuffer buffer, int offset,
+					List<InnerClass> innerClasses)
+		{
+			final int count = buffer.getShort(offset) & 0xFFFF;
+			offset += 2;
+
+			for (int i = 0; i < count; ++i, offset += 8) {
+				final String innerName = pool.className(
+					buffer.getShort(offset) & 0xFFFF);
+
+				if (innerName == null)
+					continue;
+
+				final int simpleIndex = buffer.getShort(
+							offset + 4) & 0xFFFF;
+				innerClasses.add(new InnerClass(
+					Descriptors.binaryName(innerName),
+					Optional.ofNullable(pool.className(
+						buffer.getShort(offset + 2)
+								& 0xFFFF))
+						.map(Descriptors::binaryName)
+						.orElse(null),
+					(simpleIndex == 0)
+						? null
+						: pool.utf8(simpleIndex),
+					buffer.getShort(offset + 6) & 0xFFFF));
+			}
+		}
+
+		private void annotations(ByteBuffer buffer, int offset,
+					List<Annotation> annotations)
+		{
+			final int count = buffer.getShort(offset) & 0xFFFF;
+			final int[] cursor = { offset + 2 };
+
+			for (int i = 0; i < count; ++i)
+				annotations.add(annotation(buffer, cursor));
+		}
+
+		private Annotation annotation(ByteBuffer buffer, int[] cursor)
+		{
+			final String typeName = Descriptors.fieldTypeName(
+				pool.utf8(buffer.getShort(cursor[0]) & 0xFFFF));
+			final int count = buffer.getShort(cursor[0] + 2)
+								& 0xFFFF;
+			final Map<String, String> values = new LinkedHashMap<>();
+			cursor[0] += 4;
+
+			for (int i = 0; i < count; ++i) {
+				final String elementName = pool.utf8(
+					buffer.getShort(cursor[0]) & 0xFFFF);
+				cursor[0] += 2;
+				values.put(elementName, elementValue(buffer,
+								cursor));
+			}
+
+			return new Annotation(typeName, values);
+		}
+
+		/*
+		 * See the memberValueToString method of
+		 * sun.reflect.annotation.AnnotationInvocationHandler.
+		 */
+		private String elementValue(ByteBuffer buffer, int[] cursor)
+		{
+			final char tag = (char) buffer.get(cursor[0]);
+			final int index = buffer.getShort(cursor[0] + 1)
+								& 0xFFFF;
+			cursor[0] += 3;
+
+			switch (tag) {
+			case 'B':
+				return String.format("(byte)0x%02x",
+						(byte) pool.intValue(index));
+			case 'C':
+				return "'" + escape((char) pool.intValue(index))
+									+ "'";
+			case 'D':
+				final double d = Double.longBitsToDouble(
+							pool.longValue(index));
+				return (Double.isFinite(d))
+					? String.valueOf(d)
+					: (Double.isNaN(d))
+						? "0.0/0.0"
+						: (d < 0.0)
+							? "-1.0/0.0"
+							: "1.0/0.0";
+			case 'F':
+				final float f = Float.intBitsToFloat(
+							pool.intValue(index));
+				return (Float.isFinite(f))
+					? String.valueOf(f).concat("f")
+					: (Float.isNaN(f))
+						? "0.0f/0.0f"
+						: (f < 0.0f)
+							? "-1.0f/0.0f"
+							: "1.0f/0.0f";
+			case 'I':
+				return String.valueOf(pool.intValue(index));
+			case 'J':
+				final long l = pool.longValue(index);
+				return (l < Integer.MIN_VALUE
+						|| l > Integer.MAX_VALUE)
+					? String.valueOf(l).concat("L")
+					: String.valueOf(l);
+			case 'S':
+				return String.valueOf((short) pool.intValue(
+								index));
+			case 'Z':
+				return String.valueOf(pool.intValue(index)
+								!= 0);
+			case 's':
+				return pool.utf8(index)
+					.chars()
+					.mapToObj(c -> escape((char) c))
+					.collect(Collectors.joining("",
+								"\"", "\""));
+			case 'e':
+				cursor[0] += 2;
+				return pool.utf8(buffer.getShort(cursor[0] - 2)
+								& 0xFFFF);
+			case 'c':
+				return Descriptors.fieldTypeName(
+						pool.utf8(index))
+					.replace('$', '.')
+					.concat(".class");
+			case '@':
+				cursor[0] -= 2;
+				return annotationToString(annotation(buffer,
+								cursor));
+			case '[':
+				final StringJoiner joiner = new StringJoiner(
+							", ", "{", "}");
+
+				for (int i = 0; i < index; ++i)
+					joiner.add(elementValue(buffer, cursor));
+
+				return joiner.toString();
+			default:
+				throw new IllegalArgumentException(String.format(
+					"Unknown element value tag: '%c'", tag));
+			}
+		}
+
+		private static String escape(char c)
+		{
+			switch (c) {
+			case '\b':	return "\\b";
+			case '\f':	return "\\f";
+			case '\n':	return "\\n";
+			case '\r':	return "\\r";
+			case '\t':	return "\\t";
+			case '\'':	return "\\'";
+			case '"':	return "\\\"";
+			case '\\':	return "\\\\";
+			default:
+				return (c >= ' ' && c <= '~')
+					? String.valueOf(c)
+					: String.format("\\u%04x", (int) c);
+			}
+		}
+
+		/*
+		 * Renders the explicit values in the order of declaration of
+		 * annotation interface elements, supplying any default values,
+		 * whenever the annotation interface is available.
+		 */
+		private String annotationToString(Annotation annotation)
+		{
+			final Optional<ClassFile> type = reader.lookup(
+							annotation.typeName);
+			final Map<String, String> values = (type.isPresent())
+				? ((Parsed) type.get()).methods
+					.stream()
+					.filter(method -> annotation.values
+							.containsKey(
+								method.name)
+						|| method.defaultValue != null)
+					.collect(Collectors.toMap(
+						method -> method.name,
+						method -> annotation.values
+							.getOrDefault(
+								method.name,
+							method.defaultValue),
+						(oldValue, newValue) ->
+								newValue,
+						LinkedHashMap::new))
+				: annotation.values;
+			final StringBuilder builder = new StringBuilder(64)
+				.append('@')
+				.append(type.map(ClassFile::canonicalName)
+					.orElseGet(() -> annotation.typeName
+						.replace('$', '.')))
+				.append('(');
+
+			if (values.size() == 1 && values.containsKey("value"))
+				return builder.append(values.get("value"))
+					.append(')')
+					.toString();
+
+			return builder.append(values.entrySet()
+					.stream()
+					.map(entry -> entry.getKey() + "="
+							+ entry.getValue())
+					.collect(Collectors.joining(", ")))
+				.append(')')
+				.toString();
+		}
+
+		private boolean isInherited()
+		{
+			return annotations.stream()
+				.anyMatch(annotation -> annotation.typeName
+					.equals("java.lang.annotation.Inherited"));
+		}
+
+		private boolean isTopLevel()
+		{
+			return !isLocalOrAnonymous && declaringName() == null;
+		}
+
+		private String declaringName()
+		{
+			return (self == null || isLocalOrAnonymous)
+				? null
+				: self.outerName;
+		}
+
+		@Override
+		public String name()			{ return name; }
+
+		@Override
+		public String simpleName()
+		{
+			if (isTopLevel())
+				return name.substring(name.lastIndexOf('.') + 1);
+
+			return (self == null || self.simpleName == null)
+				? ""
+				: self.simpleName;
+		}
+
+		@Override
+		public String canonicalName()
+		{
+			if (isLocalOrAnonymous)
+				return null;
+
+			final String declaringName = declaringName();
+
+			if (declaringName == null)
+				return name;
+
+			final String declaringCanonicalName = reader.resolve(
+							declaringName)
+				.canonicalName();
+			return (declaringCanonicalName == null)
+				? null
+				: declaringCanonicalName + "." + simpleName();
+		}
+
+		@Override
+		public String packageName()
+		{
+			final int dot = name.lastIndexOf('.');
+			return (dot < 0) ? "" : name.substring(0, dot);
+		}
+
+		@Override
+		public String source()			{ return source; }
+
+		@Override
+		public int modifiers()
+		{
+			return ((self == null)
+					? accessFlags
+					: self.modifiers)
+				& CLASS_MODIFIERS;
+		}
+
+		@Override
+		public boolean isInterface()
+		{
+			return (accessFlags & Modifier.INTERFACE) != 0;
+		}
+
+		@Override
+		public boolean isAnnotation()
+		{
+			return (modifiers() & ACC_ANNOTATION) != 0;
+		}
+
+		@Override
+		public boolean isEnum()
+		{
+			return (modifiers() & ACC_ENUM) != 0
+				&& "java.lang.Enum".equals(superName);
+		}
+
+		@Override
+		public boolean isSynthetic()
+		{
+			return (modifiers() & ACC_SYNTHETIC) != 0;
+		}
+
+		@Override
+		public ClassFile superclass()
+		{
+			return (isInterface() || superName == null)
+				? null
+				: reader.resolve(superName);
+		}
+
+		@Override
+		public String genericSuperclass()
+		{
+			if (isInterface() || superName == null)
+				return null;
+
+			return Optional.ofNullable(signature)
+				.map(Descriptors::genericSuperclass)
+				.orElseGet(() -> "class ".concat(superName));
+		}
+
+		@Override
+		public ClassFile declaringClass()
+		{
+			return Optional.ofNullable(declaringName())
+				.map(reader::resolve)
+				.orElse(null);
+		}
+
+		@Override
+		public String[] genericInterfaces()
+		{
+			return (signature == null)
+				? Arrays.stream(interfaceNames)
+					.map("interface "::concat)
+					.toArray(String[]::new)
+				: Descriptors.genericInterfaces(signature);
+		}
+
+		@Override
+		public ClassFile[] interfaces()
+		{
+			return Arrays.stream(interfaceNames)
+				.map(reader::resolve)
+				.toArray(ClassFile[]::new);
+		}
+
+		private Stream<Annotation> inheritedAnnotations()
+		{
+			final Set<String> typeNames = annotations.stream()
+				.map(annotation -> annotation.typeName)
+				.collect(Collectors.toSet());
+			return Stream.concat(annotations.stream(),
+				Optional.ofNullable(superclass())
+					.map(Parsed.class::cast)
+					.stream()
+					.flatMap(Parsed::inheritedAnnotations)
+					.filter(annotation -> !typeNames
+						.contains(annotation.typeName))
+					.filter(annotation -> reader
+						.lookup(annotation.typeName)
+						.map(Parsed.class::cast)
+						.map(Parsed::isInherited)
+						.orElse(false)));
+		}
+
+		@Override
+		public String[] annotations()
+		{
+			return inheritedAnnotations()
+				.map(this::annotationToString)
+				.toArray(String[]::new);
+		}
+
+		@Override
+		public String[] declaredAnnotations()
+		{
+			return annotations.stream()
+				.map(this::annotationToString)
+				.toArray(String[]::new);
+		}
+
+		@Override
+		public ClassFile[] classes()
+		{
+			final List<ClassFile> classes = new ArrayList<>();
+
+			for (ClassFile klass = this; klass != null;
+						klass = klass.superclass())
+				Arrays.stream(klass.declaredClasses())
+					.filter(member -> Modifier.isPublic(
+							member.modifiers()))
+					.forEach(classes::add);
+
+			return classes.toArray(new ClassFile[0]);
+		}
+
+		@Override
+		public ClassFile[] declaredClasses()
+		{
+			return innerClasses.stream()
+				.filter(innerClass -> name.equals(
+						innerClass.outerName))
+				.map(innerClass -> reader.resolve(
+						innerClass.innerName))
+				.toArray(ClassFile[]::new);
+		}
+
+		@Override
+		public ClassFile.Member[] constructors()
+		{
+			return methods.stream()
+				.filter(ParsedMember::isConstructor)
+				.filter(method -> Modifier.isPublic(
+							method.modifiers))
+				.toArray(ClassFile.Member[]::new);
+		}
+
+		@Override
+		public ClassFile.Member[] declaredConstructors()
+		{
+			return methods.stream()
+				.filter(ParsedMember::isConstructor)
+				.toArray(ClassFile.Member[]::new);
+		}
+
+		/*
+		 * Overriding methods hide overridden methods of the same
+		 * name and descriptor; static methods of superinterfaces are
+		 * never inherited.
+		 */
+		private Map<String, ParsedMember> publicMethods()
+		{
+			final Map<String, ParsedMember> publicMethods =
+							new LinkedHashMap<>();
+			methods.stream()
+				.filter(method -> !(method.isConstructor()
+						|| method.isInitializer()))
+				.filter(method -> Modifier.isPublic(
+							method.modifiers))
+				.forEach(method -> publicMethods.put(
+							method.key(), method));
+			Optional.ofNullable(superclass())
+				.map(Parsed.class::cast)
+				.map(Parsed::publicMethods)
+				.ifPresent(methods -> methods.forEach(
+						publicMethods::putIfAbsent));
+
+			for (String interfaceName : interfaceNames)
+				((Parsed) reader.resolve(interfaceName))
+					.publicMethods()
+					.values()
+					.stream()
+					.filter(method -> !Modifier.isStatic(
+							method.modifiers))
+					.forEach(method -> publicMethods
+						.putIfAbsent(method.key(),
+								method));
+
+			return publicMethods;
+		}
+
+		@Override
+		public ClassFile.Member[] methods()
+		{
+			return publicMethods()
+				.values()
+				.toArray(new ClassFile.Member[0]);
+		}
+
+		@Override
+		public ClassFile.Member[] declaredMethods()
+		{
+			return methods.stream()
+				.filter(method -> !(method.isConstructor()
+						|| method.isInitializer()))
+				.toArray(ClassFile.Member[]::new);
+		}
+
+		/* See java.lang.Class#privateGetPublicFields(). */
+		private Set<ParsedMember> publicFields()
+		{
+			final Set<ParsedMember> publicFields = new LinkedHashSet<>();
+			fields.stream()
+				.filter(field -> Modifier.isPublic(
+							field.modifiers))
+				.forEach(publicFields::add);
+
+			for (String interfaceName : interfaceNames)
+				publicFields.addAll(((Parsed) reader.resolve(
+							interfaceName))
+					.publicFields());
+
+			Optional.ofNullable(superclass())
+				.map(Parsed.class::cast)
+				.map(Parsed::publicFields)
+				.ifPresent(publicFields::addAll);
+			return publicFields;
+		}
+
+		@Override
+		public ClassFile.Member[] fields()
+		{
+			return publicFields().toArray(new ClassFile.Member[0]);
+		}
+
+		@Override
+		public ClassFile.Member[] declaredFields()
+		{
+			return fields.toArray(new ClassFile.Member[0]);
+		}
+
+		@Override
+		public String[] enumConstants()
+		{
+			return (isEnum())
+				? fields.stream()
+					.filter(field -> (field.modifiers
+							& ACC_ENUM) != 0)
+					.map(field -> field.name)
+					.toArray(String[]::new)
+				: null;
+		}
+
+		@Override
+		public boolean equals(Object that)
+		{
+			return (this == that || (that instanceof Parsed
+				&& name.equals(((Parsed) that).name)
+				&& source.equals(((Parsed) that).source)));
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(name, source);
+		}
+
+		/* See java.lang.Class#toString(). */
+		@Override
+		public String toString()
+		{
+			return ((isInterface())
+					? "interface "
+					: "class ")
+				.concat(name);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class serves for reading class names, one per line, of a UTF-8 file
+ * that is mapped into memory.
+ * <p>
+ * Lines are terminated as with {@link Files#lines(Path)}, i.e. by either
+ * {@code \n}, or {@code \r}, or {@code \r\n}; and every line is decoded
+ * only when it is taken from the returned stream. The spliterator of
+ * the stream does not split, since class names are taken in order from
+ * a single iterator (see {@link WorkScheduler}); so lines are decoded by
+ * the thread that takes them, and the mapping only spares reading the file
+ * into heap buffers.
+ * <p>
+ * Note that files larger than {@code Integer.MAX_VALUE} bytes are read
+ * with {@link Files#lines(Path)}, whose stream holds the file open until
+ * it is closed, and that a mapping is only released when its buffer
+ * becomes unreachable, e.g. after its stream is closed and dropped.
+ */
+final class ClassList
+{
+	private ClassList() { /* No instantiation. */ }
+
+	/**
+	 * Returns a lazily populated stream of the lines of a file.
+	 * <p>
+	 * The returned stream should be closed in order to release its
+	 * resources.
+	 *
+	 * @param filePath the path of a file
+	 * @return a lazily populated stream of the lines of a file
+	 * @throws UncheckedIOException if an I/O error occurs, or, when
+	 *	the stream is consumed, if a line is not valid UTF-8
+	 */
+	static Stream<String> lines(Path filePath)
+	{
+		Objects.requireNonNull(filePath, "filePath");
+
+		try (FileChannel channel = FileChannel.open(filePath,
+						StandardOpenOption.READ)) {
+			final long size = channel.size();
+
+			if (size > Integer.MAX_VALUE)
+				return Files.lines(filePath,
+						StandardCharsets.UTF_8);
+
+			return StreamSupport.stream(new LineSpliterator(
+					channel.map(FileChannel.MapMode.READ_ONLY,
+								0L, size),
+					0,
+					(int) size),
+				false);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** This class serves for decoding lines of a buffer. */
+	private static final class LineSpliterator implements Spliterator<String>
+	{
+		private final ByteBuffer buffer;
+		private final ByteBuffer view;
+		private final int fence;
+		private int index;
+		private byte[] bytes;
+		private CharsetDecoder decoder;
+
+		LineSpliterator(ByteBuffer buffer, int index, int fence)
+		{
+			this.buffer = buffer;
+			this.index = index;
+			this.fence = fence;
+			view = buffer.duplicate();
+			bytes = new byte[64];
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super String> action)
+		{
+			Objects.requireNonNull(action, "action");
+
+			if (index >= fence)
+				return false;
+
+			final int start = index;
+			int end = start;
+			boolean ascii = true;
+
+			for (byte b; end < fence
+					&& (b = buffer.get(end)) != '\n'
+					&& b != '\r'; ++end)
+				ascii &= (b >= 0);
+
+			index = (end < fence && buffer.get(end) == '\r'
+					&& end + 1 < fence
+					&& buffer.get(end + 1) == '\n')
+				? end + 2
+				: end + 1;
+			action.accept(decode(start, end, ascii));
+			return true;
+		}
+
+		private String decode(int start, int end, boolean ascii)
+		{
+			final int length = end - start;
+
+			if (ascii) {
+				if (bytes.length < length)
+					bytes = new byte[Math.max(length,
+							bytes.length * 2)];
+
+				view.limit(end).position(start);
+				view.get(bytes, 0, length);
+				return new String(bytes, 0, length,
+						StandardCharsets.ISO_8859_1);
+			}
+
+			/* Report malformed input as Files#lines(Path) does. */
+			if (decoder == null)
+				decoder = StandardCharsets.UTF_8
+					.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(
+						CodingErrorAction.REPORT);
+
+			view.limit(end).position(start);
+
+			try {
+				final CharBuffer chars = decoder.decode(view);
+				return chars.toString();
+			} catch (final CharacterCodingException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public Spliterator<String> trySplit()	{ return null; }
+
+		@Override
+		public long estimateSize()	{ return fence - index; }
+
+		@Override
+		public int characteristics()
+		{
+			return Spliterator.ORDERED | Spliterator.NONNULL
+						| Spliterator.IMMUTABLE;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.lang.module.ModuleFinder;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class serves as a Bloom filter of the binary names of classes of
+ * a class source, which may accept a class name that is missing from
+ * the source, but never rejects a class name that is present.
+ * <p>
+ * With {@value #BITS_PER_NAME} bits and {@value #HASH_COUNT} hash
+ * functions per name, about one missing name in a hundred is accepted.
+ * <p>
+ * Any class name of a package of a system module may be accepted as
+ * well, since no class path is searched for such a name.
+ *
+ * @see ClassPeeker#prefiltered(Predicate)
+ */
+final class ClassNameFilter implements Predicate<String>
+{
+	private static final int BITS_PER_NAME = 10;
+	private static final int HASH_COUNT = 7;
+
+	private final Set<String> packageNames;
+	private final long[] words;
+	private final long bitCount;
+
+	private ClassNameFilter(Set<String> packageNames,
+						List<String> classNames)
+	{
+		this.packageNames = packageNames;
+		final long bits = Math.max(Long.SIZE,
+				(long) classNames.size() * BITS_PER_NAME);
+		words = new long[(int) Math.min(Integer.MAX_VALUE - 8,
+						(bits + Long.SIZE - 1) >>> 6)];
+		bitCount = (long) words.length << 6;
+
+		for (String className : classNames)
+			add(className);
+	}
+
+	/**
+	 * Returns a filter of the binary names of all classes of a class path
+	 * source, which accepts any class name of a package of a system
+	 * module as well.
+	 *
+	 * @param pathSource a source of class files of a class path
+	 * @return a filter of the binary names of all classes of a class
+	 *	path source
+	 * @throws java.io.UncheckedIOException if an I/O error occurs
+	 */
+	static ClassNameFilter of(ClassSource pathSource)
+	{
+		Objects.requireNonNull(pathSource, "pathSource");
+
+		try (Stream<String> classNames = pathSource.classNames(
+						ClassSelector.of("**"))) {
+			return new ClassNameFilter(ModuleFinder.ofSystem()
+					.findAll()
+					.stream()
+					.flatMap(reference -> reference
+						.descriptor()
+						.packages()
+						.stream())
+					.collect(Collectors
+						.toUnmodifiableSet()),
+				classNames.collect(Collectors.toList()));
+		}
+	}
+
+	/**
+	 * Returns a filter of the passed binary names of classes.
+	 *
+	 * @param classNames a list of binary names of classes
+	 * @return a filter of the passed binary names of classes
+	 */
+	static ClassNameFilter of(List<String> classNames)
+	{
+		return new ClassNameFilter(Set.of(), Objects.requireNonNull(
+						classNames, "classNames"));
+	}
+
+	/* See the FNV-1a hash function, whose bits are spread further. */
+	private static long secondHash(String className)
+	{
+		long hash = 0xCBF29CE484222325L;
+
+		for (int i = 0, length = className.length(); i < length; ++i)
+			hash = (hash ^ className.charAt(i)) * 0x100000001B3L;
+
+		return hash ^ (hash >>> 29);
+	}
+
+	private void add(String className)
+	{
+		final long hash1 = className.hashCode();
+		final long hash2 = secondHash(className);
+
+		/* Kirsch and Mitzenmacher, double hashing. */
+		for (int i = 0; i < HASH_COUNT; ++i) {
+			final long bit = Math.floorMod(hash1 + i * hash2,
+								bitCount);
+			words[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * Returns whether the passed binary name of a class may be a name of
+	 * the filtered classes.
+	 *
+	 * @param className a binary name of a class
+	 * @return {@code false} if the passed name is not a name of
+	 *	the filtered classes, else {@code true}
+	 */
+	@Override
+	public boolean test(String className)
+	{
+		if (!packageNames.isEmpty() && packageNames.contains(
+				className.substring(0, Math.max(0, className
+						.lastIndexOf('.')))))
+			return true;
+
+		final long hash1 = className.hashCode();
+		final long hash2 = secondHash(className);
+
+		for (int i = 0; i < HASH_COUNT; ++i) {
+			final long bit = Math.floorMod(hash1 + i * hash2,
+								bitCount);
+
+			if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0L)
+				return false;
+		}
+
+		return true;
+	}
+}
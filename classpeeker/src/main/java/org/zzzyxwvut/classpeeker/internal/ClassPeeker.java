@@ -6,20 +6,20 @@ import java.io.ObjectInputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassFile;
+import org.zzzyxwvut.classpeeker.ClassSnapshot;
 
 /** This class serves for class inspection. */
 class ClassPeeker
 {
-	private static final Pattern DOT_SLASH_CLASS = Pattern.compile(
-						"(?:^\\.+|/|\\.(?:class)??$)");
 	private static final Map<String, Class<?>> PRIMITIVES_AND_VOID =
 			Map.of(Boolean.TYPE.getName(),		boolean.class,
 				Byte.TYPE.getName(),		byte.class,
@@ -30,7 +30,10 @@ class ClassPeeker
 				Long.TYPE.getName(),		long.class,
 				Short.TYPE.getName(),		short.class,
 				Void.TYPE.getName(),		void.class);
+	private static final int MISS_CACHE_CAPACITY = 1 << 16;
 
+	private final Function<Statistics,
+				Function<String, Stream<Result>>> resulters;
 	private final Function<String, Stream<Result>> resulter;
 
 	/**
@@ -39,37 +42,290 @@ class ClassPeeker
 	 * @param classData a list of class data to collect
 	 */
 	ClassPeeker(List<? extends ClassData> classData)
+	{
+		this(classData, ClassPeeker.class.getClassLoader());
+	}
+
+	/**
+	 * Constructs a new {@code ClassPeeker} object that loads classes
+	 * with the passed class loader.
+	 *
+	 * @param classData a list of class data to collect
+	 * @param classLoader a class loader to load classes with
+	 * @see ClassSourceLoader
+	 */
+	ClassPeeker(List<? extends ClassData> classData,
+						ClassLoader classLoader)
+	{
+		this(classData, constantLoader()
+			.apply(Objects.requireNonNull(classLoader,
+							"classLoader")));
+	}
+
+	/**
+	 * Constructs a new {@code ClassPeeker} object that loads every class
+	 * with a class loader obtained anew from the passed supplier.
+	 *
+	 * @param classData a list of class data to collect
+	 * @param classLoaders a supplier of class loaders to load classes with
+	 * @see ClassSourceLoader#recycler(ClassSource, ClassLoader, long)
+	 */
+	ClassPeeker(List<? extends ClassData> classData,
+			Supplier<? extends ClassLoader> classLoaders)
 	{
 		Objects.requireNonNull(classData, "classData");
-		resulter = resulter()
-			.apply(classicist()
-				.apply(getClass().getClassLoader()))
-			.apply(classData);
+		Objects.requireNonNull(classLoaders, "classLoaders");
+		final Function<String, Supplier<Class<?>>> classicist =
+						classicist()
+			.apply(classLoaders);
+		resulters = statistics -> resulter()
+			.apply(ClassPeeker.<Class<?>>missCacher()
+				.apply(classicist))
+			.apply(null)
+			.apply(classData)
+			.apply(statistics);
+		resulter = resulters.apply(Statistics.none());
 	}
 
-	private static Function<Class<?>,
-				Function<ClassData, Result>> peeker()
+	/**
+	 * Constructs a new {@code ClassPeeker} object that loads every class
+	 * with a class loader obtained anew from the passed supplier and
+	 * never initializes classes, collecting any class data that would
+	 * initialize classes, e.g. annotations, from class files instead.
+	 *
+	 * @param classData a list of class data to collect
+	 * @param classLoaders a supplier of class loaders to load classes with
+	 * @param classSource a source of class files of the loaded classes
+	 * @see ClassSnapshot#ClassSnapshot(Class, boolean)
+	 */
+	ClassPeeker(List<? extends ClassData> classData,
+			Supplier<? extends ClassLoader> classLoaders,
+			ClassSource classSource)
 	{
-		return klass -> classData -> {
+		Objects.requireNonNull(classData, "classData");
+		Objects.requireNonNull(classLoaders, "classLoaders");
+		Objects.requireNonNull(classSource, "classSource");
+		final Function<String, Supplier<Class<?>>> classicist =
+						classicist()
+			.apply(classLoaders);
+		final Function<String, Supplier<ClassFile>> fileClassicist =
+						fileClassicist()
+			.apply(new ClassFileReader(classSource));
+		resulters = statistics -> resulter()
+			.apply(ClassPeeker.<Class<?>>missCacher()
+				.apply(classicist))
+			.apply(fileClassicist)
+			.apply(classData)
+			.apply(statistics);
+		resulter = resulters.apply(Statistics.none());
+	}
+
+	/**
+	 * Constructs a new {@code ClassPeeker} object that reads class files
+	 * instead of loading classes.
+	 *
+	 * @param classData a list of class data to collect
+	 * @param classSource a source of class files
+	 * @see ClassData#fileMethodist()
+	 */
+	ClassPeeker(List<? extends ClassData> classData,
+						ClassSource classSource)
+	{
+		Objects.requireNonNull(classData, "classData");
+		Objects.requireNonNull(classSource, "classSource");
+		final Function<String, Supplier<ClassFile>> fileClassicist =
+						fileClassicist()
+			.apply(new ClassFileReader(classSource));
+		resulters = statistics -> fileResulter()
+			.apply(ClassPeeker.<ClassFile>missCacher()
+				.apply(fileClassicist))
+			.apply(classData)
+			.apply(statistics);
+		resulter = resulters.apply(Statistics.none());
+	}
+
+	private ClassPeeker(Function<Statistics,
+				Function<String, Stream<Result>>> resulters,
+				Statistics statistics)
+	{
+		this.resulters = resulters;
+		resulter = resulters.apply(statistics);
+	}
+
+	/**
+	 * Returns a new peeker that measures class resolution and every
+	 * class data methodist of this peeker.
+	 * <p>
+	 * The returned peeker does not share with this peeker the class names
+	 * that could not be found.
+	 *
+	 * @param statistics statistics to accumulate measurements with
+	 * @return a new peeker that measures class resolution and every
+	 *	class data methodist of this peeker
+	 */
+	ClassPeeker measured(Statistics statistics)
+	{
+		return new ClassPeeker(resulters, Objects.requireNonNull(
+						statistics, "statistics"));
+	}
+
+	/**
+	 * Returns a new peeker that rejects, without loading or reading, every
+	 * class whose binary name is not accepted by the passed predicate,
+	 * e.g. a Bloom filter of the class names of a class source.
+	 * <p>
+	 * The names of primitive types and array classes are never tested.
+	 *
+	 * @param knownNames a predicate of binary names of classes that may
+	 *	be found
+	 * @return a new peeker that rejects every class whose binary name is
+	 *	not accepted by the passed predicate
+	 * @see ClassNameFilter
+	 */
+	ClassPeeker prefiltered(Predicate<String> knownNames)
+	{
+		Objects.requireNonNull(knownNames, "knownNames");
+		return new ClassPeeker(prefilterer()
+				.apply(knownNames)
+				.apply(resulters),
+			Statistics.none());
+	}
+
+	private static Function<Predicate<String>,
+				UnaryOperator<Function<Statistics,
+				Function<String, Stream<Result>>>>> prefilterer()
+	{
+		return knownNames -> resulters -> statistics -> {
+			final Function<String, Stream<Result>> resulter =
+						resulters.apply(statistics);
+			return className -> (className.startsWith("[")
+					|| PRIMITIVES_AND_VOID.containsKey(
+							className)
+					|| knownNames.test(className))
+				? resulter.apply(className)
+				: Stream.of(new Failure(className,
+					new UnresolvedClassException(
+							className)));
+		};
+	}
+
+	private static <T> UnaryOperator<Function<String, Supplier<T>>>
+								missCacher()
+	{
+		/*
+		 * Remember the class names that could not be found, so that
+		 * no class loader is asked for them again by the same peeker.
+		 * Every measured peeker, e.g. of a served request, remembers
+		 * them anew, see Residents.
+		 */
+		return classicist -> {
+			final Map<String, UnresolvedClassException> misses =
+						new ConcurrentHashMap<>();
+			return className -> () -> {
+				final UnresolvedClassException miss = misses
+					.get(className);
+
+				if (miss != null)
+					throw new UncheckedROE(miss);
+
+				try {
+					return classicist.apply(className)
+						.get();
+				} catch (final UncheckedROE e) {
+					if (!(e.getCause() instanceof
+						ClassNotFoundException))
+						throw e;
+
+					final UnresolvedClassException
+							newMiss =
+						new UnresolvedClassException(
+								className);
+
+					if (misses.size() < MISS_CACHE_CAPACITY)
+						misses.putIfAbsent(className,
+								newMiss);
+
+					throw new UncheckedROE(newMiss);
+				}
+			};
+		};
+	}
+
+	private static Function<Statistics,
+				Function<Supplier<ClassFile>,
+				Function<ClassSnapshot,
+				Function<ClassData, Result>>>> peeker()
+	{
+		return statistics -> classFile -> snapshot -> classData -> {
+			final Statistics.Stopwatch stopwatch = statistics
+				.start(classData.description());
+
 			try {
-				return new Success(klass.getName(),
+				return new Success(snapshot.klass().getName(),
 						classData.description(),
-						classData.methodist()
-							.apply(klass));
+						classData.snapshotMethodist()
+							.apply(snapshot));
+			} catch (final ClassSnapshot.InitializationException e) {
+				return (classFile != null)
+					? fileResult(classFile, classData,
+						snapshot.klass().getName())
+					: new Failure(snapshot.klass()
+							.getName(), e);
 			} catch (final Exception e) {
-				return new Failure(klass.getName(), e);
+				return new Failure(snapshot.klass().getName(),
+									e);
+			} finally {
+				stopwatch.stop(snapshot.klass().getName());
+			}
+		};
+	}
+
+	private static Result fileResult(Supplier<ClassFile> classFile,
+					ClassData classData, String className)
+	{
+		/* Fall back on the class file of an uninitialized class. */
+		try {
+			return new Success(className, classData.description(),
+						classData.fileMethodist()
+							.apply(classFile.get()));
+		} catch (final UncheckedROE e) {
+			return new Failure(className, e.getCause());
+		} catch (final Exception e) {
+			return new Failure(className, e);
+		}
+	}
+
+	private static Function<Supplier<ClassFile>, Supplier<ClassFile>>
+								memoizer()
+	{
+		return classFile -> new Supplier<>() {
+			private ClassFile memo;
+
+			@Override
+			public ClassFile get()
+			{
+				if (memo == null)
+					memo = classFile.get();
+
+				return memo;
 			}
 		};
 	}
 
-	private static Function<ClassLoader,
+	private static Function<ClassLoader, Supplier<ClassLoader>>
+							constantLoader()
+	{
+		return classLoader -> () -> classLoader;
+	}
+
+	private static Function<Supplier<? extends ClassLoader>,
 				Function<String, Supplier<Class<?>>>>
 								classicist()
 	{
-		return classLoader -> className -> () -> {
+		return classLoaders -> className -> () -> {
 			try {
 				return Class.forName(className, false,
-								classLoader);
+							classLoaders.get());
 			} catch (final ClassNotFoundException e) {
 				throw new UncheckedROE(e);
 			}
@@ -77,10 +333,16 @@ class ClassPeeker
 	}
 
 	private static Function<Function<String, Supplier<Class<?>>>,
+				Function<Function<String, Supplier<ClassFile>>,
 				Function<List<? extends ClassData>,
-				Function<String, Stream<Result>>>> resulter()
+				Function<Statistics,
+				Function<String, Stream<Result>>>>>> resulter()
 	{
-		return classicist -> classData -> className -> {
+		/* Without a file classicist, let classes be initialized. */
+		return classicist -> fileClassicist -> classData -> statistics
+							-> className -> {
+			final Statistics.Stopwatch stopwatch = statistics
+				.start(Statistics.RESOLUTION);
 			final Class<?> klass;
 
 			try {
@@ -90,12 +352,84 @@ class ClassPeeker
 			} catch (final UncheckedROE e) {
 				return Stream.of(new Failure(className,
 							e.getCause()));
+			} finally {
+				stopwatch.stop(className);
 			}
 
 			return classData
 				.stream()
 				.map(peeker()
-					.apply(klass));
+					.apply(statistics)
+					.apply((fileClassicist != null)
+						? memoizer()
+							.apply(fileClassicist
+								.apply(klass
+								.getName()))
+						: null)
+					.apply(new ClassSnapshot(klass,
+						fileClassicist == null)));
+		};
+	}
+
+	private static Function<Statistics,
+				Function<ClassFile,
+				Function<ClassData, Result>>> filePeeker()
+	{
+		return statistics -> classFile -> classData -> {
+			final Statistics.Stopwatch stopwatch = statistics
+				.start(classData.description());
+
+			try {
+				return new Success(classFile.name(),
+						classData.description(),
+						classData.fileMethodist()
+							.apply(classFile));
+			} catch (final Exception e) {
+				return new Failure(classFile.name(), e);
+			} finally {
+				stopwatch.stop(classFile.name());
+			}
+		};
+	}
+
+	private static Function<ClassFileReader,
+				Function<String, Supplier<ClassFile>>>
+							fileClassicist()
+	{
+		return reader -> className -> () -> reader.read(className)
+			.orElseThrow(() -> new UncheckedROE(
+				new UnresolvedClassException(className)));
+	}
+
+	private static Function<Function<String, Supplier<ClassFile>>,
+				Function<List<? extends ClassData>,
+				Function<Statistics,
+				Function<String, Stream<Result>>>>>
+							fileResulter()
+	{
+		return classicist -> classData -> statistics -> className -> {
+			final Statistics.Stopwatch stopwatch = statistics
+				.start(Statistics.RESOLUTION);
+			final ClassFile classFile;
+
+			try {
+				classFile = classicist.apply(className).get();
+			} catch (final UncheckedROE e) {
+				return Stream.of(new Failure(className,
+							e.getCause()));
+			} catch (final IllegalArgumentException
+					| IndexOutOfBoundsException e) {
+				/* Malformed class files. */
+				return Stream.of(new Failure(className, e));
+			} finally {
+				stopwatch.stop(className);
+			}
+
+			return classData
+				.stream()
+				.map(filePeeker()
+					.apply(statistics)
+					.apply(classFile));
 		};
 	}
 
@@ -120,10 +454,121 @@ class ClassPeeker
 							String.format(
 						"Empty class name: '%s'",
 						className))))
-				: resulter.apply(DOT_SLASH_CLASS
-					.splitAsStream(className)
-					.filter(Predicate.not(String::isBlank))
-					.collect(Collectors.joining(".")));
+				: resulter.apply(binaryName(className));
+	}
+
+	/**
+	 * Returns the fully-qualified form of a non-blank class name.
+	 *
+	 * @param className a class name in either its fully-qualified form,
+	 *	e.g. {@code org.example.Foo}; or a class-path form, e.g.
+	 *	{@code org/example/Foo.class}; or a mixture of both, e.g.
+	 *	{@code org/example/Foo}
+	 * @return the fully-qualified form of a class name, e.g.
+	 *	{@code org.example.Foo}
+	 * @see #peek(String)
+	 */
+	static String binaryName(String className)
+	{
+		/*
+		 * Scan for the separators of the former splitting pattern
+		 * "(?:^\\.+|/|\\.(?:class)??$)", i.e. leading dots, slashes,
+		 * and a trailing dot or ".class", and join its non-blank parts
+		 * with dots.
+		 */
+		final int length = className.length();
+		StringBuilder builder = null;
+		int firstStart = 0;
+		int firstEnd = -1;
+		int i = 0;
+
+		while (i < length && className.charAt(i) == '.')
+			++i;
+
+		int start = i;
+
+		while (i <= length) {
+			final int end;
+
+			if (i == length) {
+				end = length;
+			} else if (className.charAt(i) == '/') {
+				end = i + 1;
+			} else if (className.charAt(i) == '.'
+					&& isEnd(className, i + 1)) {
+				end = i + 1;
+			} else if (className.charAt(i) == '.'
+					&& className.startsWith("class", i + 1)
+					&& isEnd(className, i + 6)) {
+				end = i + 6;
+			} else {
+				++i;
+				continue;
+			}
+
+			if (!isBlank(className, start, i)) {
+				if (firstEnd < 0) {
+					firstStart = start;
+					firstEnd = i;
+				} else {
+					if (builder == null)
+						builder = new StringBuilder(
+								length)
+							.append(className,
+								firstStart,
+								firstEnd);
+
+					builder.append('.')
+						.append(className, start, i);
+				}
+			}
+
+			start = end;
+			i = (i == length) ? length + 1 : end;
+		}
+
+		/* Let repeated names share an instance with Class#getName(). */
+		return (builder != null)
+			? builder.toString().intern()
+			: (firstEnd < 0)
+				? ""
+				: className.substring(firstStart, firstEnd)
+					.intern();
+	}
+
+	private static boolean isEnd(String className, int index)
+	{
+		/* See the boundary matcher "$" before a final line terminator. */
+		final int length = className.length();
+
+		if (index == length)
+			return true;
+
+		if (index == length - 2)
+			return className.charAt(index) == '\r'
+					&& className.charAt(index + 1) == '\n';
+
+		if (index != length - 1)
+			return false;
+
+		final char c = className.charAt(index);
+		return (c == '\n' || c == '\r' || c == '\u0085'
+						|| c == '\u2028'
+						|| c == '\u2029');
+	}
+
+	private static boolean isBlank(String className, int start, int end)
+	{
+		for (int i = start; i < end; ) {
+			final int codePoint = className.codePointAt(i);
+
+			if (!Character.isWhitespace(codePoint))
+				return false;
+
+			i += Character.charCount(codePoint);
+		}
+
+		return true;
 	}
 
 	/**
@@ -138,6 +583,15 @@ class ClassPeeker
 		 * @return the name of a class under inspection
 		 */
 		String className();
+
+		/**
+		 * Appends the string representation of this result to
+		 * a builder, element by element.
+		 *
+		 * @param builder a builder to append to
+		 * @return the passed builder
+		 */
+		StringBuilder render(StringBuilder builder);
 	}
 
 	/** This class exposes a successful result of class inspection. */
@@ -183,20 +637,37 @@ class ClassPeeker
 		public String className()	{ return className; }
 
 		@Override
-		public String toString()
+		public StringBuilder render(StringBuilder builder)
 		{
 			final String newline = System.lineSeparator();
-			return Stream.ofNullable(classData)
-				.flatMap(Stream::of)
-				.filter(Objects::nonNull)
-				.map(Object::toString)
-				.collect(Collectors.joining(newline,
-					new StringBuilder(32)
-						.append(newline)
-						.append("\t")
-						.append(description)
-						.append(newline),
-					""));
+			builder.append(newline)
+				.append('\t')
+				.append(description)
+				.append(newline);
+
+			if (classData == null)
+				return builder;
+
+			boolean first = true;
+
+			for (Object element : classData) {
+				if (element == null)
+					continue;
+
+				if (!first)
+					builder.append(newline);
+
+				builder.append(element);
+				first = false;
+			}
+
+			return builder;
+		}
+
+		@Override
+		public String toString()
+		{
+			return render(new StringBuilder(32)).toString();
 		}
 	}
 
@@ -230,6 +701,14 @@ class ClassPeeker
 		@Override
 		public String className()	{ return className; }
 
+		@Override
+		public StringBuilder render(StringBuilder builder)
+		{
+			return builder.append(Objects.requireNonNullElse(
+						exception.getCause(),
+						exception));
+		}
+
 		@Override
 		public String toString()
 		{
@@ -256,6 +735,12 @@ class ClassPeeker
 		@Override
 		public String className()	{ return ""; }
 
+		@Override
+		public StringBuilder render(StringBuilder builder)
+		{
+			return builder;
+		}
+
 		@Override
 		public String toString()	{ return ""; }
 	}
@@ -275,7 +760,9 @@ class ClassPeeker
 		 */
 		UncheckedROE(ReflectiveOperationException cause)
 		{
-			super(Objects.requireNonNull(cause, "cause"));
+			/* Only its cause is ever reported. */
+			super(Objects.requireNonNull(cause, "cause").toString(),
+							cause, false, false);
 		}
 
 		@Override
@@ -295,4 +782,39 @@ class ClassPeeker
 					"Not a ReflectiveOperationException");
 		}
 	}
+
+	/**
+	 * This class serves as a compact record of a class that cannot be
+	 * found, which neither fills in nor holds a stack trace, so that it
+	 * may be cheaply created for and shared among the failures of class
+	 * names that are known to be missing.
+	 * <p>
+	 * Its string representation is that of its superclass.
+	 */
+	static final class UnresolvedClassException
+					extends ClassNotFoundException
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructs a new {@code UnresolvedClassException} object.
+		 *
+		 * @param className the name of a class that cannot be found
+		 */
+		UnresolvedClassException(String className)
+		{
+			super(Objects.requireNonNull(className, "className"));
+		}
+
+		@Override
+		public Throwable fillInStackTrace()	{ return this; }
+
+		@Override
+		public String toString()
+		{
+			return String.join(": ",
+					ClassNotFoundException.class.getName(),
+					getMessage());
+		}
+	}
 }
@@ -0,0 +1,163 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * This class serves for selecting classes of class sources by their binary
+ * names.
+ * <p>
+ * A selector is either the name of a package, e.g. {@code java.util}, whose
+ * subpackages are not selected; or a wildcard pattern, e.g.
+ * {@code java.util.*}, {@code java.util.Hash*}, or {@code javax.**}, where
+ * {@code *} and {@code ?} match any characters and any character of
+ * a package or class name segment, and {@code **} matches any characters
+ * of any number of segments.
+ * <p>
+ * Either may be qualified with the name of a module of the run-time image
+ * and a slash, e.g. {@code java.sql/javax.**}, so as to select classes of
+ * that module only; and the name of a module and a slash alone, e.g.
+ * {@code java.base/}, select all classes of a module. Classes of other
+ * sources than the run-time image belong to no module, and are never
+ * selected with a module.
+ */
+final class ClassSelector
+{
+	private static final Pattern WILDCARD = Pattern.compile("[*?]");
+	private static final char MODULE_SEPARATOR = '/';
+
+	private final String selector;
+	private final String moduleName;
+	private final String packagePrefix;
+	private final Predicate<String> matcher;
+
+	private ClassSelector(String selector)
+	{
+		this.selector = selector;
+		final int separator = selector.indexOf(MODULE_SEPARATOR);
+		moduleName = (separator < 0)
+			? null
+			: selector.substring(0, separator);
+		final String classes = selector.substring(separator + 1);
+		final String pattern = (classes.isEmpty())
+			? "**"				/* A whole module. */
+			: (WILDCARD.matcher(classes).find())
+				? classes
+				: classes.concat(".*");	/* A package name. */
+		final int wildcard = WILDCARD.matcher(pattern)
+			.results()
+			.findFirst()
+			.orElseThrow()
+			.start();
+		packagePrefix = pattern.substring(0, Math.max(0,
+				pattern.lastIndexOf('.', wildcard)));
+		matcher = Pattern.compile(globToRegex(pattern))
+			.asMatchPredicate();
+	}
+
+	/**
+	 * Returns a selector of classes.
+	 *
+	 * @param selector the name of a package or a wildcard pattern of
+	 *	binary class names, either of which may be qualified with
+	 *	the name of a module and a slash, or the name of a module and
+	 *	a slash
+	 * @return a selector of classes
+	 * @throws IllegalArgumentException if {@code selector} is blank, or
+	 *	its module name is blank, or it has more than one slash
+	 */
+	static ClassSelector of(String selector)
+	{
+		Objects.requireNonNull(selector, "selector");
+		final String stripped = selector.strip();
+		final int separator = stripped.indexOf(MODULE_SEPARATOR);
+
+		if (stripped.isEmpty() || separator == 0
+				|| stripped.indexOf(MODULE_SEPARATOR,
+							separator + 1) >= 0)
+			throw new IllegalArgumentException(String.format(
+					"Malformed class selector: '%s'",
+					selector));
+
+		return new ClassSelector(stripped);
+	}
+
+	/**
+	 * Returns a list of selectors of classes.
+	 *
+	 * @param selectors a comma-separated list of selectors
+	 * @return a list of selectors of classes
+	 * @throws IllegalArgumentException if any selector is blank
+	 */
+	static List<ClassSelector> ofList(String selectors)
+	{
+		Objects.requireNonNull(selectors, "selectors");
+		return Arrays.stream(selectors.split(",", -1))
+			.map(ClassSelector::of)
+			.collect(Collectors.toUnmodifiableList());
+	}
+
+	private static String globToRegex(String glob)
+	{
+		final StringBuilder regex = new StringBuilder(glob.length() * 2);
+
+		for (int i = 0, length = glob.length(); i < length; ++i) {
+			final char c = glob.charAt(i);
+
+			if (c == '*') {
+				if (i + 1 < length && glob.charAt(i + 1) == '*') {
+					regex.append(".*");
+					++i;
+				} else {
+					regex.append("[^.]*");
+				}
+			} else if (c == '?') {
+				regex.append("[^.]");
+			} else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+
+		return regex.toString();
+	}
+
+	/**
+	 * Returns the module name of this selector, if it is qualified with
+	 * a module.
+	 *
+	 * @return an optional with the module name of this selector, otherwise
+	 *	an empty optional
+	 */
+	Optional<String> moduleName()
+	{
+		return Optional.ofNullable(moduleName);
+	}
+
+	/**
+	 * Returns the longest package name that every selected class belongs
+	 * to or is nested in, e.g. {@code java.util} for {@code java.util.*}.
+	 *
+	 * @return the longest package name that every selected class belongs
+	 *	to or is nested in, or an empty string
+	 */
+	String packagePrefix()				{ return packagePrefix; }
+
+	/**
+	 * Returns whether a class is selected.
+	 *
+	 * @param className a binary class name
+	 * @return whether a class is selected
+	 */
+	boolean matches(String className)
+	{
+		return matcher.test(className);
+	}
+
+	@Override
+	public String toString()			{ return selector; }
+}
@@ -0,0 +1,544 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Instances of this interface supply class files, looking them up by
+ * binary class names.
+ */
+interface ClassSource extends AutoCloseable
+{
+	/**
+	 * Looks up a class file.
+	 *
+	 * @param className a binary class name, e.g. {@code java.util.Map$Entry}
+	 * @return an optional with the found class file entry, otherwise
+	 *	an empty optional
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	Optional<Entry> find(String className);
+
+	/**
+	 * Returns a lazily populated stream of the binary names of selected
+	 * classes of this source.
+	 * <p>
+	 * Module and package information files and versioned entries of
+	 * multi-release JAR files are never selected; nor are classes of other
+	 * sources than the run-time image selected with a module, see
+	 * {@link ClassSelector}. The returned stream
+	 * should be closed in order to release its resources.
+	 *
+	 * @param selector a selector of classes
+	 * @return a lazily populated stream of the binary names of selected
+	 *	classes
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	Stream<String> classNames(ClassSelector selector);
+
+	/**
+	 * Releases any resources associated with this source.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	default void close()	{ }
+
+	/**
+	 * Returns the path of a class file relative to a class path root.
+	 *
+	 * @param className a binary class name
+	 * @return the path of a class file relative to a class path root,
+	 *	e.g. {@code java/util/Map$Entry.class}
+	 */
+	static String fileName(String className)
+	{
+		return className.replace('.', '/').concat(".class");
+	}
+
+	/**
+	 * Returns the binary name of a class for the path of its class file
+	 * relative to a class path root, or {@code null} if the path does
+	 * not name a class file of a class.
+	 *
+	 * @param fileName the path of a class file relative to a class path
+	 *	root, e.g. {@code java/util/Map$Entry.class}
+	 * @return the binary name of a class, e.g. {@code java.util.Map$Entry},
+	 *	or {@code null}
+	 */
+	static String className(String fileName)
+	{
+		return (!fileName.endsWith(".class")
+				|| fileName.endsWith("module-info.class")
+				|| fileName.endsWith("package-info.class")
+				|| fileName.startsWith("META-INF/"))
+			? null
+			: fileName.substring(0, fileName.length()
+							- ".class".length())
+				.replace('/', '.');
+	}
+
+	/**
+	 * Returns a source of class files of the run-time image.
+	 *
+	 * @return a source of class files of the run-time image
+	 */
+	static ClassSource jrt()			{ return JrtSource.JRT; }
+
+	/**
+	 * Returns a source of class files of a class path.
+	 * <p>
+	 * Every directory element of the class path is treated as a root
+	 * of packages, and every other existing element is treated as
+	 * a JAR file; non-existent elements are ignored.
+	 *
+	 * @param classPath a list of paths separated with
+	 *	{@link File#pathSeparator}
+	 * @return a source of class files of a class path
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static ClassSource classPath(String classPath)
+	{
+		Objects.requireNonNull(classPath, "classPath");
+		return of(Pattern.compile(Pattern.quote(File.pathSeparator))
+			.splitAsStream(classPath)
+			.filter(Predicate.not(String::isBlank))
+			.map(Path::of)
+			.filter(Files::exists)
+			.map(path -> (Files.isDirectory(path))
+				? new DirectorySource(path)
+				: new JarSource(path))
+			.collect(Collectors.toUnmodifiableList()));
+	}
+
+	/**
+	 * Returns a source of class files that looks up the passed sources
+	 * in turn.
+	 *
+	 * @param classSources a list of class sources
+	 * @return a source of class files that looks up the passed sources
+	 *	in turn
+	 */
+	static ClassSource of(List<? extends ClassSource> classSources)
+	{
+		return new CompositeSource(classSources);
+	}
+
+	/** This class exposes a found class file. */
+	final class Entry
+	{
+		private final String location;
+		private final Supplier<ByteBuffer> reader;
+		private final LongSupplier sizer;
+		private final LongSupplier stamper;
+
+		/**
+		 * Constructs a new {@code Entry} object.
+		 *
+		 * @param location a description of the location of a class
+		 *	file
+		 * @param reader a supplier of the bytes of a class file
+		 */
+		Entry(String location, Supplier<ByteBuffer> reader)
+		{
+			this(location, reader, () -> reader.get().remaining(),
+				() -> {
+					final CRC32C crc = new CRC32C();
+					crc.update(reader.get());
+					return crc.getValue();
+				});
+		}
+
+		/**
+		 * Constructs a new {@code Entry} object.
+		 *
+		 * @param location a description of the location of a class
+		 *	file
+		 * @param reader a supplier of the bytes of a class file
+		 * @param sizer a supplier of the size of a class file that
+		 *	does not read the class file
+		 * @param stamper a supplier of the stamp of a class file that
+		 *	does not read the class file
+		 */
+		Entry(String location, Supplier<ByteBuffer> reader,
+				LongSupplier sizer, LongSupplier stamper)
+		{
+			this.location = Objects.requireNonNull(location,
+								"location");
+			this.reader = Objects.requireNonNull(reader, "reader");
+			this.sizer = Objects.requireNonNull(sizer, "sizer");
+			this.stamper = Objects.requireNonNull(stamper,
+								"stamper");
+		}
+
+		/**
+		 * Returns a description of the location of a class file.
+		 *
+		 * @return a description of the location of a class file
+		 */
+		String location()		{ return location; }
+
+		/**
+		 * Reads the bytes of a class file.
+		 *
+		 * @return a buffer with the bytes of a class file
+		 * @throws UncheckedIOException if an I/O error occurs
+		 */
+		ByteBuffer bytes()		{ return reader.get(); }
+
+		/**
+		 * Returns the size of a class file in bytes, reading the class
+		 * file only if its size is not known otherwise.
+		 *
+		 * @return the size of a class file in bytes
+		 * @throws UncheckedIOException if an I/O error occurs
+		 */
+		long size()			{ return sizer.getAsLong(); }
+
+		/**
+		 * Returns a stamp of a class file that changes whenever
+		 * the class file is changed, e.g. the time of its last
+		 * modification or the checksum of its bytes.
+		 *
+		 * @return a stamp of a class file
+		 * @throws UncheckedIOException if an I/O error occurs
+		 */
+		long stamp()			{ return stamper.getAsLong(); }
+	}
+
+	/** This class serves as a source of run-time image class files. */
+	final class JrtSource implements ClassSource
+	{
+		private static final JrtSource JRT = new JrtSource();
+
+		private final FileSystem fileSystem;
+		private final Map<String, List<String>> modules;
+
+		private JrtSource()
+		{
+			fileSystem = FileSystems.getFileSystem(
+						URI.create("jrt:/"));
+			modules = new ConcurrentHashMap<>();
+		}
+
+		private List<String> modules(String packageName)
+		{
+			final Path packagePath = fileSystem.getPath(
+						"/packages", packageName);
+
+			if (!Files.isDirectory(packagePath))
+				return List.of();
+
+			try (Stream<Path> paths = Files.list(packagePath)) {
+				return paths
+					.map(Path::getFileName)
+					.map(Path::toString)
+					.collect(Collectors
+						.toUnmodifiableList());
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public Optional<Entry> find(String className)
+		{
+			final int dot = className.lastIndexOf('.');
+
+			if (dot < 0)
+				return Optional.empty();
+
+			final String fileName = ClassSource.fileName(className);
+			return modules.computeIfAbsent(
+					className.substring(0, dot),
+					this::modules)
+				.stream()
+				.filter(module -> Files.isRegularFile(fileSystem
+					.getPath("/modules", module, fileName)))
+				.findFirst()
+				.map(module -> {
+					final Path filePath = fileSystem
+						.getPath("/modules", module,
+								fileName);
+					return new Entry("jrt:/".concat(module),
+							reader(filePath),
+							sizer(filePath),
+							stamper(filePath));
+				});
+		}
+
+		@Override
+		public Stream<String> classNames(ClassSelector selector)
+		{
+			final Path modulesPath = fileSystem.getPath("/modules");
+			final String packagePath = selector.packagePrefix()
+				.replace('.', '/');
+			final Optional<String> moduleName = selector
+							.moduleName();
+
+			if (moduleName.isPresent())
+				return Optional.of(modulesPath.resolve(
+							moduleName.get()))
+					.filter(Files::isDirectory)
+					.map(modulePath -> walk(modulePath,
+								packagePath)
+						.filter(selector::matches))
+					.orElseGet(Stream::empty);
+
+			final Stream<Path> modulePaths;
+
+			try {
+				modulePaths = Files.list(modulesPath);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			return FlatSpliterator.flatMap(modulePaths,
+						path -> walk(path, packagePath))
+				.filter(selector::matches);
+		}
+
+		@Override
+		public String toString()	{ return "jrt:/"; }
+	}
+
+	/** This class serves as a source of directory class files. */
+	final class DirectorySource implements ClassSource
+	{
+		private final Path dirPath;
+
+		/**
+		 * Constructs a new {@code DirectorySource} object.
+		 *
+		 * @param dirPath the path of a root directory of packages
+		 */
+		DirectorySource(Path dirPath)
+		{
+			this.dirPath = Objects.requireNonNull(dirPath,
+								"dirPath");
+		}
+
+		@Override
+		public Optional<Entry> find(String className)
+		{
+			final Path filePath = dirPath.resolve(
+					ClassSource.fileName(className));
+			return (Files.isRegularFile(filePath))
+				? Optional.of(new Entry(dirPath.toString(),
+							reader(filePath),
+							sizer(filePath),
+							stamper(filePath)))
+				: Optional.empty();
+		}
+
+		@Override
+		public Stream<String> classNames(ClassSelector selector)
+		{
+			if (selector.moduleName().isPresent())
+				return Stream.empty();
+
+			return walk(dirPath, selector.packagePrefix()
+						.replace('.', '/'))
+				.filter(selector::matches);
+		}
+
+		@Override
+		public String toString()	{ return dirPath.toString(); }
+	}
+
+	/**
+	 * This class serves as a source of JAR class files.
+	 *
+	 * @see MappedJarFile
+	 */
+	final class JarSource implements ClassSource
+	{
+		private final MappedJarFile jarFile;
+
+		/**
+		 * Constructs a new {@code JarSource} object.
+		 *
+		 * @param jarPath the path of a JAR file
+		 * @throws UncheckedIOException if an I/O error occurs
+		 */
+		JarSource(Path jarPath)
+		{
+			jarFile = MappedJarFile.open(Objects.requireNonNull(
+							jarPath, "jarPath"));
+		}
+
+		@Override
+		public Optional<Entry> find(String className)
+		{
+			final String fileName = ClassSource.fileName(className);
+			return (jarFile.contains(fileName))
+				? Optional.of(new Entry(jarFile.toString(), () ->
+					jarFile.read(fileName)
+						.orElseThrow(),
+					() -> jarFile.size(fileName)
+						.orElseThrow(),
+					() -> jarFile.crc(fileName)
+						.orElseThrow()))
+				: Optional.empty();
+		}
+
+		@Override
+		public Stream<String> classNames(ClassSelector selector)
+		{
+			if (selector.moduleName().isPresent())
+				return Stream.empty();
+
+			final String packagePath = selector.packagePrefix()
+				.replace('.', '/');
+			return jarFile.entryNames()
+				.filter(name -> name.startsWith(packagePath))
+				.map(ClassSource::className)
+				.filter(Objects::nonNull)
+				.filter(selector::matches);
+		}
+
+		@Override
+		public String toString()	{ return jarFile.toString(); }
+	}
+
+	/** This class serves as a source of class files of other sources. */
+	final class CompositeSource implements ClassSource
+	{
+		private final List<ClassSource> classSources;
+
+		/**
+		 * Constructs a new {@code CompositeSource} object.
+		 *
+		 * @param classSources a list of class sources
+		 */
+		CompositeSource(List<? extends ClassSource> classSources)
+		{
+			this.classSources = List.copyOf(classSources);
+		}
+
+		@Override
+		public Optional<Entry> find(String className)
+		{
+			for (ClassSource classSource : classSources) {
+				final Optional<Entry> entry = classSource
+					.find(className);
+
+				if (entry.isPresent())
+					return entry;
+			}
+
+			return Optional.empty();
+		}
+
+		/*
+		 * Rather than remembering all names found, tell apart any
+		 * shadowed class with lookups of the preceding sources; and
+		 * walk every source only when its preceding source is walked.
+		 */
+		@Override
+		public Stream<String> classNames(ClassSelector selector)
+		{
+			return FlatSpliterator.flatMap(IntStream.range(0,
+							classSources.size())
+						.boxed(),
+					i -> classSources.get(i)
+						.classNames(selector)
+						.filter(className ->
+							classSources
+							.subList(0, i)
+							.stream()
+							.noneMatch(source ->
+								source.find(
+								className)
+							.isPresent())));
+		}
+
+		@Override
+		public void close()
+		{
+			classSources.forEach(ClassSource::close);
+		}
+
+		@Override
+		public String toString()
+		{
+			return classSources.toString();
+		}
+	}
+
+	private static Stream<String> walk(Path rootPath, String packagePath)
+	{
+		final Path startPath = rootPath.resolve(packagePath);
+
+		if (!Files.isDirectory(startPath))
+			return Stream.empty();
+
+		try {
+			return Files.walk(startPath)
+				.filter(Files::isRegularFile)
+				.map(path -> ClassSource.className(rootPath
+					.relativize(path)
+					.toString()
+					.replace(path.getFileSystem()
+						.getSeparator(), "/")))
+				.filter(Objects::nonNull);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Supplier<ByteBuffer> reader(Path filePath)
+	{
+		return () -> {
+			try {
+				return ByteBuffer.wrap(Files.readAllBytes(
+								filePath));
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	private static LongSupplier stamper(Path filePath)
+	{
+		return () -> {
+			try {
+				return Files.getLastModifiedTime(filePath)
+					.toMillis();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	private static LongSupplier sizer(Path filePath)
+	{
+		return () -> {
+			try {
+				return Files.size(filePath);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+}
@@ -0,0 +1,96 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * This class serves for loading classes of a class source.
+ * <p>
+ * The bytes of class files are passed to the virtual machine as buffers,
+ * e.g. as slices of a {@link MappedJarFile}, without copying them into
+ * arrays first.
+ */
+class ClassSourceLoader extends ClassLoader
+{
+	static {
+		registerAsParallelCapable();
+	}
+
+	private final ClassSource classSource;
+
+	/**
+	 * Constructs a new {@code ClassSourceLoader} object.
+	 *
+	 * @param classSource a source of class files
+	 * @param parent the parent class loader for delegation
+	 */
+	ClassSourceLoader(ClassSource classSource, ClassLoader parent)
+	{
+		super(Objects.requireNonNull(classSource, "classSource")
+				.toString(),
+			parent);
+		this.classSource = classSource;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException
+	{
+		final ByteBuffer bytes;
+
+		try {
+			bytes = classSource.find(name)
+				.orElseThrow(() -> new ClassNotFoundException(
+									name))
+				.bytes();
+		} catch (final UncheckedIOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+
+		return defineClass(name, bytes, null);
+	}
+
+	/**
+	 * Returns a supplier of class loaders of a class source that replaces
+	 * its current loader with a new one after every {@code limit} calls,
+	 * so that the classes loaded so far may be unloaded as soon as they
+	 * are no longer in use.
+	 * <p>
+	 * Note that the classes of different loaders of a recycler are never
+	 * the same runtime classes.
+	 *
+	 * @param classSource a source of class files
+	 * @param parent the parent class loader for delegation
+	 * @param limit the number of calls to serve with every loader
+	 * @return a supplier of class loaders of a class source
+	 * @throws IllegalArgumentException if {@code limit} is not positive
+	 */
+	static Supplier<ClassLoader> recycler(ClassSource classSource,
+					ClassLoader parent, long limit)
+	{
+		Objects.requireNonNull(classSource, "classSource");
+
+		if (limit < 1L)
+			throw new IllegalArgumentException(String.format(
+					"Not a positive limit: %d", limit));
+
+		final AtomicLong calls = new AtomicLong();
+		final AtomicReference<ClassLoader> loader =
+			new AtomicReference<>(new ClassSourceLoader(
+						classSource, parent));
+		return () -> (calls.incrementAndGet() % limit == 0L)
+			? loader.getAndSet(new ClassSourceLoader(classSource,
+								parent))
+			: loader.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%s[%s]", getClass().getSimpleName(),
+								getName());
+	}
+}
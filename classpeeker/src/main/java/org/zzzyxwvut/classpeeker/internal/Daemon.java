@@ -0,0 +1,523 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.BindException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.zzzyxwvut.classpeeker.ClassData;
+
+/**
+ * This class serves for inspecting classes on behalf of clients of
+ * a resident server over a Unix domain socket, so that the warm-up of
+ * class inspection is not paid for with every inspection: the class
+ * sources and the peekers of recent configurations are kept resident,
+ * see {@link Residents}, along with compiled code.
+ * <p>
+ * Note that a client is still a virtual machine of its own that parses
+ * its command line arguments, which takes about as long as a direct
+ * inspection of a few JDK classes; the gain grows with the cost of
+ * a configuration, e.g. indexing and prefiltering a class path.
+ * <p>
+ * A request is the list of command line arguments of a client, whose
+ * paths are made absolute by the client, followed by the standard input
+ * of the client, which is passed on as it is read, so that the class
+ * names of {@code --read-from-file -} are inspected as they arrive, see
+ * {@link #query(Path, List, InputStream, PrintStream, PrintStream)}.
+ * A response is a sequence of frames of
+ * the standard output and the standard error of an inspection that is
+ * streamed back as soon as they are written, followed by the outcome
+ * of the inspection. Every request is served with a thread of its own.
+ * <p>
+ * Unix domain sockets are supported with Java 16 or later, and are
+ * obtained reflectively.
+ */
+final class Daemon implements AutoCloseable
+{
+	private static final int MAGIC = 0x43504b31;	/* "CPK1" */
+	private static final byte OUT = 1;
+	private static final byte ERR = 2;
+	private static final byte EXIT = 3;
+	private static final int FRAME_CAPACITY = 1 << 16;
+	private static final int RESIDENT_CAPACITY = 8;
+	private static final AtomicInteger DAEMONS = new AtomicInteger();
+
+	private final List<? extends ClassData> classData;
+	private final Path socketPath;
+	private final ServerSocketChannel serverChannel;
+	private final ExecutorService executor;
+	private final Residents residents;
+
+	private Daemon(List<? extends ClassData> classData, Path socketPath,
+					ServerSocketChannel serverChannel)
+	{
+		this.classData = classData;
+		this.socketPath = socketPath;
+		this.serverChannel = serverChannel;
+		final int daemon = DAEMONS.incrementAndGet();
+		final AtomicInteger requests = new AtomicInteger();
+		executor = Executors.newCachedThreadPool(runnable -> {
+			final Thread thread = new Thread(runnable,
+				String.format("classpeeker-%d-request-%d",
+						daemon,
+						requests.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+		residents = Residents.newInstance(RESIDENT_CAPACITY);
+	}
+
+	private static SocketAddress address(Path socketPath)
+	{
+		try {
+			return (SocketAddress) Class
+				.forName("java.net.UnixDomainSocketAddress")
+				.getMethod("of", Path.class)
+				.invoke(null, socketPath);
+		} catch (final InvocationTargetException e) {
+			throw new IllegalArgumentException(e.getCause());
+		} catch (final ReflectiveOperationException e) {
+			throw new UnsupportedOperationException(
+				"Unsupported Unix domain sockets", e);
+		}
+	}
+
+	private static ServerSocketChannel serverChannel() throws IOException
+	{
+		try {
+			return (ServerSocketChannel) ServerSocketChannel.class
+				.getMethod("open", ProtocolFamily.class)
+				.invoke(null, StandardProtocolFamily
+							.valueOf("UNIX"));
+		} catch (final InvocationTargetException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+
+			throw new UnsupportedOperationException(
+				"Unsupported Unix domain sockets",
+				e.getCause());
+		} catch (final ReflectiveOperationException
+					| IllegalArgumentException e) {
+			throw new UnsupportedOperationException(
+				"Unsupported Unix domain sockets", e);
+		}
+	}
+
+	/**
+	 * Binds a server to a Unix domain socket, replacing any stale socket
+	 * file that no other server is bound to.
+	 *
+	 * @param classData a list of class data to collect
+	 * @param socketPath the path of a socket file
+	 * @return a server bound to a Unix domain socket
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. another
+	 *	server is bound to the socket
+	 * @throws UnsupportedOperationException if Unix domain sockets are
+	 *	not supported
+	 */
+	static Daemon open(List<? extends ClassData> classData,
+							Path socketPath)
+	{
+		Objects.requireNonNull(classData, "classData");
+		Objects.requireNonNull(socketPath, "socketPath");
+		final SocketAddress address = address(socketPath);
+
+		try {
+			if (Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)
+					&& Files.readAttributes(socketPath,
+						BasicFileAttributes.class,
+						LinkOption.NOFOLLOW_LINKS)
+					.isOther()) {
+				if (isServed(address))
+					throw new BindException(String.format(
+						"Already served: '%s'",
+						socketPath));
+
+				Files.delete(socketPath);	/* Stale. */
+			}
+
+			final ServerSocketChannel serverChannel =
+							serverChannel();
+
+			try {
+				serverChannel.bind(address);
+			} catch (final IOException e) {
+				serverChannel.close();
+				throw e;
+			}
+
+			return new Daemon(classData, socketPath, serverChannel);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Unlike the streams of Channels, never hold the blocking lock of
+	 * a channel, so that the standard input of a request can be read
+	 * while its standard output is written.
+	 */
+	private static InputStream inputStream(SocketChannel channel)
+	{
+		return new InputStream() {
+			@Override
+			public int read() throws IOException
+			{
+				final byte[] bytes = new byte[1];
+				return (read(bytes, 0, 1) < 0)
+					? -1
+					: bytes[0] & 0xff;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length)
+							throws IOException
+			{
+				Objects.checkFromIndexSize(offset, length,
+								bytes.length);
+				return (length == 0)
+					? 0
+					: channel.read(ByteBuffer.wrap(bytes,
+							offset, length));
+			}
+		};
+	}
+
+	private static OutputStream outputStream(SocketChannel channel)
+	{
+		return new OutputStream() {
+			@Override
+			public void write(int b) throws IOException
+			{
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] bytes, int offset, int length)
+							throws IOException
+			{
+				final ByteBuffer buffer = ByteBuffer.wrap(bytes,
+							offset, length);
+
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+			}
+		};
+	}
+
+	private static boolean isServed(SocketAddress address)
+	{
+		try {
+			SocketChannel.open(address).close();
+			return true;
+		} catch (final IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Serves requests until either the thread of this method is
+	 * interrupted or this server is closed.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	void serve()
+	{
+		try {
+			while (serverChannel.isOpen()) {
+				final SocketChannel channel = serverChannel
+								.accept();
+				executor.execute(() -> respond(channel));
+			}
+		} catch (final ClosedByInterruptException e) {
+			Thread.currentThread().interrupt();
+		} catch (final IOException e) {
+			if (serverChannel.isOpen())
+				throw new UncheckedIOException(e);
+		}	/* Else, closed asynchronously. */
+	}
+
+	private void respond(SocketChannel channel)
+	{
+		try (channel;
+				DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(
+						outputStream(channel)))) {
+			final DataInputStream input = new DataInputStream(
+					new BufferedInputStream(
+						inputStream(channel)));
+			final String[] args = request(input);
+			byte outcome;
+
+			try (PrintStream out = new PrintStream(new FrameStream(
+							output, OUT), false);
+					PrintStream err = new PrintStream(
+						new FrameStream(output, ERR),
+						true)) {
+				try {
+					outcome = (Runner.inspect(classData,
+							args, input, out, err,
+							residents))
+						? (byte) 0
+						: (byte) 1;
+				} catch (final RuntimeException e) {
+					err.println(e);
+					outcome = 2;
+				}
+			}
+
+			synchronized (output) {
+				output.writeByte(EXIT);
+				output.writeByte(outcome);
+				output.flush();
+			}
+		} catch (final IOException | UncheckedIOException e) {
+			/* The client is gone. */
+		}
+	}
+
+	private static String[] request(DataInputStream input)
+							throws IOException
+	{
+		if (input.readInt() != MAGIC)
+			throw new IOException("Malformed request");
+
+		final String[] args = new String[input.readInt()];
+
+		for (int i = 0; i < args.length; ++i) {
+			final byte[] bytes = new byte[input.readInt()];
+			input.readFully(bytes);
+			args[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		return args;
+	}
+
+	/**
+	 * Sends a request to a server, passing on the standard input of
+	 * the request as it is read with a thread of its own, and copies
+	 * the streamed standard output and standard error of its response.
+	 *
+	 * @param socketPath the path of a socket file
+	 * @param args a list of command line arguments whose paths are
+	 *	absolute
+	 * @param in a stream of the standard input of a request, e.g. of
+	 *	the class names of {@code --read-from-file -}, which is read
+	 *	until its end or the end of a response
+	 * @param out a stream to copy the standard output of a response to
+	 * @param err a stream to copy the standard error of a response to
+	 * @return the outcome of an inspection, see {@link Runner#inspect(
+	 *	List, String[])}
+	 * @throws UncheckedIOException if an I/O error occurs
+	 * @throws IllegalStateException if the server fails to inspect
+	 *	classes
+	 * @throws UnsupportedOperationException if Unix domain sockets are
+	 *	not supported
+	 */
+	static boolean query(Path socketPath, List<String> args,
+				InputStream in, PrintStream out, PrintStream err)
+	{
+		Objects.requireNonNull(socketPath, "socketPath");
+		Objects.requireNonNull(args, "args");
+		Objects.requireNonNull(in, "in");
+
+		try (SocketChannel channel = SocketChannel.open(address(
+							socketPath))) {
+			final DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(
+						outputStream(channel)));
+			final DataInputStream input = new DataInputStream(
+					new BufferedInputStream(
+						inputStream(channel)));
+			output.writeInt(MAGIC);
+			output.writeInt(args.size());
+
+			for (String arg : args) {
+				final byte[] bytes = arg.getBytes(
+						StandardCharsets.UTF_8);
+				output.writeInt(bytes.length);
+				output.write(bytes);
+			}
+
+			output.flush();
+			final Thread piper = new Thread(() -> pipe(in,
+								channel),
+						"classpeeker-client-input");
+			piper.setDaemon(true);
+			piper.start();
+			final byte[] frame = new byte[FRAME_CAPACITY];
+
+			for (;;) {
+				final byte kind = input.readByte();
+
+				if (kind == EXIT) {
+					final byte outcome = input.readByte();
+					out.flush();
+					err.flush();
+
+					if (outcome == 2)
+						throw new IllegalStateException(
+							String.format(
+							"Failed request: '%s'",
+								socketPath));
+
+					return outcome == 0;
+				}
+
+				final int length = input.readInt();
+				input.readFully(frame, 0, length);
+				((kind == OUT) ? out : err).write(frame, 0,
+								length);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void pipe(InputStream in, SocketChannel channel)
+	{
+		try {
+			/* Write every read chunk at once, unbuffered. */
+			in.transferTo(outputStream(channel));
+			channel.shutdownOutput();
+		} catch (final IOException e) {
+			/* The response is over. */
+		}
+	}
+
+	/**
+	 * Stops serving requests, waits for all requests being served,
+	 * and deletes the socket file of this server.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	public void close()
+	{
+		try {
+			serverChannel.close();
+			executor.shutdown();
+
+			while (!executor.isTerminated()) {
+				try {
+					executor.awaitTermination(1L,
+							TimeUnit.SECONDS);
+				} catch (final InterruptedException e) {
+					executor.shutdownNow();
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			Files.deleteIfExists(socketPath);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * This class serves for writing the bytes of a stream as frames of
+	 * a response. Failed writes are rethrown as unchecked exceptions,
+	 * rather than being swallowed by a print stream, so that
+	 * an inspection is aborted as soon as its client is gone.
+	 */
+	private static final class FrameStream extends OutputStream
+	{
+		private final DataOutputStream output;
+		private final byte kind;
+		private final byte[] buffer;
+		private int count;
+
+		FrameStream(DataOutputStream output, byte kind)
+		{
+			this.output = output;
+			this.kind = kind;
+			buffer = new byte[FRAME_CAPACITY];
+		}
+
+		@Override
+		public void write(int b)
+		{
+			if (count == buffer.length)
+				drain();
+
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+		{
+			Objects.checkFromIndexSize(offset, length, bytes.length);
+
+			while (length > 0) {
+				if (count == buffer.length)
+					drain();
+
+				final int size = Math.min(length,
+							buffer.length - count);
+				System.arraycopy(bytes, offset, buffer, count,
+									size);
+				count += size;
+				offset += size;
+				length -= size;
+			}
+		}
+
+		private void drain()
+		{
+			if (count == 0)
+				return;
+
+			try {
+				synchronized (output) {
+					output.writeByte(kind);
+					output.writeInt(count);
+					output.write(buffer, 0, count);
+				}
+
+				count = 0;
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public void flush()
+		{
+			drain();
+
+			try {
+				synchronized (output) {
+					output.flush();
+				}
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * This class serves for rendering descriptors and generic signatures
+ * (JVMS-11, $4.3, $4.7.9.1) after the fashion of
+ * {@link java.lang.reflect.Type#getTypeName()} and
+ * the {@code toString} methods of its implementations.
+ */
+class Descriptors
+{
+	private Descriptors() { /* No instantiation. */ }
+
+	/**
+	 * Returns the binary name of a class for its internal name, e.g.
+	 * {@code java.util.Map$Entry} for {@code java/util/Map$Entry}.
+	 *
+	 * @param internalName an internal class name
+	 * @return the binary name of a class
+	 */
+	static String binaryName(String internalName)
+	{
+		return internalName.replace('/', '.');
+	}
+
+	/**
+	 * Returns the type names of parameters of a method descriptor.
+	 *
+	 * @param descriptor a method descriptor
+	 * @return the type names of parameters of a method descriptor
+	 */
+	static List<String> parameterTypeNames(String descriptor)
+	{
+		final List<String> typeNames = new ArrayList<>();
+		final int[] cursor = { 1 };		/* Skip '('. */
+
+		while (descriptor.charAt(cursor[0]) != ')')
+			typeNames.add(fieldTypeName(descriptor, cursor));
+
+		return typeNames;
+	}
+
+	/**
+	 * Returns the type name of the return type of a method descriptor.
+	 *
+	 * @param descriptor a method descriptor
+	 * @return the type name of the return type of a method descriptor
+	 */
+	static String returnTypeName(String descriptor)
+	{
+		return fieldTypeName(descriptor, new int[] {
+			descriptor.lastIndexOf(')') + 1
+		});
+	}
+
+	/**
+	 * Returns the type name of a field descriptor.
+	 *
+	 * @param descriptor a field descriptor
+	 * @return the type name of a field descriptor
+	 */
+	static String fieldTypeName(String descriptor)
+	{
+		return fieldTypeName(descriptor, new int[] { 0 });
+	}
+
+	private static String fieldTypeName(String descriptor, int[] cursor)
+	{
+		int dimensions = 0;
+
+		while (descriptor.charAt(cursor[0]) == '[') {
+			++dimensions;
+			++cursor[0];
+		}
+
+		final char tag = descriptor.charAt(cursor[0]++);
+		final String typeName;
+
+		if (tag == 'L') {
+			final int semicolon = descriptor.indexOf(';', cursor[0]);
+			typeName = binaryName(descriptor.substring(cursor[0],
+								semicolon));
+			cursor[0] = semicolon + 1;
+		} else {
+			typeName = baseTypeName(tag);
+		}
+
+		return (dimensions == 0)
+			? typeName
+			: new StringBuilder(typeName.length() + 2 * dimensions)
+				.append(typeName)
+				.append("[]".repeat(dimensions))
+				.toString();
+	}
+
+	private static String baseTypeName(char tag)
+	{
+		switch (tag) {
+		case 'B':	return "byte";
+		case 'C':	return "char";
+		case 'D':	return "double";
+		case 'F':	return "float";
+		case 'I':	return "int";
+		case 'J':	return "long";
+		case 'S':	return "short";
+		case 'Z':	return "boolean";
+		case 'V':	return "void";
+		default:
+			throw new IllegalArgumentException(String.format(
+					"Unknown descriptor tag: '%c'", tag));
+		}
+	}
+
+	/**
+	 * Returns the string representation of the superclass of a class
+	 * signature, or {@code null} if the superclass is not parameterised.
+	 *
+	 * @param signature a class signature
+	 * @return the string representation of the superclass, or
+	 *	{@code null}
+	 */
+	static String genericSuperclass(String signature)
+	{
+		final SignatureReader reader = new SignatureReader(signature);
+		reader.skipTypeParameters();
+		final Rendition superclass = reader.referenceType();
+		return (superclass.parameterised)
+			? superclass.typeName
+			: null;
+	}
+
+	/**
+	 * Returns the string representations of the superinterfaces of
+	 * a class signature.
+	 *
+	 * @param signature a class signature
+	 * @return the string representations of the superinterfaces of
+	 *	a class signature
+	 */
+	static String[] genericInterfaces(String signature)
+	{
+		final SignatureReader reader = new SignatureReader(signature);
+		reader.skipTypeParameters();
+		reader.referenceType();			/* Skip the superclass. */
+		final List<String> interfaces = new ArrayList<>();
+
+		while (!reader.isAtEnd()) {
+			final Rendition rendition = reader.referenceType();
+			interfaces.add((rendition.parameterised)
+				? rendition.typeName
+				: "interface ".concat(rendition.typeName));
+		}
+
+		return interfaces.toArray(new String[0]);
+	}
+
+	/** This class holds a rendered type of a signature. */
+	private static final class Rendition
+	{
+		final String typeName;
+		final boolean parameterised;
+
+		Rendition(String typeName, boolean parameterised)
+		{
+			this.typeName = typeName;
+			this.parameterised = parameterised;
+		}
+	}
+
+	/** This class serves for reading signatures. */
+	private static final class SignatureReader
+	{
+		private final String signature;
+		private int cursor;
+
+		SignatureReader(String signature)
+		{
+			this.signature = signature;
+		}
+
+		boolean isAtEnd()	{ return cursor >= signature.length(); }
+
+		void skipTypeParameters()
+		{
+			if (signature.charAt(cursor) != '<')
+				return;
+
+			++cursor;
+
+			while (signature.charAt(cursor) != '>') {
+				/* Skip the identifier. */
+				cursor = signature.indexOf(':', cursor) + 1;
+
+				/* The class bound may be absent. */
+				if (signature.charAt(cursor) != ':')
+					referenceType();
+
+				while (signature.charAt(cursor) == ':') {
+					++cursor;
+					referenceType();
+				}
+			}
+
+			++cursor;
+		}
+
+		Rendition referenceType()
+		{
+			final char tag = signature.charAt(cursor);
+
+			switch (tag) {
+			case 'L':
+				return classType();
+			case 'T':
+				final int semicolon = signature.indexOf(';',
+								cursor);
+				final String name = signature.substring(
+							cursor + 1, semicolon);
+				cursor = semicolon + 1;
+				return new Rendition(name, true);
+			case '[':
+				++cursor;
+				final Rendition component = javaTypeSignature();
+				return new Rendition(component.typeName
+							.concat("[]"),
+						component.parameterised);
+			default:
+				throw new IllegalArgumentException(String.format(
+					"Unknown signature tag: '%c'", tag));
+			}
+		}
+
+		private Rendition javaTypeSignature()
+		{
+			final char tag = signature.charAt(cursor);
+			return (tag == 'L' || tag == 'T' || tag == '[')
+				? referenceType()
+				: new Rendition(baseTypeName(
+					signature.charAt(cursor++)), false);
+		}
+
+		private Rendition classType()
+		{
+			++cursor;				/* Skip 'L'. */
+			final StringBuilder rawName = new StringBuilder(64);
+			StringBuilder rendered = null;	/* An owner type. */
+			boolean parameterised = false;
+
+			for (;;) {
+				final int start = cursor;
+
+				while ("<.;".indexOf(signature.charAt(cursor))
+									< 0)
+					++cursor;
+
+				final String simpleName = signature.substring(
+								start, cursor);
+				final String arguments = (signature.charAt(
+								cursor) == '<')
+					? typeArguments()
+					: "";
+
+				if (rendered == null) {
+					rawName.append(binaryName(simpleName));
+					rendered = new StringBuilder(64)
+						.append(rawName)
+						.append(arguments);
+				} else if (parameterised) {
+					rawName.append('$').append(simpleName);
+					rendered.append('$')
+						.append(simpleName)
+						.append(arguments);
+				} else {
+					rawName.append('$').append(simpleName);
+					rendered.setLength(0);
+					rendered.append(rawName)
+						.append(arguments);
+				}
+
+				parameterised |= !arguments.isEmpty();
+
+				if (signature.charAt(cursor++) == ';')
+					break;			/* Else '.' */
+			}
+
+			return new Rendition(rendered.toString(), parameterised);
+		}
+
+		private String typeArguments()
+		{
+			++cursor;				/* Skip '<'. */
+			final StringJoiner arguments = new StringJoiner(", ",
+								"<", ">");
+
+			while (signature.charAt(cursor) != '>') {
+				switch (signature.charAt(cursor)) {
+				case '*':
+					++cursor;
+					arguments.add("?");
+					break;
+				case '+':
+					++cursor;
+					final String upper = referenceType()
+								.typeName;
+					arguments.add(("java.lang.Object"
+							.equals(upper))
+						? "?"
+						: "? extends ".concat(upper));
+					break;
+				case '-':
+					++cursor;
+					arguments.add("? super ".concat(
+						referenceType().typeName));
+					break;
+				default:
+					arguments.add(referenceType().typeName);
+					break;
+				}
+			}
+
+			++cursor;				/* Skip '>'. */
+			return arguments.toString();
+		}
+	}
+}
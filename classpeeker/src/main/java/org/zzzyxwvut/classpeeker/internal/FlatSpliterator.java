@@ -0,0 +1,106 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class serves for flat-mapping a stream lazily, so that the elements
+ * of a long walk of class names are handed out as soon as they are found.
+ * <p>
+ * Unlike {@link Stream#flatMap(Function)}, whose iterator and spliterator
+ * buffer all elements of every mapped stream, a mapped stream is obtained
+ * only when the elements of its preceding stream are exhausted, and it is
+ * traversed one element at a time and closed as soon as it is exhausted.
+ *
+ * @param <T> the type of elements of a stream to map
+ * @param <R> the type of elements of mapped streams
+ * @see WorkScheduler#map(Stream, Function)
+ */
+final class FlatSpliterator<T, R> extends Spliterators.AbstractSpliterator<R>
+{
+	private final Stream<T> stream;
+	private final Iterator<T> iterator;
+	private final Function<? super T, ? extends Stream<? extends R>> mapper;
+	private Stream<? extends R> mappedStream;
+	private Spliterator<? extends R> spliterator;
+
+	private FlatSpliterator(Stream<T> stream,
+		Function<? super T, ? extends Stream<? extends R>> mapper)
+	{
+		super(Long.MAX_VALUE, Spliterator.ORDERED);
+		this.stream = stream;
+		this.mapper = mapper;
+		iterator = stream.iterator();
+	}
+
+	/**
+	 * Returns a lazily populated, sequential stream of the elements of
+	 * the streams that every element of a stream is mapped to.
+	 * <p>
+	 * Closing the returned stream closes the passed stream and any mapped
+	 * stream that is being traversed.
+	 *
+	 * @param <T> the type of elements of a stream to map
+	 * @param <R> the type of elements of mapped streams
+	 * @param stream a stream to map
+	 * @param mapper a function that maps an element to a stream, or to
+	 *	{@code null} for an empty stream
+	 * @return a lazily populated stream of the elements of mapped streams
+	 */
+	static <T, R> Stream<R> flatMap(Stream<T> stream,
+		Function<? super T, ? extends Stream<? extends R>> mapper)
+	{
+		Objects.requireNonNull(stream, "stream");
+		Objects.requireNonNull(mapper, "mapper");
+		final FlatSpliterator<T, R> spliterator =
+					new FlatSpliterator<>(stream, mapper);
+		return StreamSupport.stream(spliterator, false)
+			.onClose(spliterator::close);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super R> action)
+	{
+		Objects.requireNonNull(action, "action");
+
+		for (;;) {
+			if (spliterator != null && spliterator.tryAdvance(action))
+				return true;
+
+			closeMappedStream();
+
+			if (!iterator.hasNext())
+				return false;
+
+			mappedStream = mapper.apply(iterator.next());
+
+			if (mappedStream != null)
+				spliterator = mappedStream.spliterator();
+		}
+	}
+
+	private void closeMappedStream()
+	{
+		final Stream<? extends R> closeable = mappedStream;
+		mappedStream = null;
+		spliterator = null;
+
+		if (closeable != null)
+			closeable.close();
+	}
+
+	private void close()
+	{
+		try {
+			closeMappedStream();
+		} finally {
+			stream.close();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * This class serves for writing a single gzip member to a byte channel,
+ * whose blocks are deflated concurrently with a block deflater.
+ * <p>
+ * Written bytes are gathered into blocks of {@value #BLOCK_SIZE} bytes,
+ * and every full block is handed to a block deflater, primed with the tail
+ * of its preceding block; the last block is deflated by the closing
+ * thread. The deflated blocks are written in their order as they become
+ * available, with no more than twice as many blocks in flight as there
+ * are deflating threads. So the written file can be read
+ * with {@code gzip -d} or {@link java.util.zip.GZIPInputStream}, and is
+ * about as small as a file compressed by a single thread.
+ * <p>
+ * This channel is not safe for use by multiple concurrent threads, see
+ * {@link ResultSink}.
+ *
+ * @see BlockDeflater
+ */
+final class GzipChannel implements WritableByteChannel
+{
+	private static final int BLOCK_SIZE = 1 << 17;
+
+	private final WritableByteChannel channel;
+	private final BlockDeflater deflater;
+	private final boolean closeable;
+	private final CRC32 crc;
+	private final Deque<Future<ByteBuffer>> blocks;
+	private ByteBuffer block;
+	private ByteBuffer dictionary;
+	private long size;
+	private boolean started;
+	private boolean closed;
+
+	/**
+	 * Constructs a new {@code GzipChannel} object.
+	 *
+	 * @param channel a channel to write a gzip member to
+	 * @param deflater a deflater of blocks
+	 * @param closeable whether the passed channel should be closed with
+	 *	this channel
+	 */
+	GzipChannel(WritableByteChannel channel, BlockDeflater deflater,
+							boolean closeable)
+	{
+		this.channel = Objects.requireNonNull(channel, "channel");
+		this.deflater = Objects.requireNonNull(deflater, "deflater");
+		this.closeable = closeable;
+		crc = new CRC32();
+		blocks = new ArrayDeque<>();
+		block = ByteBuffer.allocate(BLOCK_SIZE);
+	}
+
+	/**
+	 * Gathers bytes into the current block, and hands every full block
+	 * to the deflater.
+	 *
+	 * @param source a buffer of bytes to write
+	 * @return the number of gathered bytes, i.e. all remaining bytes of
+	 *	the passed buffer
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public int write(ByteBuffer source) throws IOException
+	{
+		if (closed)
+			throw new ClosedChannelException();
+
+		final int length = source.remaining();
+
+		while (source.hasRemaining()) {
+			final int count = Math.min(source.remaining(),
+							block.remaining());
+			final int limit = source.limit();
+			block.put(source.limit(source.position() + count));
+			source.limit(limit);
+
+			if (!block.hasRemaining())
+				submit();
+		}
+
+		return length;
+	}
+
+	private ByteBuffer take()
+	{
+		final ByteBuffer data = block.flip();
+		crc.update(data.duplicate());
+		size += data.remaining();
+		return data;
+	}
+
+	private void submit() throws IOException
+	{
+		final ByteBuffer data = take();
+		blocks.add(deflater.deflate(data, dictionary, false));
+		dictionary = data.slice()
+			.position(Math.max(0, data.remaining()
+					- BlockDeflater.DICTIONARY_SIZE));
+		block = ByteBuffer.allocate(BLOCK_SIZE);
+
+		while (blocks.size() > 2 * deflater.threads())
+			drain(BlockDeflater.await(blocks.remove()));
+	}
+
+	private void drain(ByteBuffer bytes) throws IOException
+	{
+		if (!started) {
+			started = true;
+
+			/* ID1, ID2, CM = 8, FLG = 0, MTIME = 0, XFL, OS = 255. */
+			drain(ByteBuffer.wrap(new byte[] {
+				0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff
+			}));
+		}
+
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+	}
+
+	@Override
+	public boolean isOpen()				{ return !closed; }
+
+	/**
+	 * Deflates the last block, writes all deflated blocks and the trailer
+	 * of the gzip member, and closes the passed channel, if it is
+	 * closeable.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+			return;
+
+		closed = true;
+
+		try {
+			/* Rather deflate the last block than wait idle. */
+			final ByteBuffer lastBlock = deflater.deflated(take(),
+							dictionary, true);
+
+			while (!blocks.isEmpty())
+				drain(BlockDeflater.await(blocks.remove()));
+
+			drain(lastBlock);
+			drain(ByteBuffer.allocate(8)
+				.order(ByteOrder.LITTLE_ENDIAN)
+				.putInt((int) crc.getValue())
+				.putInt((int) size)
+				.flip());
+		} finally {
+			blocks.forEach(future -> future.cancel(false));
+			blocks.clear();
+
+			if (closeable)
+				channel.close();
+		}
+	}
+}
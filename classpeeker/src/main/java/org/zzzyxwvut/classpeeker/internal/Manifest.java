@@ -0,0 +1,381 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * This class serves for keeping track of the files of a directory of
+ * class data, so that a repeated inspection of classes can skip every
+ * class whose class file and file of class data are unchanged since its
+ * last inspection.
+ * <p>
+ * A manifest is a UTF-8 text file whose first line is a header with
+ * the checksum of the settings of an inspection, and whose every other
+ * line is a record of an inspected class: its binary name; the location,
+ * size, and stamp of its class file; and the size, modification time, and
+ * CRC-32C checksum of its file of class data, separated with tabs. All
+ * records are discarded when the settings of an inspection are changed.
+ * <p>
+ * A file of class data whose size and modification time are recorded is
+ * taken as unchanged without being read; otherwise, a file of the recorded
+ * size is read and checksummed, and its record is refreshed if its
+ * checksum is recorded, e.g. after the file is copied.
+ * <p>
+ * A record is appended to a manifest as soon as the file of class data is
+ * written, so that an interrupted inspection can be resumed; the manifest
+ * is rewritten with a record per class when it is closed. Classes whose
+ * inspection fails are not recorded, and classes without a class file
+ * cannot be recorded, so that they are inspected every time.
+ *
+ * @see ClassSource.Entry#stamp()
+ */
+final class Manifest implements AutoCloseable
+{
+	private static final String HEADER = "#classpeeker-manifest-2\t";
+
+	private final Path filePath;
+	private final String header;
+	private final ClassSource classSource;
+	private final Function<String, Path> dataPaths;
+	private final Map<String, Record> records;
+	private final Map<String, String> fingerprints;
+	private final FileChannel journal;
+
+	private Manifest(Path filePath, String header, ClassSource classSource,
+				Function<String, Path> dataPaths,
+				Map<String, Record> records,
+				FileChannel journal)
+	{
+		this.filePath = filePath;
+		this.header = header;
+		this.classSource = classSource;
+		this.dataPaths = dataPaths;
+		this.records = records;
+		fingerprints = new ConcurrentHashMap<>();
+		this.journal = journal;
+	}
+
+	/**
+	 * Opens a manifest, creating its file if the file does not exist.
+	 *
+	 * @param filePath the path of the file of a manifest
+	 * @param settings a description of the settings of an inspection
+	 *	that determine the class data of a class, e.g. the names of
+	 *	collected class data
+	 * @param classSource a source of the class files of inspected classes
+	 * @param dataPaths a function that returns the path of the file of
+	 *	class data for the binary name of a class
+	 * @return an open manifest
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static Manifest open(Path filePath, String settings,
+					ClassSource classSource,
+					Function<String, Path> dataPaths)
+	{
+		Objects.requireNonNull(filePath, "filePath");
+		Objects.requireNonNull(settings, "settings");
+		Objects.requireNonNull(classSource, "classSource");
+		Objects.requireNonNull(dataPaths, "dataPaths");
+		final String header = HEADER.concat(Long.toHexString(
+				checksum(ByteBuffer.wrap(settings.getBytes(
+						StandardCharsets.UTF_8)))));
+		final Map<String, Record> records = new ConcurrentHashMap<>();
+
+		try {
+			final String text = (Files.exists(filePath))
+				? Files.readString(filePath,
+						StandardCharsets.UTF_8)
+				: "";
+			final List<String> lines = text.lines()
+				.collect(Collectors.toList());
+			final boolean resumable = !lines.isEmpty()
+					&& header.equals(lines.get(0));
+
+			if (resumable) {
+				/* Skip malformed records, e.g. torn lines. */
+				lines.stream()
+					.skip(1L)
+					.map(line -> line.split("\t", -1))
+					.filter(fields -> fields.length == 5)
+					.forEach(fields -> parse(fields)
+						.ifPresent(record -> records
+							.put(fields[0],
+								record)));
+			}
+
+			final FileChannel journal = (resumable)
+				? FileChannel.open(filePath,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.APPEND)
+				: FileChannel.open(filePath,
+						StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING);
+			final Manifest manifest = new Manifest(filePath, header,
+						classSource, dataPaths,
+						records, journal);
+
+			/* Terminate any torn line, or write a new header. */
+			if (!resumable)
+				manifest.append(header);
+			else if (!text.endsWith("\n"))
+				manifest.append("");
+
+			return manifest;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Optional<Record> parse(String[] fields)
+	{
+		try {
+			return Optional.of(new Record(fields[1],
+					Long.parseLong(fields[2]),
+					Long.parseLong(fields[3]),
+					Long.parseUnsignedLong(fields[4], 16)));
+		} catch (final NumberFormatException e) {
+			return Optional.empty();
+		}
+	}
+
+	private static long checksum(ByteBuffer bytes)
+	{
+		final CRC32C crc = new CRC32C();
+		crc.update(bytes);
+		return crc.getValue();
+	}
+
+	private static boolean isRecordable(String text)
+	{
+		return text.indexOf('\t') < 0 && text.indexOf('\n') < 0
+					&& text.indexOf('\r') < 0;
+	}
+
+	private void append(String line) throws IOException
+	{
+		final ByteBuffer bytes = ByteBuffer.wrap(line.concat("\n")
+				.getBytes(StandardCharsets.UTF_8));
+
+		synchronized (journal) {
+			while (bytes.hasRemaining())
+				journal.write(bytes);
+		}
+	}
+
+	/**
+	 * Returns whether a class is unchanged since its last inspection,
+	 * i.e. whether its class file has the recorded fingerprint and its
+	 * file of class data has the recorded size and either the recorded
+	 * modification time or the recorded checksum.
+	 * <p>
+	 * Otherwise, the file of class data of the class is deleted, if it
+	 * exists, and the fingerprint of its class file, if any, is kept
+	 * for recording, see {@link #record(String)}.
+	 *
+	 * @param className a class name, or {@code null}
+	 * @return whether a class is unchanged since its last inspection
+	 * @throws UncheckedIOException if an I/O error occurs
+	 * @see ClassPeeker#binaryName(String)
+	 */
+	boolean isCurrent(String className)
+	{
+		if (className == null || className.isBlank())
+			return false;
+
+		final String binaryName = ClassPeeker.binaryName(className);
+
+		if (binaryName.isEmpty())
+			return false;
+
+		final String fingerprint = classSource.find(binaryName)
+			.map(entry -> String.format("%s|%d|%d",
+						entry.location(),
+						entry.size(),
+						entry.stamp()))
+			.filter(Manifest::isRecordable)
+			.orElse(null);
+		final Path dataPath = dataPaths.apply(binaryName);
+		final Record record = records.get(binaryName);
+
+		try {
+			if (fingerprint != null && record != null
+					&& record.fingerprint.equals(
+							fingerprint)
+					&& isUnchanged(binaryName, dataPath,
+								record))
+				return true;
+
+			Files.deleteIfExists(dataPath);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (fingerprint != null && isRecordable(binaryName))
+			fingerprints.put(binaryName, fingerprint);
+
+		return false;
+	}
+
+	private boolean isUnchanged(String className, Path dataPath,
+					Record record) throws IOException
+	{
+		final BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes(dataPath,
+						BasicFileAttributes.class);
+		} catch (final NoSuchFileException e) {
+			return false;
+		}
+
+		if (!attributes.isRegularFile()
+				|| attributes.size() != record.size)
+			return false;
+
+		final long time = attributes.lastModifiedTime().toMillis();
+
+		if (time == record.time)
+			return true;
+
+		/* Only hash a file whose modification time is not recorded. */
+		if (checksum(dataPath) != record.crc)
+			return false;
+
+		final Record touched = new Record(record.fingerprint,
+						record.size, time, record.crc);
+		records.put(className, touched);
+		append(touched.line(className));
+		return true;
+	}
+
+	private static long checksum(Path dataPath) throws IOException
+	{
+		return checksum(ByteBuffer.wrap(Files.readAllBytes(dataPath)));
+	}
+
+	/**
+	 * Records the written file of class data of a class whose
+	 * fingerprint is kept, see {@link #isCurrent(String)}.
+	 *
+	 * @param className the binary name of a class
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	void record(String className)
+	{
+		final String fingerprint = fingerprints.remove(className);
+
+		if (fingerprint == null)
+			return;
+
+		final Path dataPath = dataPaths.apply(className);
+
+		try {
+			final BasicFileAttributes attributes = Files
+				.readAttributes(dataPath,
+						BasicFileAttributes.class);
+
+			if (!attributes.isRegularFile())
+				return;
+
+			final Record record = new Record(fingerprint,
+						attributes.size(),
+						attributes.lastModifiedTime()
+							.toMillis(),
+						checksum(dataPath));
+			records.put(className, record);
+			append(record.line(className));
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Discards the kept fingerprint of a class, so that the class is not
+	 * recorded, e.g. whenever its inspection fails.
+	 *
+	 * @param className the binary name of a class
+	 */
+	void discard(String className)
+	{
+		fingerprints.remove(className);
+	}
+
+	/**
+	 * Rewrites the file of this manifest with a record per class and
+	 * closes this manifest.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	public void close()
+	{
+		try {
+			journal.close();
+			final Path tmpPath = filePath.resolveSibling(filePath
+						.getFileName()
+						.toString()
+						.concat(".tmp"));
+			Files.write(tmpPath, (Iterable<String>) Stream.concat(
+						Stream.of(header),
+						new TreeMap<>(records)
+							.entrySet()
+							.stream()
+							.map(entry -> entry
+								.getValue()
+								.line(entry
+								.getKey())))
+					::iterator,
+				StandardCharsets.UTF_8);
+			Files.move(tmpPath, filePath,
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** This class holds the record of a class. */
+	private static final class Record
+	{
+		final String fingerprint;
+		final long size;
+		final long time;
+		final long crc;
+
+		Record(String fingerprint, long size, long time, long crc)
+		{
+			this.fingerprint = fingerprint;
+			this.size = size;
+			this.time = time;
+			this.crc = crc;
+		}
+
+		String line(String className)
+		{
+			return String.join("\t", className, fingerprint,
+						Long.toString(size),
+						Long.toString(time),
+						Long.toHexString(crc));
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * This class serves for reading entries of a JAR (ZIP) file that is mapped
+ * into memory once.
+ * <p>
+ * The central directory of a file is indexed by entry names when a file is
+ * opened, so that any lookup costs a single hash probe. The bytes of stored
+ * entries are returned as read-only slices of the mapped file, whereas the
+ * bytes of deflated entries are inflated into new buffers.
+ * <p>
+ * Note that files larger than {@code Integer.MAX_VALUE} bytes are not
+ * supported, and that a mapping is only released when its buffer becomes
+ * unreachable.
+ */
+final class MappedJarFile
+{
+	private static final int LOC_SIGNATURE = 0x04034b50;
+	private static final int CEN_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int END_LENGTH = 22;
+	private static final int ZIP64_LOCATOR_LENGTH = 20;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+
+	private final Path jarPath;
+	private final ByteBuffer buffer;
+	private final Map<String, Entry> entries;
+
+	private MappedJarFile(Path jarPath, ByteBuffer buffer,
+						Map<String, Entry> entries)
+	{
+		this.jarPath = jarPath;
+		this.buffer = buffer;
+		this.entries = entries;
+	}
+
+	/**
+	 * Maps a JAR file into memory and indexes its central directory.
+	 *
+	 * @param jarPath the path of a JAR file
+	 * @return a mapped JAR file
+	 * @throws UncheckedIOException if an I/O error occurs or the file is
+	 *	malformed
+	 */
+	static MappedJarFile open(Path jarPath)
+	{
+		Objects.requireNonNull(jarPath, "jarPath");
+
+		try (FileChannel channel = FileChannel.open(jarPath,
+						StandardOpenOption.READ)) {
+			final long size = channel.size();
+
+			if (size > Integer.MAX_VALUE)
+				throw new ZipException(String.format(
+						"Too large a file: '%s'",
+						jarPath));
+
+			final ByteBuffer buffer = channel.map(
+					FileChannel.MapMode.READ_ONLY, 0L, size)
+				.asReadOnlyBuffer()
+				.order(ByteOrder.LITTLE_ENDIAN);
+			return new MappedJarFile(jarPath, buffer,
+						index(jarPath, buffer));
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (final IndexOutOfBoundsException e) {
+			throw new UncheckedIOException(new ZipException(
+					String.format("Malformed file: '%s'",
+								jarPath)));
+		}
+	}
+
+	private static int endOffset(ByteBuffer buffer)
+	{
+		final int limit = Math.max(0, buffer.limit() - END_LENGTH
+						- 0xffff);	/* A comment. */
+
+		for (int offset = buffer.limit() - END_LENGTH; offset >= limit;
+								--offset) {
+			if (buffer.getInt(offset) == END_SIGNATURE)
+				return offset;
+		}
+
+		return -1;
+	}
+
+	private static Map<String, Entry> index(Path jarPath, ByteBuffer buffer)
+						throws ZipException
+	{
+		final int endOffset = endOffset(buffer);
+
+		if (endOffset < 0)
+			throw new ZipException(String.format(
+					"No end of central directory: '%s'",
+					jarPath));
+
+		long count = Short.toUnsignedLong(buffer.getShort(
+							endOffset + 10));
+		long offset = Integer.toUnsignedLong(buffer.getInt(
+							endOffset + 16));
+		final int locatorOffset = endOffset - ZIP64_LOCATOR_LENGTH;
+
+		if (locatorOffset >= 0 && buffer.getInt(locatorOffset)
+					== ZIP64_LOCATOR_SIGNATURE) {
+			final int zip64EndOffset = Math.toIntExact(buffer
+						.getLong(locatorOffset + 8));
+
+			if (buffer.getInt(zip64EndOffset)
+						!= ZIP64_END_SIGNATURE)
+				throw new ZipException(String.format(
+					"Malformed ZIP64 end of central"
+						+ " directory: '%s'",
+					jarPath));
+
+			count = buffer.getLong(zip64EndOffset + 32);
+			offset = buffer.getLong(zip64EndOffset + 48);
+		}
+
+		final Map<String, Entry> entries = new LinkedHashMap<>(
+				(int) Math.min(count * 4 / 3 + 1, 1 << 20));
+		int cursor = Math.toIntExact(offset);
+
+		for (long i = 0; i < count; ++i) {
+			if (buffer.getInt(cursor) != CEN_SIGNATURE)
+				throw new ZipException(String.format(
+					"Malformed central directory: '%s'",
+					jarPath));
+
+			final int method = Short.toUnsignedInt(buffer.getShort(
+								cursor + 10));
+			final int crc = buffer.getInt(cursor + 16);
+			long compressedSize = Integer.toUnsignedLong(buffer
+						.getInt(cursor + 20));
+			long size = Integer.toUnsignedLong(buffer.getInt(
+								cursor + 24));
+			final int nameLength = Short.toUnsignedInt(buffer
+						.getShort(cursor + 28));
+			final int extraLength = Short.toUnsignedInt(buffer
+						.getShort(cursor + 30));
+			final int commentLength = Short.toUnsignedInt(buffer
+						.getShort(cursor + 32));
+			long localOffset = Integer.toUnsignedLong(buffer
+						.getInt(cursor + 42));
+			final byte[] name = new byte[nameLength];
+			buffer.duplicate()
+				.position(cursor + 46)
+				.get(name);
+
+			/* See the ZIP64 extended information extra field. */
+			for (int extra = cursor + 46 + nameLength,
+					extraLimit = extra + extraLength;
+					extra + 4 <= extraLimit;) {
+				final int id = Short.toUnsignedInt(buffer
+							.getShort(extra));
+				final int length = Short.toUnsignedInt(buffer
+							.getShort(extra + 2));
+
+				if (id == ZIP64_EXTRA_ID) {
+					int field = extra + 4;
+
+					if (size == 0xffffffffL) {
+						size = buffer.getLong(field);
+						field += 8;
+					}
+
+					if (compressedSize == 0xffffffffL) {
+						compressedSize = buffer
+							.getLong(field);
+						field += 8;
+					}
+
+					if (localOffset == 0xffffffffL)
+						localOffset = buffer
+							.getLong(field);
+
+					break;
+				}
+
+				extra += 4 + length;
+			}
+
+			entries.put(new String(name, StandardCharsets.UTF_8),
+				new Entry(method,
+					crc,
+					Math.toIntExact(compressedSize),
+					Math.toIntExact(size),
+					Math.toIntExact(localOffset)));
+			cursor += 46 + nameLength + extraLength + commentLength;
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Returns the path of this JAR file.
+	 *
+	 * @return the path of this JAR file
+	 */
+	Path path()					{ return jarPath; }
+
+	/**
+	 * Returns whether this JAR file has an entry.
+	 *
+	 * @param entryName the name of an entry, e.g.
+	 *	{@code java/util/Map$Entry.class}
+	 * @return whether this JAR file has an entry
+	 */
+	boolean contains(String entryName)
+	{
+		return entries.containsKey(entryName);
+	}
+
+	/**
+	 * Returns a stream of the names of entries of this JAR file in their
+	 * order of the central directory.
+	 *
+	 * @return a stream of the names of entries of this JAR file
+	 */
+	Stream<String> entryNames()
+	{
+		return entries.keySet().stream();
+	}
+
+	/**
+	 * Reads the bytes of an entry.
+	 *
+	 * @param entryName the name of an entry, e.g.
+	 *	{@code java/util/Map$Entry.class}
+	 * @return an optional with a read-only buffer of the bytes of
+	 *	an entry, otherwise an empty optional
+	 * @throws UncheckedIOException if the entry is malformed or
+	 *	compressed with an unsupported method
+	 */
+	Optional<ByteBuffer> read(String entryName)
+	{
+		final Entry entry = entries.get(entryName);
+		return (entry == null)
+			? Optional.empty()
+			: Optional.of(read(entryName, entry));
+	}
+
+	/**
+	 * Returns the uncompressed size of an entry without reading it.
+	 *
+	 * @param entryName the name of an entry, e.g.
+	 *	{@code java/util/Map$Entry.class}
+	 * @return an optional with the uncompressed size of an entry,
+	 *	otherwise an empty optional
+	 */
+	OptionalLong size(String entryName)
+	{
+		final Entry entry = entries.get(entryName);
+		return (entry == null)
+			? OptionalLong.empty()
+			: OptionalLong.of(entry.size);
+	}
+
+	/**
+	 * Returns the CRC-32 checksum of the uncompressed data of an entry
+	 * without reading it.
+	 *
+	 * @param entryName the name of an entry, e.g.
+	 *	{@code java/util/Map$Entry.class}
+	 * @return an optional with the CRC-32 checksum of an entry,
+	 *	otherwise an empty optional
+	 */
+	OptionalLong crc(String entryName)
+	{
+		final Entry entry = entries.get(entryName);
+		return (entry == null)
+			? OptionalLong.empty()
+			: OptionalLong.of(Integer.toUnsignedLong(entry.crc));
+	}
+
+	private ByteBuffer read(String entryName, Entry entry)
+	{
+		try {
+			if (buffer.getInt(entry.localOffset) != LOC_SIGNATURE)
+				throw new ZipException(String.format(
+						"Malformed local header: '%s'",
+						entryName));
+
+			final int dataOffset = entry.localOffset + 30
+				+ Short.toUnsignedInt(buffer.getShort(
+						entry.localOffset + 26))
+				+ Short.toUnsignedInt(buffer.getShort(
+						entry.localOffset + 28));
+			final ByteBuffer data = buffer.duplicate()
+				.position(dataOffset)
+				.limit(dataOffset + entry.compressedSize)
+				.slice();
+
+			switch (entry.method) {
+			case STORED:
+				return data;
+			case DEFLATED:
+				return inflate(entryName, data, entry.size);
+			default:
+				throw new ZipException(String.format(
+					"Unsupported compression method: %d"
+						+ " ('%s')",
+					entry.method, entryName));
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (final IndexOutOfBoundsException
+					| IllegalArgumentException e) {
+			throw new UncheckedIOException(new ZipException(
+					String.format("Malformed entry: '%s'",
+								entryName)));
+		}
+	}
+
+	private static ByteBuffer inflate(String entryName, ByteBuffer data,
+					int size) throws ZipException
+	{
+		final Inflater inflater = new Inflater(true);	/* No header. */
+
+		try {
+			final ByteBuffer inflated = ByteBuffer.allocate(size);
+			inflater.setInput(data);
+
+			while (inflated.hasRemaining() && !inflater.finished()) {
+				if (inflater.inflate(inflated) == 0
+						&& (inflater.needsInput()
+						|| inflater.needsDictionary()))
+					break;
+			}
+
+			if (inflated.hasRemaining())
+				throw new ZipException(String.format(
+						"Truncated entry: '%s'",
+						entryName));
+
+			return inflated.flip()
+				.asReadOnlyBuffer();
+		} catch (final DataFormatException e) {
+			final ZipException ze = new ZipException(String.format(
+						"Malformed entry: '%s'",
+						entryName));
+			ze.initCause(e);
+			throw ze;
+		} finally {
+			inflater.end();
+		}
+	}
+
+	@Override
+	public String toString()			{ return jarPath.toString(); }
+
+	/** This class holds the central directory data of an entry. */
+	private static final class Entry
+	{
+		final int method;
+		final int crc;
+		final int compressedSize;
+		final int size;
+		final int localOffset;
+
+		Entry(int method, int crc, int compressedSize, int size,
+							int localOffset)
+		{
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localOffset = localOffset;
+		}
+	}
+}
@@ -33,39 +33,166 @@ import org.apache.commons.cli.ParseException;
 /** This class serves for parsing command line arguments. */
 class OptionParser
 {
-	private static final Options OPTIONS = new Options()
-		.addOption(LauncherOption.HELP.shortName(),
-			LauncherOption.HELP.longName(),
-			LauncherOption.HELP.requiresArgument(),
-			LauncherOption.HELP.description())
-		.addOption(LauncherOption.ABORT_ON_ERROR.shortName(),
-			LauncherOption.ABORT_ON_ERROR.longName(),
-			LauncherOption.ABORT_ON_ERROR.requiresArgument(),
-			LauncherOption.ABORT_ON_ERROR.description())
-		.addOption(LauncherOption.CONCURRENT.shortName(),
-			LauncherOption.CONCURRENT.longName(),
-			LauncherOption.CONCURRENT.requiresArgument(),
-			LauncherOption.CONCURRENT.description())
-		.addOption(LauncherOption.READ_FROM.shortName(),
-			LauncherOption.READ_FROM.longName(),
-			LauncherOption.READ_FROM.requiresArgument(),
-			LauncherOption.READ_FROM.description())
-		.addOptionGroup(new OptionGroup()
+	/*
+	 * The options are built on demand, so that neither a run with class
+	 * names alone nor a run without arguments pays for them.
+	 */
+	private static final class OptionsHolder
+	{
+		static final Options OPTIONS = new Options()
+			.addOption(LauncherOption.HELP.shortName(),
+				LauncherOption.HELP.longName(),
+				LauncherOption.HELP.requiresArgument(),
+				LauncherOption.HELP.description())
+			.addOption(LauncherOption.ABORT_ON_ERROR.shortName(),
+				LauncherOption.ABORT_ON_ERROR.longName(),
+				LauncherOption.ABORT_ON_ERROR.requiresArgument(),
+				LauncherOption.ABORT_ON_ERROR.description())
+			.addOption(LauncherOption.BYTECODE.shortName(),
+				LauncherOption.BYTECODE.longName(),
+				LauncherOption.BYTECODE.requiresArgument(),
+				LauncherOption.BYTECODE.description())
+			.addOption(LauncherOption.CDS_TRAIN.shortName(),
+				LauncherOption.CDS_TRAIN.longName(),
+				LauncherOption.CDS_TRAIN.requiresArgument(),
+				LauncherOption.CDS_TRAIN.description())
+			.addOption(Option
+				.builder(LauncherOption.CLASS_PATH.shortName())
+				.longOpt(LauncherOption.CLASS_PATH.longName())
+				.hasArg(LauncherOption.CLASS_PATH.requiresArgument())
+				.desc(LauncherOption.CLASS_PATH.description())
+				.argName("PATH")
+				.build())
+			.addOption(Option
+				.builder(LauncherOption.CONNECT.shortName())
+				.longOpt(LauncherOption.CONNECT.longName())
+				.hasArg(LauncherOption.CONNECT.requiresArgument())
+				.desc(LauncherOption.CONNECT.description())
+				.argName("SOCKET")
+				.build())
+			.addOption(LauncherOption.CONCURRENT.shortName(),
+				LauncherOption.CONCURRENT.longName(),
+				LauncherOption.CONCURRENT.requiresArgument(),
+				LauncherOption.CONCURRENT.description())
+			.addOption(Option
+				.builder(LauncherOption.DIFF.shortName())
+				.longOpt(LauncherOption.DIFF.longName())
+				.hasArg(LauncherOption.DIFF.requiresArgument())
+				.desc(LauncherOption.DIFF.description())
+				.argName("PATH")
+				.build())
+			.addOption(Option
+				.builder(LauncherOption.EXCLUDE.shortName())
+				.longOpt(LauncherOption.EXCLUDE.longName())
+				.hasArg(LauncherOption.EXCLUDE.requiresArgument())
+				.desc(LauncherOption.EXCLUDE.description())
+				.argName("SECTIONS")
+				.build())
+			.addOption(Option
+				.builder(LauncherOption.FORMAT.shortName())
+				.longOpt(LauncherOption.FORMAT.longName())
+				.hasArg(LauncherOption.FORMAT.requiresArgument())
+				.desc(LauncherOption.FORMAT.description())
+				.argName("FORMAT")
+				.build())
+			.addOption(LauncherOption.GZIP.shortName(),
+				LauncherOption.GZIP.longName(),
+				LauncherOption.GZIP.requiresArgument(),
+				LauncherOption.GZIP.description())
+			.addOption(LauncherOption.LARGEST_FIRST.shortName(),
+				LauncherOption.LARGEST_FIRST.longName(),
+				LauncherOption.LARGEST_FIRST.requiresArgument(),
+				LauncherOption.LARGEST_FIRST.description())
+			.addOption(Option
+				.builder(LauncherOption.LAYOUT.shortName())
+				.longOpt(LauncherOption.LAYOUT.longName())
+				.hasArg(LauncherOption.LAYOUT.requiresArgument())
+				.desc(LauncherOption.LAYOUT.description())
+				.argName("LAYOUT")
+				.build())
 			.addOption(Option
-				.builder(LauncherOption.SINGLE.shortName())
-				.longOpt(LauncherOption.SINGLE.longName())
-				.hasArg(LauncherOption.SINGLE
-							.requiresArgument())
-				.desc(LauncherOption.SINGLE.description())
+				.builder(LauncherOption.MANIFEST.shortName())
+				.longOpt(LauncherOption.MANIFEST.longName())
+				.hasArg(LauncherOption.MANIFEST.requiresArgument())
+				.desc(LauncherOption.MANIFEST.description())
 				.build())
+			.addOption(LauncherOption.NO_INIT.shortName(),
+				LauncherOption.NO_INIT.longName(),
+				LauncherOption.NO_INIT.requiresArgument(),
+				LauncherOption.NO_INIT.description())
 			.addOption(Option
-				.builder(LauncherOption.WRITE_TO.shortName())
-				.longOpt(LauncherOption.WRITE_TO.longName())
-				.hasArg(LauncherOption.WRITE_TO
-							.requiresArgument())
-				.desc(LauncherOption.WRITE_TO.description())
-				.argName("DIRNAME")
-				.build()));
+				.builder(LauncherOption.ONLY.shortName())
+				.longOpt(LauncherOption.ONLY.longName())
+				.hasArg(LauncherOption.ONLY.requiresArgument())
+				.desc(LauncherOption.ONLY.description())
+				.argName("SECTIONS")
+				.build())
+			.addOption(LauncherOption.PREFILTER.shortName(),
+				LauncherOption.PREFILTER.longName(),
+				LauncherOption.PREFILTER.requiresArgument(),
+				LauncherOption.PREFILTER.description())
+			.addOption(LauncherOption.READ_FROM.shortName(),
+				LauncherOption.READ_FROM.longName(),
+				LauncherOption.READ_FROM.requiresArgument(),
+				LauncherOption.READ_FROM.description())
+			.addOption(Option
+				.builder(LauncherOption.RECYCLE.shortName())
+				.longOpt(LauncherOption.RECYCLE.longName())
+				.hasArg(LauncherOption.RECYCLE.requiresArgument())
+				.desc(LauncherOption.RECYCLE.description())
+				.argName("N")
+				.build())
+			.addOption(Option
+				.builder(LauncherOption.SCAN.shortName())
+				.longOpt(LauncherOption.SCAN.longName())
+				.hasArg(LauncherOption.SCAN.requiresArgument())
+				.desc(LauncherOption.SCAN.description())
+				.argName("SELECTORS")
+				.build())
+			.addOption(Option
+				.builder(LauncherOption.SERVE.shortName())
+				.longOpt(LauncherOption.SERVE.longName())
+				.hasArg(LauncherOption.SERVE.requiresArgument())
+				.desc(LauncherOption.SERVE.description())
+				.argName("SOCKET")
+				.build())
+			.addOption(LauncherOption.STATS.shortName(),
+				LauncherOption.STATS.longName(),
+				LauncherOption.STATS.requiresArgument(),
+				LauncherOption.STATS.description())
+			.addOption(Option
+				.builder(LauncherOption.THREADS.shortName())
+				.longOpt(LauncherOption.THREADS.longName())
+				.hasArg(LauncherOption.THREADS.requiresArgument())
+				.desc(LauncherOption.THREADS.description())
+				.argName("N")
+				.build())
+			.addOptionGroup(new OptionGroup()
+				.addOption(Option
+					.builder(LauncherOption.ARCHIVE.shortName())
+					.longOpt(LauncherOption.ARCHIVE.longName())
+					.hasArg(LauncherOption.ARCHIVE
+								.requiresArgument())
+					.desc(LauncherOption.ARCHIVE.description())
+					.build())
+				.addOption(Option
+					.builder(LauncherOption.SINGLE.shortName())
+					.longOpt(LauncherOption.SINGLE.longName())
+					.hasArg(LauncherOption.SINGLE
+								.requiresArgument())
+					.desc(LauncherOption.SINGLE.description())
+					.build())
+				.addOption(Option
+					.builder(LauncherOption.WRITE_TO.shortName())
+					.longOpt(LauncherOption.WRITE_TO.longName())
+					.hasArg(LauncherOption.WRITE_TO
+								.requiresArgument())
+					.desc(LauncherOption.WRITE_TO.description())
+					.argName("DIRNAME")
+					.build()));
+
+		private OptionsHolder() { /* No instantiation. */ }
+	}
 
 	private final Map<LauncherOption, Optional<String>> options;
 	private final List<String> classNames;
@@ -80,15 +207,20 @@ class OptionParser
 		Objects.requireNonNull(args, "args");
 
 		try {
-			if (args.length > 0) {
+			if (args.length > 0 && args[0].startsWith("-")) {
 				final CommandLine commandLine =
 							new DefaultParser()
-					.parse(OPTIONS, args, true);
+					.parse(OptionsHolder.OPTIONS, args,
+								true);
 				options = parse(commandLine.iterator());
 				classNames = commandLine.getArgList();
 			} else {
+				/*
+				 * Parsing stops at the first non-option, so
+				 * all arguments are class names.
+				 */
 				options = Map.of();
-				classNames = List.of();
+				classNames = List.of(args);
 			}
 		} catch (final ParseException e) {
 			throw new IllegalStateException(e);
@@ -160,6 +292,8 @@ class OptionParser
 			+ "%n%n%1$s%4$s \\"
 			+ "%n-%5$s /tmp/URI.txt java.net.URI java.net.URI\\$1 "
 				+ "java.net.URI\\$Parser"
+			+ "%n%n%1$s%4$s \\"
+			+ "%n-%10$s%11$s 'java.util.concurrent.**'"
 			+ "%n%n%1$smkdir /tmp/jdk-11 &&"
 			+ "%n%1$stime %4$s \\"
 			+ "%n-%6$s%7$s%8$s /tmp/jdk-11 -%9$s "
@@ -173,12 +307,14 @@ class OptionParser
 			LauncherOption.ABORT_ON_ERROR.shortName(),
 			LauncherOption.CONCURRENT.shortName(),
 			LauncherOption.WRITE_TO.shortName(),
-			LauncherOption.READ_FROM.shortName());
+			LauncherOption.READ_FROM.shortName(),
+			LauncherOption.BYTECODE.shortName(),
+			LauncherOption.SCAN.shortName());
 		final HelpFormatter formatter = new HelpFormatter();
 		formatter.setArgName("FILENAME");
 		formatter.setSyntaxPrefix(String.format("Usage:%n%s", padding));
 		formatter.printHelp(writer, 80, cmdLineSyntax, header,
-						OPTIONS, 4, 4, footer, true);
+					OptionsHolder.OPTIONS, 4, 4, footer, true);
 		writer.flush();
 	}
 
@@ -229,18 +365,263 @@ class OptionParser
 		ABORT_ON_ERROR("a", "abort-on-error", false,
 			"Abort further inspection of a class on error"),
 
-		/** An option of collecting data concurrently. */
+		/**
+		 * An option of writing each class data to an entry of a new
+		 * archive file.
+		 *
+		 * @see ResultArchive
+		 */
+		ARCHIVE("x", "archive", true,
+			"Write EACH class data to an entry of a NEW archive"
+			+ " (ZIP) file"),
+
+		/**
+		 * An option of reading class files of the run-time image and
+		 * the class path instead of loading classes.
+		 */
+		BYTECODE("b", "bytecode", false,
+			"Read class files instead of loading classes"),
+
+		/**
+		 * An option of running a workload of all other options and
+		 * class names, or of a default scan, with a new virtual
+		 * machine and dumping a dynamic class data sharing archive of
+		 * its loaded classes to the passed file.
+		 *
+		 * @see Trainer
+		 */
+		CDS_TRAIN("j", "cds-train", true,
+			"Run a workload of all other arguments (or a scan of"
+			+ " java.util.*) and dump a class data sharing archive"
+			+ " for -XX:SharedArchiveFile"),
+
+		/**
+		 * An option of loading classes of the passed class path with
+		 * a dedicated class loader rather than the class loader of
+		 * an entry point class.
+		 * <p>
+		 * The class path replaces the launcher class path for class
+		 * files and scanning as well.
+		 *
+		 * @see ClassSourceLoader
+		 */
+		CLASS_PATH("p", "class-path", true,
+			"Load (or read) classes of a class path with"
+			+ " a dedicated class loader"),
+
+		/**
+		 * An option of passing all other options and class names to
+		 * a server of the passed Unix domain socket and copying its
+		 * streamed output.
+		 *
+		 * @see Daemon
+		 */
+		CONNECT("k", "connect", true,
+			"Inspect classes with a server of a Unix domain"
+			+ " socket, see --serve"),
+
+		/**
+		 * An option of collecting data concurrently with as many
+		 * worker threads as there are available processors.
+		 *
+		 * @see WorkScheduler
+		 */
 		CONCURRENT("c", "concurrent", false,
 			"Collect data concurrently"),
 
-		/** An option of reading class names from a file. */
+		/**
+		 * An option of comparing, concurrently, the class data of
+		 * classes of the class path with the class data of classes of
+		 * the passed class path and writing only the changed class
+		 * data. Unless class data elements are selected with
+		 * {@link #ONLY}, the class loader element is not compared.
+		 *
+		 * @see ClassDiffer
+		 */
+		DIFF("d", "diff", true,
+			"Compare class data with those of classes of another"
+			+ " class path, writing only changed class data"),
+
+		/**
+		 * An option of leaving out the class data elements that match
+		 * any of comma-separated descriptions or indices.
+		 *
+		 * @see SectionSelector
+		 */
+		EXCLUDE("e", "exclude", true,
+			"Leave out class data of comma-separated descriptions"
+			+ " or 1-based indices, e.g. 'Annotations,15-16'"),
+
+		/**
+		 * An option of writing the results of a class either as
+		 * text blocks or as a JSON object per line.
+		 *
+		 * @see ResultFormat
+		 */
+		FORMAT("f", "format", true,
+			"Write class data as either text (default) or jsonl,"
+			+ " a JSON object per class and line"),
+
+		/**
+		 * An option of compressing written files with gzip, deflating
+		 * independent blocks of data with as many threads as there are
+		 * processors, or with N threads of --threads.
+		 *
+		 * @see BlockDeflater
+		 */
+		GZIP("v", "gzip", false,
+			"Compress the written files of --archive,"
+			+ " --single-file, or --write-to-directory"
+			+ " with gzip on all processors"),
+
+		/**
+		 * An option of dealing out larger classes first to the workers
+		 * of a concurrent inspection, estimating class sizes with
+		 * the sizes of class files.
+		 *
+		 * @see WorkScheduler
+		 */
+		LARGEST_FIRST("z", "largest-first", false,
+			"Collect data of larger classes first with"
+			+ " --concurrent"),
+
+		/**
+		 * An option of laying out the files of a directory of class
+		 * data either flat, or in subdirectories named after hash
+		 * codes or package names of classes.
+		 *
+		 * @see SinkPool.Layout
+		 */
+		LAYOUT("y", "layout", true,
+			"Lay out files of --write-to-directory: flat (default),"
+			+ " hash, or package subdirectories"),
+
+		/**
+		 * An option of skipping every class whose class file and file
+		 * of class data are unchanged since its last inspection with
+		 * {@code --write-to-directory} recorded in a manifest file,
+		 * e.g. resuming an interrupted inspection.
+		 *
+		 * @see Manifest
+		 */
+		MANIFEST("m", "manifest", true,
+			"Skip classes unchanged since their last inspection"
+			+ " with --write-to-directory, recorded in a manifest"
+			+ " file"),
+
+		/**
+		 * An option of loading classes without ever initializing them,
+		 * so that no static initializer is run: enum constants are
+		 * derived from enum fields and class data that would otherwise
+		 * initialize classes, e.g. annotations with enum elements, are
+		 * read from class files.
+		 *
+		 * @see org.zzzyxwvut.classpeeker.ClassSnapshot#ClassSnapshot(
+		 *	Class, boolean)
+		 */
+		NO_INIT("g", "no-init", false,
+			"Never initialize loaded classes, reading enum"
+			+ " constants and annotations from class metadata"),
+
+		/**
+		 * An option of collecting only the class data elements that
+		 * match any of comma-separated descriptions or indices, so
+		 * that no other class data element is ever applied.
+		 *
+		 * @see SectionSelector
+		 */
+		ONLY("o", "only", true,
+			"Collect only class data of comma-separated descriptions"
+			+ " or 1-based indices, e.g. 'Methods,Declared Methods'"),
+
+		/**
+		 * An option of rejecting, without loading or reading, every
+		 * class whose name is missing from a Bloom filter of the class
+		 * names of the class path, unless it belongs to a package of
+		 * the run-time image.
+		 * <p>
+		 * Note that classes that can only be loaded from elsewhere,
+		 * e.g. the module path, are rejected as well.
+		 *
+		 * @see ClassNameFilter
+		 */
+		PREFILTER("q", "prefilter", false,
+			"Reject class names missing from the run-time image and"
+			+ " the class path before loading (or reading) them"),
+
+		/**
+		 * An option of reading class names from a file, or from
+		 * the standard input if the file name is {@code -}.
+		 */
 		READ_FROM("r", "read-from-file", true,
-			"Read class names from a file"),
+			"Read class names from a file (or, with -, from the"
+			+ " standard input as they arrive)"),
+
+		/**
+		 * An option of replacing the dedicated class loader of
+		 * the class path with a new one after every N classes, so
+		 * that the metaspace of loaded classes may be reclaimed.
+		 *
+		 * @see ClassSourceLoader#recycler(ClassSource, ClassLoader,
+		 *	long)
+		 */
+		RECYCLE("n", "recycle-loader", true,
+			"Replace the class loader of --class-path with"
+			+ " a new one after every N classes"),
+
+		/**
+		 * An option of scanning the run-time image and the class path
+		 * for class names that match any of comma-separated selectors.
+		 *
+		 * @see ClassSelector
+		 */
+		SCAN("l", "scan", true,
+			"Scan the run-time image and the class path for"
+			+ " classes of comma-separated packages (without"
+			+ " subpackages) or wildcard patterns, either optionally"
+			+ " qualified with a module of the run-time image,"
+			+ " or whole modules, e.g."
+			+ " java.util,java.util.*,java.sql/javax.**,java.base/"),
+
+		/**
+		 * An option of serving inspection requests of clients over
+		 * the passed Unix domain socket until the server is stopped.
+		 *
+		 * @see Daemon
+		 */
+		SERVE("u", "serve", true,
+			"Serve requests of --connect clients over a Unix domain"
+			+ " socket"),
 
 		/** An option of writing all collected data to a new file. */
 		SINGLE("s", "single-file", true,
 			"Write ALL collected data to a NEW file"),
 
+		/**
+		 * An option of measuring the wall time, the thread CPU time,
+		 * and the allocated bytes of class resolution, every class
+		 * data element, rendering, and writing, and reporting their
+		 * percentiles, the slowest classes, and the totals of every
+		 * phase, followed by the depth of the work queue and the
+		 * utilization of worker threads of concurrent collection, to
+		 * the standard error.
+		 *
+		 * @see Statistics
+		 */
+		STATS("i", "stats", false,
+			"Report timing and allocation statistics of classes"
+			+ " and class data elements, and the utilization of"
+			+ " worker threads"),
+
+		/**
+		 * An option of collecting data concurrently with N worker
+		 * threads, whose utilization is reported with {@link #STATS}.
+		 *
+		 * @see WorkScheduler
+		 */
+		THREADS("t", "threads", true,
+			"Collect data concurrently with N threads"),
+
 		/** An option of writing each class data to a new file. */
 		WRITE_TO("w", "write-to-directory", true,
 			"Write EACH class data to a NEW file");
@@ -0,0 +1,222 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+/**
+ * This class serves for writing results of concurrent class inspection
+ * to a single sink or archive in the encounter order of classes.
+ * <p>
+ * Workers render all results of a class in some {@link ResultFormat} into
+ * a reusable per-thread buffer that is copied once into a rendition, see
+ * {@link #renderer(Function)}; and a single writer appends the completed
+ * renditions to a sink, see {@link #drain(Rendition)}, that writes them
+ * in large batches. So
+ * the written bytes are the same as for a sequential inspection, and
+ * workers never contend for the sink.
+ * <p>
+ * E.g. {@code scheduler.map(classNames, output.renderer(peeker))
+ * .allMatch(output::drain)}.
+ */
+final class OrderedOutput
+{
+	private static final int MAX_RETAINED_CHARS = 1 << 20;
+	private static final ThreadLocal<StringBuilder> BUILDERS =
+			ThreadLocal.withInitial(() -> new StringBuilder(8192));
+	private static final Rendition SKIPPED = new Rendition("",
+						new StringBuilder(0), true);
+
+	private final BiConsumer<String, CharBuffer> appender;
+	private final Runnable flusher;
+	private final ResultFormat format;
+	private final boolean abortOnError;
+	private final Statistics statistics;
+	private final AtomicBoolean stopped;
+
+	/**
+	 * Constructs a new {@code OrderedOutput} object.
+	 *
+	 * @param sink a sink to write to
+	 * @param format a format of renditions
+	 * @param abortOnError whether to stop at the first failed result
+	 * @param statistics statistics to accumulate the measurements of
+	 *	rendering and writing with
+	 */
+	OrderedOutput(ResultSink sink, ResultFormat format,
+				boolean abortOnError, Statistics statistics)
+	{
+		this((className, rendition) -> sink.append(rendition),
+			Objects.requireNonNull(sink, "sink")::flush,
+			format,
+			abortOnError,
+			statistics);
+	}
+
+	/**
+	 * Constructs a new {@code OrderedOutput} object that writes
+	 * the rendition of every class as an entry of an archive.
+	 *
+	 * @param archive an archive to write to
+	 * @param format a format of renditions
+	 * @param abortOnError whether to stop at the first failed result
+	 * @param statistics statistics to accumulate the measurements of
+	 *	rendering and writing with
+	 */
+	OrderedOutput(ResultArchive archive, ResultFormat format,
+				boolean abortOnError, Statistics statistics)
+	{
+		this((className, rendition) -> {
+				/* See the none result of console input. */
+				if (className != null)
+					archive.write(ClassPeeker.binaryName(
+							className), rendition);
+			},
+			() -> { },
+			format,
+			abortOnError,
+			statistics);
+		Objects.requireNonNull(archive, "archive");
+	}
+
+	private OrderedOutput(BiConsumer<String, CharBuffer> appender,
+				Runnable flusher, ResultFormat format,
+				boolean abortOnError, Statistics statistics)
+	{
+		this.appender = appender;
+		this.flusher = flusher;
+		this.format = Objects.requireNonNull(format, "format");
+		this.abortOnError = abortOnError;
+		this.statistics = Objects.requireNonNull(statistics,
+							"statistics");
+		stopped = new AtomicBoolean();
+	}
+
+	/**
+	 * Returns a function that renders all results of a class, up to
+	 * and including the first stopping result, i.e. the none result or,
+	 * when aborting on error, a failed result.
+	 * <p>
+	 * Once the writer has met a stopping result, no more classes are
+	 * inspected.
+	 *
+	 * @param peeker a function that inspects a class
+	 * @return a function that renders all results of a class
+	 */
+	Function<String, Rendition> renderer(
+			Function<String, Stream<Result>> peeker)
+	{
+		Objects.requireNonNull(peeker, "peeker");
+		return className -> {
+			if (stopped.get())
+				return SKIPPED;
+
+			final StringBuilder builder = BUILDERS.get();
+			builder.setLength(0);
+			final ResultFormat.Record record = format.record(
+								builder);
+			boolean stopping = false;
+
+			try (Stream<Result> results = peeker.apply(
+							className)) {
+				for (Iterator<Result> iterator = results
+						.iterator();
+						!stopping && iterator.hasNext();) {
+					final Result result = iterator.next();
+					final Statistics.Stopwatch stopwatch =
+							statistics.start(
+							Statistics.RENDERING);
+					record.append(result);
+					stopwatch.stop(result.className());
+					stopping = result instanceof None
+						|| (abortOnError
+							&& result instanceof
+								Failure);
+				}
+			}
+
+			record.close();
+			final Rendition rendition = new Rendition(className,
+							builder, stopping);
+
+			if (builder.capacity() > MAX_RETAINED_CHARS) {
+				builder.setLength(0);
+				builder.trimToSize();
+				builder.ensureCapacity(8192);
+			}
+
+			return rendition;
+		};
+	}
+
+	/**
+	 * Appends a rendition to the sink, unless a stopping result has been
+	 * met, and should be called in the encounter order of classes.
+	 *
+	 * @param rendition a rendition of all results of a class
+	 * @return whether no stopping result has been met, so that more
+	 *	renditions may be appended
+	 */
+	boolean drain(Rendition rendition)
+	{
+		if (stopped.get())
+			return false;
+
+		final Statistics.Stopwatch stopwatch = statistics.start(
+							Statistics.WRITING);
+		appender.accept(rendition.className,
+					CharBuffer.wrap(rendition.chars));
+
+		if (!stopwatch.isIdle() && rendition.className != null
+				&& !rendition.className.isBlank())
+			stopwatch.stop(ClassPeeker.binaryName(
+						rendition.className));
+
+		if (rendition.stopping)
+			stopped.set(true);
+
+		return !rendition.stopping;
+	}
+
+	/**
+	 * Writes any renditions appended so far.
+	 */
+	void flush()					{ flusher.run(); }
+
+	/**
+	 * Returns whether no stopping result has been met.
+	 *
+	 * @return whether no stopping result has been met
+	 */
+	boolean isComplete()				{ return !stopped.get(); }
+
+	/**
+	 * This class holds the rendition of all results of a class.
+	 * <p>
+	 * Rendered characters are copied into an array so that encoders may
+	 * take their fast paths for array-backed buffers.
+	 */
+	static final class Rendition
+	{
+		private final String className;
+		private final char[] chars;
+		private final boolean stopping;
+
+		private Rendition(String className, StringBuilder builder,
+							boolean stopping)
+		{
+			this.className = className;
+			chars = new char[builder.length()];
+			builder.getChars(0, chars.length, chars, 0);
+			this.stopping = stopping;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class serves for recording a phase of the inspection of a class
+ * with Java Flight Recorder, so that the work of inspection may be told
+ * apart from garbage collection and class loading in a recording, e.g.
+ * {@code java -XX:StartFlightRecording:filename=rec.jfr -jar bundle.jar
+ * -l java.util.*} and {@code jfr print --categories classpeeker rec.jfr}.
+ * <p>
+ * No event is created unless the flight recorder is initialised, see
+ * {@link Statistics#start(String)}.
+ * <p>
+ * (Note that this class should not refer to its subclasses, so that
+ * a subclass is never loaded in the middle of the verification of this
+ * class while it is instrumented for recording.)
+ */
+@Category("classpeeker")
+@StackTrace(false)
+abstract class PhaseEvent extends Event
+{
+	/** The name of the inspected class. */
+	@Label("Class Name")
+	String className;
+
+	/** The label of the phase, see {@link Statistics#label(String)}. */
+	@Label("Description")
+	@Description("The description of the class data of a phase")
+	String description;
+
+	/**
+	 * Ends this event and commits it, if its threshold is exceeded.
+	 *
+	 * @param className the name of a class
+	 * @param phase the name of a phase
+	 */
+	void commit(String className, String phase)
+	{
+		end();
+
+		if (!shouldCommit())
+			return;
+
+		this.className = className;
+		description = Statistics.label(phase);
+		commit();
+	}
+
+	/** An event of loading or reading a class. */
+	@Name("org.zzzyxwvut.classpeeker.Resolution")
+	@Label("Class Resolution")
+	static final class Resolution extends PhaseEvent { }
+
+	/** An event of applying a class data methodist. */
+	@Name("org.zzzyxwvut.classpeeker.Inspection")
+	@Label("Class Data Inspection")
+	static final class Inspection extends PhaseEvent { }
+
+	/** An event of rendering a result. */
+	@Name("org.zzzyxwvut.classpeeker.Rendering")
+	@Label("Result Rendering")
+	static final class Rendering extends PhaseEvent { }
+
+	/** An event of writing a rendition. */
+	@Name("org.zzzyxwvut.classpeeker.Writing")
+	@Label("Rendition Writing")
+	static final class Writing extends PhaseEvent { }
+}
@@ -0,0 +1,260 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * This class serves for keeping the class sources and the peekers of
+ * inspections resident across the requests of a server, so that
+ * a repeated request of the same configuration reuses the indexed JAR
+ * files, the prefiltering Bloom filter, and the classes loaded so far
+ * rather than building them anew.
+ * <p>
+ * A class source is kept per class path and the sizes and modification
+ * times of its elements, so that a rebuilt JAR file is indexed anew.
+ * Note that the class files of a directory element are not stamped, so
+ * that a changed class file of a directory is not loaded again by
+ * a resident peeker.
+ * <p>
+ * A peeker is kept per configuration, e.g. its mode, its class data, and
+ * its class sources, and is handed out anew for every request, so that
+ * the class names that it could not find are not remembered across
+ * requests, see {@link ClassPeeker#measured(Statistics)}. Only so many
+ * class sources and peekers are kept as there are configurations, see
+ * {@link #newInstance(int)}. The least recently used class source is
+ * closed as soon as no request being served uses it, see
+ * {@link #release(ClassSource)}; and the least recently used peeker is
+ * left to be collected.
+ *
+ * @see Daemon
+ */
+final class Residents
+{
+	private static final Residents NONE = new Residents(0,
+							ClassSource::classPath);
+
+	private final Function<String, ClassSource> sourcer;
+	private final Map<ClassSource, Integer> leases;
+	private final Set<ClassSource> evictions;
+	private final Map<List<Object>, ClassSource> sources;
+	private final Map<List<Object>, ClassPeeker> peekers;
+
+	private Residents(int capacity, Function<String, ClassSource> sourcer)
+	{
+		this.sourcer = sourcer;
+		leases = new IdentityHashMap<>();
+		evictions = Collections.newSetFromMap(new IdentityHashMap<>());
+		sources = map(capacity, this::evict);
+		peekers = map(capacity, peeker -> { });
+	}
+
+	private static <V> Map<List<Object>, V> map(int capacity,
+							Consumer<V> evictor)
+	{
+		return (capacity > 0)
+			? new LinkedHashMap<>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<List<Object>, V> entry)
+				{
+					if (size() <= capacity)
+						return false;
+
+					evictor.accept(entry.getValue());
+					return true;
+				}
+			}
+			: null;
+	}
+
+	/* Close an evicted source now, unless a request uses it. */
+	private void evict(ClassSource source)
+	{
+		if (leases.containsKey(source))
+			evictions.add(source);
+		else
+			source.close();
+	}
+
+	/**
+	 * Returns an instance that keeps nothing resident, so that every
+	 * class source and every peeker is built anew.
+	 *
+	 * @return an instance that keeps nothing resident
+	 */
+	static Residents none()				{ return NONE; }
+
+	/**
+	 * Returns a new instance that keeps the class sources and the peekers
+	 * of so many configurations resident.
+	 *
+	 * @param capacity the number of configurations to keep resident
+	 * @return a new instance that keeps class sources and peekers
+	 *	resident
+	 * @throws IllegalArgumentException if {@code capacity} is not
+	 *	positive
+	 */
+	static Residents newInstance(int capacity)
+	{
+		return newInstance(capacity, ClassSource::classPath);
+	}
+
+	/**
+	 * Returns a new instance that keeps the class sources and the peekers
+	 * of so many configurations resident, building class sources with
+	 * the passed function.
+	 *
+	 * @param capacity the number of configurations to keep resident
+	 * @param sourcer a function that builds the source of class files
+	 *	of a class path
+	 * @return a new instance that keeps class sources and peekers
+	 *	resident
+	 * @throws IllegalArgumentException if {@code capacity} is not
+	 *	positive
+	 */
+	static Residents newInstance(int capacity,
+				Function<String, ClassSource> sourcer)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive capacity: %d", capacity));
+
+		return new Residents(capacity, Objects.requireNonNull(sourcer,
+								"sourcer"));
+	}
+
+	/**
+	 * Returns whether this instance keeps anything resident.
+	 *
+	 * @return whether this instance keeps anything resident
+	 */
+	boolean isEnabled()				{ return sources != null; }
+
+	/**
+	 * Returns a source of class files of a class path, see
+	 * {@link ClassSource#classPath(String)}.
+	 *
+	 * @param classPath a list of paths separated with
+	 *	{@link File#pathSeparator}
+	 * @return a source of class files of a class path, which should be
+	 *	released by the caller, see {@link #release(ClassSource)}
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	ClassSource source(String classPath)
+	{
+		Objects.requireNonNull(classPath, "classPath");
+
+		if (!isEnabled())
+			return sourcer.apply(classPath);
+
+		final List<Object> stamps = stamps(classPath);
+
+		synchronized (sources) {
+			final ClassSource source = sources.computeIfAbsent(
+						stamps,
+						key -> sourcer.apply(classPath));
+			leases.merge(source, 1, Integer::sum);
+			return source;
+		}
+	}
+
+	/**
+	 * Releases a source of class files obtained with
+	 * {@link #source(String)}, closing it unless it is kept resident or
+	 * another request still uses it.
+	 *
+	 * @param source a source of class files
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	void release(ClassSource source)
+	{
+		Objects.requireNonNull(source, "source");
+
+		if (isEnabled()) {
+			synchronized (sources) {
+				if (leases.merge(source, -1, Integer::sum) > 0)
+					return;
+
+				leases.remove(source);
+
+				if (!evictions.remove(source))
+					return;
+			}
+		}
+
+		source.close();
+	}
+
+	private static List<Object> stamps(String classPath)
+	{
+		final List<Object> stamps = new ArrayList<>();
+		stamps.add(classPath);
+
+		for (String element : Pattern.compile(Pattern.quote(
+							File.pathSeparator))
+				.split(classPath)) {
+			if (element.isBlank())
+				continue;
+
+			try {
+				final BasicFileAttributes attributes = Files
+					.readAttributes(Path.of(element),
+						BasicFileAttributes.class);
+				stamps.add(attributes.size());
+				stamps.add(attributes.lastModifiedTime());
+			} catch (final IOException e) {
+				stamps.add(-1L);	/* Non-existent. */
+			}
+		}
+
+		return stamps;
+	}
+
+	/**
+	 * Returns a peeker of a configuration, building it with the passed
+	 * factory unless it is resident, and then deriving a new peeker of
+	 * a request from it.
+	 *
+	 * @param configuration a list of everything that determines
+	 *	a peeker, e.g. its class data and its class sources
+	 * @param factory a supplier of a new peeker of a configuration
+	 * @return a peeker of a configuration
+	 */
+	ClassPeeker peeker(List<Object> configuration,
+					Supplier<ClassPeeker> factory)
+	{
+		Objects.requireNonNull(configuration, "configuration");
+		Objects.requireNonNull(factory, "factory");
+
+		if (!isEnabled())
+			return factory.get();
+
+		final ClassPeeker peeker;
+
+		synchronized (peekers) {
+			peeker = peekers.computeIfAbsent(configuration,
+						key -> factory.get());
+		}
+
+		/* Let no missing class name outlive a request. */
+		return peeker.measured(Statistics.none());
+	}
+}
@@ -0,0 +1,401 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+/**
+ * This class serves for writing the renditions of results of class
+ * inspection as entries of a single archive file.
+ * <p>
+ * An archive is a ZIP file of stored (uncompressed) UTF-8 entries named
+ * after binary class names, whose central directory serves as a trailing
+ * index of entry offsets. Thus every rendition costs a few dozen bytes of
+ * headers rather than a file of its own, and any rendition can be read
+ * back as a slice of the mapped archive with a single hash probe, see
+ * {@link MappedJarFile}. A class is written once, i.e. its repeated
+ * renditions are skipped.
+ * <p>
+ * With a block deflater, entries are deflated instead, each on some thread
+ * of the deflater while later entries are being rendered, and are written
+ * in their order as they become available.
+ * <p>
+ * Note that archives larger than {@code Integer.MAX_VALUE} bytes are not
+ * supported.
+ */
+final class ResultArchive implements AutoCloseable
+{
+	private static final int LOC_SIGNATURE = 0x04034b50;
+	private static final int CEN_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final short UTF_8_FLAG = 0x0800;
+	private static final short VERSION = 10;
+	private static final short DEFLATED_VERSION = 20;
+	private static final short STORED = 0;
+	private static final short DEFLATED = 8;
+	private static final short ZIP64_VERSION = 45;
+	private static final short DOS_DATE = 0x21;	/* 1980-01-01. */
+	private static final int BATCH_CAPACITY = 1 << 18;
+
+	private final Path archivePath;
+	private final WritableByteChannel channel;
+	private final BlockDeflater deflater;
+	private final CharsetEncoder encoder;
+	private final CRC32 crc;
+	private final ByteBuffer batch;
+	private final List<Entry> entries;
+	private final Set<String> entryNames;
+	private final Deque<Pending> pendings;
+	private ByteBuffer bytes;
+	private long offset;
+	private boolean closed;
+
+	private ResultArchive(Path archivePath, WritableByteChannel channel,
+						BlockDeflater deflater)
+	{
+		this.archivePath = archivePath;
+		this.channel = channel;
+		this.deflater = deflater;
+		encoder = StandardCharsets.UTF_8
+			.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		crc = new CRC32();
+		batch = ByteBuffer.allocate(BATCH_CAPACITY)
+			.order(ByteOrder.LITTLE_ENDIAN);
+		entries = new ArrayList<>();
+		entryNames = new HashSet<>();
+		pendings = new ArrayDeque<>();
+		bytes = ByteBuffer.allocate(8192);
+	}
+
+	/**
+	 * Returns an archive of a new file.
+	 *
+	 * @param archivePath the path of a file to create
+	 * @return an archive of a new file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	already exists
+	 */
+	static ResultArchive newFile(Path archivePath)
+	{
+		return newFile(archivePath, null);
+	}
+
+	/**
+	 * Returns an archive of a new file, whose entries are deflated with
+	 * a deflater.
+	 *
+	 * @param archivePath the path of a file to create
+	 * @param deflater a deflater of blocks, or {@code null} if entries
+	 *	should be stored
+	 * @return an archive of a new file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	already exists
+	 */
+	static ResultArchive newFile(Path archivePath, BlockDeflater deflater)
+	{
+		Objects.requireNonNull(archivePath, "archivePath");
+
+		try {
+			return new ResultArchive(archivePath,
+					FileChannel.open(archivePath,
+						StandardOpenOption.CREATE_NEW,
+						StandardOpenOption.WRITE),
+					deflater);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the rendition of any results of a class as a new entry.
+	 *
+	 * @param className the binary name of a class
+	 * @param rendition the rendition of any results, each followed by
+	 *	a line separator
+	 * @return whether the rendition is written, i.e. no entry of the class
+	 *	has already been written
+	 * @throws UncheckedIOException if an I/O error occurs, or the archive
+	 *	grows too large
+	 */
+	synchronized boolean write(String className, CharBuffer rendition)
+	{
+		Objects.requireNonNull(className, "className");
+		Objects.requireNonNull(rendition, "rendition");
+
+		try {
+			if (!entryNames.add(className))
+				return false;
+
+			final byte[] name = className.getBytes(
+						StandardCharsets.UTF_8);
+			final ByteBuffer data = encode(rendition);
+			crc.reset();
+			crc.update(data.duplicate());
+
+			if (deflater == null) {
+				put(name, STORED, (int) crc.getValue(),
+						data.remaining(), data);
+				return true;
+			}
+
+			/* The encoded bytes are reused, so deflate a copy. */
+			final ByteBuffer copy = ByteBuffer.allocate(
+							data.remaining())
+				.put(data)
+				.flip();
+			pendings.add(new Pending(name, (int) crc.getValue(),
+						copy.remaining(),
+						deflater.deflate(copy, null,
+								true)));
+
+			while (pendings.size() > 2 * deflater.threads())
+				put(pendings.remove());
+
+			return true;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void put(Pending pending) throws IOException
+	{
+		put(pending.name, DEFLATED, pending.crc, pending.size,
+				BlockDeflater.await(pending.future));
+	}
+
+	private void put(byte[] name, short method, int crc, int size,
+					ByteBuffer data) throws IOException
+	{
+		/* So that no offset needs a ZIP64 record. */
+		if (offset + 30 + name.length + data.remaining()
+						> Integer.MAX_VALUE)
+			throw new ZipException(String.format(
+					"Too large an archive: '%s'",
+					archivePath));
+
+		final Entry entry = new Entry(name, method, crc,
+					data.remaining(), size, offset);
+		entries.add(entry);
+		reserve(30 + entry.name.length);
+		batch.putInt(LOC_SIGNATURE)
+			.putShort(entry.version())
+			.putShort(UTF_8_FLAG)
+			.putShort(entry.method)
+			.putShort((short) 0)
+			.putShort(DOS_DATE)
+			.putInt(entry.crc)
+			.putInt(entry.compressedSize)
+			.putInt(entry.size)
+			.putShort((short) entry.name.length)
+			.putShort((short) 0)
+			.put(entry.name);
+
+		if (data.remaining() > batch.remaining()) {
+			drain(batch.flip());
+			batch.clear();
+			drain(data);
+		} else {
+			batch.put(data);
+		}
+
+		offset += 30 + entry.name.length + entry.compressedSize;
+	}
+
+	private ByteBuffer encode(CharBuffer rendition)
+	{
+		encoder.reset();
+		bytes.clear();
+
+		for (CoderResult result = encoder.encode(rendition, bytes,
+								true);
+				result.isOverflow();
+				result = encoder.encode(rendition, bytes,
+								true))
+			bytes = grow(bytes);
+
+		while (encoder.flush(bytes).isOverflow())
+			bytes = grow(bytes);
+
+		return bytes.flip();
+	}
+
+	private static ByteBuffer grow(ByteBuffer buffer)
+	{
+		return ByteBuffer.allocate(buffer.capacity() * 2)
+			.put(buffer.flip());
+	}
+
+	private void reserve(int length) throws IOException
+	{
+		if (batch.remaining() < length) {
+			drain(batch.flip());
+			batch.clear();
+		}
+	}
+
+	private void drain(ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+	/**
+	 * Writes the central directory of this archive and closes the file
+	 * of this archive.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	public synchronized void close()
+	{
+		if (closed)
+			return;
+
+		closed = true;
+
+		try {
+			try {
+				writeDirectory();
+			} finally {
+				channel.close();
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeDirectory() throws IOException
+	{
+		while (!pendings.isEmpty())
+			put(pendings.remove());
+
+		final long directoryOffset = offset;
+
+		for (Entry entry : entries) {
+			reserve(46 + entry.name.length);
+			batch.putInt(CEN_SIGNATURE)
+				.putShort(entry.version())
+				.putShort(entry.version())
+				.putShort(UTF_8_FLAG)
+				.putShort(entry.method)
+				.putShort((short) 0)
+				.putShort(DOS_DATE)
+				.putInt(entry.crc)
+				.putInt(entry.compressedSize)
+				.putInt(entry.size)
+				.putShort((short) entry.name.length)
+				.putShort((short) 0)
+				.putShort((short) 0)
+				.putShort((short) 0)
+				.putShort((short) 0)
+				.putInt(0)
+				.putInt((int) entry.offset)
+				.put(entry.name);
+			offset += 46 + entry.name.length;
+		}
+
+		final long directorySize = offset - directoryOffset;
+		final long count = entries.size();
+		reserve(56 + 20 + 22);
+
+		if (count >= 0xffffL) {
+			batch.putInt(ZIP64_END_SIGNATURE)
+				.putLong(44L)
+				.putShort(ZIP64_VERSION)
+				.putShort(ZIP64_VERSION)
+				.putInt(0)
+				.putInt(0)
+				.putLong(count)
+				.putLong(count)
+				.putLong(directorySize)
+				.putLong(directoryOffset)
+				.putInt(ZIP64_LOCATOR_SIGNATURE)
+				.putInt(0)
+				.putLong(offset)
+				.putInt(1);
+		}
+
+		batch.putInt(END_SIGNATURE)
+			.putShort((short) 0)
+			.putShort((short) 0)
+			.putShort((short) Math.min(count, 0xffffL))
+			.putShort((short) Math.min(count, 0xffffL))
+			.putInt((int) directorySize)
+			.putInt((int) directoryOffset)
+			.putShort((short) 0);
+		drain(batch.flip());
+		batch.clear();
+	}
+
+	@Override
+	public String toString()			{ return archivePath.toString(); }
+
+	/** This class holds the central directory data of an entry. */
+	private static final class Entry
+	{
+		final byte[] name;
+		final short method;
+		final int crc;
+		final int compressedSize;
+		final int size;
+		final long offset;
+
+		Entry(byte[] name, short method, int crc, int compressedSize,
+						int size, long offset)
+		{
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.offset = offset;
+		}
+
+		short version()
+		{
+			return (method == DEFLATED) ? DEFLATED_VERSION : VERSION;
+		}
+	}
+
+	/** This class holds an entry that is being deflated. */
+	private static final class Pending
+	{
+		final byte[] name;
+		final int crc;
+		final int size;
+		final Future<ByteBuffer> future;
+
+		Pending(byte[] name, int crc, int size,
+					Future<ByteBuffer> future)
+		{
+			this.name = name;
+			this.crc = crc;
+			this.size = size;
+			this.future = future;
+		}
+	}
+}
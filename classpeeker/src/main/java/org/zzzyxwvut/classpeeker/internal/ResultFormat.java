@@ -0,0 +1,390 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.lang.reflect.Member;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.zzzyxwvut.classpeeker.ClassFile;
+import org.zzzyxwvut.classpeeker.ClassSupport;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+/**
+ * Instances of this interface render all results of a class as a record.
+ *
+ * @see OrderedOutput
+ */
+interface ResultFormat
+{
+	/**
+	 * Returns a new record of a class that renders results into
+	 * a builder.
+	 *
+	 * @param builder a builder to append to
+	 * @return a new record of a class
+	 */
+	Record record(StringBuilder builder);
+
+	/**
+	 * Returns the format of a case-insensitive name, either {@code text}
+	 * or {@code jsonl}.
+	 *
+	 * @param name the name of a format
+	 * @return the format of a name
+	 * @throws IllegalArgumentException if no format has the name
+	 */
+	static ResultFormat fromString(String name)
+	{
+		switch (Objects.requireNonNull(name, "name")
+					.toLowerCase(Locale.ROOT)) {
+		case "text":
+			return TextFormat.TEXT;
+		case "jsonl":
+			return JsonLinesFormat.JSON_LINES;
+		default:
+			throw new IllegalArgumentException(String.format(
+					"Not a format of results: '%s'",
+								name));
+		}
+	}
+
+	/**
+	 * Returns the format of text blocks, the same as written with
+	 * {@link ResultSink#write(Result)}.
+	 *
+	 * @return the format of text blocks
+	 */
+	static ResultFormat text()			{ return TextFormat.TEXT; }
+
+	/**
+	 * Returns the format of JSON Lines, i.e. a JSON object per class
+	 * followed by a line feed.
+	 *
+	 * @return the format of JSON Lines
+	 * @see JsonLinesFormat
+	 */
+	static ResultFormat jsonLines()	{ return JsonLinesFormat.JSON_LINES; }
+
+	/** Instances of this interface render the results of a class. */
+	interface Record
+	{
+		/**
+		 * Renders a result.
+		 *
+		 * @param result a result of class inspection
+		 */
+		void append(Result result);
+
+		/** Completes the rendition of this record. */
+		void close();
+	}
+
+	/** This class serves for rendering results as text blocks. */
+	final class TextFormat implements ResultFormat
+	{
+		private static final TextFormat TEXT = new TextFormat();
+
+		private TextFormat() { /* No instantiation. */ }
+
+		@Override
+		public Record record(StringBuilder builder)
+		{
+			final String newline = System.lineSeparator();
+			return new Record() {
+				@Override
+				public void append(Result result)
+				{
+					result.render(builder)
+						.append(newline);
+				}
+
+				@Override
+				public void close()	{ }
+			};
+		}
+
+		@Override
+		public String toString()	{ return "text"; }
+	}
+
+	/**
+	 * This class serves for rendering results as JSON Lines.
+	 * <p>
+	 * The record of a class is an object with the name of the class,
+	 * e.g. {@code "class":"java.lang.Object"}; a field per class data
+	 * element whose name is derived from its description, e.g.
+	 * {@code "simpleName":["Object"]}; and, if any errors are caught,
+	 * an array of their string representations, e.g.
+	 * {@code "errors":["java.lang.ClassNotFoundException: Foo"]}.
+	 * <p>
+	 * The value of a class data field is either {@code null}, if no
+	 * data are available, or an array of non-{@code null} elements of
+	 * the following types:
+	 * <ul>
+	 * <li>an object of {@code "flags"}, the access flags, and
+	 *	{@code "text"} for class modifiers;
+	 * <li>an object of {@code "name"}, {@code "modifiers"}, and
+	 *	{@code "text"} for fields, methods, and constructors;
+	 * <li>a number or a boolean for numbers and booleans;
+	 * <li>a binary name for classes, a name for enum constants, a type
+	 *	name for other types, and otherwise a string representation.
+	 * </ul>
+	 * Records are written straight into a builder, without any
+	 * intermediate tree of objects.
+	 */
+	final class JsonLinesFormat implements ResultFormat
+	{
+		private static final JsonLinesFormat JSON_LINES =
+							new JsonLinesFormat();
+		private static final char[] HEX_DIGITS =
+					"0123456789abcdef".toCharArray();
+
+		private final Map<String, String> fieldNames;
+
+		private JsonLinesFormat()
+		{
+			fieldNames = new ConcurrentHashMap<>();
+		}
+
+		/**
+		 * Returns the camel-cased field name of the last line of
+		 * a section description, e.g. for
+		 * {@code "####%n%n\tClass/Interface Modifiers:"} returns
+		 * {@code "classInterfaceModifiers"}.
+		 *
+		 * @param description the description of a section
+		 * @return the field name of a section description
+		 */
+		static String fieldName(String description)
+		{
+			final int start = Math.max(
+					description.lastIndexOf('\t'),
+					description.lastIndexOf('\n')) + 1;
+			final StringBuilder builder = new StringBuilder(
+						description.length() - start);
+			boolean upper = false;
+
+			for (int i = start; i < description.length(); ++i) {
+				final char c = description.charAt(i);
+
+				if (!Character.isLetterOrDigit(c)) {
+					upper = builder.length() > 0;
+				} else if (builder.length() == 0) {
+					builder.append(Character.toLowerCase(c));
+				} else if (upper) {
+					builder.append(Character.toUpperCase(c));
+					upper = false;
+				} else {
+					builder.append(c);
+				}
+			}
+
+			return (builder.length() == 0)
+				? "data"
+				: builder.toString();
+		}
+
+		@Override
+		public Record record(StringBuilder builder)
+		{
+			return new Record() {
+				private List<Failure> failures;
+				private boolean open;
+
+				private void open(Result result)
+				{
+					if (open)
+						return;
+
+					open = true;
+					builder.append("{\"class\":");
+					string(builder, result.className());
+				}
+
+				@Override
+				public void append(Result result)
+				{
+					if (result instanceof Success) {
+						open(result);
+						section(builder,
+							(Success) result);
+					} else if (result instanceof Failure) {
+						open(result);
+
+						if (failures == null)
+							failures = new
+							ArrayList<>(2);
+
+						failures.add((Failure) result);
+					}	/* Skip the none result. */
+				}
+
+				@Override
+				public void close()
+				{
+					if (!open)
+						return;
+
+					if (failures != null) {
+						builder.append(
+							",\"errors\":[");
+
+						for (int i = 0; i < failures
+								.size(); ++i) {
+							if (i > 0)
+								builder.append(
+									',');
+
+							string(builder,
+								failures.get(i)
+								.toString());
+						}
+
+						builder.append(']');
+					}
+
+					builder.append("}\n");
+				}
+			};
+		}
+
+		private void section(StringBuilder builder, Success success)
+		{
+			builder.append(',');
+			string(builder, fieldNames.computeIfAbsent(
+						success.description(),
+						JsonLinesFormat::fieldName));
+			builder.append(':');
+			final Object[] classData = success.classData();
+
+			if (classData == null) {
+				builder.append("null");
+				return;
+			}
+
+			builder.append('[');
+			boolean first = true;
+
+			for (Object element : classData) {
+				if (element == null)
+					continue;
+
+				if (!first)
+					builder.append(',');
+
+				value(builder, element);
+				first = false;
+			}
+
+			builder.append(']');
+		}
+
+		private static void value(StringBuilder builder, Object element)
+		{
+			if (element instanceof CharSequence) {
+				string(builder, (CharSequence) element);
+			} else if (element instanceof Number
+					|| element instanceof Boolean) {
+				builder.append(element);
+			} else if (element instanceof ClassSupport.Modifiers) {
+				final ClassSupport.Modifiers modifiers =
+					(ClassSupport.Modifiers) element;
+				builder.append("{\"flags\":")
+					.append(modifiers.flags())
+					.append(",\"text\":");
+				string(builder, modifiers.toString());
+				builder.append('}');
+			} else if (element instanceof Class<?>) {
+				string(builder, ((Class<?>) element).getName());
+			} else if (element instanceof ClassFile) {
+				string(builder, ((ClassFile) element).name());
+			} else if (element instanceof Member) {
+				final Member member = (Member) element;
+				member(builder, member.getName(),
+					member.getModifiers(),
+					member.toString());
+			} else if (element instanceof ClassFile.Member) {
+				final ClassFile.Member member =
+						(ClassFile.Member) element;
+				member(builder, member.name(),
+					member.modifiers(),
+					member.toString());
+			} else if (element instanceof Type) {
+				string(builder, ((Type) element).getTypeName());
+			} else if (element instanceof Enum<?>) {
+				string(builder, ((Enum<?>) element).name());
+			} else {
+				string(builder, String.valueOf(element));
+			}
+		}
+
+		private static void member(StringBuilder builder, String name,
+						int modifiers, String text)
+		{
+			builder.append("{\"name\":");
+			string(builder, name);
+			builder.append(",\"modifiers\":")
+				.append(modifiers)
+				.append(",\"text\":");
+			string(builder, text);
+			builder.append('}');
+		}
+
+		/**
+		 * Appends a JSON string of a character sequence, whose
+		 * quotation marks, reverse solidi, and control characters
+		 * are escaped, see RFC 8259, $7.
+		 *
+		 * @param builder a builder to append to
+		 * @param chars a character sequence to quote
+		 */
+		static void string(StringBuilder builder, CharSequence chars)
+		{
+			builder.append('"');
+
+			for (int i = 0, length = chars.length(); i < length;
+									++i) {
+				final char c = chars.charAt(i);
+
+				switch (c) {
+				case '"':
+					builder.append("\\\"");
+					break;
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						builder.append("\\u00")
+							.append(HEX_DIGITS[
+								c >>> 4])
+							.append(HEX_DIGITS[
+								c & 0xf]);
+					} else {
+						builder.append(c);
+					}
+				}
+			}
+
+			builder.append('"');
+		}
+
+		@Override
+		public String toString()	{ return "jsonl"; }
+	}
+}
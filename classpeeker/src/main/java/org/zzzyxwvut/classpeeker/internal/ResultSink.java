@@ -0,0 +1,372 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+/**
+ * This class serves for writing results of class inspection to a byte
+ * channel.
+ * <p>
+ * Every result is rendered element by element into a reusable per-thread
+ * character buffer that is then encoded, chunk by chunk, into a reusable
+ * per-thread byte buffer and written to a channel. The written bytes are
+ * the same as would be written with
+ * {@code printStream.println(result.toString())} for a print stream of
+ * the same charset.
+ * <p>
+ * The rendition of a result is written under the lock of its sink, so
+ * that the renditions of results written concurrently are not interleaved.
+ */
+final class ResultSink implements AutoCloseable
+{
+	private static final int MAX_RETAINED_CHARS = 1 << 20;
+	private static final int BATCH_CAPACITY = 1 << 18;
+	private static final ThreadLocal<Buffers> BUFFERS =
+				ThreadLocal.withInitial(Buffers::new);
+
+	private final WritableByteChannel channel;
+	private final CharsetEncoder encoder;
+	private final boolean closeable;
+	private ByteBuffer batch;
+	private boolean closed;
+
+	/**
+	 * Constructs a new {@code ResultSink} object.
+	 *
+	 * @param channel a channel to write to
+	 * @param charset a charset to encode renditions with
+	 * @param closeable whether the passed channel should be closed with
+	 *	this sink
+	 */
+	ResultSink(WritableByteChannel channel, Charset charset,
+							boolean closeable)
+	{
+		this.channel = Objects.requireNonNull(channel, "channel");
+		/* Behave as PrintStream, i.e. replace unmappable characters. */
+		encoder = Objects.requireNonNull(charset, "charset")
+			.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.closeable = closeable;
+	}
+
+	/**
+	 * Returns a sink of a new file, encoding renditions in UTF-8.
+	 *
+	 * @param filePath the path of a file to create
+	 * @return a sink of a new file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	already exists
+	 */
+	static ResultSink newFile(Path filePath)
+	{
+		return newFile(filePath, null);
+	}
+
+	/**
+	 * Returns a sink of a new file, encoding renditions in UTF-8 and,
+	 * with a deflater, compressing them into a gzip member.
+	 *
+	 * @param filePath the path of a file to create
+	 * @param deflater a deflater of blocks, or {@code null} if
+	 *	renditions should not be compressed
+	 * @return a sink of a new file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	already exists
+	 * @see GzipChannel
+	 */
+	static ResultSink newFile(Path filePath, BlockDeflater deflater)
+	{
+		try {
+			return of(FileChannel.open(filePath,
+						StandardOpenOption.CREATE_NEW,
+						StandardOpenOption.WRITE),
+					deflater);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns a sink that appends to an existing file, encoding
+	 * renditions in UTF-8.
+	 *
+	 * @param filePath the path of an existing file
+	 * @return a sink that appends to an existing file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	does not exist
+	 */
+	static ResultSink existingFile(Path filePath)
+	{
+		return existingFile(filePath, null);
+	}
+
+	/**
+	 * Returns a sink that appends to an existing file, encoding
+	 * renditions in UTF-8 and, with a deflater, compressing them into
+	 * another gzip member.
+	 *
+	 * @param filePath the path of an existing file
+	 * @param deflater a deflater of blocks, or {@code null} if
+	 *	renditions should not be compressed
+	 * @return a sink that appends to an existing file
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	does not exist
+	 * @see GzipChannel
+	 */
+	static ResultSink existingFile(Path filePath, BlockDeflater deflater)
+	{
+		try {
+			return of(FileChannel.open(filePath,
+						StandardOpenOption.WRITE,
+						StandardOpenOption.APPEND),
+					deflater);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static ResultSink of(FileChannel channel,
+						BlockDeflater deflater)
+	{
+		return new ResultSink((deflater == null)
+				? channel
+				: new GzipChannel(channel, deflater, true),
+			StandardCharsets.UTF_8,
+			true);
+	}
+
+	/**
+	 * Returns a sink of a print stream that is never closed by the sink,
+	 * encoding renditions in the charset of the standard output.
+	 *
+	 * @param printStream a print stream, e.g. {@code System.out}
+	 * @return a sink of a print stream
+	 */
+	static ResultSink of(PrintStream printStream)
+	{
+		return new ResultSink(Channels.newChannel(printStream),
+				Stream.of("stdout.encoding", "sun.stdout.encoding")
+					.map(System::getProperty)
+					.filter(Objects::nonNull)
+					.filter(Charset::isSupported)
+					.findFirst()
+					.map(Charset::forName)
+					.orElseGet(Charset::defaultCharset),
+				false);
+	}
+
+	/**
+	 * Writes the rendition of a result, followed by a line separator.
+	 *
+	 * @param result a result of class inspection
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	void write(Result result)
+	{
+		write(result, Statistics.none());
+	}
+
+	/**
+	 * Writes the rendition of a result, followed by a line separator,
+	 * measuring its rendering and its writing.
+	 *
+	 * @param result a result of class inspection
+	 * @param statistics statistics to accumulate measurements with
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	void write(Result result, Statistics statistics)
+	{
+		Objects.requireNonNull(result, "result");
+		Objects.requireNonNull(statistics, "statistics");
+		final Buffers buffers = BUFFERS.get();
+		final StringBuilder chars = buffers.chars;
+		chars.setLength(0);
+		final Statistics.Stopwatch renderingStopwatch = statistics
+					.start(Statistics.RENDERING);
+		result.render(chars)
+			.append(System.lineSeparator());
+		renderingStopwatch.stop(result.className());
+		final Statistics.Stopwatch writingStopwatch = statistics
+					.start(Statistics.WRITING);
+
+		try {
+			write(buffers, buffers.charBuffer());
+		} finally {
+			buffers.trim();
+			writingStopwatch.stop(result.className());
+		}
+	}
+
+	/**
+	 * Encodes a rendition into the batch buffer of this sink, writing
+	 * the buffer whenever it fills up.
+	 * <p>
+	 * This method is not synchronised and should be called from a single
+	 * writer at a time, see {@link OrderedOutput}.
+	 *
+	 * @param rendition the rendition of any results, each followed by
+	 *	a line separator
+	 * @throws UncheckedIOException if an I/O error occurs
+	 * @see #flush()
+	 */
+	void append(CharBuffer rendition)
+	{
+		if (batch == null)
+			batch = ByteBuffer.allocate(BATCH_CAPACITY);
+
+		try {
+			while (encoder.encode(rendition, batch, false)
+							.isOverflow()) {
+				drain(batch.flip());
+				batch.clear();
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the batch buffer of this sink, if any.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 * @see #append(CharBuffer)
+	 */
+	void flush()
+	{
+		if (batch == null || batch.position() == 0)
+			return;
+
+		try {
+			drain(batch.flip());
+			batch.clear();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * As with PrintStream, the state of the encoder persists across
+	 * renditions until this sink is closed, e.g. a byte-order mark is
+	 * written at most once.
+	 */
+	private void write(Buffers buffers, CharBuffer chars)
+	{
+		final ByteBuffer bytes = buffers.bytes;
+
+		try {
+			synchronized (this) {
+				encode(bytes, chars, false);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void encode(ByteBuffer bytes, CharBuffer chars,
+				boolean endOfInput) throws IOException
+	{
+		CoderResult result;
+
+		do {
+			bytes.clear();
+			result = encoder.encode(chars, bytes, endOfInput);
+			drain(bytes.flip());
+		} while (result.isOverflow());
+
+		if (!endOfInput)
+			return;
+
+		do {
+			bytes.clear();
+			result = encoder.flush(bytes);
+			drain(bytes.flip());
+		} while (result.isOverflow());
+	}
+
+	private void drain(ByteBuffer bytes) throws IOException
+	{
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+	}
+
+	/**
+	 * Flushes the encoder of this sink and closes the channel of this
+	 * sink, if it is closeable.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	public void close()
+	{
+		try {
+			synchronized (this) {
+				if (closed)
+					return;
+
+				closed = true;
+				flush();
+				encode(BUFFERS.get().bytes,
+					CharBuffer.allocate(0),
+					true);
+			}
+
+			if (closeable)
+				channel.close();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * This class holds reusable per-thread buffers.
+	 * <p>
+	 * Rendered characters are copied into an array so that encoders
+	 * may take their fast paths for array-backed buffers.
+	 */
+	private static final class Buffers
+	{
+		final StringBuilder chars = new StringBuilder(8192);
+		final ByteBuffer bytes = ByteBuffer.allocate(8192);
+		private char[] array = new char[8192];
+
+		CharBuffer charBuffer()
+		{
+			final int length = chars.length();
+
+			if (array.length < length)
+				array = new char[Math.max(length,
+						array.length * 2)];
+
+			chars.getChars(0, length, array, 0);
+			return CharBuffer.wrap(array, 0, length);
+		}
+
+		void trim()
+		{
+			if (chars.capacity() > MAX_RETAINED_CHARS) {
+				chars.setLength(0);
+				chars.trimToSize();
+				chars.ensureCapacity(8192);
+				array = new char[8192];
+			}
+		}
+	}
+}
@@ -1,26 +1,37 @@
 package org.zzzyxwvut.classpeeker.internal;
 
+import java.io.BufferedReader;
 import java.io.Console;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
 import org.zzzyxwvut.classpeeker.ClassData;
 import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
@@ -31,15 +42,25 @@ import org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption;
 /** This class serves for running an inspection of classes. */
 public class Runner
 {
+	private static final int BATCH_SIZE = 32;
+	private static final int QUEUE_CAPACITY = 64;
+	private static final int SINK_POOL_CAPACITY = 256;
+	private static final int SLOWEST_CLASS_COUNT = 10;
+	private static final int PIPE_BUFFER_CAPACITY = 1 << 16;
+	private static final String STANDARD_INPUT = "-";
+
+	/* The class data element of the placement of a class, see ClassDiffer. */
+	private static final SectionSelector PLACEMENT =
+					SectionSelector.of("Class Loader:");
+
 	private Runner() { /* No instantiation. */ }
 
-	private static Function<Function<String, PrintStream>,
+	private static Function<Consumer<Result>,
 				Function<Boolean,
 				Predicate<Result>>> resulter()
 	{
 		return printer -> abortOnError -> result -> {
-			printer.apply(result.className())
-				.println(result.toString());
+			printer.accept(result);
 			return !(result instanceof None || (abortOnError
 					&& result instanceof Failure));
 		};
@@ -51,6 +72,130 @@ public class Runner
 		return classPeeker -> classPeeker::peek;
 	}
 
+	private static Function<ClassPeeker,
+				Function<ClassPeeker,
+				Function<String, Stream<Result>>>> differ()
+	{
+		return oldPeeker -> newPeeker -> new ClassDiffer(oldPeeker,
+							newPeeker)::peek;
+	}
+
+	private static Function<List<? extends ClassData>,
+				Function<ClassSource,
+				Function<Supplier<ClassLoader>,
+				ClassPeeker>>> bytecodePeeker()
+	{
+		/* Read class files rather than load classes. */
+		return sections -> classSource -> classLoaders ->
+					new ClassPeeker(sections, classSource);
+	}
+
+	private static Function<List<? extends ClassData>,
+				Function<ClassSource,
+				Function<Supplier<ClassLoader>,
+				ClassPeeker>>> uninitializedPeeker()
+	{
+		return sections -> classSource -> classLoaders ->
+					new ClassPeeker(sections, classLoaders,
+								classSource);
+	}
+
+	private static Function<List<? extends ClassData>,
+				Function<ClassSource,
+				Function<Supplier<ClassLoader>,
+				ClassPeeker>>> loadingPeeker()
+	{
+		return sections -> classSource -> classLoaders ->
+					new ClassPeeker(sections, classLoaders);
+	}
+
+	private static Function<Long,
+				Function<ClassSource,
+				Supplier<ClassLoader>>> recycler()
+	{
+		return limit -> pathSource -> ClassSourceLoader.recycler(
+					pathSource,
+					ClassLoader.getPlatformClassLoader(),
+					limit);
+	}
+
+	private static Function<Boolean,
+				Function<ClassSource,
+				UnaryOperator<ClassPeeker>>> prefilterer()
+	{
+		return prefiltering -> pathSource -> classPeeker ->
+							(prefiltering)
+			? classPeeker.prefiltered(ClassNameFilter.of(
+							pathSource))
+			: classPeeker;
+	}
+
+	private static Function<Statistics, UnaryOperator<ClassPeeker>>
+								measurer()
+	{
+		return statistics -> classPeeker -> (statistics.isEnabled())
+			? classPeeker.measured(statistics)
+			: classPeeker;
+	}
+
+	private static Function<Function<ClassSource,
+				Function<Supplier<ClassLoader>,
+				ClassPeeker>>,
+				Function<Long,
+				Function<Boolean,
+				Function<ClassSource, ClassPeeker>>>> sider()
+	{
+		/* Build either side of a comparison alike, see ClassDiffer. */
+		return moder -> limit -> prefiltering -> pathSource ->
+							prefilterer()
+			.apply(prefiltering)
+			.apply(pathSource)
+			.apply(moder
+				.apply(ClassSource.of(List.of(
+						ClassSource.jrt(),
+						pathSource)))
+				.apply(recycler()
+					.apply(limit)
+					.apply(pathSource)));
+	}
+
+	private static Function<PrintStream,
+				Function<OrderedOutput,
+				Predicate<OrderedOutput.Rendition>>>
+							flushingDrainer()
+	{
+		/* Answer every class name typed in at once. */
+		return out -> orderedOutput -> rendition -> {
+			try {
+				return orderedOutput.drain(rendition);
+			} finally {
+				orderedOutput.flush();
+				out.flush();
+			}
+		};
+	}
+
+	private static Function<PrintStream, UnaryOperator<Consumer<Result>>>
+							flushingPrinter()
+	{
+		/* Answer every class name typed in at once, e.g. by a server. */
+		return out -> printer -> printer.andThen(result -> out.flush());
+	}
+
+	private static Function<ClassLoader, Supplier<ClassLoader>>
+							constantLoader()
+	{
+		return classLoader -> () -> classLoader;
+	}
+
+	private static Function<Statistics,
+				Function<BiConsumer<Result, Statistics>,
+				Consumer<Result>>> measuredWriter()
+	{
+		return statistics -> writer -> result -> writer.accept(result,
+								statistics);
+	}
+
 	private static Function<Console, Supplier<String>> nullableReader()
 	{
 		return console -> () -> console.readLine();
@@ -72,83 +217,212 @@ public class Runner
 	private static Function<Stream<String>, UnaryOperator<Stream<String>>>
 								concatenator()
 	{
-		return leftStream -> rightStream -> Stream.of(leftStream,
-								rightStream)
-			.flatMap(Function.identity());
+		/*
+		 * Unlike a nested flatMap, which buffers all elements of its
+		 * inner stream, advance lazily, so that every piped class name
+		 * is inspected as soon as it is read.
+		 */
+		return leftStream -> rightStream -> Stream.concat(leftStream,
+								rightStream);
 	}
 
-	private static Function<Boolean, UnaryOperator<Stream<String>>>
-								streamer()
+	private static Function<Manifest, UnaryOperator<Consumer<Result>>>
+								discarder()
 	{
-		return inConcurrence -> stream -> (inConcurrence)
-			? stream.parallel()
-			: stream.sequential();
+		/* Leave out classes with failures, so as to retry them. */
+		return manifest -> printer -> result -> {
+			if (result instanceof Failure)
+				manifest.discard(result.className());
+
+			printer.accept(result);
+		};
 	}
 
-	private static Function<String, Stream<String>> reader()
+	private static Function<Manifest,
+				UnaryOperator<Function<String, Boolean>>> skipper()
 	{
-		return fileName -> {
+		return manifest -> inspector -> className -> manifest
+				.isCurrent(className)
+			|| inspector.apply(className);
+	}
+
+	private static Function<Function<String, Stream<Result>>,
+				Function<Predicate<Result>,
+				Function<Consumer<String>,
+				Function<String, Boolean>>>> inspector()
+	{
+		return peeker -> resulter -> closer -> className -> {
+			final Set<String> resultNames = new HashSet<>(2);
+
+			try (Stream<Result> results = peeker.apply(
+							className)) {
+				return results
+					.peek(result -> resultNames.add(
+							result.className()))
+					.allMatch(resulter);
+			} finally {
+				resultNames.forEach(closer);
+			}
+		};
+	}
+
+	private static Function<InputStream, Stream<String>> piper()
+	{
+		/* Hand out every class name as soon as its line is read. */
+		return in -> new BufferedReader(Channels.newReader(
+					Channels.newChannel(in),
+					StandardCharsets.UTF_8.newDecoder(),
+					PIPE_BUFFER_CAPACITY),
+				PIPE_BUFFER_CAPACITY)
+			.lines();
+	}
+
+	private static Function<InputStream,
+				Function<String, Stream<String>>> reader()
+	{
+		return in -> fileName -> (STANDARD_INPUT.equals(fileName))
+			? piper()
+				.apply(in)
+			: ClassList.lines(Path.of(fileName));
+	}
+
+	private static Function<ClassSource,
+				Function<List<ClassSelector>,
+				Stream<String>>> scanner()
+	{
+		/* Dispatch every found name before the walk is over. */
+		return classSource -> selectors -> FlatSpliterator.flatMap(
+						selectors.stream(),
+						classSource::classNames);
+	}
+
+	private static Function<String, Long> limiter()
+	{
+		return limit -> {
 			try {
-				return Files.lines(Path.of(fileName),
-						StandardCharsets.UTF_8);
-			} catch (final IOException e) {
-				throw new UncheckedIOException(e);
+				return Long.valueOf(limit);
+			} catch (final NumberFormatException e) {
+				throw new IllegalArgumentException(String.format(
+					"Not a number of classes: '%s'",
+								limit),
+					e);
 			}
 		};
 	}
 
-	private static Function<Path, PrintStream> writer()
+	private static Function<String, Integer> threader()
 	{
-		return filePath -> {
+		return threads -> {
 			try {
-				/*
-				 * All obtained streams have to be cached so
-				 * that the CREATE_NEW invariant is preserved.
-				 */
-				return new PrintStream(
-					Files.newOutputStream(filePath,
-						StandardOpenOption.CREATE_NEW,
-						StandardOpenOption.WRITE),
-					false, /* Flush not every line. */
-					StandardCharsets.UTF_8);
-			} catch (final IOException e) {
-				throw new UncheckedIOException(e);
+				return Integer.valueOf(threads);
+			} catch (final NumberFormatException e) {
+				throw new IllegalArgumentException(String.format(
+					"Not a number of threads: '%s'",
+								threads),
+					e);
 			}
 		};
 	}
 
-	private static Function<Path, Function<String, PrintStream>> sinker()
+	private static Function<ClassSource, ToLongFunction<String>> sizer()
 	{
-		return writerDirPath -> className -> writer()
-			.apply(writerDirPath
-				.resolve(Path.of(className)));
+		return classSource -> className -> classSource.find(className)
+			.map(ClassSource.Entry::size)
+			.orElse(0L);
 	}
 
-	private static Function<Function<String, PrintStream>,
-				Function<Map<String, PrintStream>,
-				Function<String, PrintStream>>>
-							distinctPrinter()
+	private static Function<BlockDeflater, Function<Path, ResultSink>>
+								writer()
 	{
-		return sinker -> sinks -> className -> sinks
-			.computeIfAbsent(className, sinker);
+		/*
+		 * All obtained sinks have to be cached so that the CREATE_NEW
+		 * invariant is preserved.
+		 */
+		return deflater -> filePath -> ResultSink.newFile(filePath,
+								deflater);
 	}
 
-	private static Function<PrintStream, Function<String, PrintStream>>
+	private static Function<ResultSink, Function<String, ResultSink>>
 							constantPrinter()
 	{
-		return printStream -> className -> printStream;
+		return resultSink -> className -> resultSink;
 	}
 
 	private static Function<String,
-				Function<Map<String, PrintStream>,
-				Function<Path, PrintStream>>> singleton()
+				Function<Map<String, ResultSink>,
+				Function<BlockDeflater,
+				Function<Path, ResultSink>>>> singleton()
 	{
-		return className -> sinks -> filePath -> sinks
+		return className -> sinks -> deflater -> filePath -> sinks
 			.computeIfAbsent(className, constantPrinter()
 				.apply(writer()
+					.apply(deflater)
 					.apply(filePath)));
 	}
 
+	private static Function<LauncherOption, UnaryOperator<String>>
+								absolutizer()
+	{
+		return option -> value -> {
+			switch (option) {
+			case CLASS_PATH:
+			case DIFF:
+				return Pattern.compile(Pattern.quote(
+							File.pathSeparator))
+					.splitAsStream(value)
+					.map(path -> (path.isBlank())
+						? path
+						: Path.of(path)
+							.toAbsolutePath()
+							.toString())
+					.collect(Collectors.joining(
+							File.pathSeparator));
+			case READ_FROM:
+				return (STANDARD_INPUT.equals(value))
+					? value
+					: Path.of(value)
+						.toAbsolutePath()
+						.toString();
+			case ARCHIVE:
+			case MANIFEST:
+			case SINGLE:
+			case WRITE_TO:
+				return Path.of(value)
+					.toAbsolutePath()
+					.toString();
+			default:
+				return value;
+			}
+		};
+	}
+
+	private static Function<Map<LauncherOption, Optional<String>>,
+				Function<List<String>, List<String>>> forwarder()
+	{
+		/*
+		 * Resolve any relative paths against this working directory;
+		 * this standard input is passed on as it is read, see Daemon
+		 * and Trainer.
+		 */
+		return options -> classNames -> Stream.concat(options
+				.entrySet()
+				.stream()
+				.filter(option -> option.getKey()
+						!= LauncherOption.CONNECT
+					&& option.getKey()
+						!= LauncherOption.CDS_TRAIN)
+				.flatMap(option -> Stream.concat(
+					Stream.of("--".concat(option.getKey()
+							.longName())),
+					option.getValue()
+						.map(absolutizer()
+							.apply(option.getKey()))
+						.stream())),
+				Stream.concat(Stream.of("--"),
+					classNames.stream()))
+			.collect(Collectors.toList());
+	}
+
 	private static Function<Optional<String>,
 				Supplier<UncheckedIOException>> thrower()
 	{
@@ -171,9 +445,65 @@ public class Runner
 	 */
 	public static boolean inspect(List<? extends ClassData> classData,
 								String[] args)
+	{
+		return inspect(classData, args, System.out, System.err);
+	}
+
+	/**
+	 * Inspects classes, writing to the passed streams rather than to
+	 * the standard output and the standard error.
+	 *
+	 * @param classData a non-empty list of class data to collect
+	 * @param args an array of command line arguments, if any
+	 * @param out a stream of the standard output
+	 * @param err a stream of the standard error
+	 * @return {@code false} whenever either errors are caught and
+	 *	execution is aborted or console is used for input and its
+	 *	session is quitted or the help message is requested, else
+	 *	{@code true}
+	 * @throws IllegalArgumentException if {@code classData} is empty
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static boolean inspect(List<? extends ClassData> classData,
+				String[] args, PrintStream out, PrintStream err)
+	{
+		return inspect(classData, args, System.in, out, err,
+							Residents.none());
+	}
+
+	/**
+	 * Inspects classes on behalf of a client of a server, reading from
+	 * and writing to the passed streams and reusing the class sources and
+	 * the peekers kept resident by the server.
+	 *
+	 * @param classData a non-empty list of class data to collect
+	 * @param args an array of command line arguments, if any
+	 * @param in a stream of the standard input
+	 * @param out a stream of the standard output
+	 * @param err a stream of the standard error
+	 * @param residents the resident class sources and peekers of
+	 *	a server, or {@link Residents#none()}
+	 * @return {@code false} whenever either errors are caught and
+	 *	execution is aborted or console is used for input and its
+	 *	session is quitted or the help message is requested, else
+	 *	{@code true}
+	 * @throws IllegalArgumentException if {@code classData} is empty,
+	 *	or, with enabled residents, the console would be used for input
+	 *	or either of {@code --connect}, {@code --serve}, and
+	 *	{@code --cds-train} is requested
+	 * @throws UncheckedIOException if an I/O error occurs
+	 * @see Daemon
+	 */
+	static boolean inspect(List<? extends ClassData> classData,
+				String[] args, InputStream in, PrintStream out,
+				PrintStream err, Residents residents)
 	{
 		Objects.requireNonNull(classData, "classData");
 		Objects.requireNonNull(args, "args");
+		Objects.requireNonNull(in, "in");
+		Objects.requireNonNull(out, "out");
+		Objects.requireNonNull(err, "err");
+		Objects.requireNonNull(residents, "residents");
 
 		if (classData.isEmpty())
 			throw new IllegalArgumentException(
@@ -184,11 +514,136 @@ public class Runner
 			optionParser.options();
 
 		if (options.containsKey(LauncherOption.HELP)) {
-			OptionParser.printUsage(new PrintWriter(System.err),
+			OptionParser.printUsage(new PrintWriter(err),
 						classData.get(0).getClass());
 			return false;
 		}
 
+		/* A served request neither connects, nor serves, nor trains. */
+		if (residents.isEnabled()) {
+			for (LauncherOption option : List.of(
+						LauncherOption.CONNECT,
+						LauncherOption.SERVE,
+						LauncherOption.CDS_TRAIN))
+				if (options.containsKey(option))
+					throw new IllegalArgumentException(
+						String.format(
+						"Unsupported --%s of a served"
+								+ " request",
+						option.longName()));
+		}
+
+		final Optional<String> connectName = options.getOrDefault(
+				LauncherOption.CONNECT, Optional.empty());
+
+		/* The console of a server is not the console of its client. */
+		final boolean toConsole = optionParser.classNames().isEmpty()
+				&& !options.containsKey(
+						LauncherOption.READ_FROM)
+				&& !options.containsKey(LauncherOption.SCAN);
+
+		if (connectName.isPresent() && toConsole)
+			throw new IllegalArgumentException(String.format(
+				"Unsupported --%s without class names, --%s,"
+								+ " or --%s",
+				LauncherOption.CONNECT.longName(),
+				LauncherOption.READ_FROM.longName(),
+				LauncherOption.SCAN.longName()));
+
+		if (connectName.isPresent())
+			return Daemon.query(Path.of(connectName.get()),
+					forwarder()
+						.apply(options)
+						.apply(optionParser
+							.classNames()),
+					(options.getOrDefault(
+						LauncherOption.READ_FROM,
+						Optional.empty())
+						.filter(STANDARD_INPUT::equals)
+						.isPresent())
+						? in
+						: InputStream.nullInputStream(),
+					out,
+					err);
+
+		final Optional<String> serveName = options.getOrDefault(
+				LauncherOption.SERVE, Optional.empty());
+
+		if (serveName.isPresent()) {
+			try (Daemon daemon = Daemon.open(classData,
+						Path.of(serveName.get()))) {
+				final Thread closer = new Thread(daemon::close);
+				Runtime.getRuntime().addShutdownHook(closer);
+				err.printf("Serving requests: '%s'%n",
+							serveName.get());
+
+				try {
+					daemon.serve();
+				} finally {
+					try {
+						Runtime.getRuntime()
+							.removeShutdownHook(
+								closer);
+					} catch (final IllegalStateException e) {
+						/* Shutting down. */
+					}
+				}
+			}
+
+			return true;
+		}
+
+		final Optional<String> trainName = options.getOrDefault(
+				LauncherOption.CDS_TRAIN, Optional.empty());
+
+		if (trainName.isPresent())
+			return Trainer.train(classData.get(0).getClass(),
+					Path.of(trainName.get()),
+					(options.size() > 1
+						|| !optionParser.classNames()
+							.isEmpty())
+						? forwarder()
+							.apply(options)
+							.apply(optionParser
+								.classNames())
+						: List.of(),
+					err);
+
+		if (residents.isEnabled() && toConsole)
+			throw new IllegalArgumentException(
+				"Unsupported console input of a served request");
+
+		final List<SectionSelector> onlySelectors = options.getOrDefault(
+				LauncherOption.ONLY, Optional.empty())
+			.map(SectionSelector::ofList)
+			.orElseGet(List::of);
+		final List<SectionSelector> optedExcludeSelectors = options
+				.getOrDefault(LauncherOption.EXCLUDE,
+							Optional.empty())
+			.map(SectionSelector::ofList)
+			.orElseGet(List::of);
+
+		/*
+		 * Unless sections are selected with --only, leave out of
+		 * a comparison the placement of classes, which tells apart
+		 * the compared sources rather than their classes.
+		 */
+		final List<SectionSelector> excludeSelectors =
+				(options.containsKey(LauncherOption.DIFF)
+					&& onlySelectors.isEmpty()
+					&& PLACEMENT.matchesAny(classData))
+			? Stream.concat(optedExcludeSelectors.stream(),
+						Stream.of(PLACEMENT))
+				.collect(Collectors.toUnmodifiableList())
+			: optedExcludeSelectors;
+
+		/* Never apply class data elements that are not selected. */
+		final List<? extends ClassData> sections =
+					(onlySelectors.isEmpty()
+						&& excludeSelectors.isEmpty())
+			? classData
+			: SectionSelector.project(classData, onlySelectors,
+							excludeSelectors);
 		final Optional<String> writeDirName = options.getOrDefault(
 				LauncherOption.WRITE_TO, Optional.empty());
 		final Path writerDirPath = (writeDirName.isPresent())
@@ -198,58 +653,380 @@ public class Runner
 				.orElseThrow(thrower()
 					.apply(writeDirName))
 			: null;
+		final Optional<String> threadCount = options.getOrDefault(
+				LauncherOption.THREADS, Optional.empty());
+		final Optional<String> diffPathName = options.getOrDefault(
+				LauncherOption.DIFF, Optional.empty());
 		final boolean inConcurrence = options.containsKey(
-						LauncherOption.CONCURRENT);
-		final Map<String, PrintStream> sinks = (inConcurrence)
+						LauncherOption.CONCURRENT)
+					|| threadCount.isPresent()
+					|| diffPathName.isPresent();
+		final Map<String, ResultSink> sinks = (inConcurrence)
 			? new ConcurrentHashMap<>()
 			: new HashMap<>();
 		final Optional<String> singleFileName = options.getOrDefault(
 				LauncherOption.SINGLE, Optional.empty());
-		final PrintStream printStream = (singleFileName.isPresent())
+		final Optional<String> archiveName = options.getOrDefault(
+				LauncherOption.ARCHIVE, Optional.empty());
+
+		if (options.containsKey(LauncherOption.GZIP)
+				&& singleFileName.isEmpty()
+				&& archiveName.isEmpty()
+				&& writerDirPath == null)
+			throw new IllegalArgumentException(String.format(
+				"Unsupported --%s without --%s, --%s, or --%s",
+				LauncherOption.GZIP.longName(),
+				LauncherOption.ARCHIVE.longName(),
+				LauncherOption.SINGLE.longName(),
+				LauncherOption.WRITE_TO.longName()));
+
+		final BlockDeflater blockDeflater = (options.containsKey(
+						LauncherOption.GZIP))
+			? new BlockDeflater(threadCount
+					.map(threader())
+					.orElseGet(Runtime.getRuntime()
+						::availableProcessors),
+				Deflater.DEFAULT_COMPRESSION)
+			: null;
+		final ResultSink resultSink = (singleFileName.isPresent())
 			? singleFileName
 				.map(singleton()
 					.apply(Runner.class.getName())
 					.apply(sinks)
+					.apply(blockDeflater)
 					.compose(Path::of))
-				.orElse(System.out)
-			: System.out;
+				.orElseGet(() -> ResultSink.of(out))
+			: ResultSink.of(out);
+		final ResultArchive resultArchive = archiveName
+			.map(Path::of)
+			.map(archivePath -> ResultArchive.newFile(archivePath,
+							blockDeflater))
+			.orElse(null);
+		final List<ClassSelector> selectors = options.getOrDefault(
+				LauncherOption.SCAN, Optional.empty())
+			.map(ClassSelector::ofList)
+			.orElseGet(List::of);
+		final boolean fromBytecode = options.containsKey(
+						LauncherOption.BYTECODE);
+		final boolean withoutInit = !fromBytecode && options.containsKey(
+						LauncherOption.NO_INIT);
+		final boolean prefiltering = options.containsKey(
+						LauncherOption.PREFILTER);
+		final Optional<String> classPathName = options.getOrDefault(
+				LauncherOption.CLASS_PATH, Optional.empty());
+		final boolean largestFirst = inConcurrence
+				&& options.containsKey(
+					LauncherOption.LARGEST_FIRST);
+		final Optional<String> manifestName = options.getOrDefault(
+				LauncherOption.MANIFEST, Optional.empty());
+
+		if (manifestName.isPresent() && writerDirPath == null)
+			throw new IllegalArgumentException(String.format(
+				"Unsupported --%s without --%s",
+				LauncherOption.MANIFEST.longName(),
+				LauncherOption.WRITE_TO.longName()));
+
+		if (manifestName.isPresent() && diffPathName.isPresent())
+			throw new IllegalArgumentException(String.format(
+				"Unsupported --%s with --%s",
+				LauncherOption.MANIFEST.longName(),
+				LauncherOption.DIFF.longName()));
+
+		final ClassSource pathSource = (fromBytecode
+					|| withoutInit
+					|| prefiltering
+					|| classPathName.isPresent()
+					|| !selectors.isEmpty()
+					|| largestFirst
+					|| manifestName.isPresent()
+					|| diffPathName.isPresent())
+			? residents.source(classPathName
+				.orElseGet(() -> System.getProperty(
+						"java.class.path", "")))
+			: null;
+		final ClassSource classSource = (pathSource != null)
+			? ClassSource.of(List.of(ClassSource.jrt(),
+								pathSource))
+			: null;
+		final long recycleLimit = options.getOrDefault(
+						LauncherOption.RECYCLE,
+						Optional.empty())
+			.map(limiter())
+			.orElse(Long.MAX_VALUE);
+		final Statistics statistics = (options.containsKey(
+						LauncherOption.STATS))
+			? Statistics.newInstance()
+			: Statistics.none();
+		final Function<ClassSource,
+				Function<Supplier<ClassLoader>,
+				ClassPeeker>> moder = ((fromBytecode)
+					? bytecodePeeker()
+					: (withoutInit)
+						? uninitializedPeeker()
+						: loadingPeeker())
+			.apply(sections);
+		final ClassSource newPathSource = diffPathName
+			.map(residents::source)
+			.orElse(null);
+		final List<Object> configuration = List.of(sections,
+						fromBytecode,
+						withoutInit,
+						prefiltering,
+						recycleLimit,
+						classPathName.isPresent());
+		final Supplier<ClassPeeker> classPeekers = () -> prefilterer()
+			.apply(prefiltering)
+			.apply(pathSource)
+			.apply(moder
+				.apply(classSource)
+				.apply((classPathName.isPresent())
+					? recycler()
+						.apply(recycleLimit)
+						.apply(pathSource)
+					: constantLoader()
+						.apply(Runner.class
+							.getClassLoader())));
+		final Function<String, Stream<Result>> peeker =
+						(newPathSource != null)
+			? differ()
+				.apply(measurer()
+					.apply(statistics)
+					.apply(residents.peeker(List.of(
+							configuration,
+							pathSource),
+						() -> sider()
+							.apply(moder)
+							.apply(recycleLimit)
+							.apply(prefiltering)
+							.apply(pathSource))))
+				.apply(measurer()
+					.apply(statistics)
+					.apply(residents.peeker(List.of(
+							configuration,
+							newPathSource),
+						() -> sider()
+							.apply(moder)
+							.apply(recycleLimit)
+							.apply(prefiltering)
+							.apply(newPathSource))))
+			: peeker()
+				.apply(measurer()
+					.apply(statistics)
+					.apply(residents.peeker(List.of(
+							configuration,
+							Optional.ofNullable(
+								pathSource)),
+						classPeekers)));
 		final List<String> classNames = optionParser.classNames();
-		final UnaryOperator<Stream<String>> streamer = streamer()
-			.apply(inConcurrence);
 		final Optional<String> readFileName = options.getOrDefault(
 				LauncherOption.READ_FROM, Optional.empty());
+		final Stream<String> scannedNames = (selectors.isEmpty())
+			? Stream.empty()
+			: scanner()
+				.apply((newPathSource != null)
+					? ClassSource.of(List.of(classSource,
+							newPathSource))
+					: classSource)
+				.apply(selectors);
+
+		final boolean abortOnError = options.containsKey(
+					LauncherOption.ABORT_ON_ERROR);
+		final boolean fromConsole = readFileName.isEmpty()
+					&& selectors.isEmpty()
+					&& classNames.isEmpty();
+		final boolean fromPipe = readFileName
+			.filter(STANDARD_INPUT::equals)
+			.isPresent();
+		final WorkScheduler workScheduler = (inConcurrence
+							&& !fromConsole)
+			? new WorkScheduler(threadCount
+					.map(threader())
+					.orElseGet(Runtime.getRuntime()
+						::availableProcessors),
+				BATCH_SIZE,
+				QUEUE_CAPACITY,
+				(largestFirst)
+					? sizer()
+						.apply(classSource)
+					: null)
+			: null;
+		final ResultFormat resultFormat = options.getOrDefault(
+				LauncherOption.FORMAT, Optional.empty())
+			.map(ResultFormat::fromString)
+			.orElseGet(ResultFormat::text);
+
+		if (resultFormat != ResultFormat.text() && writerDirPath != null)
+			throw new IllegalArgumentException(String.format(
+				"Unsupported format of --%s: '%s'",
+				LauncherOption.WRITE_TO.longName(),
+				resultFormat));
+
+		final OrderedOutput orderedOutput = (resultArchive != null)
+			? new OrderedOutput(resultArchive, resultFormat,
+						abortOnError, statistics)
+			: (writerDirPath == null && (workScheduler != null
+				|| resultFormat != ResultFormat.text()))
+				? new OrderedOutput(resultSink, resultFormat,
+						abortOnError, statistics)
+				: null;
+		final SinkPool.Layout layout = options.getOrDefault(
+				LauncherOption.LAYOUT, Optional.empty())
+			.map(SinkPool.Layout::fromString)
+			.orElse(SinkPool.Layout.FLAT);
+		final SinkPool sinkPool = (writerDirPath != null)
+			? new SinkPool(writerDirPath, layout,
+						SINK_POOL_CAPACITY,
+						blockDeflater)
+			: null;
+		final Manifest manifest = manifestName
+			.map(Path::of)
+			.map(filePath -> Manifest.open(filePath,
+				sections.stream()
+					.map(data -> String.join(":",
+						data.getClass().getName(),
+						data.description()))
+					.collect(Collectors.joining(",",
+						(fromBytecode)
+							? "bytecode,"
+							: (withoutInit)
+								? "no-init,"
+								: "",
+						"")),
+				classSource,
+				sinkPool::resolve))
+			.orElse(null);
+		final Consumer<Result> printer = (sinkPool != null)
+			? (manifest != null)
+				? discarder()
+					.apply(manifest)
+					.apply(measuredWriter()
+						.apply(statistics)
+						.apply(sinkPool::write))
+				: measuredWriter()
+					.apply(statistics)
+					.apply(sinkPool::write)
+			: measuredWriter()
+				.apply(statistics)
+				.apply(resultSink::write);
+
+		/* Close any mapped class list along with its stream. */
+		Stream<String> names = Stream.empty();
 
 		try {
-			return ((readFileName.isPresent())
+			names = (readFileName.isPresent())
 				? readFileName
-					.map(streamer
+					.map(concatenator()
+						.apply(classNames.stream())
 						.compose(concatenator()
-							.apply(classNames
-								.stream()))
-						.compose(reader()))
+							.apply(scannedNames))
+						.compose(reader()
+							.apply(in)))
 					.orElse(Stream.empty())
-				: (classNames.isEmpty())
+				: (!selectors.isEmpty())
+					? concatenator()
+						.apply(classNames.stream())
+						.apply(scannedNames)
+				: (fromConsole)
 					? Optional.ofNullable(System.console())
 						.map(nullableStreamer())
 						.orElseThrow(() ->
 							new UncheckedIOException(
 								new IOException(
 									"Not a tty")))
-					: streamer.apply(classNames.stream()))
-				.flatMap(peeker()
-					.apply(new ClassPeeker(classData)))
+					: classNames.stream();
+
+			if (orderedOutput != null) {
+				/* Render every class, write in order. */
+				final Function<String, OrderedOutput.Rendition>
+						renderer = orderedOutput
+					.renderer(peeker);
+				((workScheduler != null)
+						? workScheduler.map(names,
+								renderer)
+						: names.map(renderer))
+					.allMatch((fromConsole || fromPipe)
+						? flushingDrainer()
+							.apply(out)
+							.apply(orderedOutput)
+						: orderedOutput::drain);
+				return orderedOutput.isComplete();
+			}
+
+			if (sinkPool != null) {
+				/* Close the sink of every class in turn. */
+				final Function<String, Boolean> inspector =
+								inspector()
+					.apply(peeker)
+					.apply(resulter()
+						.apply(printer)
+						.apply(abortOnError))
+					.apply((manifest != null)
+						? ((Consumer<String>)
+							sinkPool::close)
+							.andThen(manifest
+								::record)
+						: sinkPool::close);
+				final Function<String, Boolean> skipper =
+							(manifest != null)
+					? skipper()
+						.apply(manifest)
+						.apply(inspector)
+					: inspector;
+				return ((workScheduler != null)
+						? workScheduler.map(names,
+								skipper)
+						: names.map(skipper))
+					.allMatch(Boolean::booleanValue);
+			}
+
+			return names
+				.flatMap(peeker)
 				.allMatch(resulter()
-					.apply((writerDirPath != null)
-						? distinctPrinter()
-							.apply(sinker()
-								.apply(writerDirPath))
-							.apply(sinks)
-						: constantPrinter()
-							.apply(printStream))
-					.apply(options.containsKey(
-						LauncherOption.ABORT_ON_ERROR)));
+					.apply((fromConsole || fromPipe)
+						? flushingPrinter()
+							.apply(out)
+							.apply(printer)
+						: printer)
+					.apply(abortOnError));
 		} finally {
+			if (workScheduler != null)
+				workScheduler.close();
+
+			if (orderedOutput != null)
+				orderedOutput.flush();
+
+			if (statistics.isEnabled()) {
+				err.println(statistics.report(
+						SLOWEST_CLASS_COUNT));
+
+				if (workScheduler != null)
+					err.println(workScheduler
+							.report());
+			}
+
 			sinks.forEach((k, v) -> v.close());
+
+			if (sinkPool != null)
+				sinkPool.close();
+
+			if (manifest != null)
+				manifest.close();
+
+			if (resultArchive != null)
+				resultArchive.close();
+
+			if (blockDeflater != null)
+				blockDeflater.close();
+
+			names.close();
+			scannedNames.close();
+
+			/* Residents outlive a request, see Daemon. */
+			if (pathSource != null)
+				residents.release(pathSource);
+
+			if (newPathSource != null)
+				residents.release(newPathSource);
 		}
 	}
 }
@@ -0,0 +1,199 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.zzzyxwvut.classpeeker.ClassData;
+
+/**
+ * This class serves for selecting class data elements, i.e. the sections of
+ * the results of a class, by their descriptions or their indices.
+ * <p>
+ * A selector is either the last line of the description of an element,
+ * matched regardless of case and of its trailing colon, e.g. {@code methods}
+ * or {@code "Declared Methods:"}; or the 1-based index of an element, e.g.
+ * {@code 17}; or an inclusive range of indices, e.g. {@code 15-18}.
+ */
+final class SectionSelector
+{
+	private static final Pattern RANGE = Pattern.compile(
+						"(\\d+)(?:\\s*-\\s*(\\d+))?");
+
+	private final String selector;
+	private final String label;
+	private final int first;
+	private final int last;
+
+	private SectionSelector(String selector)
+	{
+		this.selector = selector;
+		final Matcher matcher = RANGE.matcher(selector);
+
+		if (matcher.matches()) {
+			label = null;
+			first = index(matcher.group(1));
+			last = (matcher.group(2) == null)
+				? first
+				: index(matcher.group(2));
+		} else {
+			label = normalize(selector);
+			first = 0;
+			last = -1;
+		}
+	}
+
+	private static int index(String value)
+	{
+		try {
+			return Integer.parseInt(value);
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException(String.format(
+					"Not an index of class data: '%s'",
+								value),
+				e);
+		}
+	}
+
+	private static String normalize(String description)
+	{
+		final String label = Statistics.label(description)
+			.toLowerCase(Locale.ROOT);
+		return (label.endsWith(":"))
+			? label.substring(0, label.length() - 1).stripTrailing()
+			: label;
+	}
+
+	/**
+	 * Returns a selector of class data elements.
+	 *
+	 * @param selector a description, an index, or a range of indices of
+	 *	class data elements
+	 * @return a selector of class data elements
+	 * @throws IllegalArgumentException if {@code selector} is blank
+	 */
+	static SectionSelector of(String selector)
+	{
+		Objects.requireNonNull(selector, "selector");
+
+		if (selector.isBlank())
+			throw new IllegalArgumentException(String.format(
+					"Empty section selector: '%s'",
+					selector));
+
+		return new SectionSelector(selector.strip());
+	}
+
+	/**
+	 * Returns a list of selectors of class data elements.
+	 *
+	 * @param selectors a comma-separated list of selectors
+	 * @return a list of selectors of class data elements
+	 * @throws IllegalArgumentException if any selector is blank
+	 */
+	static List<SectionSelector> ofList(String selectors)
+	{
+		Objects.requireNonNull(selectors, "selectors");
+		return Arrays.stream(selectors.split(",", -1))
+			.map(SectionSelector::of)
+			.collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * Returns whether the passed class data element is selected.
+	 *
+	 * @param index the 1-based index of a class data element
+	 * @param data a class data element
+	 * @return whether the passed class data element is selected
+	 */
+	boolean matches(int index, ClassData data)
+	{
+		return (label == null)
+			? first <= index && index <= last
+			: label.equals(normalize(data.description()));
+	}
+
+	/**
+	 * Returns whether any of the passed class data elements is selected.
+	 *
+	 * @param classData a list of class data elements
+	 * @return whether any of the passed class data elements is selected
+	 */
+	boolean matchesAny(List<? extends ClassData> classData)
+	{
+		Objects.requireNonNull(classData, "classData");
+
+		for (int i = 0, size = classData.size(); i < size; ++i) {
+			if (matches(i + 1, classData.get(i)))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns a list of the class data elements that are matched by any of
+	 * the included selectors, or by none when there are no included
+	 * selectors, and that are matched by none of the excluded selectors,
+	 * in their original order.
+	 *
+	 * @param classData a list of class data elements
+	 * @param included a list of selectors of class data elements to keep
+	 * @param excluded a list of selectors of class data elements to leave
+	 *	out
+	 * @return a list of the selected class data elements
+	 * @throws IllegalArgumentException if any selector matches no class
+	 *	data element or if no class data element is selected
+	 */
+	static List<ClassData> project(List<? extends ClassData> classData,
+					List<SectionSelector> included,
+					List<SectionSelector> excluded)
+	{
+		Objects.requireNonNull(classData, "classData");
+		Objects.requireNonNull(included, "included");
+		Objects.requireNonNull(excluded, "excluded");
+		final List<SectionSelector> selectors = new ArrayList<>(
+						included.size() + excluded.size());
+		selectors.addAll(included);
+		selectors.addAll(excluded);
+
+		/* Rather fail on a misspelt selector than select nothing. */
+		for (SectionSelector selector : selectors) {
+			if (!selector.matchesAny(classData))
+				throw new IllegalArgumentException(
+					String.format(
+						"No class data matched: '%s'",
+						selector));
+		}
+
+		final List<ClassData> selected = new ArrayList<>(
+							classData.size());
+
+		for (int i = 0, size = classData.size(); i < size; ++i) {
+			final int index = i + 1;
+			final ClassData data = classData.get(i);
+
+			if ((included.isEmpty() || included.stream()
+					.anyMatch(selector -> selector.matches(
+							index, data)))
+					&& excluded.stream()
+						.noneMatch(selector -> selector
+							.matches(index, data)))
+				selected.add(data);
+		}
+
+		if (selected.isEmpty())
+			throw new IllegalArgumentException(
+					"No class data elements selected");
+
+		return List.copyOf(selected);
+	}
+
+	@Override
+	public String toString()			{ return selector; }
+}
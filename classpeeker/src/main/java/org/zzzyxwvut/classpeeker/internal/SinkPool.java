@@ -0,0 +1,334 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+/**
+ * This class serves for writing results of class inspection to a file
+ * per class in a directory, keeping a bounded number of files open.
+ * <p>
+ * The sink of a class is opened with its first result and should be
+ * closed as soon as the last result of the class is written, see
+ * {@link #close(String)}. Any sinks that are left open are evicted in
+ * the least recently used order whenever the number of open sinks reaches
+ * the capacity of a pool, unless they are being written. A file that is
+ * written again after its sink has been closed is appended to, so that
+ * its file is created at most once.
+ * <p>
+ * With a block deflater, every file is a gzip file whose name ends with
+ * {@code .gz}, and every sink of a file writes a gzip member of its own.
+ *
+ * @see Layout
+ */
+final class SinkPool implements AutoCloseable
+{
+	private final Path dirPath;
+	private final Layout layout;
+	private final int capacity;
+	private final BlockDeflater deflater;
+	private final Map<String, Holder> holders;
+	private final Set<String> classNames;
+	private final Set<Path> dirPaths;
+
+	/**
+	 * Constructs a new {@code SinkPool} object.
+	 *
+	 * @param dirPath the path of a directory to write files to
+	 * @param layout a layout of files
+	 * @param capacity the greatest number of sinks to keep open
+	 * @throws IllegalArgumentException if {@code capacity} is not
+	 *	positive
+	 * @throws UncheckedIOException if an I/O error occurs when creating
+	 *	the directory
+	 */
+	SinkPool(Path dirPath, Layout layout, int capacity)
+	{
+		this(dirPath, layout, capacity, null);
+	}
+
+	/**
+	 * Constructs a new {@code SinkPool} object.
+	 *
+	 * @param dirPath the path of a directory to write files to
+	 * @param layout a layout of files
+	 * @param capacity the greatest number of sinks to keep open
+	 * @param deflater a deflater of blocks, or {@code null} if files
+	 *	should not be compressed
+	 * @throws IllegalArgumentException if {@code capacity} is not
+	 *	positive
+	 * @throws UncheckedIOException if an I/O error occurs when creating
+	 *	the directory
+	 */
+	SinkPool(Path dirPath, Layout layout, int capacity,
+						BlockDeflater deflater)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive capacity: %d", capacity));
+
+		this.dirPath = Objects.requireNonNull(dirPath, "dirPath");
+		this.layout = Objects.requireNonNull(layout, "layout");
+		this.capacity = capacity;
+		this.deflater = deflater;
+		holders = new LinkedHashMap<>(16, 0.75f, true);
+		classNames = new HashSet<>();
+		dirPaths = new HashSet<>();
+
+		try {
+			dirPaths.add(Files.createDirectories(dirPath));
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes a result to the file of its class.
+	 *
+	 * @param result a result of class inspection
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	of a class already exists before it is first written
+	 */
+	void write(Result result)
+	{
+		write(result, Statistics.none());
+	}
+
+	/**
+	 * Writes a result to the file of its class, measuring its rendering
+	 * and its writing.
+	 *
+	 * @param result a result of class inspection
+	 * @param statistics statistics to accumulate measurements with
+	 * @throws UncheckedIOException if an I/O error occurs, e.g. the file
+	 *	of a class already exists before it is first written
+	 */
+	void write(Result result, Statistics statistics)
+	{
+		final Holder holder;
+
+		synchronized (this) {
+			holder = acquire(result.className());
+			++holder.writers;
+		}
+
+		try {
+			holder.sink.write(result, statistics);
+		} finally {
+			synchronized (this) {
+				--holder.writers;
+			}
+		}
+	}
+
+	private Holder acquire(String className)
+	{
+		final Holder holder = holders.get(className);
+
+		if (holder != null)
+			return holder;
+
+		for (Iterator<Holder> iterator = holders.values().iterator();
+					holders.size() >= capacity
+						&& iterator.hasNext();) {
+			final Holder eldest = iterator.next();
+
+			if (eldest.writers == 0) {
+				iterator.remove();
+				eldest.sink.close();
+			}
+		}
+
+		final Path filePath = resolve(className);
+		final ResultSink sink;
+
+		try {
+			if (classNames.add(className)) {
+				/* Create every subdirectory at most once. */
+				final Path parentPath = filePath.getParent();
+
+				if (!dirPaths.contains(parentPath))
+					dirPaths.add(Files.createDirectories(
+							parentPath));
+
+				sink = ResultSink.newFile(filePath, deflater);
+			} else {
+				sink = ResultSink.existingFile(filePath,
+								deflater);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		final Holder newHolder = new Holder(sink);
+		holders.put(className, newHolder);
+		return newHolder;
+	}
+
+	/**
+	 * Returns the path of the file of a class.
+	 *
+	 * @param className the binary name of a class
+	 * @return the path of the file of a class
+	 */
+	Path resolve(String className)
+	{
+		final Path filePath = layout.resolve(dirPath, className);
+		return (deflater == null)
+			? filePath
+			: filePath.resolveSibling(filePath.getFileName()
+							.toString()
+							.concat(".gz"));
+	}
+
+	/**
+	 * Closes the sink of a class, unless it is not open or is being
+	 * written.
+	 *
+	 * @param className the name of a class
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	synchronized void close(String className)
+	{
+		final Holder holder = holders.get(className);
+
+		if (holder != null && holder.writers == 0) {
+			holders.remove(className);
+			holder.sink.close();
+		}
+	}
+
+	/**
+	 * Returns the number of open sinks.
+	 *
+	 * @return the number of open sinks
+	 */
+	synchronized int size()				{ return holders.size(); }
+
+	/**
+	 * Closes all open sinks.
+	 *
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	@Override
+	public synchronized void close()
+	{
+		try {
+			holders.values().forEach(holder -> holder.sink.close());
+		} finally {
+			holders.clear();
+		}
+	}
+
+	/** This class holds an open sink and the count of its writers. */
+	private static final class Holder
+	{
+		final ResultSink sink;
+		int writers;
+
+		Holder(ResultSink sink)
+		{
+			this.sink = sink;
+		}
+	}
+
+	/** The layouts of files of a directory. */
+	enum Layout
+	{
+		/**
+		 * A layout of files named after binary class names in
+		 * a directory, e.g. {@code java.util.Map$Entry}.
+		 */
+		FLAT
+		{
+			@Override
+			Path resolve(Path dirPath, String className)
+			{
+				return dirPath.resolve(Path.of(className));
+			}
+		},
+
+		/**
+		 * A layout of files named after binary class names in
+		 * one of 256 subdirectories of a directory that are named
+		 * after the hash codes of class names, e.g.
+		 * {@code 5e/java.util.Map$Entry}.
+		 */
+		HASH
+		{
+			@Override
+			Path resolve(Path dirPath, String className)
+			{
+				final int hash = className.hashCode();
+				return dirPath.resolve(Path.of(String.format(
+						"%02x",
+						(hash ^ (hash >>> 8)
+							^ (hash >>> 16)
+							^ (hash >>> 24))
+							& 0xff),
+					className));
+			}
+		},
+
+		/**
+		 * A layout of files named after binary class names in
+		 * subdirectories of a directory that are named after
+		 * package names, e.g. {@code java/util/java.util.Map$Entry}.
+		 */
+		PACKAGE
+		{
+			@Override
+			Path resolve(Path dirPath, String className)
+			{
+				final int dot = className.lastIndexOf('.');
+				return ((dot < 0)
+						? dirPath
+						: dirPath.resolve(Path.of(
+							className.substring(0,
+								dot)
+							.replace('.', '/'))))
+					.resolve(Path.of(className));
+			}
+		};
+
+		/**
+		 * Returns the path of the file of a class.
+		 *
+		 * @param dirPath the path of a directory
+		 * @param className the binary name of a class
+		 * @return the path of the file of a class
+		 */
+		abstract Path resolve(Path dirPath, String className);
+
+		/**
+		 * Returns the layout of a case-insensitive name.
+		 *
+		 * @param name the name of a layout, e.g. {@code hash}
+		 * @return the layout of a name
+		 * @throws IllegalArgumentException if no layout has the name
+		 */
+		static Layout fromString(String name)
+		{
+			try {
+				return valueOf(Objects.requireNonNull(name,
+								"name")
+					.toUpperCase(Locale.ROOT));
+			} catch (final IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format(
+						"Not a layout of files: '%s'",
+								name),
+					e);
+			}
+		}
+	}
+}
@@ -0,0 +1,454 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * This class serves for measuring the wall time, the thread CPU time,
+ * and the allocated bytes of every phase of the inspection of a class,
+ * i.e. class resolution, every class data methodist, rendering, and
+ * writing.
+ * <p>
+ * Every thread accumulates its measurements privately, and all
+ * accumulators are merged into a report when all measuring threads are
+ * done, see {@link #report(int)}. The CPU time and the allocated bytes
+ * are only measured where the virtual machine supports measuring them,
+ * and are otherwise reported as zeros.
+ * <p>
+ * E.g. {@code Stopwatch stopwatch = statistics.start(phase); ...;
+ * stopwatch.stop(className);}
+ */
+final class Statistics
+{
+	/** The phase of class resolution, i.e. loading or reading. */
+	static final String RESOLUTION = "Resolution:";
+
+	/** The phase of rendering results. */
+	static final String RENDERING = "Rendering:";
+
+	/** The phase of writing renditions. */
+	static final String WRITING = "Writing:";
+
+	private static final Statistics NONE = new Statistics(false);
+
+	private final ThreadMXBean threadBean;
+	private final com.sun.management.ThreadMXBean allocationBean;
+	private final ThreadLocal<Accumulator> accumulators;
+	private final Queue<Accumulator> allAccumulators;
+	private final Stopwatch idle;
+
+	private Statistics(boolean enabled)
+	{
+		final ThreadMXBean bean = (enabled)
+			? ManagementFactory.getThreadMXBean()
+			: null;
+
+		if (bean != null && bean.isCurrentThreadCpuTimeSupported()) {
+			bean.setThreadCpuTimeEnabled(true);
+			threadBean = bean;
+		} else {
+			threadBean = null;
+		}
+
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean)
+					.isThreadAllocatedMemorySupported()) {
+			allocationBean = (com.sun.management.ThreadMXBean) bean;
+			allocationBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			allocationBean = null;
+		}
+
+		allAccumulators = new ConcurrentLinkedQueue<>();
+		accumulators = ThreadLocal.withInitial(() -> {
+			final Accumulator accumulator = new Accumulator();
+			allAccumulators.add(accumulator);
+			return accumulator;
+		});
+		idle = (enabled)
+			? null
+			: new Stopwatch(this, "", null, 0L, 0L, 0L);
+	}
+
+	/**
+	 * Returns an instance that measures nothing.
+	 *
+	 * @return an instance that measures nothing
+	 */
+	static Statistics none()			{ return NONE; }
+
+	/**
+	 * Returns a new instance that measures every phase.
+	 *
+	 * @return a new instance that measures every phase
+	 */
+	static Statistics newInstance()	{ return new Statistics(true); }
+
+	/**
+	 * Returns whether this instance measures every phase.
+	 *
+	 * @return whether this instance measures every phase
+	 */
+	boolean isEnabled()				{ return idle == null; }
+
+	private long cpuNanos()
+	{
+		return (threadBean != null)
+			? threadBean.getCurrentThreadCpuTime()
+			: 0L;
+	}
+
+	private long allocatedBytes()
+	{
+		return (allocationBean != null)
+			? allocationBean.getThreadAllocatedBytes(
+						Thread.currentThread().getId())
+			: 0L;
+	}
+
+	/* Begin an event of a phase, unless its type is disabled. */
+	private static PhaseEvent event(String phase)
+	{
+		final PhaseEvent event = (RESOLUTION.equals(phase))
+			? new PhaseEvent.Resolution()
+			: (RENDERING.equals(phase))
+				? new PhaseEvent.Rendering()
+				: (WRITING.equals(phase))
+					? new PhaseEvent.Writing()
+					: new PhaseEvent.Inspection();
+
+		if (!event.isEnabled())
+			return null;
+
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Starts measuring a phase with the current thread, and begins
+	 * an event of the phase if the flight recorder is initialised, see
+	 * {@link PhaseEvent}.
+	 *
+	 * @param phase the name of a phase, i.e. either of {@link #RESOLUTION},
+	 *	{@link #RENDERING}, {@link #WRITING}, or the description of
+	 *	class data
+	 * @return a stopwatch to stop with the current thread
+	 */
+	Stopwatch start(String phase)
+	{
+		final PhaseEvent event = (FlightRecorder.isInitialized())
+			? event(phase)
+			: null;
+		return (idle != null)
+			? (event == null)
+				? idle
+				: new Stopwatch(this, phase, event, 0L, 0L, 0L)
+			: new Stopwatch(this, phase, event, System.nanoTime(),
+							cpuNanos(),
+							allocatedBytes());
+	}
+
+	/**
+	 * Returns the last non-blank line of the name of a phase, stripped,
+	 * e.g. for the description {@code "#...#\n\n\tFoo:"} returns
+	 * {@code "Foo:"}.
+	 *
+	 * @param phase the name of a phase, e.g. the description of class
+	 *	data
+	 * @return the last non-blank line of the name of a phase, or the name
+	 *	itself if it is blank
+	 */
+	static String label(String phase)
+	{
+		final String line = phase.substring(
+				phase.stripTrailing().lastIndexOf('\n') + 1)
+			.strip();
+		return (line.isEmpty()) ? phase : line;
+	}
+
+	/**
+	 * Returns a report of all measurements merged, and should be called
+	 * when all measuring threads are done.
+	 *
+	 * @param topCount the number of the slowest classes to report
+	 * @return a report of all measurements merged
+	 */
+	Report report(int topCount)
+	{
+		final Map<String, Totals> phases = new HashMap<>();
+		final Map<String, Totals> classes = new HashMap<>();
+
+		for (Accumulator accumulator : allAccumulators) {
+			accumulator.phases.forEach((phase, totals) -> phases
+				.computeIfAbsent(label(phase),
+						key -> new Totals())
+				.merge(totals));
+			accumulator.classes.forEach((className, totals) ->
+								classes
+				.computeIfAbsent(className,
+						key -> new Totals())
+				.merge(totals));
+		}
+
+		final Comparator<Map.Entry<String, Totals>> slowestFirst =
+			Comparator.comparingLong((Map.Entry<String, Totals>
+							entry) -> entry
+					.getValue()
+					.wallNanos)
+				.reversed()
+				.thenComparing(Map.Entry::getKey);
+		return new Report(
+			classes.values()
+				.stream()
+				.mapToLong(totals -> totals.wallNanos)
+				.sorted()
+				.toArray(),
+			classes.entrySet()
+				.stream()
+				.sorted(slowestFirst)
+				.limit(Math.max(0, topCount))
+				.collect(Collectors.toMap(Map.Entry::getKey,
+						Map.Entry::getValue,
+						(oldValue, newValue) -> newValue,
+						LinkedHashMap::new)),
+			phases.entrySet()
+				.stream()
+				.sorted(slowestFirst)
+				.collect(Collectors.toMap(Map.Entry::getKey,
+						Map.Entry::getValue,
+						(oldValue, newValue) -> newValue,
+						LinkedHashMap::new)));
+	}
+
+	/** This class holds the readings of the start of a phase. */
+	static final class Stopwatch
+	{
+		private final Statistics statistics;
+		private final String phase;
+		private final PhaseEvent event;
+		private final long wallNanos;
+		private final long cpuNanos;
+		private final long allocatedBytes;
+
+		private Stopwatch(Statistics statistics, String phase,
+					PhaseEvent event, long wallNanos,
+					long cpuNanos, long allocatedBytes)
+		{
+			this.statistics = statistics;
+			this.phase = phase;
+			this.event = event;
+			this.wallNanos = wallNanos;
+			this.cpuNanos = cpuNanos;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		/**
+		 * Returns whether this stopwatch neither measures nor records
+		 * anything, so that its class name need not be computed.
+		 *
+		 * @return whether this stopwatch is idle
+		 */
+		boolean isIdle()		{ return this == statistics.idle; }
+
+		/**
+		 * Stops measuring a phase of a class with the current thread
+		 * and accumulates the measurements, unless the class name is
+		 * empty, see the none result.
+		 *
+		 * @param className the name of a class
+		 */
+		void stop(String className)
+		{
+			if (isIdle() || className.isEmpty())
+				return;
+
+			if (event != null)
+				event.commit(className, phase);
+
+			if (statistics.idle != null)
+				return;
+
+			final long wall = System.nanoTime() - wallNanos;
+			final long cpu = statistics.cpuNanos() - cpuNanos;
+			final long allocated = statistics.allocatedBytes()
+							- allocatedBytes;
+			final Accumulator accumulator = statistics.accumulators
+								.get();
+			accumulator.phases.computeIfAbsent(phase,
+					key -> new Totals())
+				.add(wall, cpu, allocated);
+			accumulator.classes.computeIfAbsent(className,
+					key -> new Totals())
+				.add(wall, cpu, allocated);
+		}
+	}
+
+	/** This class holds the measurements of a thread. */
+	private static final class Accumulator
+	{
+		final Map<String, Totals> phases = new HashMap<>();
+		final Map<String, Totals> classes = new HashMap<>();
+	}
+
+	/** This class holds the sums of measurements. */
+	static final class Totals
+	{
+		private long count;
+		private long wallNanos;
+		private long cpuNanos;
+		private long allocatedBytes;
+
+		private Totals() { }
+
+		private void add(long wall, long cpu, long allocated)
+		{
+			++count;
+			wallNanos += wall;
+			cpuNanos += cpu;
+			allocatedBytes += allocated;
+		}
+
+		private void merge(Totals totals)
+		{
+			count += totals.count;
+			wallNanos += totals.wallNanos;
+			cpuNanos += totals.cpuNanos;
+			allocatedBytes += totals.allocatedBytes;
+		}
+
+		/**
+		 * Returns the number of measurements.
+		 *
+		 * @return the number of measurements
+		 */
+		long count()				{ return count; }
+
+		/**
+		 * Returns the sum of wall times in nanoseconds.
+		 *
+		 * @return the sum of wall times in nanoseconds
+		 */
+		long wallNanos()			{ return wallNanos; }
+
+		/**
+		 * Returns the sum of thread CPU times in nanoseconds.
+		 *
+		 * @return the sum of thread CPU times in nanoseconds
+		 */
+		long cpuNanos()				{ return cpuNanos; }
+
+		/**
+		 * Returns the sum of allocated bytes.
+		 *
+		 * @return the sum of allocated bytes
+		 */
+		long allocatedBytes()			{ return allocatedBytes; }
+
+		@Override
+		public String toString()
+		{
+			return String.format("wall %.3f ms, cpu %.3f ms,"
+						+ " alloc %d KiB (%d)",
+				wallNanos / 1e6,
+				cpuNanos / 1e6,
+				allocatedBytes >> 10,
+				count);
+		}
+	}
+
+	/** This class holds the merged measurements of all threads. */
+	static final class Report
+	{
+		private final long[] sortedClassNanos;
+		private final Map<String, Totals> slowestClasses;
+		private final Map<String, Totals> phases;
+
+		private Report(long[] sortedClassNanos,
+				Map<String, Totals> slowestClasses,
+				Map<String, Totals> phases)
+		{
+			this.sortedClassNanos = sortedClassNanos;
+			this.slowestClasses = slowestClasses;
+			this.phases = phases;
+		}
+
+		/**
+		 * Returns the number of measured classes.
+		 *
+		 * @return the number of measured classes
+		 */
+		int classCount()		{ return sortedClassNanos.length; }
+
+		/**
+		 * Returns the wall time of a class in nanoseconds that is not
+		 * exceeded by the passed percentage of classes, see the
+		 * nearest-rank method.
+		 *
+		 * @param percentage a percentage between 0 and 100
+		 * @return the wall time of a class in nanoseconds, or 0 if
+		 *	no classes are measured
+		 */
+		long percentile(double percentage)
+		{
+			if (sortedClassNanos.length == 0)
+				return 0L;
+
+			final int rank = (int) Math.ceil(Math.max(0.0, Math.min(
+					100.0, percentage)) / 100.0
+						* sortedClassNanos.length);
+			return sortedClassNanos[Math.max(0, rank - 1)];
+		}
+
+		/**
+		 * Returns the totals of the slowest classes, slowest first.
+		 *
+		 * @return the totals of the slowest classes, slowest first
+		 */
+		Map<String, Totals> slowestClasses()	{ return slowestClasses; }
+
+		/**
+		 * Returns the totals of every phase, slowest first.
+		 *
+		 * @return the totals of every phase, slowest first
+		 */
+		Map<String, Totals> phases()		{ return phases; }
+
+		@Override
+		public String toString()
+		{
+			final List<String> lines = new ArrayList<>();
+			lines.add(String.format("Classes: %d, wall time per class:"
+					+ " p50 %.3f ms, p90 %.3f ms,"
+					+ " p99 %.3f ms, max %.3f ms",
+				sortedClassNanos.length,
+				percentile(50.0) / 1e6,
+				percentile(90.0) / 1e6,
+				percentile(99.0) / 1e6,
+				percentile(100.0) / 1e6));
+			lines.add("Slowest classes:");
+			slowestClasses.forEach((className, totals) -> lines.add(
+					String.format("    %s: %s",
+						className,
+						totals)));
+			lines.add("Phases:");
+			phases.forEach((phase, totals) -> lines.add(
+					String.format("    %s %s",
+						phase,
+						totals)));
+			return lines.stream()
+				.collect(Collectors.joining(
+						System.lineSeparator()));
+		}
+	}
+}
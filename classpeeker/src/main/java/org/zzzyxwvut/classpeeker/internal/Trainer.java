@@ -0,0 +1,148 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * This class serves for dumping a dynamic class data sharing archive of
+ * the classes that are loaded while a workload is inspected, so that
+ * later runs of a JAR file of an entry point class may map rather than
+ * load, verify, and link these classes, e.g.
+ * <pre>
+ * java -XX:SharedArchiveFile=classpeeker.jsa -jar bundle.jar java.util.Map
+ * </pre>
+ * <p>
+ * The workload is inspected with a new virtual machine of the same
+ * Java installation, because an archive is dumped when a virtual machine
+ * exits. Dynamic archives are supported with Java 13 or later.
+ */
+final class Trainer
+{
+	private static final List<String> WORKLOAD = List.of(
+			"--".concat(OptionParser.LauncherOption.SCAN
+							.longName()),
+			"java.util.*");
+
+	private Trainer() { /* No instantiation. */ }
+
+	private static Path jarPath(Class<?> launcher)
+	{
+		final Path jarPath = Optional.ofNullable(launcher
+						.getProtectionDomain()
+						.getCodeSource())
+			.map(CodeSource::getLocation)
+			.map(location -> {
+				try {
+					return Path.of(location.toURI());
+				} catch (final URISyntaxException e) {
+					throw new IllegalArgumentException(e);
+				}
+			})
+			.orElseThrow(() -> new IllegalArgumentException(
+				String.format("Unavailable code source: '%s'",
+							launcher.getName())));
+
+		/* Only the JAR files of a class path are archived. */
+		if (!Files.isRegularFile(jarPath))
+			throw new IllegalArgumentException(String.format(
+				"Unsupported training outside a JAR file: '%s'",
+								jarPath));
+
+		return jarPath;
+	}
+
+	private static String java()
+	{
+		return ProcessHandle.current()
+			.info()
+			.command()
+			.orElseGet(() -> Path.of(System.getProperty(
+							"java.home"),
+						"bin",
+						"java")
+				.toString());
+	}
+
+	/**
+	 * Inspects a workload with a new virtual machine and dumps a class
+	 * data sharing archive of its loaded classes. The standard output
+	 * of the workload is discarded, and its standard error is copied.
+	 *
+	 * @param launcher an entry point class of a JAR file
+	 * @param archivePath the path of an archive file
+	 * @param args a list of command line arguments of a workload whose
+	 *	paths are absolute, or an empty list for a scan of
+	 *	{@code java.util.*}
+	 * @param err a stream to copy the standard error of a workload to
+	 * @return {@code false} if the current thread is interrupted, else
+	 *	{@code true}
+	 * @throws IllegalArgumentException if the entry point class is not
+	 *	loaded from a JAR file
+	 * @throws IllegalStateException if no archive is dumped
+	 * @throws UncheckedIOException if an I/O error occurs
+	 */
+	static boolean train(Class<?> launcher, Path archivePath,
+					List<String> args, PrintStream err)
+	{
+		Objects.requireNonNull(launcher, "launcher");
+		Objects.requireNonNull(archivePath, "archivePath");
+		Objects.requireNonNull(args, "args");
+		Objects.requireNonNull(err, "err");
+		final Path jarPath = jarPath(launcher);
+		final Path filePath = archivePath.toAbsolutePath();
+		final List<String> command = new ArrayList<>();
+		command.add(java());
+		command.add("-XX:ArchiveClassesAtExit=".concat(
+						filePath.toString()));
+		command.add("-cp");
+		command.add(jarPath.toString());
+		command.add(launcher.getName());
+		command.addAll((args.isEmpty()) ? WORKLOAD : args);
+
+		try {
+			Files.deleteIfExists(filePath);
+			final Process process = new ProcessBuilder(command)
+				.redirectInput(Redirect.INHERIT)
+				.redirectOutput(Redirect.DISCARD)
+				.start();
+
+			try (InputStream is = process.getErrorStream()) {
+				is.transferTo(err);
+			}
+
+			final int status;
+
+			try {
+				status = process.waitFor();
+			} catch (final InterruptedException e) {
+				process.destroy();
+				Thread.currentThread().interrupt();
+				return false;
+			}
+
+			if (status != 0 || !Files.isRegularFile(filePath))
+				throw new IllegalStateException(String.format(
+					"Failed training: exit status %d",
+								status));
+
+			err.printf("Dumped a class data sharing archive: '%s'%n"
+				+ "Run with: -XX:SharedArchiveFile=%<s -jar %s%n",
+							filePath,
+							jarPath);
+			return true;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
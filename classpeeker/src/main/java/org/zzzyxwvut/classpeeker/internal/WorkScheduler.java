@@ -0,0 +1,497 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class serves for inspecting classes with a fixed number of worker
+ * threads.
+ * <p>
+ * Class names are taken from a stream in rounds of at most
+ * {@code threads * batchSize} names, and every round is dealt out in
+ * batches of at most {@code batchSize} names to a bounded work queue.
+ * No more rounds are taken than the queue can hold, so that a long list
+ * of names is never read ahead of the workers. The results of tasks are
+ * returned in the encounter order of names.
+ * <p>
+ * When a size estimator is passed, the names of every round are dealt out
+ * largest first, each to the least loaded batch, and the most loaded
+ * batches are queued first, so that a few large classes do not leave
+ * a long tail of work to a single worker at the end of a round.
+ */
+final class WorkScheduler implements AutoCloseable
+{
+	private static final AtomicInteger SCHEDULERS = new AtomicInteger();
+
+	private final int threads;
+	private final int batchSize;
+	private final int queueCapacity;
+	private final ToLongFunction<String> sizer;
+	private final ThreadPoolExecutor executor;
+	private final AtomicLongArray busyNanos;
+	private final AtomicLongArray classCounts;
+	private long startNanos;
+	private long endNanos;
+	private long batchCount;
+	private long queueDepthSum;
+	private int queueDepthMax;
+
+	/**
+	 * Constructs a new {@code WorkScheduler} object.
+	 *
+	 * @param threads the number of worker threads
+	 * @param batchSize the greatest number of names of a batch
+	 * @param queueCapacity the greatest number of batches to queue
+	 * @param sizer a function that estimates the size of a class, or
+	 *	{@code null} if names should be dealt out in their encounter
+	 *	order
+	 * @throws IllegalArgumentException if any number is not positive
+	 */
+	WorkScheduler(int threads, int batchSize, int queueCapacity,
+						ToLongFunction<String> sizer)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive number of threads: %d",
+								threads));
+
+		if (batchSize < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive batch size: %d", batchSize));
+
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException(String.format(
+				"Not a positive queue capacity: %d",
+							queueCapacity));
+
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.queueCapacity = queueCapacity;
+		this.sizer = sizer;
+		busyNanos = new AtomicLongArray(threads);
+		classCounts = new AtomicLongArray(threads);
+		final String prefix = String.format("classpeeker-%d-worker-",
+					SCHEDULERS.incrementAndGet());
+		final AtomicInteger workers = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads,
+			0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(Math.max(threads,
+							queueCapacity)),
+			runnable -> {
+				final int index = workers.getAndIncrement();
+				final Thread thread = new Worker(runnable,
+						prefix.concat(Integer.toString(
+								index + 1)),
+						index);
+				thread.setDaemon(true);
+				return thread;
+			});
+	}
+
+	/**
+	 * Returns a lazily populated, sequential stream of the results of
+	 * a task applied to every class name, in the encounter order of
+	 * names.
+	 * <p>
+	 * Closing the returned stream closes the stream of names. Once this
+	 * scheduler is closed, no more names are dispatched.
+	 *
+	 * @param <R> the type of results
+	 * @param names a stream of class names
+	 * @param task a function that inspects a class
+	 * @return a lazily populated stream of the results of a task
+	 * @throws IllegalStateException if a worker thread is interrupted
+	 *	or a task throws a checked exception
+	 */
+	<R> Stream<R> map(Stream<String> names,
+				Function<String, ? extends R> task)
+	{
+		Objects.requireNonNull(names, "names");
+		Objects.requireNonNull(task, "task");
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+					new Rounds<R>(names.iterator(), task),
+					Spliterator.ORDERED),
+				false)
+			.onClose(names::close);
+	}
+
+	private List<int[]> deal(List<String> names)
+	{
+		final int size = names.size();
+		final int count = (size + batchSize - 1) / batchSize;
+
+		if (sizer == null)
+			return IntStream.range(0, count)
+				.mapToObj(i -> IntStream.range(i * batchSize,
+						Math.min(size,
+							(i + 1) * batchSize))
+					.toArray())
+				.collect(Collectors.toList());
+
+		/* See the longest-processing-time-first rule. */
+		final long[] sizes = names.stream()
+			.mapToLong(this::estimate)
+			.toArray();
+		final long[] loads = new long[count];
+		final List<List<Integer>> batches = new ArrayList<>(count);
+
+		for (int i = 0; i < count; ++i)
+			batches.add(new ArrayList<>(batchSize));
+
+		IntStream.range(0, size)
+			.boxed()
+			.sorted(Comparator.comparingLong((Integer i) ->
+							sizes[i])
+				.reversed())
+			.forEachOrdered(i -> {
+				int least = -1;
+
+				for (int j = 0; j < count; ++j) {
+					if (batches.get(j).size() < batchSize
+							&& (least < 0
+							|| loads[j]
+							< loads[least]))
+						least = j;
+				}
+
+				loads[least] += sizes[i];
+				batches.get(least).add(i);
+			});
+		return IntStream.range(0, count)
+			.boxed()
+			.sorted(Comparator.comparingLong((Integer j) ->
+							loads[j])
+				.reversed())
+			.map(j -> batches.get(j)
+				.stream()
+				.mapToInt(Integer::intValue)
+				.toArray())
+			.collect(Collectors.toList());
+	}
+
+	private long estimate(String className)
+	{
+		try {
+			return Math.max(0L, sizer.applyAsLong(className));
+		} catch (final RuntimeException ignored) {
+			return 0L;		/* Let the task fail. */
+		}
+	}
+
+	/**
+	 * Returns a report of the work done so far.
+	 *
+	 * @return a report of the work done so far
+	 */
+	Report report()
+	{
+		synchronized (this) {
+			final long elapsedNanos = (startNanos == 0L)
+				? 0L
+				: ((endNanos == 0L)
+					? System.nanoTime()
+					: endNanos) - startNanos;
+			final long[] busy = new long[threads];
+			final long[] classes = new long[threads];
+
+			for (int i = 0; i < threads; ++i) {
+				busy[i] = busyNanos.get(i);
+				classes[i] = classCounts.get(i);
+			}
+
+			return new Report(elapsedNanos, batchCount,
+				(batchCount == 0L)
+					? 0.0
+					: (double) queueDepthSum / batchCount,
+				queueDepthMax, queueCapacity, busy, classes);
+		}
+	}
+
+	/**
+	 * Stops dispatching names, discards any queued batches, and waits
+	 * for the running batches to finish.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdownNow();
+
+		try {
+			while (!executor.awaitTermination(1L, TimeUnit.SECONDS))
+				;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			if (startNanos != 0L && endNanos == 0L)
+				endNanos = System.nanoTime();
+		}
+	}
+
+	/** This class serves as a worker thread of a scheduler. */
+	private static final class Worker extends Thread
+	{
+		final int index;
+
+		Worker(Runnable runnable, String name, int index)
+		{
+			super(runnable, name);
+			this.index = index;
+		}
+	}
+
+	/**
+	 * This class serves for taking names in rounds and for returning
+	 * the results of their tasks in order.
+	 */
+	private final class Rounds<R> implements Iterator<R>
+	{
+		private final Iterator<String> names;
+		private final Function<String, ? extends R> task;
+		private final Deque<Round> rounds;
+		private Object[] results;
+		private int cursor;
+
+		Rounds(Iterator<String> names,
+				Function<String, ? extends R> task)
+		{
+			this.names = names;
+			this.task = task;
+			rounds = new ArrayDeque<>();
+			results = new Object[0];
+		}
+
+		private void fill()
+		{
+			while (!executor.isShutdown() && names.hasNext()
+					&& (rounds.isEmpty()
+					|| (rounds.size() + 1) * threads
+						<= queueCapacity)) {
+				final List<String> round = new ArrayList<>(
+							threads * batchSize);
+
+				while (round.size() < threads * batchSize
+							&& names.hasNext())
+					round.add(names.next());
+
+				rounds.add(new Round(round));
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			while (cursor == results.length) {
+				fill();
+
+				if (rounds.isEmpty())
+					return false;
+
+				results = rounds.remove().await();
+				cursor = 0;
+			}
+
+			return true;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public R next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			final R result = (R) results[cursor];
+			results[cursor++] = null;
+			return result;
+		}
+
+		/** This class holds the batches of a round of names. */
+		private final class Round
+		{
+			private final Object[] results;
+			private final List<Future<?>> futures;
+
+			Round(List<String> names)
+			{
+				results = new Object[names.size()];
+				futures = new ArrayList<>(threads);
+
+				for (int[] batch : deal(names)) {
+					synchronized (WorkScheduler.this) {
+						if (startNanos == 0L)
+							startNanos = System
+								.nanoTime();
+
+						final int depth = executor
+							.getQueue()
+							.size();
+						queueDepthSum += depth;
+						queueDepthMax = Math.max(
+							queueDepthMax, depth);
+						++batchCount;
+					}
+
+					futures.add(executor.submit(() ->
+						run(names, batch)));
+				}
+			}
+
+			private void run(List<String> names, int[] batch)
+			{
+				final long start = System.nanoTime();
+				final int index = ((Worker) Thread
+						.currentThread()).index;
+				int count = 0;
+
+				try {
+					for (int i : batch) {
+						if (executor.isShutdown())
+							break;
+
+						results[i] = task.apply(
+							names.get(i));
+						++count;
+					}
+				} finally {
+					busyNanos.addAndGet(index,
+						System.nanoTime() - start);
+					classCounts.addAndGet(index, count);
+				}
+			}
+
+			Object[] await()
+			{
+				try {
+					for (Future<?> future : futures)
+						future.get();
+				} catch (final ExecutionException e) {
+					final Throwable cause = e.getCause();
+
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+
+					if (cause instanceof Error)
+						throw (Error) cause;
+
+					throw new IllegalStateException(cause);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+
+				return results;
+			}
+		}
+	}
+
+	/** This class holds the statistics of the work of a scheduler. */
+	static final class Report
+	{
+		private final long elapsedNanos;
+		private final long batchCount;
+		private final double queueDepthMean;
+		private final int queueDepthMax;
+		private final int queueCapacity;
+		private final long[] busyNanos;
+		private final long[] classCounts;
+
+		private Report(long elapsedNanos, long batchCount,
+				double queueDepthMean, int queueDepthMax,
+				int queueCapacity, long[] busyNanos,
+				long[] classCounts)
+		{
+			this.elapsedNanos = elapsedNanos;
+			this.batchCount = batchCount;
+			this.queueDepthMean = queueDepthMean;
+			this.queueDepthMax = queueDepthMax;
+			this.queueCapacity = queueCapacity;
+			this.busyNanos = busyNanos;
+			this.classCounts = classCounts;
+		}
+
+		/**
+		 * Returns the number of queued batches.
+		 *
+		 * @return the number of queued batches
+		 */
+		long batchCount()			{ return batchCount; }
+
+		/**
+		 * Returns the greatest number of batches waiting in the queue
+		 * when a batch was queued.
+		 *
+		 * @return the greatest observed depth of the queue
+		 */
+		int queueDepthMax()			{ return queueDepthMax; }
+
+		/**
+		 * Returns the number of classes inspected by every worker.
+		 *
+		 * @return the number of classes inspected by every worker
+		 */
+		long[] classCounts()		{ return classCounts.clone(); }
+
+		/**
+		 * Returns the share of the elapsed time that a worker spent
+		 * inspecting classes.
+		 *
+		 * @param index the index of a worker
+		 * @return the share of the elapsed time that a worker spent
+		 *	inspecting classes, between 0 and 1
+		 */
+		double utilization(int index)
+		{
+			return (elapsedNanos == 0L)
+				? 0.0
+				: Math.min(1.0, (double) busyNanos[index]
+							/ elapsedNanos);
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("Workers: %d, batches: %d,"
+						+ " classes: %d, elapsed: %d ms"
+					+ "%nQueue depth: mean %.1f,"
+						+ " max %d (capacity %d)"
+					+ "%nUtilization: %s",
+				busyNanos.length,
+				batchCount,
+				Arrays.stream(classCounts).sum(),
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+				queueDepthMean,
+				queueDepthMax,
+				queueCapacity,
+				IntStream.range(0, busyNanos.length)
+					.mapToObj(i -> String.format(
+						"#%d %.1f%% (%d)", i + 1,
+						utilization(i) * 100.0,
+						classCounts[i]))
+					.collect(Collectors.joining(", ")));
+		}
+	}
+}
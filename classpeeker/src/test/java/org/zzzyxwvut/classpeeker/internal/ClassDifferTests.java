@@ -0,0 +1,96 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+public class ClassDifferTests
+{
+	private static List<String> peek(ClassDiffer classDiffer,
+							String className)
+	{
+		return classDiffer.peek(className)
+			.map(Result::toString)
+			.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testPeek()
+	{
+		final ClassData simpleName = new TestClassData("Simple Name:",
+				klass -> new Object[] { klass.getSimpleName() });
+		final ClassDiffer classDiffer = new ClassDiffer(
+			new ClassPeeker(List.of(simpleName,
+				new TestClassData("Names:", klass ->
+					new Object[] { "a", "b", null, "b" }),
+				new TestClassData("Oops:", klass -> {
+					throw new UnsupportedOperationException(
+								"Oops!");
+				}))),
+			new ClassPeeker(List.of(simpleName,
+				new TestClassData("Names:", klass ->
+					new Object[] { "b", "c" }),
+				new TestClassData("Oops:", klass ->
+					new Object[] { "x" }))));
+		assertEquals(List.of(
+				String.format("%n\tChanged Class:%n"
+							+ "java.util.Map"),
+				String.format("%n\tNames:%n-a%n-b%n+c"),
+				String.format("%n\tErrors:%n-%s",
+					new UnsupportedOperationException(
+								"Oops!")),
+				String.format("%n\tOops:%n+x")),
+			peek(classDiffer, "java/util/Map.class"));
+		assertTrue(classDiffer.peek(null)
+			.findAny()
+			.orElseThrow() instanceof None);
+
+		/* An unchanged class. */
+		assertEquals(List.of(), peek(new ClassDiffer(
+					new ClassPeeker(List.of(simpleName)),
+					new ClassPeeker(List.of(simpleName))),
+				"java.lang.Object"));
+
+		/* A class whose elements are reordered. */
+		assertEquals(List.of(), peek(new ClassDiffer(
+			new ClassPeeker(List.of(
+				new TestClassData("Names:", klass ->
+					new Object[] { "a", "b", "b" }))),
+			new ClassPeeker(List.of(
+				new TestClassData("Names:", klass ->
+					new Object[] { "b", "a", null, "b" })))),
+				"java.lang.Object"));
+
+		/* A class whose elements are no longer repeated. */
+		assertEquals(List.of(
+				String.format("%n\tChanged Class:%n"
+							+ "java.lang.Object"),
+				String.format("%n\tNames:%n-b")),
+			peek(new ClassDiffer(
+				new ClassPeeker(List.of(
+					new TestClassData("Names:", klass ->
+						new Object[] { "a", "b", "b" }))),
+				new ClassPeeker(List.of(
+					new TestClassData("Names:", klass ->
+						new Object[] { "b", "a" })))),
+				"java.lang.Object"));
+	}
+
+	static class TestClassData extends ClassData
+	{
+		TestClassData(String description,
+					Function<Class<?>, Object[]> methodist)
+		{
+			super(description, methodist);
+		}
+	}
+}
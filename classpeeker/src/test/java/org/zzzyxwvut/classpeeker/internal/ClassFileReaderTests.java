@@ -0,0 +1,136 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import org.zzzyxwvut.classpeeker.ClassFile;
+
+public class ClassFileReaderTests
+{
+	private static ClassFileReader reader;
+
+	@BeforeAll
+	public static void setUpClass()
+	{
+		reader = new ClassFileReader(ClassSource.jrt());
+	}
+
+	private static Set<String> toStrings(Object[] objects)
+	{
+		return Stream.ofNullable(objects)
+			.flatMap(Stream::of)
+			.map(Objects::toString)
+			.collect(Collectors.toSet());
+	}
+
+	private static ClassFile classFile(Class<?> klass)
+	{
+		return reader.read(klass.getName())
+			.orElseThrow();
+	}
+
+	@ParameterizedTest
+	@ValueSource(classes = {
+		Object.class,
+		String.class,
+		java.util.HashMap.class,
+		java.util.Map.Entry.class,
+		java.util.AbstractMap.SimpleEntry.class,
+		java.util.concurrent.TimeUnit.class,
+		java.util.concurrent.ConcurrentHashMap.class,
+		java.lang.annotation.Retention.class,
+		java.lang.Thread.State.class,
+		java.util.Spliterator.OfInt.class,
+		java.io.ObjectStreamConstants.class
+	})
+	public void testSameDataAsReflection(Class<?> klass)
+	{
+		final ClassFile classFile = classFile(klass);
+		assertEquals(klass.getName(), classFile.name());
+		assertEquals(klass.getSimpleName(), classFile.simpleName());
+		assertEquals(klass.getCanonicalName(),
+						classFile.canonicalName());
+		assertEquals(klass.getPackageName(), classFile.packageName());
+		assertEquals(klass.getModifiers(), classFile.modifiers());
+		assertEquals(klass.isInterface(), classFile.isInterface());
+		assertEquals(klass.isAnnotation(), classFile.isAnnotation());
+		assertEquals(klass.isEnum(), classFile.isEnum());
+		assertEquals(Objects.toString(klass.getSuperclass(), null),
+				Objects.toString(classFile.superclass(), null));
+		assertEquals(Objects.toString(klass.getGenericSuperclass(),
+								null),
+				classFile.genericSuperclass());
+		assertEquals(Objects.toString(klass.getDeclaringClass(), null),
+				Objects.toString(classFile.declaringClass(),
+								null));
+		assertEquals(Arrays.toString(klass.getGenericInterfaces()),
+			Arrays.toString(classFile.genericInterfaces()));
+		assertEquals(Arrays.toString(klass.getInterfaces()),
+			Arrays.toString(classFile.interfaces()));
+		assertEquals(toStrings(klass.getClasses()),
+			toStrings(classFile.classes()));
+		assertEquals(toStrings(klass.getDeclaredClasses()),
+			toStrings(classFile.declaredClasses()));
+		assertEquals(toStrings(klass.getConstructors()),
+			toStrings(classFile.constructors()));
+		assertEquals(toStrings(klass.getDeclaredConstructors()),
+			toStrings(classFile.declaredConstructors()));
+		assertEquals(toStrings(klass.getMethods()),
+			toStrings(classFile.methods()));
+		assertEquals(toStrings(klass.getDeclaredMethods()),
+			toStrings(classFile.declaredMethods()));
+		assertEquals(toStrings(klass.getFields()),
+			toStrings(classFile.fields()));
+		assertEquals(toStrings(klass.getDeclaredFields()),
+			toStrings(classFile.declaredFields()));
+		assertEquals(toStrings(klass.getEnumConstants()),
+			toStrings(classFile.enumConstants()));
+	}
+
+	@Test
+	public void testAnnotations()
+	{
+		final ClassFile classFile = classFile(FunctionalInterface.class);
+		assertEquals(Set.of("@java.lang.annotation.Documented()",
+			"@java.lang.annotation.Retention(RUNTIME)",
+			"@java.lang.annotation.Target({TYPE})"),
+			toStrings(classFile.declaredAnnotations()));
+		assertEquals(toStrings(classFile.declaredAnnotations()),
+			toStrings(classFile.annotations()));
+	}
+
+	@Test
+	public void testAnonymousClass()
+	{
+		final ClassFile classFile = reader.read(
+				"java.lang.invoke.MethodHandleImpl$1")
+			.orElseThrow();
+		assertEquals("", classFile.simpleName());
+		assertNull(classFile.canonicalName());
+		assertNull(classFile.declaringClass());
+		assertFalse(Modifier.isPublic(classFile.modifiers()));
+	}
+
+	@Test
+	public void testMissingClassFile()
+	{
+		assertTrue(reader.read("org.example.Missing").isEmpty());
+		assertThrows(TypeNotPresentException.class, () ->
+			reader.resolve("org.example.Missing"));
+	}
+}
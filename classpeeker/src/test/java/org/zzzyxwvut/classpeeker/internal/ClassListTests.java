@@ -0,0 +1,97 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ClassListTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static List<String> lines(Stream<String> lines)
+	{
+		try (lines) {
+			return lines.collect(Collectors.toList());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"",
+		"\n",
+		"\n\n",
+		"\r\n\r",
+		"java.lang.Object",
+		"java.lang.Object\n",
+		"java.lang.Object\r\njava.lang.String\rjava.util.List\n\n",
+		"\nété.Café\r\n中文.类\n😀",
+	})
+	public void testLines(String contents) throws IOException
+	{
+		final Path filePath = Files.writeString(tmpDirPath.resolve(
+						"classes.txt"), contents);
+		assertEquals(lines(Files.lines(filePath,
+						StandardCharsets.UTF_8)),
+				lines(ClassList.lines(filePath)));
+	}
+
+	@Test
+	public void testParallelLines() throws IOException
+	{
+		final List<String> names = IntStream.range(0, 100_000)
+			.mapToObj(i -> (i % 3 == 0)
+				? "org.example.Café".concat(
+						Integer.toString(i))
+				: "org.example.Dummy".concat(
+						Integer.toString(i)))
+			.collect(Collectors.toList());
+		final Path filePath = Files.write(tmpDirPath.resolve(
+						"classes.txt"), names);
+		assertEquals(names, lines(ClassList.lines(filePath)
+							.parallel()));
+
+		/* Names are taken in their order, see WorkScheduler. */
+		try (Stream<String> lines = ClassList.lines(filePath)) {
+			final Spliterator<String> spliterator = lines
+							.spliterator();
+			assertNull(spliterator.trySplit());
+			assertEquals(Files.size(filePath),
+						spliterator.estimateSize());
+		}
+	}
+
+	@Test
+	public void testMalformedLines() throws IOException
+	{
+		final Path filePath = Files.write(tmpDirPath.resolve(
+						"classes.txt"),
+				new byte[] { 'a', '\n', (byte) 0xC3, '\n' });
+		assertThrows(UncheckedIOException.class,
+				() -> lines(ClassList.lines(filePath)));
+	}
+
+	@Test
+	public void testMissingFile()
+	{
+		assertThrows(UncheckedIOException.class,
+				() -> ClassList.lines(tmpDirPath.resolve(
+							"missing.txt")));
+	}
+}
@@ -0,0 +1,43 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class ClassNameFilterTests
+{
+	@Test
+	public void testFilter()
+	{
+		final List<String> classNames;
+
+		try (Stream<String> names = ClassSource.jrt()
+				.classNames(ClassSelector.of("java.base/"))) {
+			classNames = names.collect(Collectors.toList());
+		}
+
+		final ClassNameFilter filter = ClassNameFilter.of(classNames);
+		assertTrue(classNames.stream().allMatch(filter));
+
+		/* About one false positive in a hundred. */
+		final long falsePositives = IntStream.range(0, 10_000)
+			.mapToObj(i -> "org.example.Missing".concat(
+						Integer.toString(i)))
+			.filter(filter)
+			.count();
+		assertTrue(falsePositives < 300L,
+				Long.toString(falsePositives));
+	}
+
+	@Test
+	public void testEmptyFilter()
+	{
+		final ClassNameFilter filter = ClassNameFilter.of(List.of());
+		assertTrue(filter.negate().test("java.lang.Object"));
+	}
+}
@@ -1,16 +1,25 @@
 package org.zzzyxwvut.classpeeker.internal;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
+import java.util.Random;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassFile;
 import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
 import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
 import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
@@ -18,6 +27,10 @@ import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
 
 public class ClassPeekerTests
 {
+	/* The former normalizer of ClassPeeker#binaryName(String). */
+	private static final Pattern DOT_SLASH_CLASS = Pattern.compile(
+						"(?:^\\.+|/|\\.(?:class)??$)");
+
 	private ClassPeeker classPeeker;
 
 	@BeforeEach
@@ -106,11 +119,158 @@ public class ClassPeekerTests
 		assertTrue(result.get(3) instanceof Failure);
 	}
 
+	@Test
+	public void testPeekClassFile()
+	{
+		final List<Result> result = new ClassPeeker(
+						DummyClassData.CLASS_DATA,
+						ClassSource.jrt())
+			.peek("java/lang/Object.class")
+			.collect(Collectors.toUnmodifiableList());
+		assertTrue(result.size() == DummyClassData.CLASS_DATA.size());
+
+		assertTrue(result.get(0) instanceof Success);
+		final Success success0 = (Success) result.get(0);
+		assertTrue("Simple Name:".equals(success0.description()));
+		assertTrue("Object".equals(success0.classData()[0]));
+
+		assertTrue(result.get(1) instanceof Failure);
+		final Exception e = ((Failure) result.get(1)).exception();
+		assertTrue(e instanceof UnsupportedOperationException);
+	}
+
+	@Test
+	public void testPeekMissingClassFile()
+	{
+		final Result result = new ClassPeeker(DummyClassData.CLASS_DATA,
+							ClassSource.jrt())
+			.peek("org.example.Missing")
+			.findAny()
+			.orElseThrow();
+		assertTrue(result instanceof Failure);
+		assertTrue(((Failure) result).exception()
+					instanceof ClassNotFoundException);
+	}
+
+	@Test
+	public void testPeekMissingClass()
+	{
+		final Exception e = ((Failure) classPeeker
+				.peek("org.example.Missing")
+				.findAny()
+				.orElseThrow())
+			.exception();
+		assertTrue(e instanceof ClassNotFoundException);
+		assertEquals(0, e.getStackTrace().length);
+		assertEquals("java.lang.ClassNotFoundException:"
+					+ " org.example.Missing",
+				e.toString());
+
+		/* Known to be missing. */
+		assertSame(e, ((Failure) classPeeker
+				.peek("org/example/Missing.class")
+				.findAny()
+				.orElseThrow())
+			.exception());
+
+		/* Not known to be missing by a measured peeker. */
+		final ClassPeeker measuredPeeker = classPeeker.measured(
+							Statistics.none());
+		final Exception measuredE = ((Failure) measuredPeeker
+				.peek("org.example.Missing")
+				.findAny()
+				.orElseThrow())
+			.exception();
+		assertNotSame(e, measuredE);
+		assertSame(measuredE, ((Failure) measuredPeeker
+				.peek("org.example.Missing")
+				.findAny()
+				.orElseThrow())
+			.exception());
+	}
+
+	@Test
+	public void testPeekPrefiltered()
+	{
+		final ClassPeeker prefilteredPeeker = classPeeker.prefiltered(
+			ClassNameFilter.of(List.of("java.lang.Object")));
+		assertTrue(prefilteredPeeker.peek("java.lang.Object")
+			.findFirst()
+			.orElseThrow() instanceof Success);
+		assertTrue(prefilteredPeeker.peek("int")
+			.findFirst()
+			.orElseThrow() instanceof Success);
+		assertTrue(prefilteredPeeker.peek("[Ljava.lang.String;")
+			.findFirst()
+			.orElseThrow() instanceof Success);
+		assertTrue(((Failure) prefilteredPeeker.peek("java.util.Map")
+				.findAny()
+				.orElseThrow())
+			.exception() instanceof ClassNotFoundException);
+	}
+
+	private static String splitBinaryName(String className)
+	{
+		return DOT_SLASH_CLASS
+			.splitAsStream(className)
+			.filter(Predicate.not(String::isBlank))
+			.collect(Collectors.joining("."));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"", " ", ".", "..", "/", "a", "a.b.C", "a/b/C", "a/b/C.class",
+		"a.b.C.class", "a/b.C", ".a.b.C", "...a/b/C.class", "a..",
+		"a.", "a.class.", ".class", "a.classes", "a.class.class",
+		"a//b", "a/ /b/", "a/\t/b", " a/b ", "a.class\n", "a.\r\n",
+		"a.\r", "a.class\u2028", "a.\n\n", "a.b\n", "a$b/C$1",
+		"\u00e4/\ud801\udc00.class", "a/\u3000/b"
+	})
+	public void testBinaryName(String className)
+	{
+		assertEquals(splitBinaryName(className),
+					ClassPeeker.binaryName(className));
+	}
+
+	@Test
+	public void testBinaryNameFuzz()
+	{
+		final String[] tokens = { "a", "B", "$", ".", "/", "class",
+			".class", " ", "\t", "\n", "\r", "\u0085", "\u2029" };
+		final Random random = new Random(5L);
+
+		for (int i = 0; i < 100_000; ++i) {
+			final StringBuilder builder = new StringBuilder();
+
+			for (int j = random.nextInt(8); j >= 0; --j)
+				builder.append(tokens[random.nextInt(
+							tokens.length)]);
+
+			final String className = builder.toString();
+			assertEquals(splitBinaryName(className),
+					ClassPeeker.binaryName(className),
+					className);
+		}
+	}
+
+	@Test
+	public void testBinaryNameInterning()
+	{
+		assertSame(Object.class.getName(),
+				ClassPeeker.binaryName("java/lang/Object"));
+		assertSame(ClassPeeker.binaryName("org/example/Foo.class"),
+				ClassPeeker.binaryName(new String(
+						"org.example.Foo")));
+	}
+
 	static class DummyClassData extends ClassData
 	{
 		static final List<DummyClassData> CLASS_DATA = List.of(
 			new DummyClassData("Simple Name:",
-				klass -> new Object[] { klass.getSimpleName() }),
+				klass -> new Object[] { klass.getSimpleName() },
+				classFile -> new Object[] {
+					classFile.simpleName()
+				}),
 			new DummyClassData("TODO #1:",
 				klass -> new Object[] { null }),
 			new DummyClassData("TODO #2:", klass -> null),
@@ -123,5 +283,12 @@ public class ClassPeekerTests
 		{
 			super(description, methodist);
 		}
+
+		private DummyClassData(String description,
+				Function<Class<?>, Object[]> methodist,
+				Function<ClassFile, Object[]> fileMethodist)
+		{
+			super(description, methodist, fileMethodist);
+		}
 	}
 }
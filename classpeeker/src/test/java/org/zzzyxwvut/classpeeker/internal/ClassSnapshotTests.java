@@ -0,0 +1,135 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassSnapshot;
+
+public class ClassSnapshotTests
+{
+	private static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+	@ParameterizedTest
+	@ValueSource(classes = {
+		Object.class,
+		String.class,
+		java.util.HashMap.class,
+		java.util.Map.Entry.class,
+		java.util.concurrent.ConcurrentHashMap.class,
+		java.util.concurrent.TimeUnit.class,
+		java.io.ObjectOutputStream.class,
+		java.io.ObjectStreamConstants.class,
+		Character.class,
+		Thread.State.class,
+		int.class,
+		String[].class
+	})
+	public void testReflectionParity(Class<?> klass)
+	{
+		final ClassSnapshot snapshot = new ClassSnapshot(klass);
+		assertArrayEquals(klass.getAnnotations(),
+						snapshot.annotations());
+		assertArrayEquals(klass.getDeclaredAnnotations(),
+						snapshot.declaredAnnotations());
+		assertArrayEquals(klass.getClasses(), snapshot.classes());
+		assertArrayEquals(klass.getDeclaredClasses(),
+						snapshot.declaredClasses());
+		assertArrayEquals(klass.getInterfaces(), snapshot.interfaces());
+		assertArrayEquals(klass.getGenericInterfaces(),
+						snapshot.genericInterfaces());
+		assertArrayEquals(klass.getConstructors(),
+						snapshot.constructors());
+		assertArrayEquals(klass.getDeclaredConstructors(),
+						snapshot.declaredConstructors());
+		assertArrayEquals(klass.getMethods(), snapshot.methods());
+		assertArrayEquals(klass.getDeclaredMethods(),
+						snapshot.declaredMethods());
+		assertArrayEquals(klass.getFields(), snapshot.fields());
+		assertArrayEquals(klass.getDeclaredFields(),
+						snapshot.declaredFields());
+		assertArrayEquals(klass.getEnumConstants(),
+						snapshot.enumConstants());
+	}
+
+	@Test
+	public void testNonInitializingSnapshot()
+	{
+		final ClassSnapshot snapshot = new ClassSnapshot(Hostile.class,
+									false);
+		assertFalse(snapshot.isInitializing());
+		assertArrayEquals(new String[] { "FOO", "BAR" },
+						snapshot.enumConstants());
+		assertEquals(3, snapshot.declaredFields().length);
+		assertThrows(ClassSnapshot.InitializationException.class,
+						snapshot::annotations);
+		assertThrows(ClassSnapshot.InitializationException.class,
+						snapshot::declaredAnnotations);
+		assertFalse(INITIALIZED.get());
+		assertArrayEquals(Hostile.values(), new ClassSnapshot(
+						Hostile.class)
+			.enumConstants());
+		assertTrue(INITIALIZED.get());
+	}
+
+	@Test
+	public void testMemoization()
+	{
+		final ClassSnapshot snapshot = new ClassSnapshot(List.class);
+		assertSame(snapshot.methods(), snapshot.methods());
+		assertSame(snapshot.declaredFields(), snapshot.declaredFields());
+		assertSame(snapshot.constructors(), snapshot.constructors());
+		assertSame(snapshot.fields(), snapshot.fields());
+	}
+
+	@Test
+	public void testSnapshotMethodist()
+	{
+		final ClassData classData = new ClassData("Methods:",
+				ClassData.Methodists.ofSnapshot(snapshot ->
+						snapshot.methods())) { };
+		assertEquals(List.class.getMethods().length, classData
+			.methodist()
+			.apply(List.class)
+			.length);
+		assertEquals(0, new ClassData("Declared Fields:",
+				ClassData.Methodists.ofSnapshot(
+						ClassSnapshot::declaredFields,
+						classFile -> new Object[0])) { }
+			.snapshotMethodist()
+			.apply(new ClassSnapshot(Object.class))
+			.length);
+
+		/* Implicitly typed lambda expressions are not ambiguous. */
+		assertEquals(List.class.getMethods().length, new ClassData(
+				"Methods:", klass -> klass.getMethods()) { }
+			.snapshotMethodist()
+			.apply(new ClassSnapshot(List.class))
+			.length);
+		assertEquals(0, new ClassData("Declared Fields:",
+				klass -> klass.getDeclaredFields(),
+				classFile -> new Object[0]) { }
+			.methodist()
+			.apply(Object.class)
+			.length);
+	}
+
+	enum Hostile
+	{
+		FOO, BAR;
+
+		static {
+			INITIALIZED.set(true);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class ClassSourceTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static Set<String> scan(ClassSource classSource,
+							String selector)
+	{
+		try (Stream<String> classNames = classSource.classNames(
+					ClassSelector.of(selector))) {
+			return classNames.collect(Collectors.toSet());
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"java.util.*,		java.util.Map$Entry,		true",
+		"java.util.*,		java.util.concurrent.TimeUnit,	false",
+		"java.util,		java.util.HashMap,		true",
+		"java.util.**,		java.util.concurrent.TimeUnit,	true",
+		"java.util.Hash*,	java.util.HashMap,		true",
+		"java.util.Hash*,	java.util.TreeMap,		false",
+		"java.util.?ap,		java.util.Map,			true",
+		"java.*.Object,		java.lang.Object,		true",
+		"**,			Foo,				true",
+		"java.base/,		java.util.HashMap,		true",
+		"java.sql/javax.**,	javax.sql.DataSource,		true",
+		"java.sql/javax.**,	java.sql.Connection,		false"
+	})
+	public void testSelector(String selector, String className,
+							boolean expected)
+	{
+		assertEquals(expected, ClassSelector.of(selector)
+			.matches(className));
+	}
+
+	@Test
+	public void testSelectorPackagePrefix()
+	{
+		assertEquals("java.util", ClassSelector.of("java.util")
+			.packagePrefix());
+		assertEquals("java.util", ClassSelector.of("java.util.Hash*")
+			.packagePrefix());
+		assertEquals("java", ClassSelector.of("java.ut*.**")
+			.packagePrefix());
+		assertEquals("", ClassSelector.of("**").packagePrefix());
+		assertEquals("", ClassSelector.of("java.base/").packagePrefix());
+		assertEquals("javax", ClassSelector.of("java.sql/javax.*")
+			.packagePrefix());
+		assertEquals(Optional.of("java.sql"), ClassSelector
+			.of("java.sql/javax.*")
+			.moduleName());
+		assertEquals(Optional.empty(), ClassSelector.of("java.sql")
+			.moduleName());
+		assertEquals(List.of("java.base/", "java.util.*"), ClassSelector
+			.ofList("java.base/, java.util.*")
+			.stream()
+			.map(ClassSelector::toString)
+			.collect(Collectors.toList()));
+		assertThrows(IllegalArgumentException.class, () ->
+					ClassSelector.ofList("java.base/,,"));
+		assertThrows(IllegalArgumentException.class, () ->
+					ClassSelector.of("/java.util"));
+		assertThrows(IllegalArgumentException.class, () ->
+					ClassSelector.of("java.base/java/util"));
+	}
+
+	@Test
+	public void testScanRunTimeImage()
+	{
+		final Set<String> module = scan(ClassSource.jrt(),
+							"java.sql/");
+		assertTrue(module.contains("java.sql.Connection"));
+		assertTrue(module.contains("javax.sql.DataSource"));
+		assertTrue(module.stream()
+			.noneMatch(name -> name.endsWith("module-info")));
+		assertEquals(module.stream()
+				.filter(name -> name.startsWith("javax."))
+				.collect(Collectors.toSet()),
+			scan(ClassSource.jrt(), "java.sql/javax.**"));
+		assertEquals(Set.of(), scan(ClassSource.jrt(),
+						"java.base/javax.sql.*"));
+		assertEquals(Set.of(), scan(ClassSource.jrt(),
+						"org.example.missing/"));
+
+		/* A package, not the module of the same name. */
+		final Set<String> sqlPackage = scan(ClassSource.jrt(),
+							"java.sql");
+		assertTrue(sqlPackage.contains("java.sql.Connection"));
+		assertTrue(sqlPackage.stream()
+			.allMatch(name -> name.startsWith("java.sql.")));
+
+		final Set<String> pakkage = scan(ClassSource.jrt(),
+						"java.util.function");
+		assertTrue(pakkage.contains("java.util.function.Function"));
+		assertTrue(pakkage.stream()
+			.allMatch(name -> name.startsWith(
+						"java.util.function.")));
+
+		final Set<String> wildcard = scan(ClassSource.jrt(),
+						"java.util.concurrent.**");
+		assertTrue(wildcard.contains(
+				"java.util.concurrent.atomic.AtomicLong"));
+		assertFalse(wildcard.contains("java.util.HashMap"));
+	}
+
+	@Test
+	public void testScanDirectoryAndJar() throws IOException
+	{
+		final Path dirPath = tmpDirPath.resolve("classes");
+		Files.createDirectories(dirPath.resolve("org/example"));
+		Files.write(dirPath.resolve("org/example/Foo.class"),
+							new byte[0]);
+		Files.write(dirPath.resolve("org/example/package-info.class"),
+							new byte[0]);
+		final Path jarPath = tmpDirPath.resolve("classes.jar");
+
+		try (OutputStream os = Files.newOutputStream(jarPath);
+				JarOutputStream jos = new JarOutputStream(os)) {
+			for (String name : List.of("org/example/Foo.class",
+					"org/example/Bar$1.class",
+					"META-INF/versions/11/org/example/Baz.class",
+					"org/other/Baz.class")) {
+				jos.putNextEntry(new JarEntry(name));
+				jos.closeEntry();
+			}
+		}
+
+		try (ClassSource classSource = ClassSource.classPath(
+						String.join(java.io.File
+							.pathSeparator,
+						dirPath.toString(),
+						jarPath.toString()))) {
+			assertEquals(Set.of("org.example.Foo",
+						"org.example.Bar$1"),
+				scan(classSource, "org.example.*"));
+			assertEquals(Set.of("org.other.Baz"),
+				scan(classSource, "org.*.Baz"));
+
+			/* Classes of a class path belong to no module. */
+			assertEquals(Set.of(), scan(classSource,
+						"java.base/org.**"));
+		}
+	}
+}
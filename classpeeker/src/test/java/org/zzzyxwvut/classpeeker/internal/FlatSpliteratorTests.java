@@ -0,0 +1,53 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class FlatSpliteratorTests
+{
+	@Test
+	public void testLaziness()
+	{
+		final List<String> events = new ArrayList<>();
+
+		try (Stream<String> stream = FlatSpliterator.flatMap(Stream.of(
+						"a", "b", "c")
+					.onClose(() -> events.add("closed")),
+				key -> ("b".equals(key))
+					? null
+					: Stream.of(key.concat("1"),
+							key.concat("2"))
+						.onClose(() -> events.add(
+							key.concat(" closed")))
+						.peek(events::add))) {
+			final Iterator<String> iterator = stream.iterator();
+			assertEquals("a1", iterator.next());
+			assertEquals(List.of("a1"), events);
+			iterator.next();
+			iterator.next();
+			assertEquals(List.of("a1", "a2", "a closed", "c1"),
+								events);
+		}
+
+		/* The stream being traversed is closed with its stream. */
+		assertEquals(List.of("a1", "a2", "a closed", "c1",
+					"c closed", "closed"), events);
+	}
+
+	@Test
+	public void testFlatMap()
+	{
+		assertEquals(List.of(1, 2, 2, 3, 3, 3),
+			FlatSpliterator.flatMap(Stream.of(0, 1, 2, 3),
+					count -> Stream.generate(() -> count)
+						.limit(count))
+				.collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,106 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class GzipChannelTests
+{
+	private static byte[] data(int size)
+	{
+		final Random random = new Random(size);
+		final StringBuilder builder = new StringBuilder(size + 64);
+
+		while (builder.length() < size)
+			builder.append("java.util.Dummy")
+				.append(random.nextInt(1000))
+				.append('\n');
+
+		return builder.substring(0, size)
+			.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] gunzip(byte[] bytes) throws IOException
+	{
+		try (InputStream is = new GZIPInputStream(
+					new ByteArrayInputStream(bytes))) {
+			return is.readAllBytes();
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"0, 1",
+		"100, 1",
+		"131072, 2",
+		"1000000, 1",
+		"1000000, 4",
+	})
+	public void testWrite(int size, int threads) throws IOException
+	{
+		final byte[] data = data(size);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (BlockDeflater deflater = new BlockDeflater(threads,
+					Deflater.DEFAULT_COMPRESSION)) {
+			final GzipChannel channel = new GzipChannel(
+					Channels.newChannel(bytes),
+					deflater,
+					true);
+
+			/* Write in uneven chunks across blocks. */
+			for (int offset = 0; offset < size; offset += 7919)
+				channel.write(ByteBuffer.wrap(data, offset,
+					Math.min(7919, size - offset)));
+
+			channel.close();
+			assertThrows(ClosedChannelException.class,
+				() -> channel.write(ByteBuffer.allocate(1)));
+		}
+
+		assertArrayEquals(data, gunzip(bytes.toByteArray()));
+		assertTrue(size < 1000 || bytes.size() < size / 4,
+					Integer.toString(bytes.size()));
+	}
+
+	@Test
+	public void testAppendMember() throws IOException
+	{
+		final byte[] data1 = data(1000);
+		final byte[] data2 = data(300000);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (BlockDeflater deflater = new BlockDeflater(2,
+					Deflater.BEST_SPEED)) {
+			for (byte[] data : new byte[][] { data1, data2 }) {
+				try (GzipChannel channel = new GzipChannel(
+						Channels.newChannel(bytes),
+						deflater,
+						false)) {
+					channel.write(ByteBuffer.wrap(data));
+				}
+			}
+		}
+
+		final byte[] data = new byte[data1.length + data2.length];
+		System.arraycopy(data1, 0, data, 0, data1.length);
+		System.arraycopy(data2, 0, data, data1.length, data2.length);
+		assertArrayEquals(data, gunzip(bytes.toByteArray()));
+	}
+}
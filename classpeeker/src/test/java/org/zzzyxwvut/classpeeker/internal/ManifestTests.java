@@ -0,0 +1,183 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ManifestTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private Path classesPath;
+	private Path dataPath;
+	private Path manifestPath;
+	private ClassSource classSource;
+	private Function<String, Path> dataPaths;
+
+	@BeforeEach
+	public void setUp() throws IOException
+	{
+		classesPath = Files.createDirectories(tmpDirPath.resolve(
+							"classes/org/example"))
+			.getParent()
+			.getParent();
+		Files.write(classesPath.resolve("org/example/Foo.class"),
+							new byte[] { 1 });
+		Files.write(classesPath.resolve("org/example/Bar.class"),
+							new byte[] { 2 });
+		dataPath = Files.createDirectory(tmpDirPath.resolve("data"));
+		manifestPath = tmpDirPath.resolve("manifest");
+		classSource = new ClassSource.DirectorySource(classesPath);
+		dataPaths = className -> dataPath.resolve(className);
+	}
+
+	private Manifest inspect(String settings, String className,
+							boolean failing) throws IOException
+	{
+		final Manifest manifest = Manifest.open(manifestPath, settings,
+						classSource, dataPaths);
+
+		if (!manifest.isCurrent(className)) {
+			final String binaryName = ClassPeeker.binaryName(
+								className);
+			Files.writeString(dataPaths.apply(binaryName),
+						binaryName,
+						StandardOpenOption.CREATE_NEW);
+
+			if (failing)
+				manifest.discard(binaryName);
+
+			manifest.record(binaryName);
+		}
+
+		return manifest;
+	}
+
+	@Test
+	public void testResumption() throws IOException
+	{
+		try (Manifest manifest = inspect("a", "org/example/Foo.class",
+								false)) {
+			assertTrue(manifest.isCurrent("org.example.Foo"));
+			assertFalse(manifest.isCurrent("org.example.Bar"));
+			assertFalse(manifest.isCurrent("org.example.Baz"));
+			assertFalse(manifest.isCurrent(null));
+		}
+
+		/* Recorded with the first run, skipped with the second run. */
+		inspect("a", "org.example.Foo", false).close();
+		inspect("a", "org.example.Bar", true).close();
+		final List<String> lines = Files.readAllLines(manifestPath,
+						StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(1).startsWith("org.example.Foo\t"));
+
+		/* A torn record of an interrupted run. */
+		Files.writeString(manifestPath, "org.example.Bar\t",
+						StandardOpenOption.APPEND);
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertTrue(manifest.isCurrent("org.example.Foo"));
+			assertFalse(manifest.isCurrent("org.example.Bar"));
+			assertFalse(Files.exists(dataPaths.apply(
+						"org.example.Bar")));
+		}
+	}
+
+	@Test
+	public void testChanges() throws IOException
+	{
+		inspect("a", "org.example.Foo", false).close();
+
+		/* A changed file of class data. */
+		Files.writeString(dataPaths.apply("org.example.Foo"), "-");
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertFalse(manifest.isCurrent("org.example.Foo"));
+			assertFalse(Files.exists(dataPaths.apply(
+						"org.example.Foo")));
+		}
+
+		inspect("a", "org.example.Foo", false).close();
+
+		/* A changed class file. */
+		Files.write(classesPath.resolve("org/example/Foo.class"),
+							new byte[] { 1, 1 });
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertFalse(manifest.isCurrent("org.example.Foo"));
+		}
+
+		inspect("a", "org.example.Foo", false).close();
+
+		/* Changed settings. */
+		try (Manifest manifest = Manifest.open(manifestPath, "b",
+						classSource, dataPaths)) {
+			assertFalse(manifest.isCurrent("org.example.Foo"));
+		}
+
+		assertEquals(1, Files.readAllLines(manifestPath,
+						StandardCharsets.UTF_8)
+			.size());
+	}
+
+	@Test
+	public void testModificationTimes() throws IOException
+	{
+		inspect("a", "org.example.Foo", false).close();
+		final Path fooPath = dataPaths.apply("org.example.Foo");
+		final FileTime time = Files.getLastModifiedTime(fooPath);
+
+		/* A file of the recorded size and time is not read. */
+		Files.writeString(fooPath, "org.example.Bar");
+		Files.setLastModifiedTime(fooPath, time);
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertTrue(manifest.isCurrent("org.example.Foo"));
+		}
+
+		/* A file of the recorded checksum is recorded anew. */
+		final FileTime touchedTime = FileTime.fromMillis(
+						time.toMillis() - 60_000L);
+		Files.writeString(fooPath, "org.example.Foo");
+		Files.setLastModifiedTime(fooPath, touchedTime);
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertTrue(manifest.isCurrent("org.example.Foo"));
+		}
+
+		assertTrue(Files.readAllLines(manifestPath,
+						StandardCharsets.UTF_8)
+			.get(1)
+			.contains(String.format("\t%d\t",
+						touchedTime.toMillis())));
+
+		/* A changed file of the recorded size. */
+		Files.writeString(fooPath, "org.example.Baz");
+
+		try (Manifest manifest = Manifest.open(manifestPath, "a",
+						classSource, dataPaths)) {
+			assertFalse(manifest.isCurrent("org.example.Foo"));
+			assertFalse(Files.exists(fooPath));
+		}
+	}
+}
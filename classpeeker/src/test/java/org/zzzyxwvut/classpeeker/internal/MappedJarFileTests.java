@@ -0,0 +1,180 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedJarFileTests
+{
+	private static final byte[] DATA = "Lorem ipsum dolor sit amet, "
+			.repeat(64)
+			.getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	public Path tmpDirPath;
+
+	private static void putEntry(JarOutputStream jos, String name,
+				byte[] data, boolean stored) throws IOException
+	{
+		final JarEntry entry = new JarEntry(name);
+
+		if (stored) {
+			final CRC32 crc = new CRC32();
+			crc.update(data);
+			entry.setMethod(ZipEntry.STORED);
+			entry.setSize(data.length);
+			entry.setCrc(crc.getValue());
+		}
+
+		jos.putNextEntry(entry);
+		jos.write(data);
+		jos.closeEntry();
+	}
+
+	private static byte[] bytes(ByteBuffer buffer)
+	{
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+		return bytes;
+	}
+
+	@Test
+	public void testStoredAndDeflatedEntries() throws IOException
+	{
+		final Path jarPath = tmpDirPath.resolve("entries.jar");
+
+		try (OutputStream os = Files.newOutputStream(jarPath);
+				JarOutputStream jos = new JarOutputStream(os)) {
+			putEntry(jos, "stored.txt", DATA, true);
+			putEntry(jos, "deflated.txt", DATA, false);
+			putEntry(jos, "empty.txt", new byte[0], false);
+		}
+
+		final MappedJarFile jarFile = MappedJarFile.open(jarPath);
+		assertEquals(List.of("stored.txt", "deflated.txt", "empty.txt"),
+						jarFile.entryNames()
+			.collect(Collectors.toList()));
+
+		final ByteBuffer stored = jarFile.read("stored.txt")
+			.orElseThrow();
+		assertTrue(stored.isDirect());		/* A mapped slice. */
+		assertTrue(stored.isReadOnly());
+		assertEquals(0, stored.position());
+		assertEquals(new String(DATA, StandardCharsets.UTF_8),
+			new String(bytes(stored), StandardCharsets.UTF_8));
+		assertEquals(new String(DATA, StandardCharsets.UTF_8),
+			new String(bytes(jarFile.read("deflated.txt")
+					.orElseThrow()),
+				StandardCharsets.UTF_8));
+		assertEquals(0, jarFile.read("empty.txt")
+			.orElseThrow()
+			.remaining());
+		assertEquals(Optional.empty(), jarFile.read("missing.txt"));
+		assertFalse(jarFile.contains("missing.txt"));
+		assertEquals(OptionalLong.of(DATA.length),
+						jarFile.size("deflated.txt"));
+		assertEquals(OptionalLong.empty(),
+						jarFile.size("missing.txt"));
+
+		final CRC32 crc = new CRC32();
+		crc.update(DATA);
+		assertEquals(OptionalLong.of(crc.getValue()),
+						jarFile.crc("deflated.txt"));
+		assertEquals(OptionalLong.empty(),
+						jarFile.crc("missing.txt"));
+	}
+
+	@Test
+	public void testZip64Entries() throws IOException
+	{
+		final Path jarPath = tmpDirPath.resolve("zip64.jar");
+		final int count = 0x10000 + 1;	/* A ZIP64 end record. */
+
+		try (OutputStream os = Files.newOutputStream(jarPath);
+				JarOutputStream jos = new JarOutputStream(os)) {
+			for (int i = 0; i < count; ++i)
+				putEntry(jos, "e" + i, new byte[0], true);
+
+			putEntry(jos, "last.txt", DATA, false);
+		}
+
+		final MappedJarFile jarFile = MappedJarFile.open(jarPath);
+		assertEquals(count + 1, jarFile.entryNames().count());
+		assertEquals(DATA.length, jarFile.read("last.txt")
+			.orElseThrow()
+			.remaining());
+	}
+
+	@Test
+	public void testClassSourceLoader() throws IOException,
+						ClassNotFoundException
+	{
+		final String className = MappedJarFileTests.class.getName();
+		final String fileName = ClassSource.fileName(className);
+		final Path jarPath = tmpDirPath.resolve("classes.jar");
+
+		try (InputStream is = MappedJarFileTests.class
+				.getResourceAsStream("/".concat(fileName));
+				OutputStream os = Files.newOutputStream(jarPath);
+				JarOutputStream jos = new JarOutputStream(os)) {
+			putEntry(jos, fileName, is.readAllBytes(), false);
+		}
+
+		try (ClassSource classSource = new ClassSource.JarSource(
+								jarPath)) {
+			/*
+			 * Bypass the platform loader that may delegate to
+			 * the application loader for this named module.
+			 */
+			final ClassLoader loader = new ClassSourceLoader(
+							classSource, null);
+			final Class<?> klass = Class.forName(className, false,
+								loader);
+			assertSame(loader, klass.getClassLoader());
+			assertNotSame(MappedJarFileTests.class, klass);
+			assertEquals(className, klass.getName());
+			assertSame(klass, Class.forName(className, false,
+								loader));
+		}
+	}
+
+	@Test
+	public void testClassSourceLoaderRecycler()
+	{
+		final Supplier<ClassLoader> recycler = ClassSourceLoader
+			.recycler(ClassSource.of(List.of()), null, 2L);
+		final ClassLoader loader1 = recycler.get();
+		assertSame(loader1, recycler.get());
+		final ClassLoader loader2 = recycler.get();
+		assertNotSame(loader1, loader2);
+		assertSame(loader2, recycler.get());
+		assertNotSame(loader2, recycler.get());
+		assertEquals(loader1.toString(), loader2.toString());
+		assertThrows(IllegalArgumentException.class, () ->
+				ClassSourceLoader.recycler(
+					ClassSource.of(List.of()), null, 0L));
+	}
+}
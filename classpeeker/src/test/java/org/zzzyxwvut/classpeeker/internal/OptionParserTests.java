@@ -1,6 +1,7 @@
 package org.zzzyxwvut.classpeeker.internal;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,6 +13,7 @@ import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.SIN
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.WRITE_TO;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -38,6 +40,19 @@ public class OptionParserTests
 		assertFalse(optionParser.classNames().isEmpty());
 	}
 
+	@Test
+	public void testClassNamesBeforeOptions()
+	{
+		final OptionParser optionParser = new OptionParser(new String[] {
+			"java.lang.Object",
+			"-".concat(CONCURRENT.shortName())
+		});
+		assertTrue(optionParser.options().isEmpty());
+		assertEquals(List.of("java.lang.Object",
+					"-".concat(CONCURRENT.shortName())),
+				optionParser.classNames());
+	}
+
 	@Test
 	public void testRepeatedOption() /* See OptionParser#parse(Iterator) */
 	{
@@ -0,0 +1,147 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResidentsTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static void writeJar(Path jarPath, String... fileNames)
+							throws IOException
+	{
+		try (ZipOutputStream os = new ZipOutputStream(
+					Files.newOutputStream(jarPath))) {
+			for (String fileName : fileNames) {
+				os.putNextEntry(new ZipEntry(fileName));
+				os.closeEntry();
+			}
+		}
+	}
+
+	@Test
+	public void testSource() throws IOException
+	{
+		final Path jarPath = tmpDirPath.resolve("a.jar");
+		writeJar(jarPath, "org/example/Foo.class");
+		final Residents residents = Residents.newInstance(2);
+		final ClassSource source = residents.source(jarPath.toString());
+		assertTrue(residents.isEnabled());
+		assertSame(source, residents.source(jarPath.toString()));
+		assertTrue(source.find("org.example.Foo").isPresent());
+
+		/* A rebuilt JAR file is indexed anew. */
+		writeJar(jarPath, "org/example/Foo.class",
+						"org/example/Bar.class");
+		Files.setLastModifiedTime(jarPath, FileTime.fromMillis(
+				Files.getLastModifiedTime(jarPath).toMillis()
+								+ 60_000L));
+		final ClassSource rebuiltSource = residents.source(
+							jarPath.toString());
+		assertNotSame(source, rebuiltSource);
+		assertTrue(rebuiltSource.find("org.example.Bar").isPresent());
+
+		/* Nothing is kept without residents. */
+		assertFalse(Residents.none().isEnabled());
+		assertNotSame(Residents.none().source(jarPath.toString()),
+				Residents.none().source(jarPath.toString()));
+	}
+
+	private static ClassSource source(AtomicInteger closes)
+	{
+		return new ClassSource() {
+			@Override
+			public Optional<Entry> find(String className)
+			{
+				return Optional.empty();
+			}
+
+			@Override
+			public Stream<String> classNames(ClassSelector selector)
+			{
+				return Stream.empty();
+			}
+
+			@Override
+			public void close()	{ closes.incrementAndGet(); }
+		};
+	}
+
+	@Test
+	public void testRelease()
+	{
+		final AtomicInteger closes = new AtomicInteger();
+		final Residents residents = Residents.newInstance(1,
+						classPath -> source(closes));
+		final ClassSource a = residents.source("a");
+		assertSame(a, residents.source("a"));
+
+		/* An evicted source is closed with its last request. */
+		final ClassSource b = residents.source("b");
+		residents.release(a);
+		assertEquals(0, closes.get());
+		residents.release(a);
+		assertEquals(1, closes.get());
+
+		/* A resident source is not closed. */
+		residents.release(b);
+		assertEquals(1, closes.get());
+
+		/* An evicted source that no request uses is closed at once. */
+		final ClassSource c = residents.source("c");
+		assertEquals(2, closes.get());
+		residents.release(c);
+		assertEquals(2, closes.get());
+
+		/* Nothing is kept without residents. */
+		Residents.none().release(c);
+		assertEquals(3, closes.get());
+	}
+
+	@Test
+	public void testPeeker()
+	{
+		final AtomicInteger builds = new AtomicInteger();
+		final Residents residents = Residents.newInstance(1);
+		final List<Object> a = List.of("a", 1L);
+		final ClassPeeker peeker = residents.peeker(a, () -> {
+			builds.incrementAndGet();
+			return new ClassPeeker(List.of());
+		});
+
+		/* Every request is handed out a peeker of its own. */
+		assertNotSame(peeker, residents.peeker(List.of("a", 1L), () -> {
+			throw new AssertionError();
+		}));
+		assertEquals(1, builds.get());
+
+		/* The least recently used configuration is released. */
+		residents.peeker(List.of("b"), () -> new ClassPeeker(List.of()));
+		residents.peeker(a, () -> {
+			builds.incrementAndGet();
+			return new ClassPeeker(List.of());
+		});
+		assertEquals(2, builds.get());
+		assertThrows(IllegalArgumentException.class,
+					() -> Residents.newInstance(0));
+	}
+}
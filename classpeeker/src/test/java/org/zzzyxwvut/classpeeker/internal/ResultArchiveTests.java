@@ -0,0 +1,172 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResultArchiveTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static Optional<String> read(MappedJarFile archive,
+							String className)
+	{
+		return archive.read(className)
+			.map(StandardCharsets.UTF_8::decode)
+			.map(CharBuffer::toString);
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException
+	{
+		final Path archivePath = tmpDirPath.resolve("results.zip");
+		final Map<String, String> renditions = new LinkedHashMap<>();
+		renditions.put("java.lang.Object",
+				String.format("%n\tSimple Name:%nObject%n"));
+		renditions.put("java.util.Map$Entry",
+				String.format("%n\tSimple Name:%nEntry%n"));
+		renditions.put("Ünïcödé", "é中😀\n");
+		renditions.put("large", "Lorem ipsum dolor sit amet\n"
+							.repeat(20000));
+		renditions.put("empty", "");
+
+		try (ResultArchive archive = ResultArchive.newFile(
+							archivePath)) {
+			renditions.forEach((className, rendition) ->
+				archive.write(className,
+					CharBuffer.wrap(rendition)));
+			assertFalse(archive.write("empty",
+						CharBuffer.wrap("skipped")));
+		}
+
+		final MappedJarFile archive = MappedJarFile.open(archivePath);
+		assertEquals(List.copyOf(renditions.keySet()),
+						archive.entryNames()
+			.collect(Collectors.toList()));
+		renditions.forEach((className, rendition) -> assertEquals(
+				Optional.of(rendition),
+				read(archive, className)));
+		assertTrue(archive.read("large")
+			.orElseThrow()
+			.isDirect());			/* A mapped slice. */
+		assertFalse(read(archive, "missing").isPresent());
+
+		/* Also readable with other ZIP tools. */
+		try (ZipFile zipFile = new ZipFile(archivePath.toFile(),
+						StandardCharsets.UTF_8)) {
+			assertEquals(renditions.size(), zipFile.size());
+
+			for (Map.Entry<String, String> rendition : renditions
+							.entrySet()) {
+				final ZipEntry entry = zipFile.getEntry(
+							rendition.getKey());
+
+				try (InputStream is = zipFile.getInputStream(
+								entry)) {
+					assertEquals(rendition.getValue(),
+						new String(is.readAllBytes(),
+							StandardCharsets
+								.UTF_8));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDeflatedWriteAndRead() throws IOException
+	{
+		final Path archivePath = tmpDirPath.resolve("deflated.zip");
+		final Map<String, String> renditions = new LinkedHashMap<>();
+
+		for (int i = 0; i < 100; ++i)
+			renditions.put("org.example.Dummy".concat(
+						Integer.toString(i)),
+				String.format("%n\tSimple Name:%nDummy%d%n",
+									i));
+
+		renditions.put("Ünïcödé", "é中😀\n");
+		renditions.put("large", "Lorem ipsum dolor sit amet\n"
+							.repeat(20000));
+		renditions.put("empty", "");
+
+		try (BlockDeflater deflater = new BlockDeflater(2,
+					Deflater.DEFAULT_COMPRESSION);
+				ResultArchive archive = ResultArchive.newFile(
+						archivePath, deflater)) {
+			renditions.forEach((className, rendition) ->
+				archive.write(className,
+					CharBuffer.wrap(rendition)));
+		}
+
+		assertTrue(Files.size(archivePath) < 64 * 1024);
+		final MappedJarFile archive = MappedJarFile.open(archivePath);
+		assertEquals(List.copyOf(renditions.keySet()),
+						archive.entryNames()
+			.collect(Collectors.toList()));
+		renditions.forEach((className, rendition) -> assertEquals(
+				Optional.of(rendition),
+				read(archive, className)));
+
+		try (ZipFile zipFile = new ZipFile(archivePath.toFile(),
+						StandardCharsets.UTF_8)) {
+			assertEquals(renditions.size(), zipFile.size());
+
+			for (Map.Entry<String, String> rendition : renditions
+							.entrySet()) {
+				final ZipEntry entry = zipFile.getEntry(
+							rendition.getKey());
+				assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+
+				try (InputStream is = zipFile.getInputStream(
+								entry)) {
+					assertEquals(rendition.getValue(),
+						new String(is.readAllBytes(),
+							StandardCharsets
+								.UTF_8));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testZip64Entries() throws IOException
+	{
+		final Path archivePath = tmpDirPath.resolve("zip64.zip");
+		final int count = 0x10000 + 1;	/* A ZIP64 end record. */
+
+		try (ResultArchive archive = ResultArchive.newFile(
+							archivePath)) {
+			for (int i = 0; i < count; ++i)
+				archive.write("e" + i, CharBuffer.wrap(
+							Integer.toString(i)));
+		}
+
+		final MappedJarFile archive = MappedJarFile.open(archivePath);
+		assertEquals(count, archive.entryNames().count());
+		assertEquals(Optional.of(Integer.toString(count - 1)),
+					read(archive, "e" + (count - 1)));
+
+		try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+			assertEquals(count, zipFile.size());
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.zzzyxwvut.classpeeker.ClassSupport;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+public class ResultFormatTests
+{
+	private static String render(ResultFormat format,
+							List<Result> results)
+	{
+		final StringBuilder builder = new StringBuilder();
+		final ResultFormat.Record record = format.record(builder);
+		results.forEach(record::append);
+		record.close();
+		return builder.toString();
+	}
+
+	@Test
+	public void testText()
+	{
+		final List<Result> results = List.of(
+			new Success("java.lang.Object", "Simple Name:",
+						new Object[] { "Object" }),
+			new Failure("java.lang.Object",
+				new UnsupportedOperationException("Oops!")));
+		assertEquals(String.format("%s%n%s%n", results.get(0),
+							results.get(1)),
+			render(ResultFormat.text(), results));
+	}
+
+	@Test
+	public void testJsonLines() throws NoSuchMethodException
+	{
+		final ResultFormat format = ResultFormat.fromString("JSONL");
+		assertSame(ResultFormat.jsonLines(), format);
+		assertEquals(String.format("{\"class\":\"java.util.Map\""
+				+ ",\"classInterfaceModifiers\":[{\"flags\":%d"
+					+ ",\"text\":\"public, abstract,"
+					+ " interface\"}]"
+				+ ",\"simpleName\":[\"Map\"]"
+				+ ",\"canonicalName\":null"
+				+ ",\"interfaces\":[\"java.util.Map$Entry\"]"
+				+ ",\"declaredMethods\":[{\"name\":\"size\""
+					+ ",\"modifiers\":%d,\"text\":\"%s\"}]"
+				+ ",\"enumConstants\":[\"SECONDS\",1,true]"
+				+ ",\"errors\":[\"java.lang."
+					+ "UnsupportedOperationException:"
+					+ " \\\"Oops!\\\"\\n\\t\\u0001\"]}\n",
+				Modifier.PUBLIC | Modifier.ABSTRACT
+						| Modifier.INTERFACE,
+				Map.class.getMethod("size").getModifiers(),
+				Map.class.getMethod("size")),
+			render(format, List.of(
+				new Success("java.util.Map", String.format(
+						"####%n%n\tClass/Interface"
+							+ " Modifiers:"),
+					new Object[] {
+						ClassSupport.modifiers(
+							Map.class)
+					}),
+				new Success("java.util.Map", "Simple Name:",
+						new Object[] { "Map" }),
+				new Failure("java.util.Map",
+					new UnsupportedOperationException(
+						"\"Oops!\"\n\t\u0001")),
+				new Success("java.util.Map", "Canonical Name:",
+								null),
+				new Success("java.util.Map", "Interfaces:",
+					new Object[] {
+						Map.Entry.class, null
+					}),
+				new Success("java.util.Map",
+						"Declared Methods:",
+					new Object[] {
+						Map.class.getMethod("size")
+					}),
+				new Success("java.util.Map",
+						"Enum Constants:",
+					new Object[] {
+						java.util.concurrent.TimeUnit
+							.SECONDS,
+						1,
+						true
+					}),
+				None.instance())));
+
+		/* No record for the none result of console input. */
+		assertEquals("", render(format, List.of(None.instance())));
+		assertEquals("simpleName", ResultFormat.JsonLinesFormat
+					.fieldName("Simple Name:"));
+		assertEquals("data", ResultFormat.JsonLinesFormat
+					.fieldName("::"));
+		assertThrows(IllegalArgumentException.class,
+				() -> ResultFormat.fromString("xml"));
+	}
+}
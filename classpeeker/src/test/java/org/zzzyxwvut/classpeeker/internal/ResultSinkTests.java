@@ -0,0 +1,72 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.None;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Success;
+
+public class ResultSinkTests
+{
+	public static Stream<Arguments> results()
+	{
+		final List<Result> results = List.of(
+			new Success("java.util.HashMap", "Methods:",
+					java.util.HashMap.class.getMethods()),
+			new Success("java.lang.Character$UnicodeBlock",
+					"Declared Fields:",
+					Character.UnicodeBlock.class
+						.getDeclaredFields()),
+			new Success("x", "Nulls:",
+					new Object[] { null, "a", null, "b" }),
+			new Success("x", "Nothing:", null),
+			new Success("x", "Non-ASCII:",
+				new Object[] { "été", "東京" }),
+			new Failure("x", new ClassNotFoundException("x")),
+			None.instance());
+		return Stream.of(StandardCharsets.UTF_8,
+					StandardCharsets.ISO_8859_1,
+					StandardCharsets.UTF_16)
+			.flatMap(charset -> results.stream()
+				.map(result -> Arguments.of(charset, result)));
+	}
+
+	@ParameterizedTest
+	@MethodSource("results")
+	public void testPrintStreamParity(Charset charset, Result result)
+	{
+		final ByteArrayOutputStream expected =
+						new ByteArrayOutputStream();
+
+		try (PrintStream printStream = new PrintStream(expected, false,
+								charset)) {
+			printStream.println(result.toString());
+			printStream.println(result.toString());
+		}
+
+		final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+		try (ResultSink sink = new ResultSink(
+					Channels.newChannel(actual),
+					charset,
+					true)) {
+			sink.write(result);
+			sink.write(result);
+		}
+
+		assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+}
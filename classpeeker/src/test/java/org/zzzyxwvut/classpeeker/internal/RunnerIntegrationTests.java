@@ -1,34 +1,67 @@
 package org.zzzyxwvut.classpeeker.internal;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.ABORT_ON_ERROR;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.ARCHIVE;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.BYTECODE;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.CDS_TRAIN;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.CLASS_PATH;
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.CONCURRENT;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.CONNECT;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.DIFF;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.EXCLUDE;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.FORMAT;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.GZIP;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.LARGEST_FIRST;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.LAYOUT;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.MANIFEST;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.NO_INIT;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.ONLY;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.PREFILTER;
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.READ_FROM;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.RECYCLE;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.SCAN;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.SERVE;
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.SINGLE;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.STATS;
+import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.THREADS;
 import static org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption.WRITE_TO;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
 import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.cli.MissingArgumentException;
 
@@ -43,6 +76,8 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.zzzyxwvut.impedimenta.FileReader;
 
 import org.zzzyxwvut.classpeeker.ClassData;
+import org.zzzyxwvut.classpeeker.ClassFile;
+import org.zzzyxwvut.classpeeker.ClassSnapshot;
 import org.zzzyxwvut.classpeeker.internal.OptionParser.LauncherOption;
 
 public class RunnerIntegrationTests
@@ -52,6 +87,8 @@ public class RunnerIntegrationTests
 						"java/lang/Object",
 						"java/util/Map.class");
 	private static final Map<String, String> DATA = new LinkedHashMap<>();
+	private static final AtomicBoolean HOSTILE_INITIALIZED =
+						new AtomicBoolean();
 
 	/* ClassPeeker.Success#toString() */
 	private static final byte[] EXPECTED;
@@ -142,6 +179,43 @@ public class RunnerIntegrationTests
 		}
 	}
 
+	@Test
+	public void testOptionReadFromSystemIn() throws IOException
+	{
+		final Function<String[], String> runner = options -> {
+			final ByteArrayOutputStream outBytes =
+						new ByteArrayOutputStream();
+			assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+					options,
+					new PrintStream(outBytes, true,
+						StandardCharsets.UTF_8),
+					System.err));
+			return outBytes.toString(StandardCharsets.UTF_8);
+		};
+		final String expected = runner.apply(new String[] {
+			"-".concat(READ_FROM.shortName()),
+			readFromPath.toString()
+		});
+		final InputStream oldStream = System.in;
+
+		for (String[] options : List.of(new String[] {
+					"-".concat(READ_FROM.shortName()),
+					"-"
+				}, new String[] {
+					"-".concat(CONCURRENT.shortName()),
+					"-".concat(READ_FROM.shortName()),
+					"-"
+				})) {
+			try (InputStream newStream = Files.newInputStream(
+					readFromPath, StandardOpenOption.READ)) {
+				System.setIn(newStream);
+				assertEquals(expected, runner.apply(options));
+			} finally {
+				System.setIn(oldStream);
+			}
+		}
+	}
+
 	@Test
 	public void testOptionAbortingReadFromFileWriteToFile() throws
 								IOException
@@ -164,6 +238,65 @@ public class RunnerIntegrationTests
 			.watchAndReadBytes(singlePath, 64));
 	}
 
+	@Test
+	public void testOptionAbortingConcurrentReadFromFileWriteToFile() throws
+								IOException
+	{
+		final Path singlePath = tmpDirPath.resolve(Path.of(
+			"testOptionAbortingConcurrentReadFromFileWriteToFile"));
+		final boolean success = Runner.inspect(
+						FailureClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(ABORT_ON_ERROR.shortName()),
+			"-".concat(CONCURRENT.shortName()),
+			"-".concat(READ_FROM.shortName()),
+			readFromPath.toString(),
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString()
+		});
+		assertFalse(success);
+		assertArrayEquals(FailureClassData.FAILURE_ENTRY
+			.getBytes(StandardCharsets.UTF_8),
+						new FileReader()
+			.watchAndReadBytes(singlePath, 64));
+	}
+
+	@Test
+	public void testOptionConcurrentScanWriteToFile() throws IOException
+	{
+		final Function<String[], Path> runner = options -> {
+			final Path singlePath = tmpDirPath.resolve(Path.of(
+				"testOptionConcurrentScanWriteToFile"
+							.concat(String.join("",
+								options))));
+			assertTrue(Runner.inspect(
+				List.of(FailureClassData.CLASS_DATA.get(1)),
+				Stream.concat(Arrays.stream(options),
+							Stream.of(
+					"-".concat(SCAN.shortName()),
+					"java.util.concurrent.**",
+					"-".concat(SINGLE.shortName()),
+					singlePath.toString()))
+				.toArray(String[]::new)));
+			return singlePath;
+		};
+		final byte[] sequential = Files.readAllBytes(runner.apply(
+							new String[0]));
+		final byte[] concurrent = Files.readAllBytes(runner.apply(
+				new String[] {
+					"-".concat(CONCURRENT.shortName())
+				}));
+		final byte[] largestFirst = Files.readAllBytes(runner.apply(
+				new String[] {
+					"-".concat(LARGEST_FIRST.shortName()),
+					"-".concat(THREADS.shortName()),
+					"3"
+				}));
+		assertTrue(sequential.length > 1024);
+		assertArrayEquals(sequential, concurrent);
+		assertArrayEquals(sequential, largestFirst);
+	}
+
 	@Test
 	public void testOptionNotAbortingReadFromFileWriteToFile() throws
 								IOException
@@ -225,6 +358,862 @@ public class RunnerIntegrationTests
 				.apply(tmpTmpDirPath)));
 	}
 
+	@Test
+	public void testOptionScanWriteToDirectory() throws IOException
+	{
+		final Path tmpTmpDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionScanWriteToDirectory");
+		final boolean success = Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(SCAN.shortName()),
+			"java.util.function.*,java.util.Map*",
+			"-".concat(WRITE_TO.shortName()),
+			tmpTmpDirPath.toString(),
+			"java.lang.Object"
+		});
+		assertTrue(success);
+		final Map<String, String> data = Map.of(
+			"java.lang.Object",
+			String.format("%n\tSimple Name:%nObject%n"),
+			"java.util.function.Function",
+			String.format("%n\tSimple Name:%nFunction%n"),
+			"java.util.Map$Entry",
+			String.format("%n\tSimple Name:%nEntry%n"));
+		assertTrue(data.entrySet()
+			.stream()
+			.allMatch(collator()
+				.apply(tmpTmpDirPath)));
+
+		try (Stream<Path> paths = Files.list(tmpTmpDirPath)) {
+			assertTrue(paths
+				.map(Path::getFileName)
+				.map(Path::toString)
+				.filter(Predicate.not("java.lang.Object"::equals))
+				.allMatch(name -> name.startsWith(
+							"java.util.function.")
+					|| name.startsWith("java.util.Map")));
+		}
+	}
+
+	@Test
+	public void testOptionGzipWriteToFileWriteToDirectory() throws
+								IOException
+	{
+		final Function<Path, String> gunzipper = filePath -> {
+			try (InputStream is = new GZIPInputStream(
+					Files.newInputStream(filePath))) {
+				return new String(is.readAllBytes(),
+						StandardCharsets.UTF_8);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+		final Path singlePath = tmpDirPath.resolve(Path.of(
+				"testOptionGzipWriteToFileWriteToDirectory.gz"));
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(GZIP.shortName()),
+			"-".concat(CONCURRENT.shortName()),
+			"-".concat(READ_FROM.shortName()),
+			readFromPath.toString(),
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString()
+		}));
+		assertEquals(String.join("", DATA.values()),
+					gunzipper.apply(singlePath));
+
+		final Path tmpTmpDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionGzipWriteToFileWriteToDirectory");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(GZIP.shortName()),
+			"-".concat(READ_FROM.shortName()),
+			readFromPath.toString(),
+			"-".concat(WRITE_TO.shortName()),
+			tmpTmpDirPath.toString()
+		}));
+		DATA.forEach((className, data) -> assertEquals(data,
+				gunzipper.apply(tmpTmpDirPath.resolve(
+						className.concat(".gz")))));
+		assertThrows(IllegalArgumentException.class, runner()
+			.apply(DummyClassData.CLASS_DATA)
+			.apply(new String[] {
+				"-".concat(GZIP.shortName()),
+				"java.lang.Object"
+			}));
+	}
+
+	@Test
+	public void testOptionLayoutWriteToDirectory() throws IOException
+	{
+		final Path packageDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionLayoutWriteToDirectory");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(LAYOUT.shortName()),
+			"package",
+			"-".concat(WRITE_TO.shortName()),
+			packageDirPath.toString(),
+			"java.lang.Object",
+			"java.util.function.Function",
+			"java/lang/Object.class"
+		}));
+		assertEquals(String.format("%n\tSimple Name:%nObject%n")
+							.repeat(2),
+			Files.readString(packageDirPath.resolve(Path.of(
+				"java", "lang", "java.lang.Object"))));
+		assertEquals(String.format("%n\tSimple Name:%nFunction%n"),
+			Files.readString(packageDirPath.resolve(Path.of(
+				"java", "util", "function",
+				"java.util.function.Function"))));
+
+		final Path hashDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionLayoutWriteToDirectory");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(CONCURRENT.shortName()),
+			"-".concat(LAYOUT.shortName()),
+			"hash",
+			"-".concat(SCAN.shortName()),
+			"java.util.**",
+			"-".concat(WRITE_TO.shortName()),
+			hashDirPath.toString()
+		}));
+
+		try (Stream<Path> paths = Files.list(hashDirPath)) {
+			assertTrue(paths.allMatch(path -> Files.isDirectory(
+								path)
+				&& path.getFileName()
+					.toString()
+					.matches("[0-9a-f]{2}")));
+		}
+	}
+
+	@Test
+	public void testOptionManifestWriteToDirectory() throws IOException
+	{
+		final Path manifestDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionManifestWriteToDirectory");
+		final Path dataDirPath = Files.createDirectory(
+				manifestDirPath.resolve("data"));
+		final String[] args = new String[] {
+			"-".concat(MANIFEST.shortName()),
+			manifestDirPath.resolve("manifest").toString(),
+			"-".concat(WRITE_TO.shortName()),
+			dataDirPath.toString(),
+			"java.lang.Object",
+			"java/util/Map.class"
+		};
+		final Path objectPath = dataDirPath.resolve("java.lang.Object");
+		final Path mapPath = dataDirPath.resolve("java.util.Map");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA, args));
+		final FileTime objectTime = Files.getLastModifiedTime(
+								objectPath);
+
+		/* Rewrite the changed, skip the unchanged. */
+		Files.writeString(mapPath, "-");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA, args));
+		assertEquals(objectTime, Files.getLastModifiedTime(objectPath));
+		assertEquals(String.format("%n\tSimple Name:%nObject%n"),
+						Files.readString(objectPath));
+		assertEquals(String.format("%n\tSimple Name:%nMap%n"),
+						Files.readString(mapPath));
+		assertEquals(3, Files.readAllLines(manifestDirPath.resolve(
+							"manifest"))
+			.size());
+		assertThrows(IllegalArgumentException.class, runner()
+			.apply(DummyClassData.CLASS_DATA)
+			.apply(new String[] {
+				"-".concat(MANIFEST.shortName()),
+				manifestDirPath.resolve("manifest").toString(),
+				"java.lang.Object"
+			}));
+	}
+
+	@Test
+	public void testOptionServeConnect() throws IOException,
+						InterruptedException
+	{
+		assumeTrue(Runtime.version().feature() >= 16);
+		final Path socketPath = Files.createTempDirectory(tmpDirPath,
+						"testOptionServeConnect")
+			.resolve("socket");
+		final Thread server = new Thread(() -> Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(SERVE.shortName()),
+			socketPath.toString()
+		}));
+		server.start();
+
+		try {
+			for (int i = 0; i < 100 && !Files.exists(socketPath);
+									++i)
+				Thread.sleep(100L);
+
+			final ByteArrayOutputStream bytes =
+						new ByteArrayOutputStream();
+			final PrintStream out = new PrintStream(bytes, true,
+						StandardCharsets.UTF_8);
+
+			/* Serve the same warm server twice. */
+			for (int i = 0; i < 2; ++i) {
+				bytes.reset();
+				assertTrue(Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+					"-".concat(CONNECT.shortName()),
+					socketPath.toString(),
+					"-".concat(CONCURRENT.shortName()),
+					"java.lang.Object",
+					"java/util/Map.class"
+				}, out, System.err));
+				assertEquals(String.format(
+						"%n\tSimple Name:%nObject%n"
+						+ "%n\tSimple Name:%nMap%n"),
+					bytes.toString(StandardCharsets.UTF_8));
+			}
+
+			assertFalse(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+				"-".concat(CONNECT.shortName()),
+				socketPath.toString(),
+				"-".concat(ABORT_ON_ERROR.shortName()),
+				"org.example.Missing",
+				"java.lang.Object"
+			}, out, System.err));
+
+			/* Pass on class names as they are read. */
+			final PipedOutputStream pipe = new PipedOutputStream();
+			final AtomicBoolean streamed = new AtomicBoolean();
+			final Thread writer = new Thread(() -> {
+				try (pipe) {
+					pipe.write(String.format(
+						"java.lang.Object%n")
+						.getBytes(StandardCharsets
+								.UTF_8));
+					pipe.flush();
+
+					for (int i = 0; i < 100 && !bytes
+						.toString(StandardCharsets
+								.UTF_8)
+						.contains("Object"); ++i)
+						Thread.sleep(100L);
+
+					streamed.set(bytes.toString(
+						StandardCharsets.UTF_8)
+						.contains("Object"));
+					pipe.write(String.format(
+						"java/util/Map.class%n")
+						.getBytes(StandardCharsets
+								.UTF_8));
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			final InputStream oldStream = System.in;
+			bytes.reset();
+
+			try (InputStream newStream = new PipedInputStream(
+								pipe)) {
+				System.setIn(newStream);
+				writer.start();
+				assertTrue(Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+					"-".concat(CONNECT.shortName()),
+					socketPath.toString(),
+					"-".concat(READ_FROM.shortName()),
+					"-"
+				}, out, System.err));
+				writer.join();
+			} finally {
+				System.setIn(oldStream);
+			}
+
+			assertTrue(streamed.get());
+			assertEquals(String.format(
+					"%n\tSimple Name:%nObject%n"
+					+ "%n\tSimple Name:%nMap%n"),
+				bytes.toString(StandardCharsets.UTF_8));
+
+			/* Serve a resident class path twice. */
+			final Path classPath = socketPath.resolveSibling(
+								"classes");
+			Files.createDirectories(classPath.resolve(
+							"org/example"));
+			Files.write(classPath.resolve("org/example/Foo.class"),
+							fooClassFile());
+
+			for (int i = 0; i < 2; ++i) {
+				bytes.reset();
+				assertTrue(Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+					"-".concat(CONNECT.shortName()),
+					socketPath.toString(),
+					"-".concat(CLASS_PATH.shortName()),
+					classPath.toString(),
+					"-".concat(PREFILTER.shortName()),
+					"org.example.Foo"
+				}, out, System.err));
+				assertEquals(String.format(
+						"%n\tSimple Name:%nFoo%n"),
+					bytes.toString(StandardCharsets.UTF_8));
+			}
+
+			/* The console of a server is not at hand. */
+			assertThrows(IllegalArgumentException.class,
+					() -> Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+				"-".concat(CONNECT.shortName()),
+				socketPath.toString()
+			}, out, System.err));
+			assertThrows(IllegalArgumentException.class,
+					() -> Runner.inspect(
+						DummyClassData.CLASS_DATA,
+						new String[0],
+						InputStream.nullInputStream(),
+						out, System.err,
+						Residents.newInstance(1)));
+		} finally {
+			server.interrupt();
+			server.join();
+		}
+
+		assertFalse(Files.exists(socketPath));
+	}
+
+	@Test
+	public void testServedRequest() throws IOException
+	{
+		final Path socketPath = tmpDirPath.resolve("testServedRequest");
+
+		/* A served request neither connects, nor serves, nor trains. */
+		for (OptionParser.LauncherOption option : List.of(CONNECT,
+							SERVE, CDS_TRAIN))
+			assertThrows(IllegalArgumentException.class,
+					() -> Runner.inspect(
+						DummyClassData.CLASS_DATA,
+						new String[] {
+					"-".concat(option.shortName()),
+					socketPath.toString(),
+					"java.lang.Object"
+				},
+						InputStream.nullInputStream(),
+						System.out, System.err,
+						Residents.newInstance(1)));
+
+		assertFalse(Files.exists(socketPath));
+
+		/* A missing class is looked for again by another request. */
+		final Path classPath = tmpDirPath.resolve(
+						"testServedRequest-classes");
+		Files.createDirectories(classPath.resolve("org/example"));
+		final Residents residents = Residents.newInstance(1);
+		final Function<Residents, String> runner = servedResidents -> {
+			final ByteArrayOutputStream outBytes =
+						new ByteArrayOutputStream();
+			assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+					new String[] {
+						"-".concat(CLASS_PATH
+							.shortName()),
+						classPath.toString(),
+						"org.example.Foo"
+					},
+					InputStream.nullInputStream(),
+					new PrintStream(outBytes, true,
+						StandardCharsets.UTF_8),
+					System.err,
+					servedResidents));
+			return outBytes.toString(StandardCharsets.UTF_8);
+		};
+		assertTrue(runner.apply(residents)
+				.contains(new ClassNotFoundException(
+						"org.example.Foo")
+					.toString()));
+		Files.write(classPath.resolve("org/example/Foo.class"),
+							fooClassFile());
+		assertEquals(String.format("%n\tSimple Name:%nFoo%n"),
+						runner.apply(residents));
+	}
+
+	@Test
+	public void testOptionCdsTrain() throws IOException,
+						InterruptedException
+	{
+		final Path archivePath = tmpDirPath.resolve(Path.of(
+						"testOptionCdsTrain.jsa"));
+
+		/* The class data are loaded from a directory. */
+		assertThrows(IllegalArgumentException.class, runner()
+			.apply(DummyClassData.CLASS_DATA)
+			.apply(new String[] {
+				"-".concat(CDS_TRAIN.shortName()),
+				archivePath.toString()
+			}));
+
+		final Path jarPath;
+
+		try (Stream<Path> paths = Files.list(Path.of("target"))) {
+			jarPath = paths
+				.filter(path -> path.getFileName()
+					.toString()
+					.endsWith("-jar-with-dependencies"
+						+ "-no-module-info.jar"))
+				.findFirst()
+				.orElse(null);
+		}
+
+		assumeTrue(jarPath != null
+				&& Runtime.version().feature() >= 13);
+		final String java = Path.of(System.getProperty("java.home"),
+						"bin", "java")
+			.toString();
+		assertEquals(0, new ProcessBuilder(java, "-jar",
+					jarPath.toString(),
+					"-".concat(CDS_TRAIN.shortName()),
+					archivePath.toString(),
+					"java.lang.Object")
+			.redirectOutput(Redirect.DISCARD)
+			.redirectError(Redirect.DISCARD)
+			.start()
+			.waitFor());
+
+		/* An unusable archive fails with -Xshare:on. */
+		final Process process = new ProcessBuilder(java,
+					"-XX:SharedArchiveFile=".concat(
+						archivePath.toString()),
+					"-Xshare:on",
+					"-jar",
+					jarPath.toString(),
+					"java.lang.Object")
+			.redirectError(Redirect.DISCARD)
+			.start();
+
+		try (InputStream is = process.getInputStream()) {
+			assertTrue(new String(is.readAllBytes(),
+						StandardCharsets.UTF_8)
+				.contains("Simple Name:"));
+		}
+
+		assertEquals(0, process.waitFor());
+	}
+
+	@Test
+	public void testOptionStats()
+	{
+		final ByteArrayOutputStream outBytes =
+						new ByteArrayOutputStream();
+		final ByteArrayOutputStream errBytes =
+						new ByteArrayOutputStream();
+
+		for (String option : List.of("", CONCURRENT.shortName())) {
+			outBytes.reset();
+			errBytes.reset();
+			assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+				"-".concat(STATS.shortName()).concat(option),
+				"java.lang.Object",
+				"java/util/Map.class"
+			}, new PrintStream(outBytes, true,
+						StandardCharsets.UTF_8),
+				new PrintStream(errBytes, true,
+						StandardCharsets.UTF_8)));
+			assertEquals(String.format(
+					"%n\tSimple Name:%nObject%n"
+					+ "%n\tSimple Name:%nMap%n"),
+				outBytes.toString(StandardCharsets.UTF_8));
+			final String report = errBytes.toString(
+						StandardCharsets.UTF_8);
+			assertTrue(report.startsWith("Classes: 2,"), report);
+
+			for (String phase : List.of("java.lang.Object:",
+						"java.util.Map:",
+						Statistics.RESOLUTION,
+						"Simple Name:",
+						Statistics.RENDERING,
+						Statistics.WRITING))
+				assertTrue(report.contains(phase), report);
+
+			/* Only report worker threads of concurrency. */
+			assertEquals(!option.isEmpty(),
+					report.contains("Utilization: "),
+					report);
+		}
+
+		/* Nothing is reported without statistics. */
+		errBytes.reset();
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+						new String[] {
+			"-".concat(THREADS.shortName()),
+			"2",
+			"java.lang.Object"
+		}, new PrintStream(outBytes, true, StandardCharsets.UTF_8),
+			new PrintStream(errBytes, true,
+						StandardCharsets.UTF_8)));
+		assertEquals(0, errBytes.size());
+	}
+
+	@Test
+	public void testOptionOnlyExclude()
+	{
+		final ByteArrayOutputStream outBytes =
+						new ByteArrayOutputStream();
+		final ByteArrayOutputStream errBytes =
+						new ByteArrayOutputStream();
+
+		/* The failing TODO #3 is never applied. */
+		for (String[] args : List.<String[]>of(
+				new String[] {
+					"--".concat(EXCLUDE.longName()),
+					"2-4",
+					"java.lang.Object"
+				},
+				new String[] {
+					"-".concat(ONLY.shortName()),
+					" simple name , todo #3:",
+					"-".concat(EXCLUDE.shortName()),
+					"4",
+					"java.lang.Object"
+				})) {
+			outBytes.reset();
+			errBytes.reset();
+			assertTrue(Runner.inspect(ClassPeekerTests
+						.DummyClassData
+						.CLASS_DATA,
+							args,
+				new PrintStream(outBytes, true,
+						StandardCharsets.UTF_8),
+				new PrintStream(errBytes, true,
+						StandardCharsets.UTF_8)));
+			assertEquals(String.format("%n\tSimple Name:%nObject%n"),
+				outBytes.toString(StandardCharsets.UTF_8));
+			assertEquals("", errBytes.toString(
+						StandardCharsets.UTF_8));
+		}
+
+		for (String sections : List.of("Methods:", "5", "1-4"))
+			assertThrows(IllegalArgumentException.class, () ->
+				Runner.inspect(ClassPeekerTests
+						.DummyClassData
+						.CLASS_DATA,
+							new String[] {
+					"-".concat(ONLY.shortName()),
+					"simple name",
+					"-".concat(EXCLUDE.shortName()),
+					sections,
+					"java.lang.Object"
+				}));
+	}
+
+	@Test
+	public void testOptionNoInit()
+	{
+		final ByteArrayOutputStream outBytes =
+						new ByteArrayOutputStream();
+		assertTrue(Runner.inspect(UninitializedClassData.CLASS_DATA,
+							new String[] {
+				"--".concat(NO_INIT.longName()),
+				Hostile.class.getName(),
+				FunctionalInterface.class.getName()
+			}, new PrintStream(outBytes, true,
+						StandardCharsets.UTF_8),
+			System.err));
+		assertEquals(String.format("%n\tEnum Constants:%nFOO%nBAR%n"
+					+ "%n\tDeclared Annotations:%n%n"
+					+ "%n\tEnum Constants:%n%n"
+					+ "%n\tDeclared Annotations:"
+					+ "%n@java.lang.annotation.Documented()"
+					+ "%n@java.lang.annotation.Retention(RUNTIME)"
+					+ "%n@java.lang.annotation.Target({TYPE})%n"),
+			outBytes.toString(StandardCharsets.UTF_8));
+		assertFalse(HOSTILE_INITIALIZED.get());
+	}
+
+	@Test
+	public void testOptionFormatWriteToFile() throws IOException
+	{
+		final Path singlePath = tmpDirPath.resolve(Path.of(
+					"testOptionFormatWriteToFile"));
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(FORMAT.shortName()),
+			"jsonl",
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString(),
+			"java.lang.Object",
+			"java/util/Map$Entry.class"
+		}));
+		assertEquals(List.of(
+				"{\"class\":\"java.lang.Object\""
+					+ ",\"simpleName\":[\"Object\"]}",
+				"{\"class\":\"java.util.Map$Entry\""
+					+ ",\"simpleName\":[\"Entry\"]}"),
+			Files.readAllLines(singlePath,
+					StandardCharsets.UTF_8));
+		assertThrows(IllegalArgumentException.class, runner()
+			.apply(DummyClassData.CLASS_DATA)
+			.apply(new String[] {
+				"-".concat(FORMAT.shortName()),
+				"jsonl",
+				"-".concat(WRITE_TO.shortName()),
+				tmpDirPath.toString(),
+				"java.lang.Object"
+			}));
+	}
+
+	@Test
+	public void testOptionScanArchive() throws IOException
+	{
+		final Path tmpTmpDirPath = Files.createTempDirectory(
+			tmpDirPath, "testOptionScanArchive");
+		final Path archivePath = tmpDirPath.resolve(
+					Path.of("testOptionScanArchive.zip"));
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(SCAN.shortName()),
+			"java.util.function.*",
+			"-".concat(WRITE_TO.shortName()),
+			tmpTmpDirPath.toString()
+		}));
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(CONCURRENT.shortName()),
+			"-".concat(SCAN.shortName()),
+			"java.util.function.*",
+			"-".concat(ARCHIVE.shortName()),
+			archivePath.toString()
+		}));
+		final MappedJarFile archive = MappedJarFile.open(archivePath);
+
+		try (Stream<Path> paths = Files.list(tmpTmpDirPath)) {
+			final List<Path> filePaths = paths
+				.collect(Collectors.toList());
+			assertEquals(filePaths.size(), archive.entryNames()
+				.count());
+
+			for (Path filePath : filePaths)
+				assertEquals(Files.readString(filePath),
+					StandardCharsets.UTF_8.decode(
+						archive.read(filePath
+							.getFileName()
+							.toString())
+						.orElseThrow())
+					.toString());
+		}
+	}
+
+	@Test
+	public void testOptionArchiveRepeatedClassNames()
+	{
+		final Path archivePath = tmpDirPath.resolve(
+			Path.of("testOptionArchiveRepeatedClassNames.zip"));
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(ARCHIVE.shortName()),
+			archivePath.toString(),
+			"java.util.List",
+			"java/util/List.class",
+			"java.util.List"
+		}));
+		assertEquals(List.of("java.util.List"),
+					MappedJarFile.open(archivePath)
+			.entryNames()
+			.collect(Collectors.toList()));
+	}
+
+	/* A class file of "public class org.example.Foo" (JVMS-11, $4.1). */
+	private static byte[] fooClassFile()
+	{
+		return classFile("org/example/Foo");
+	}
+
+	/* A class file of a public class without members. */
+	private static byte[] classFile(String className)
+	{
+		final ByteBuffer buffer = ByteBuffer.allocate(128)
+			.putInt(0xCAFEBABE)
+			.putShort((short) 0)		/* minor_version */
+			.putShort((short) 55)		/* major_version */
+			.putShort((short) 5);		/* constant_pool_count */
+
+		for (String name : List.of(className, "java/lang/Object")) {
+			final byte[] bytes = name.getBytes(
+						StandardCharsets.UTF_8);
+			final int index = buffer.position();
+			buffer.put((byte) 1)		/* CONSTANT_Utf8 */
+				.putShort((short) bytes.length)
+				.put(bytes)
+				.put((byte) 7)		/* CONSTANT_Class */
+				.putShort((short) ((index == 10) ? 1 : 3));
+		}
+
+		buffer.putShort((short) 0x0021)		/* ACC_PUBLIC|ACC_SUPER */
+			.putShort((short) 2)		/* this_class */
+			.putShort((short) 4)		/* super_class */
+			.putLong(0L);			/* No members, etc. */
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	@Test
+	public void testOptionClassPathRecycleLoaderWriteToFile() throws
+								IOException
+	{
+		final Path classPath = Files.createTempDirectory(tmpDirPath,
+			"testOptionClassPathRecycleLoaderWriteToFile");
+		Files.createDirectories(classPath.resolve("org/example"));
+		Files.write(classPath.resolve("org/example/Foo.class"),
+							fooClassFile());
+		final Path singlePath = classPath.resolve("single");
+		final boolean success = Runner.inspect(
+						DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(CLASS_PATH.shortName()),
+			classPath.toString(),
+			"-".concat(RECYCLE.shortName()),
+			"1",
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString(),
+			"org.example.Foo",
+			"java.lang.Object",
+			"org.example.Foo"
+		});
+		assertTrue(success);
+		final byte[] expected = String.format(
+				"%n\tSimple Name:%nFoo%n"
+				+ "%n\tSimple Name:%nObject%n"
+				+ "%n\tSimple Name:%nFoo%n")
+			.getBytes(StandardCharsets.UTF_8);
+		assertArrayEquals(expected, new FileReader()
+			.watchAndReadBytes(singlePath, 128));
+	}
+
+	@Test
+	public void testOptionDiffWriteToFile() throws IOException
+	{
+		final Path oldClassPath = Files.createTempDirectory(tmpDirPath,
+					"testOptionDiffWriteToFile");
+		final Path newClassPath = Files.createTempDirectory(tmpDirPath,
+					"testOptionDiffWriteToFile");
+
+		for (Path classPath : List.of(oldClassPath, newClassPath)) {
+			Files.createDirectories(classPath.resolve(
+							"org/example"));
+			Files.write(classPath.resolve("org/example/Foo.class"),
+							fooClassFile());
+		}
+
+		Files.write(newClassPath.resolve("org/example/Bar.class"),
+					classFile("org/example/Bar"));
+
+		final Path singlePath = oldClassPath.resolve("single");
+		assertTrue(Runner.inspect(DummyClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(CLASS_PATH.shortName()),
+			oldClassPath.toString(),
+			"-".concat(DIFF.shortName()),
+			newClassPath.toString(),
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString(),
+			"-".concat(SCAN.shortName()),
+			"org.example.*",
+			"java.lang.Object"
+		}));
+
+		/* Only the added class. */
+		assertEquals(String.format(
+				"%n\tChanged Class:%norg.example.Bar%n"
+				+ "%n\tErrors:%n-%s%n"
+				+ "%n\tSimple Name:%n+Bar%n",
+				new ClassNotFoundException("org.example.Bar")),
+			Files.readString(singlePath));
+	}
+
+	@ParameterizedTest
+	@EnumSource(names = { "BYTECODE", "CONCURRENT", "NO_INIT" })
+	public void testOptionDiffUnchangedClassOfJars(LauncherOption option)
+							throws IOException
+	{
+		final List<Path> jarPaths = List.of(
+			tmpDirPath.resolve(option + "-1.jar"),
+			tmpDirPath.resolve(option + "-2.jar"));
+
+		for (Path jarPath : jarPaths) {
+			try (ZipOutputStream os = new ZipOutputStream(
+					Files.newOutputStream(jarPath))) {
+				os.putNextEntry(new ZipEntry(
+						"org/example/Foo.class"));
+				os.write(fooClassFile());
+				os.closeEntry();
+			}
+		}
+
+		final Path singlePath = tmpDirPath.resolve(
+					option + "-testOptionDiffUnchangedClassOfJars");
+		assertTrue(Runner.inspect(PlacedClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(option.shortName()),
+			"-".concat(CLASS_PATH.shortName()),
+			jarPaths.get(0).toString(),
+			"-".concat(DIFF.shortName()),
+			jarPaths.get(1).toString(),
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString(),
+			"org.example.Foo"
+		}));
+
+		/* Neither the class loaders nor the jars tell classes apart. */
+		assertEquals("", Files.readString(singlePath));
+	}
+
+	@Test
+	public void testOptionDiffOnlyClassLoaderOfJars() throws IOException
+	{
+		final List<Path> jarPaths = List.of(
+			tmpDirPath.resolve("testOptionDiffOnlyClassLoader-1.jar"),
+			tmpDirPath.resolve("testOptionDiffOnlyClassLoader-2.jar"));
+
+		for (Path jarPath : jarPaths) {
+			try (ZipOutputStream os = new ZipOutputStream(
+					Files.newOutputStream(jarPath))) {
+				os.putNextEntry(new ZipEntry(
+						"org/example/Foo.class"));
+				os.write(fooClassFile());
+				os.closeEntry();
+			}
+		}
+
+		final Path singlePath = tmpDirPath.resolve(
+					"testOptionDiffOnlyClassLoaderOfJars");
+		assertTrue(Runner.inspect(PlacedClassData.CLASS_DATA,
+							new String[] {
+			"-".concat(BYTECODE.shortName()),
+			"-".concat(CLASS_PATH.shortName()),
+			jarPaths.get(0).toString(),
+			"-".concat(DIFF.shortName()),
+			jarPaths.get(1).toString(),
+			"-".concat(ONLY.shortName()),
+			"class loader",
+			"-".concat(SINGLE.shortName()),
+			singlePath.toString(),
+			"org.example.Foo"
+		}));
+
+		/* The selected jars tell classes apart. */
+		final String diff = Files.readString(singlePath);
+		assertTrue(diff.startsWith(String.format(
+				"%n\tChanged Class:%norg.example.Foo%n"
+				+ "%n\tClass Loader:%n-")), diff);
+		assertTrue(diff.contains(jarPaths.get(1)
+					.getFileName()
+					.toString()), diff);
+	}
+
 	private static Function<Path, Predicate<Entry<String, String>>>
 								collator()
 	{
@@ -282,7 +1271,9 @@ public class RunnerIntegrationTests
 
 	@SuppressWarnings("NonPublicExported")
 	@ParameterizedTest
-	@EnumSource(names = { "READ_FROM", "SINGLE", "WRITE_TO" })
+	@EnumSource(names = { "ARCHIVE", "CDS_TRAIN", "CLASS_PATH", "CONNECT",
+		"DIFF", "EXCLUDE", "FORMAT", "LAYOUT", "MANIFEST", "ONLY",
+		"READ_FROM", "RECYCLE", "SCAN", "SERVE", "SINGLE", "THREADS", "WRITE_TO" })
 	public void testOptionWithMissingRequiredArgument(LauncherOption option)
 	{
 		final Optional<Throwable> missingError = failingRunner(
@@ -352,4 +1343,62 @@ public class RunnerIntegrationTests
 			super(description, methodist);
 		}
 	}
+
+	static class UninitializedClassData extends ClassData
+	{
+		static final List<UninitializedClassData> CLASS_DATA = List.of(
+			new UninitializedClassData("Enum Constants:",
+				snapshot -> snapshot.enumConstants(),
+				classFile -> classFile.enumConstants()),
+			new UninitializedClassData("Declared Annotations:",
+				snapshot -> snapshot.declaredAnnotations(),
+				classFile -> classFile
+						.declaredAnnotations()));
+
+		private UninitializedClassData(String description,
+				ClassSnapshot.Methodist snapshotMethodist,
+				Function<ClassFile, Object[]> fileMethodist)
+		{
+			super(description, Methodists.ofSnapshot(
+						snapshotMethodist,
+						fileMethodist));
+		}
+	}
+
+	static class PlacedClassData extends ClassData
+	{
+		static final List<PlacedClassData> CLASS_DATA = List.of(
+			new PlacedClassData("Simple Name:",
+				snapshot -> new Object[] {
+					snapshot.klass().getSimpleName()
+				},
+				classFile -> new Object[] {
+					classFile.simpleName()
+				}),
+			new PlacedClassData("Class Loader:",
+				snapshot -> new Object[] {
+					snapshot.klass().getClassLoader()
+				},
+				classFile -> new Object[] {
+					classFile.source()
+				}));
+
+		private PlacedClassData(String description,
+				ClassSnapshot.Methodist snapshotMethodist,
+				Function<ClassFile, Object[]> fileMethodist)
+		{
+			super(description, Methodists.ofSnapshot(
+						snapshotMethodist,
+						fileMethodist));
+		}
+	}
+
+	enum Hostile
+	{
+		FOO, BAR;
+
+		static {
+			HOSTILE_INITIALIZED.set(true);
+		}
+	}
 }
@@ -0,0 +1,128 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Failure;
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+public class SinkPoolTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static Result result(String className)
+	{
+		return new Failure(className, new UnsupportedOperationException(
+								className));
+	}
+
+	private static String rendition(String className, int count)
+	{
+		return String.format("%s%n", result(className))
+			.repeat(count);
+	}
+
+	@Test
+	public void testEviction() throws IOException
+	{
+		final List<String> classNames = List.of("a.A", "b.B", "c.C");
+
+		try (SinkPool sinkPool = new SinkPool(tmpDirPath,
+					SinkPool.Layout.FLAT, 2)) {
+			for (String className : classNames)
+				sinkPool.write(result(className));
+
+			assertEquals(2, sinkPool.size());
+
+			/* Reopen the evicted sink for appending. */
+			sinkPool.write(result("a.A"));
+			assertEquals(2, sinkPool.size());
+			sinkPool.close("a.A");
+			assertEquals(1, sinkPool.size());
+			sinkPool.close("a.A");
+			assertEquals(1, sinkPool.size());
+		}
+
+		assertEquals(rendition("a.A", 2), Files.readString(
+						tmpDirPath.resolve("a.A")));
+		assertEquals(rendition("b.B", 1), Files.readString(
+						tmpDirPath.resolve("b.B")));
+		assertEquals(rendition("c.C", 1), Files.readString(
+						tmpDirPath.resolve("c.C")));
+	}
+
+	@Test
+	public void testExistingFile() throws IOException
+	{
+		Files.createFile(tmpDirPath.resolve("a.A"));
+
+		try (SinkPool sinkPool = new SinkPool(tmpDirPath,
+					SinkPool.Layout.FLAT, 1)) {
+			assertTrue(assertThrows(UncheckedIOException.class,
+					() -> sinkPool.write(result("a.A")))
+				.getCause() instanceof
+					FileAlreadyExistsException);
+		}
+	}
+
+	@Test
+	public void testDirectories() throws IOException
+	{
+		final Path dirPath = tmpDirPath.resolve("dir");
+
+		try (SinkPool sinkPool = new SinkPool(dirPath,
+					SinkPool.Layout.PACKAGE, 1)) {
+			assertTrue(Files.isDirectory(dirPath));
+
+			for (String className : List.of("a.b.A", "a.b.B",
+								"a.C", "D"))
+				sinkPool.write(result(className));
+		}
+
+		assertEquals(rendition("a.b.B", 1), Files.readString(
+				dirPath.resolve(Path.of("a", "b", "a.b.B"))));
+		assertEquals(rendition("a.C", 1), Files.readString(
+				dirPath.resolve(Path.of("a", "a.C"))));
+		assertEquals(rendition("D", 1), Files.readString(
+						dirPath.resolve("D")));
+	}
+
+	@Test
+	public void testLayouts()
+	{
+		final Path dirPath = Path.of("dir");
+		assertEquals(Path.of("dir", "java.util.Map$Entry"),
+			SinkPool.Layout.FLAT.resolve(dirPath,
+						"java.util.Map$Entry"));
+		assertEquals(Path.of("dir", "java", "util",
+						"java.util.Map$Entry"),
+			SinkPool.Layout.PACKAGE.resolve(dirPath,
+						"java.util.Map$Entry"));
+		assertEquals(Path.of("dir", "int"),
+			SinkPool.Layout.PACKAGE.resolve(dirPath, "int"));
+
+		final Path hashPath = SinkPool.Layout.HASH.resolve(dirPath,
+						"java.util.Map$Entry");
+		assertEquals(dirPath, hashPath.getParent().getParent());
+		assertTrue(hashPath.getParent()
+			.getFileName()
+			.toString()
+			.matches("[0-9a-f]{2}"));
+		assertEquals(SinkPool.Layout.HASH,
+				SinkPool.Layout.fromString("hash"));
+		assertThrows(IllegalArgumentException.class,
+				() -> SinkPool.Layout.fromString("tree"));
+	}
+}
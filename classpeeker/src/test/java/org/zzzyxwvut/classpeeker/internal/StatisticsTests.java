@@ -0,0 +1,147 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.zzzyxwvut.classpeeker.internal.ClassPeeker.Result;
+
+public class StatisticsTests
+{
+	@TempDir
+	public Path tmpDirPath;
+
+	private static void spin(long millis)
+	{
+		final long deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(millis);
+
+		while (System.nanoTime() < deadline)
+			Thread.onSpinWait();
+	}
+
+	@Test
+	public void testNone()
+	{
+		final Statistics statistics = Statistics.none();
+		assertFalse(statistics.isEnabled());
+		statistics.start(Statistics.RESOLUTION).stop("a.A");
+		assertEquals(0, statistics.report(10).classCount());
+	}
+
+	@Test
+	public void testReport() throws InterruptedException
+	{
+		final Statistics statistics = Statistics.newInstance();
+		assertTrue(statistics.isEnabled());
+		final Thread worker = new Thread(() -> {
+			final Statistics.Stopwatch stopwatch = statistics
+				.start(String.format("####%n%n"
+					+ "\tClass/Interface Modifiers:"));
+			spin(20L);
+			stopwatch.stop("b.B");
+		});
+		worker.start();
+		worker.join();
+
+		for (String className : List.of("a.A", "c.C")) {
+			final Statistics.Stopwatch stopwatch = statistics
+					.start(Statistics.RESOLUTION);
+			spin(("a.A".equals(className)) ? 10L : 1L);
+			stopwatch.stop(className);
+		}
+
+		/* The none result. */
+		statistics.start(Statistics.WRITING).stop("");
+
+		/* Per-thread accumulators are merged. */
+		final Statistics.Report report = statistics.report(2);
+		assertEquals(3, report.classCount());
+		assertEquals(List.of("b.B", "a.A"), List.copyOf(report
+						.slowestClasses()
+						.keySet()));
+		final Map<String, Statistics.Totals> phases = report.phases();
+		assertEquals(List.of("Class/Interface Modifiers:",
+						Statistics.RESOLUTION),
+				List.copyOf(phases.keySet()));
+		assertEquals(2L, phases.get(Statistics.RESOLUTION).count());
+		assertTrue(phases.get(Statistics.RESOLUTION).wallNanos()
+				>= TimeUnit.MILLISECONDS.toNanos(11L));
+		assertEquals(report.slowestClasses().get("b.B").wallNanos(),
+						report.percentile(100.0));
+		assertEquals(report.slowestClasses().get("a.A").wallNanos(),
+						report.percentile(50.0));
+		assertTrue(report.percentile(0.0) <= report.percentile(50.0));
+		assertTrue(report.toString().contains("Slowest classes:"));
+	}
+
+	@Test
+	public void testRecording() throws IOException
+	{
+		final Path recordingPath = tmpDirPath.resolve("recording.jfr");
+		final List<String> names = List.of(
+				"org.zzzyxwvut.classpeeker.Resolution",
+				"org.zzzyxwvut.classpeeker.Inspection",
+				"org.zzzyxwvut.classpeeker.Rendering",
+				"org.zzzyxwvut.classpeeker.Writing");
+
+		try (Recording recording = new Recording();
+				ResultSink sink = ResultSink.of(new PrintStream(
+					OutputStream.nullOutputStream()))) {
+			for (String name : names)
+				recording.enable(name)
+					.withThreshold(Duration.ZERO);
+
+			recording.start();
+			final List<Result> results = new ClassPeeker(
+					ClassPeekerTests.DummyClassData
+							.CLASS_DATA)
+				.peek("java/lang/Object.class")
+				.collect(Collectors.toList());
+
+			for (Result result : results)
+				sink.write(result, Statistics.none());
+
+			recording.stop();
+			recording.dump(recordingPath);
+		}
+
+		final List<RecordedEvent> events = RecordingFile.readAllEvents(
+							recordingPath)
+			.stream()
+			.filter(event -> names.contains(event
+						.getEventType()
+						.getName()))
+			.collect(Collectors.toList());
+		assertTrue(events.stream()
+			.allMatch(event -> "java.lang.Object".equals(
+					event.getString("className"))));
+		assertEquals(Set.copyOf(names), events.stream()
+			.map(event -> event.getEventType().getName())
+			.collect(Collectors.toSet()));
+		assertEquals(Set.of("Resolution:", "Simple Name:", "TODO #1:",
+					"TODO #2:", "TODO #3:",
+					"Rendering:", "Writing:"),
+			events.stream()
+				.map(event -> event.getString("description"))
+				.collect(Collectors.toSet()));
+	}
+}
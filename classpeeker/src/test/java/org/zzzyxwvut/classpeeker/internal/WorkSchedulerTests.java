@@ -0,0 +1,178 @@
+package org.zzzyxwvut.classpeeker.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkSchedulerTests
+{
+	private static List<String> names(int count)
+	{
+		return IntStream.range(0, count)
+			.mapToObj(Integer::toString)
+			.collect(Collectors.toUnmodifiableList());
+	}
+
+	@Test
+	public void testEncounterOrder()
+	{
+		final List<String> names = names(1000);
+		final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+		/* Sizes that are unrelated to the encounter order. */
+		try (WorkScheduler scheduler = new WorkScheduler(4, 8, 16,
+				name -> Integer.parseInt(name) * 7919L % 1000L)) {
+			assertEquals(names, scheduler.map(names.stream(),
+						name -> {
+					threadNames.add(Thread.currentThread()
+								.getName());
+					return name;
+				})
+				.collect(Collectors.toList()));
+		}
+
+		try (WorkScheduler scheduler = new WorkScheduler(3, 5, 1,
+								null)) {
+			assertEquals(names, scheduler.map(names.stream(),
+							String::valueOf)
+				.collect(Collectors.toList()));
+			final WorkScheduler.Report report = scheduler.report();
+			assertEquals(names.size(), Arrays.stream(
+						report.classCounts())
+				.sum());
+			assertTrue(report.queueDepthMax() <= 3);
+		}
+
+		assertTrue(threadNames.stream()
+			.allMatch(name -> name.startsWith("classpeeker-")));
+	}
+
+	@Test
+	public void testLargestFirst()
+	{
+		final List<String> names = names(8);
+		final List<String> dispatched = new ArrayList<>();
+
+		/* A single worker runs its batches in their queued order. */
+		try (WorkScheduler scheduler = new WorkScheduler(1, 8, 1,
+						Long::parseLong)) {
+			assertEquals(names, scheduler.map(names.stream(),
+						name -> {
+					dispatched.add(name);
+					return name;
+				})
+				.collect(Collectors.toList()));
+		}
+
+		assertEquals(List.of("7", "6", "5", "4", "3", "2", "1", "0"),
+								dispatched);
+	}
+
+	private static ClassSource source(List<String> classNames,
+							AtomicInteger walks)
+	{
+		return new ClassSource() {
+			@Override
+			public Optional<Entry> find(String className)
+			{
+				return Optional.empty();
+			}
+
+			@Override
+			public Stream<String> classNames(ClassSelector selector)
+			{
+				walks.incrementAndGet();
+				return classNames.stream()
+					.filter(selector::matches);
+			}
+		};
+	}
+
+	@Test
+	public void testLazyScan()
+	{
+		final AtomicInteger walks = new AtomicInteger();
+		final List<Integer> dispatchedWalks = new ArrayList<>();
+
+		try (ClassSource classSource = ClassSource.of(List.of(
+					source(List.of("a.A", "a.B"), walks),
+					source(List.of("a.C"), walks)));
+				WorkScheduler scheduler = new WorkScheduler(
+							1, 1, 1, null)) {
+			assertEquals(List.of("a.A", "a.B", "a.C"), scheduler
+				.map(classSource.classNames(
+							ClassSelector.of("a")),
+						name -> {
+					dispatchedWalks.add(walks.get());
+					return name;
+				})
+				.collect(Collectors.toList()));
+		}
+
+		/* The first name is dispatched before the walk is over. */
+		assertEquals(1, dispatchedWalks.get(0));
+		assertEquals(2, walks.get());
+	}
+
+	@Test
+	public void testBoundedQueue()
+	{
+		final AtomicInteger taken = new AtomicInteger();
+
+		try (WorkScheduler scheduler = new WorkScheduler(2, 4, 8,
+								null)) {
+			final List<Integer> results = scheduler.map(Stream
+						.generate(() -> "x")
+						.peek(name -> taken
+							.incrementAndGet()),
+					String::length)
+				.limit(10)
+				.collect(Collectors.toList());
+			assertEquals(10, results.size());
+			/*
+			 * Four queued rounds of eight names, one more round,
+			 * and a name read ahead by the stream iterator.
+			 */
+			assertTrue(taken.get() <= 41, () -> Integer.toString(
+							taken.get()));
+		}
+	}
+
+	@Test
+	public void testFailure()
+	{
+		final IllegalStateException failure =
+				new IllegalStateException("Oops!");
+
+		try (WorkScheduler scheduler = new WorkScheduler(2, 2, 4,
+								null)) {
+			assertSame(failure, assertThrows(
+					IllegalStateException.class,
+					() -> scheduler.map(names(10).stream(),
+							name -> {
+						if ("7".equals(name))
+							throw failure;
+
+						return name;
+					})
+				.forEach(name -> { })));
+		}
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new WorkScheduler(0, 1, 1, null));
+	}
+}